@@ -16,6 +16,11 @@
 
 package com.bernardomg.tabletop.dice;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
 import lombok.Data;
 import lombok.NonNull;
 
@@ -24,12 +29,47 @@
  * <p>
  * Some basic constraints are applied to the dice values. The quantity should be equal or higher than zero, and the
  * number of sides equal or higher than one. If any other value is received then an exception will be thrown.
+ * <p>
+ * The usual dice can be acquired with {@link #valueOf(Integer, Integer, Integer)}, which returns shared instances
+ * from a preallocated table, so they are not allocated again for each expression. These cover up to ten dice, positive
+ * or negative, with up to twenty sides, or a hundred, and no keep or drop. Other dice are interned if the
+ * {@value WeakInterner#INTERN_PROPERTY} system property is {@code true}, and created anew otherwise.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
 @Data
 public final class DefaultDice implements Dice {
 
+    /**
+     * Interner for the dice outside the table. Used only if interning is enabled.
+     */
+    private static final WeakInterner<DefaultDice> INTERNER     = new WeakInterner<>();
+
+    /**
+     * Flag telling if the dice outside the table are interned.
+     */
+    private static final Boolean                   INTERNING    = Boolean.getBoolean(WeakInterner.INTERN_PROPERTY);
+
+    /**
+     * Highest number of dice, positive or negative, in the table.
+     */
+    private static final Integer                   MAX_QUANTITY = 10;
+
+    /**
+     * Highest number of sides, besides the percentile die, in the table.
+     */
+    private static final Integer                   MAX_SIDES    = 20;
+
+    /**
+     * Number of sides for the percentile die, which is also in the table.
+     */
+    private static final Integer                   PERCENTILE   = 100;
+
+    /**
+     * Preallocated dice. Indexed first by quantity, shifted to start on zero, and then by sides.
+     */
+    private static final DefaultDice[][]           TABLE        = buildTable();
+
     /**
      * Number of dice.
      * <p>
@@ -51,4 +91,143 @@ public final class DefaultDice implements Dice {
      */
     @NonNull
     private final Integer keep;
+
+    /**
+     * Returns the preallocated dice with the received values, if there is one. This never creates a dice.
+     *
+     * @param quantity
+     *            number of dice
+     * @param sides
+     *            number of sides in each die
+     * @param keep
+     *            number of dice to keep
+     * @return the preallocated dice, or {@code null} if these values are not preallocated
+     */
+    public static final DefaultDice findPreallocated(@NonNull final Integer quantity, @NonNull final Integer sides,
+            @NonNull final Integer keep) {
+        final Integer     sidesIndex;
+        final DefaultDice dice;
+
+        sidesIndex = getSidesIndex(sides);
+        if ((keep == 0) && (sidesIndex >= 0) && (Math.abs(quantity) <= MAX_QUANTITY)) {
+            dice = TABLE[quantity + MAX_QUANTITY][sidesIndex];
+        } else {
+            dice = null;
+        }
+
+        return dice;
+    }
+
+    /**
+     * Returns all the preallocated dice.
+     *
+     * @return the preallocated dice
+     */
+    public static final Collection<DefaultDice> getPreallocated() {
+        return Collections.unmodifiableList(Arrays.stream(TABLE)
+            .flatMap(Arrays::stream)
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns a dice with the received values. The usual dice are taken from a preallocated table, so the same
+     * instance is returned for them each time.
+     *
+     * @param quantity
+     *            number of dice
+     * @param sides
+     *            number of sides in each die
+     * @param keep
+     *            number of dice to keep
+     * @return a dice with the received values
+     */
+    public static final DefaultDice valueOf(@NonNull final Integer quantity, @NonNull final Integer sides,
+            @NonNull final Integer keep) {
+        final DefaultDice preallocated;
+        final DefaultDice dice;
+
+        preallocated = findPreallocated(quantity, sides, keep);
+        if (preallocated != null) {
+            dice = preallocated;
+        } else if (INTERNING) {
+            dice = INTERNER.intern(new DefaultDice(quantity, sides, keep));
+        } else {
+            dice = new DefaultDice(quantity, sides, keep);
+        }
+
+        return dice;
+    }
+
+    /**
+     * Returns a dice with the received values, which is never interned. The usual dice are taken from the preallocated
+     * table, as with {@link #valueOf(Integer, Integer, Integer)}, but any other is created anew, even if interning is
+     * enabled.
+     * <p>
+     * This is meant for short-lived dice created while rolling, such as those for constant values in the roll
+     * histories, which would otherwise fill the interner and contend for its lock.
+     *
+     * @param quantity
+     *            number of dice
+     * @param sides
+     *            number of sides in each die
+     * @param keep
+     *            number of dice to keep
+     * @return a dice with the received values
+     */
+    public static final DefaultDice valueOfUninterned(@NonNull final Integer quantity, @NonNull final Integer sides,
+            @NonNull final Integer keep) {
+        final DefaultDice preallocated;
+        final DefaultDice dice;
+
+        preallocated = findPreallocated(quantity, sides, keep);
+        if (preallocated != null) {
+            dice = preallocated;
+        } else {
+            dice = new DefaultDice(quantity, sides, keep);
+        }
+
+        return dice;
+    }
+
+    /**
+     * Builds the table of preallocated dice.
+     *
+     * @return the preallocated dice
+     */
+    private static final DefaultDice[][] buildTable() {
+        final DefaultDice[][] table;
+
+        table = new DefaultDice[(MAX_QUANTITY * 2) + 1][MAX_SIDES + 1];
+        for (Integer quantity = -MAX_QUANTITY; quantity <= MAX_QUANTITY; quantity++) {
+            for (Integer sides = 1; sides <= MAX_SIDES; sides++) {
+                table[quantity + MAX_QUANTITY][sides - 1] = new DefaultDice(quantity, sides, 0);
+            }
+            // The percentile die goes last
+            table[quantity + MAX_QUANTITY][MAX_SIDES] = new DefaultDice(quantity, PERCENTILE, 0);
+        }
+
+        return table;
+    }
+
+    /**
+     * Returns the position of the received sides in the table, or -1 if they are not in the table.
+     *
+     * @param sides
+     *            number of sides
+     * @return the position of the sides in the table
+     */
+    private static final Integer getSidesIndex(final Integer sides) {
+        final Integer index;
+
+        if ((sides >= 1) && (sides <= MAX_SIDES)) {
+            index = sides - 1;
+        } else if (PERCENTILE.equals(sides)) {
+            index = MAX_SIDES;
+        } else {
+            index = -1;
+        }
+
+        return index;
+    }
+
 }
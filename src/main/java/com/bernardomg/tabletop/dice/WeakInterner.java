@@ -0,0 +1,97 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Canonicalizes equal immutable values into a single instance, without keeping them alive.
+ * <p>
+ * Values are only weakly referenced, so any interned value which is no longer used elsewhere can be garbage collected.
+ * Access is synchronized, so the same interner can be shared by several threads.
+ * <p>
+ * The value factories use an interner for the values outside their preallocated tables, if the
+ * {@value #INTERN_PROPERTY} system property is {@code true}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ * @param <T>
+ *            type of the interned values
+ */
+public final class WeakInterner<T> {
+
+    /**
+     * System property which, if {@code true}, makes the value factories intern the values outside their tables.
+     */
+    public static final String             INTERN_PROPERTY = "com.bernardomg.tabletop.dice.intern";
+
+    /**
+     * Interned values. Each value is mapped to a weak reference to itself.
+     */
+    private final Map<T, WeakReference<T>> values          = new WeakHashMap<>();
+
+    /**
+     * Default constructor.
+     */
+    public WeakInterner() {
+        super();
+    }
+
+    /**
+     * Returns the canonical instance for the received value. If there is no instance equal to it, the received value
+     * becomes the canonical one.
+     *
+     * @param value
+     *            value to intern
+     * @return the canonical instance equal to the value
+     */
+    public final synchronized T intern(final T value) {
+        final WeakReference<T> reference;
+        T                      interned;
+
+        Objects.requireNonNull(value, "Received a null pointer as value");
+
+        reference = values.get(value);
+        if (reference == null) {
+            interned = null;
+        } else {
+            interned = reference.get();
+        }
+
+        if (interned == null) {
+            // New value, or the previous one was collected
+            values.put(value, new WeakReference<>(value));
+            interned = value;
+        }
+
+        return interned;
+    }
+
+    /**
+     * Returns the number of values currently interned. Values which have been collected may still be counted until
+     * the next access.
+     *
+     * @return the number of values interned
+     */
+    public final synchronized Integer size() {
+        return values.size();
+    }
+
+}
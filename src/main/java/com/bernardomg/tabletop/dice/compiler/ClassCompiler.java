@@ -0,0 +1,305 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.compiler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.bernardomg.tabletop.dice.interpreter.DiceInterpreter;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Interpreter which generates a class for each expression, with a roll method made of straight line int code.
+ * <p>
+ * The constants of the program, such as dice quantities, sides and operands, are written into the code instead of
+ * being read from fields. This is what allows unrolling small groups of dice into a call for each dice, with no
+ * loop, and lets the JIT fold the operations on them, which makes a generated class faster than the
+ * {@link StackMachineProgram}. Reading the constants from fields would share the class among programs with the same
+ * shape, but would give up both. The price is a class for each distinct program, so the classes are cached and
+ * bounded.
+ * <p>
+ * Each class is defined in its own class loader, so it is unloaded once neither the compiler nor its callers keep the
+ * roll. The compiled rolls are cached by their program, and the cache is bounded, evicting the least recently used
+ * rolls, so a long running service doesn't keep adding classes.
+ * <p>
+ * Methods bigger than 8000 bytes are not compiled by the JIT, so programs which would need more code are compiled
+ * into a {@link StackMachineProgram} instead. These are cached too.
+ * <p>
+ * The compiler is thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Slf4j
+public final class ClassCompiler implements DiceInterpreter<CompiledRoll> {
+
+    /**
+     * Class loader for a single generated class.
+     */
+    private static final class RollClassLoader extends ClassLoader {
+
+        /**
+         * Constructs a class loader.
+         *
+         * @param parent
+         *            parent loader, which can find the library classes
+         */
+        private RollClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        /**
+         * Defines the generated class.
+         *
+         * @param name
+         *            binary name of the class
+         * @param bytes
+         *            class file
+         * @return the defined class
+         */
+        private final Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+    }
+
+    /**
+     * Default maximum number of cached rolls.
+     */
+    private static final Integer DEFAULT_MAX_SIZE = 256;
+
+    /**
+     * Longest code for a generated method.
+     */
+    private static final int     MAX_CODE_LENGTH  = 8000;
+
+    /**
+     * Package for the generated classes.
+     */
+    private static final String  PACKAGE          = GeneratedRoll.class.getPackageName() + ".generated";
+
+    /**
+     * Cached rolls, in access order. Each roll is compiled by the first thread asking for it, the others wait for it.
+     */
+    private final Map<PostfixNotation, CompletableFuture<CompiledRoll>> cache;
+
+    /**
+     * Maximum number of cached rolls.
+     */
+    private final Integer                                               maxSize;
+
+    /**
+     * Default constructor.
+     */
+    public ClassCompiler() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a compiler with the specified cache size.
+     *
+     * @param size
+     *            maximum number of cached rolls
+     */
+    public ClassCompiler(final Integer size) {
+        super();
+
+        maxSize = Objects.requireNonNull(size, "Received a null pointer as size");
+
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(String.format("The cache size should be positive, but got %d", size));
+        }
+
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected final boolean
+                    removeEldestEntry(final Map.Entry<PostfixNotation, CompletableFuture<CompiledRoll>> eldest) {
+                return size() > maxSize;
+            }
+
+        };
+    }
+
+    /**
+     * Removes all the cached rolls. Their classes are unloaded once the callers don't keep them.
+     */
+    public final void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Compiles the received postfix program. This skips building the tree when the expression was parsed into a
+     * program.
+     *
+     * @param program
+     *            program to compile
+     * @return the compiled program, a {@link GeneratedRoll} unless the program needs too much code
+     * @throws IllegalArgumentException
+     *             if any dice keeps more dice than it rolls
+     */
+    public final CompiledRoll compile(final PostfixNotation program) {
+        final CompletableFuture<CompiledRoll> created;
+        CompletableFuture<CompiledRoll>       future;
+
+        Objects.requireNonNull(program, "Received a null pointer as program");
+
+        created = new CompletableFuture<>();
+        synchronized (cache) {
+            future = cache.get(program);
+            if (future == null) {
+                future = created;
+                cache.put(program, future);
+            }
+        }
+
+        // The class is generated outside the lock, so other programs are not blocked meanwhile
+        if (future == created) {
+            try {
+                created.complete(build(program));
+            } catch (final Throwable e) {
+                // Defining the class may also fail with errors, such as a LinkageError or an OutOfMemoryError
+                // The failure is removed from the cache, and the waiting threads are released
+                synchronized (cache) {
+                    cache.remove(program, created);
+                }
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        return await(future);
+    }
+
+    /**
+     * Returns the maximum number of cached rolls.
+     *
+     * @return the maximum number of cached rolls
+     */
+    public final Integer getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of cached rolls.
+     *
+     * @return the number of cached rolls
+     */
+    public final Integer getSize() {
+        final Integer size;
+
+        synchronized (cache) {
+            size = cache.size();
+        }
+
+        return size;
+    }
+
+    @Override
+    public final CompiledRoll transform(final DiceNotationExpression expression) {
+        return compile(PostfixNotation.fromExpression(expression));
+    }
+
+    /**
+     * Waits for a roll being compiled. If compiling it failed, the same exception is thrown.
+     *
+     * @param future
+     *            roll being compiled
+     * @return the compiled roll
+     */
+    private final CompiledRoll await(final CompletableFuture<CompiledRoll> future) {
+        final CompiledRoll result;
+
+        try {
+            result = future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw (RuntimeException) e.getCause();
+        }
+
+        return result;
+    }
+
+    /**
+     * Compiles a program into a generated class, or into a stack machine if it needs too much code.
+     *
+     * @param program
+     *            program to compile
+     * @return the compiled program
+     */
+    private final CompiledRoll build(final PostfixNotation program) {
+        final RollClassWriter writer;
+        final CompiledRoll    result;
+
+        writer = new RollClassWriter(program);
+        if (writer.getCodeLength() > MAX_CODE_LENGTH) {
+            log.debug("Program {} needs {} bytes of code, using a stack machine", program, writer.getCodeLength());
+            result = new StackMachineProgram(program);
+        } else {
+            result = generate(program, program.getFingerprint(), writer);
+        }
+
+        return result;
+    }
+
+    /**
+     * Generates, loads and instantiates the class for a program.
+     *
+     * @param program
+     *            program to roll
+     * @param fingerprint
+     *            program fingerprint
+     * @param writer
+     *            writer with the code for the program
+     * @return the generated roll
+     */
+    private final GeneratedRoll generate(final PostfixNotation program, final Long fingerprint,
+            final RollClassWriter writer) {
+        final String          name;
+        final RollClassLoader loader;
+        final Class<?>        type;
+        final GeneratedRoll   roll;
+
+        name = String.format("%s.Roll%016X", PACKAGE, fingerprint);
+        loader = new RollClassLoader(GeneratedRoll.class.getClassLoader());
+        type = loader.define(name, writer.toByteArray(name));
+        try {
+            roll = type.asSubclass(GeneratedRoll.class)
+                .getConstructor(PostfixNotation.class)
+                .newInstance(program);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to instantiate the class generated for " + program, e);
+        }
+
+        log.debug("Generated class {} for program {}", name, program);
+
+        return roll;
+    }
+
+}
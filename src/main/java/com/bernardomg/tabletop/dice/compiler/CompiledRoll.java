@@ -0,0 +1,43 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.compiler;
+
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+
+/**
+ * Expression compiled to compute only its total roll.
+ * <p>
+ * The total is the same one the {@code DiceRoller} would return for the same generated values. Compiled rolls are
+ * immutable, and can be shared between threads.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface CompiledRoll {
+
+    /**
+     * Rolls the expression and returns the total.
+     *
+     * @param generator
+     *            generator for the dice values
+     * @return the total roll
+     * @throws ArithmeticException
+     *             if the expression divides by zero
+     */
+    public int roll(final IntNumberGenerator generator);
+
+}
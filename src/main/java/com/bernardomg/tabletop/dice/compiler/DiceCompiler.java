@@ -0,0 +1,63 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.compiler;
+
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.interpreter.DiceInterpreter;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+
+/**
+ * Interpreter which compiles the expression into a {@link StackMachineProgram}.
+ * <p>
+ * The compiler keeps no state, so it is thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class DiceCompiler implements DiceInterpreter<StackMachineProgram> {
+
+    /**
+     * Default constructor.
+     */
+    public DiceCompiler() {
+        super();
+    }
+
+    /**
+     * Compiles the received postfix program. This skips building the tree when the expression was parsed into a
+     * program.
+     *
+     * @param program
+     *            program to compile
+     * @return the compiled program
+     * @throws IllegalArgumentException
+     *             if any dice keeps more dice than it rolls
+     */
+    public final StackMachineProgram compile(final PostfixNotation program) {
+        Objects.requireNonNull(program, "Received a null pointer as program");
+
+        return new StackMachineProgram(program);
+    }
+
+    @Override
+    public final StackMachineProgram transform(final DiceNotationExpression expression) {
+        return compile(PostfixNotation.fromExpression(expression));
+    }
+
+}
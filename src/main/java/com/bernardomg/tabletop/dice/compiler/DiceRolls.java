@@ -0,0 +1,190 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.compiler;
+
+import java.util.Arrays;
+
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+
+/**
+ * Rolls dice for the compiled expressions, with primitive values.
+ * <p>
+ * Dice to keep need their rolls stored, to choose the kept ones. These are stored in an array reused by each thread,
+ * unless the caller gives one.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class DiceRolls {
+
+    /**
+     * Reusable memory for the rolls of a thread.
+     */
+    private static final class Buffer {
+
+        /**
+         * Flag telling if the buffer is in use. A generator rolling other dice would need its own memory.
+         */
+        private boolean busy   = false;
+
+        /**
+         * Stored rolls.
+         */
+        private int[]   values = new int[INITIAL_CAPACITY];
+
+        /**
+         * Default constructor.
+         */
+        private Buffer() {
+            super();
+        }
+
+    }
+
+    /**
+     * Memory for each thread.
+     */
+    private static final ThreadLocal<Buffer> BUFFER           = ThreadLocal.withInitial(Buffer::new);
+
+    /**
+     * Initial size of the memory.
+     */
+    private static final int                 INITIAL_CAPACITY = 16;
+
+    /**
+     * Checks a group of dice doesn't keep more dice than it rolls. The {@code DiceRoller} rejects these, so the compiled
+     * rolls reject them when compiled, instead of keeping all the dice.
+     *
+     * @param quantity
+     *            number of dice
+     * @param keep
+     *            dice to keep
+     * @throws IllegalArgumentException
+     *             if more dice are kept than rolled
+     */
+    static final void requireKept(final int quantity, final int keep) {
+        // Widened, as the absolute value of the lowest int overflows
+        if (Math.abs((long) keep) > Math.abs((long) quantity)) {
+            throw new IllegalArgumentException(String.format("Can't keep %d dice out of %d", Math.abs((long) keep),
+                Math.abs((long) quantity)));
+        }
+    }
+
+    /**
+     * Rolls a group of dice, using the memory of the current thread.
+     *
+     * @param quantity
+     *            number of dice, negative dice subtract their values
+     * @param sides
+     *            number of sides
+     * @param keep
+     *            dice to keep, positive for the highest, negative for the lowest, zero for all
+     * @param generator
+     *            generator for the dice values
+     * @return the total roll
+     */
+    static final int roll(final int quantity, final int sides, final int keep, final IntNumberGenerator generator) {
+        final Buffer buffer;
+        final int    count;
+        final int    total;
+
+        count = Math.abs(quantity);
+        if (keep == 0) {
+            total = roll(quantity, sides, keep, null, 0, generator);
+        } else {
+            buffer = BUFFER.get();
+            if (buffer.busy) {
+                // Nested roll on the same thread
+                total = roll(quantity, sides, keep, new int[count], 0, generator);
+            } else {
+                buffer.busy = true;
+                try {
+                    if (buffer.values.length < count) {
+                        buffer.values = new int[Math.max(count, buffer.values.length * 2)];
+                    }
+                    total = roll(quantity, sides, keep, buffer.values, 0, generator);
+                } finally {
+                    buffer.busy = false;
+                }
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Rolls a group of dice. Programs never keep more dice than those rolled, as they are rejected when built.
+     *
+     * @param quantity
+     *            number of dice, negative dice subtract their values
+     * @param sides
+     *            number of sides
+     * @param keep
+     *            dice to keep, positive for the highest, negative for the lowest, zero for all
+     * @param values
+     *            memory for the rolls, only used when keeping dice
+     * @param from
+     *            first position of the memory to use
+     * @param generator
+     *            generator for the dice values
+     * @return the total roll
+     */
+    static final int roll(final int quantity, final int sides, final int keep, final int[] values, final int from,
+            final IntNumberGenerator generator) {
+        final int count;
+        final int kept;
+        int       total;
+        int       roll;
+
+        count = Math.abs(quantity);
+        total = 0;
+        if (keep == 0) {
+            for (int i = 0; i < count; i++) {
+                roll = generator.generate(sides);
+                total += (quantity < 0) ? -roll : roll;
+            }
+        } else {
+            // The rolls are stored and sorted to choose the kept ones
+            for (int i = 0; i < count; i++) {
+                roll = generator.generate(sides);
+                values[from + i] = (quantity < 0) ? -roll : roll;
+            }
+            Arrays.sort(values, from, from + count);
+
+            kept = Math.abs(keep);
+            if (keep > 0) {
+                for (int i = (from + count) - kept; i < (from + count); i++) {
+                    total += values[i];
+                }
+            } else {
+                for (int i = from; i < (from + kept); i++) {
+                    total += values[i];
+                }
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private DiceRolls() {
+        super();
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.compiler;
+
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+
+/**
+ * Base for the classes generated by the {@link ClassCompiler}. Each subclass rolls a single expression with straight
+ * line code.
+ * <p>
+ * The generated classes are defined in their own class loaders, so they can't reach the package private parts of the
+ * library. This gives them what they need.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public abstract class GeneratedRoll implements CompiledRoll {
+
+    /**
+     * Program the class was generated from.
+     */
+    private final PostfixNotation program;
+
+    /**
+     * Rolls a group of dice. Used by the generated classes for dice to keep, and big groups of dice.
+     *
+     * @param quantity
+     *            number of dice, negative dice subtract their values
+     * @param sides
+     *            number of sides
+     * @param keep
+     *            dice to keep, positive for the highest, negative for the lowest, zero for all
+     * @param generator
+     *            generator for the dice values
+     * @return the total roll
+     */
+    protected static final int rollDice(final int quantity, final int sides, final int keep,
+            final IntNumberGenerator generator) {
+        return DiceRolls.roll(quantity, sides, keep, generator);
+    }
+
+    /**
+     * Constructs a roll for the received program.
+     *
+     * @param source
+     *            program the class was generated from
+     */
+    protected GeneratedRoll(final PostfixNotation source) {
+        super();
+
+        program = Objects.requireNonNull(source, "Received a null pointer as program");
+    }
+
+    /**
+     * Returns the program the class was generated from.
+     *
+     * @return the program for the roll
+     */
+    public final PostfixNotation getProgram() {
+        return program;
+    }
+
+    @Override
+    public final String toString() {
+        return getClass().getSimpleName() + "(program=" + program + ")";
+    }
+
+}
@@ -0,0 +1,453 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.compiler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.interpreter.DiceInterpreter;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+
+import lombok.Data;
+
+/**
+ * Interpreter which compiles the expression into a single method handle, composed from the expression nodes.
+ * <p>
+ * Each dice group becomes a handle taking the generator, each constant becomes a handle ignoring it, and each operation
+ * combines the handles of its operands, which all receive the same generator. Operations with only constants are
+ * computed while compiling, except divisions by zero, which are kept to fail when rolling.
+ * <p>
+ * The JIT only inlines the whole expression into the caller when the handle is a constant. The roll keeps it in an
+ * instance field, which is not one, so callers rolling in a hot loop should take {@link MethodHandleRoll#getHandle()}
+ * into a {@code static final MethodHandle} field, and call {@link MethodHandle#invokeExact(Object...)} on it. The
+ * {@code MethodHandleRollBenchmark} compares both ways. Composing handles is slow, and each node adds a level of calls
+ * when rolling, so expressions with more operands than the limit are compiled into a {@link StackMachineProgram}
+ * instead.
+ * <p>
+ * The compiler keeps no state, so it is thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class MethodHandleCompiler implements DiceInterpreter<CompiledRoll> {
+
+    /**
+     * Operand on the stack while composing a handle, either a constant or a handle taking the generator.
+     */
+    @Data
+    private static final class Operand {
+
+        /**
+         * Creates a constant operand.
+         *
+         * @param value
+         *            constant value
+         * @return the operand
+         */
+        private static final Operand constant(final int value) {
+            return new Operand(true, null, value);
+        }
+
+        /**
+         * Creates a rolled operand.
+         *
+         * @param handle
+         *            handle taking the generator
+         * @return the operand
+         */
+        private static final Operand rolled(final MethodHandle handle) {
+            return new Operand(false, handle, 0);
+        }
+
+        /**
+         * Flag telling if the operand is a constant.
+         */
+        private final boolean      constant;
+
+        /**
+         * Handle taking the generator, for rolled operands.
+         */
+        private final MethodHandle handle;
+
+        /**
+         * Value of constant operands.
+         */
+        private final int          value;
+
+        /**
+         * Returns the operand as a handle taking the generator.
+         *
+         * @return the handle for the operand
+         */
+        private final MethodHandle toHandle() {
+            final MethodHandle result;
+
+            if (constant) {
+                result = MethodHandles.dropArguments(MethodHandles.constant(int.class, value), 0,
+                    IntNumberGenerator.class);
+            } else {
+                result = handle;
+            }
+
+            return result;
+        }
+
+    }
+
+    /**
+     * Default maximum number of operands for a method handle.
+     */
+    public static final int           DEFAULT_MAX_OPERANDS = 64;
+
+    /**
+     * Handle for additions.
+     */
+    private static final MethodHandle ADDITION;
+
+    /**
+     * Handle for dice groups.
+     */
+    private static final MethodHandle DICE;
+
+    /**
+     * Handle for divisions.
+     */
+    private static final MethodHandle DIVISION;
+
+    /**
+     * Handle for multiplications.
+     */
+    private static final MethodHandle MULTIPLICATION;
+
+    /**
+     * Handle for subtractions.
+     */
+    private static final MethodHandle SUBTRACTION;
+
+    /**
+     * Maximum number of operands for a method handle.
+     */
+    private final Integer maxOperands;
+
+    static {
+        final MethodHandles.Lookup lookup;
+        final MethodType           binary;
+
+        lookup = MethodHandles.lookup();
+        binary = MethodType.methodType(int.class, int.class, int.class);
+        try {
+            ADDITION = lookup.findStatic(MethodHandleCompiler.class, "add", binary);
+            DIVISION = lookup.findStatic(MethodHandleCompiler.class, "divide", binary);
+            MULTIPLICATION = lookup.findStatic(MethodHandleCompiler.class, "multiply", binary);
+            SUBTRACTION = lookup.findStatic(MethodHandleCompiler.class, "subtract", binary);
+            DICE = lookup.findStatic(DiceRolls.class, "roll", MethodType.methodType(int.class, int.class, int.class,
+                int.class, IntNumberGenerator.class));
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Adds two values.
+     *
+     * @param left
+     *            left value
+     * @param right
+     *            right value
+     * @return the sum
+     */
+    private static final int add(final int left, final int right) {
+        return left + right;
+    }
+
+    /**
+     * Divides two values.
+     *
+     * @param left
+     *            left value
+     * @param right
+     *            right value
+     * @return the quotient
+     */
+    private static final int divide(final int left, final int right) {
+        return left / right;
+    }
+
+    /**
+     * Multiplies two values.
+     *
+     * @param left
+     *            left value
+     * @param right
+     *            right value
+     * @return the product
+     */
+    private static final int multiply(final int left, final int right) {
+        return left * right;
+    }
+
+    /**
+     * Subtracts two values.
+     *
+     * @param left
+     *            left value
+     * @param right
+     *            right value
+     * @return the difference
+     */
+    private static final int subtract(final int left, final int right) {
+        return left - right;
+    }
+
+    /**
+     * Default constructor.
+     */
+    public MethodHandleCompiler() {
+        this(DEFAULT_MAX_OPERANDS);
+    }
+
+    /**
+     * Constructs a compiler with the received limit.
+     *
+     * @param max
+     *            maximum number of operands for a method handle, bigger expressions are compiled into a stack machine
+     *            program
+     */
+    public MethodHandleCompiler(final Integer max) {
+        super();
+
+        maxOperands = Objects.requireNonNull(max, "Received a null pointer as maximum operands");
+
+        if (maxOperands < 1) {
+            throw new IllegalArgumentException("The maximum operands should be positive, but received " + maxOperands);
+        }
+    }
+
+    /**
+     * Compiles the received postfix program. This skips building the tree when the expression was parsed into a
+     * program.
+     *
+     * @param program
+     *            program to compile
+     * @return the compiled program, a {@link MethodHandleRoll} unless the program is bigger than the limit
+     * @throws IllegalArgumentException
+     *             if any dice keeps more dice than it rolls
+     */
+    public final CompiledRoll compile(final PostfixNotation program) {
+        final CompiledRoll roll;
+
+        Objects.requireNonNull(program, "Received a null pointer as program");
+
+        if (getOperands(program) > maxOperands) {
+            roll = new StackMachineProgram(program);
+        } else {
+            roll = new MethodHandleRoll(program, toHandle(program));
+        }
+
+        return roll;
+    }
+
+    @Override
+    public final CompiledRoll transform(final DiceNotationExpression expression) {
+        return compile(PostfixNotation.fromExpression(expression));
+    }
+
+    /**
+     * Applies an operator to two constants.
+     *
+     * @param operation
+     *            operator handle
+     * @param left
+     *            left value
+     * @param right
+     *            right value
+     * @return the result
+     */
+    private final int applyConstant(final MethodHandle operation, final int left, final int right) {
+        final int result;
+
+        try {
+            result = (int) operation.invokeExact(left, right);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable e) {
+            throw new IllegalStateException(e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Counts the constants and dice in a program.
+     *
+     * @param program
+     *            program to check
+     * @return the number of operands
+     */
+    private final int getOperands(final PostfixNotation program) {
+        int opcode;
+        int index;
+        int count;
+
+        count = 0;
+        index = 0;
+        while (index < program.getLength()) {
+            opcode = program.getInstruction(index);
+            switch (opcode) {
+                case PostfixNotation.CONSTANT:
+                    count++;
+                    index += 2;
+                    break;
+                case PostfixNotation.DICE:
+                    count++;
+                    index += 4;
+                    break;
+                case PostfixNotation.SUM:
+                case PostfixNotation.PRODUCT:
+                    index += program.getInstruction(index + 1) + 1;
+                    break;
+                default:
+                    index++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the handle for an operator.
+     *
+     * @param opcode
+     *            operator opcode
+     * @return the handle for the operator
+     */
+    private final MethodHandle getOperation(final int opcode) {
+        final MethodHandle operation;
+
+        switch (opcode) {
+            case PostfixNotation.ADDITION:
+                operation = ADDITION;
+                break;
+            case PostfixNotation.SUBTRACTION:
+                operation = SUBTRACTION;
+                break;
+            case PostfixNotation.MULTIPLICATION:
+                operation = MULTIPLICATION;
+                break;
+            default:
+                operation = DIVISION;
+        }
+
+        return operation;
+    }
+
+    /**
+     * Combines two operands with an operator. Constant operands are bound into the operator, and two constants are
+     * computed, unless they are a division by zero.
+     *
+     * @param opcode
+     *            operator opcode
+     * @param left
+     *            left operand
+     * @param right
+     *            right operand
+     * @return the combined operand
+     */
+    private final Operand operate(final int opcode, final Operand left, final Operand right) {
+        final MethodHandle operation;
+        final Operand      result;
+        final MethodHandle rolled;
+
+        operation = getOperation(opcode);
+        if (left.isConstant() && right.isConstant()
+                && ((opcode != PostfixNotation.DIVISION) || (right.getValue() != 0))) {
+            result = Operand.constant(applyConstant(operation, left.getValue(), right.getValue()));
+        } else if (right.isConstant()) {
+            rolled = MethodHandles.insertArguments(operation, 1, right.getValue());
+            result = Operand.rolled(MethodHandles.filterArguments(rolled, 0, left.toHandle()));
+        } else if (left.isConstant()) {
+            rolled = MethodHandles.insertArguments(operation, 0, left.getValue());
+            result = Operand.rolled(MethodHandles.filterArguments(rolled, 0, right.toHandle()));
+        } else {
+            // The left operand runs first, then the right one receives the same generator
+            rolled = MethodHandles.filterArguments(operation, 1, right.toHandle());
+            result = Operand.rolled(MethodHandles.foldArguments(rolled, left.toHandle()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Composes the handle for a program. The program is read in order, with a stack of operands.
+     *
+     * @param program
+     *            program to compose
+     * @return the handle for the program
+     */
+    private final MethodHandle toHandle(final PostfixNotation program) {
+        final Operand[] operands;
+        MethodHandle    dice;
+        int             opcode;
+        int             index;
+        int             top;
+        int             size;
+
+        operands = new Operand[program.getDepth()];
+        top = -1;
+        index = 0;
+        while (index < program.getLength()) {
+            opcode = program.getInstruction(index);
+            switch (opcode) {
+                case PostfixNotation.CONSTANT:
+                    top++;
+                    operands[top] = Operand.constant(program.getInstruction(index + 1));
+                    index += 2;
+                    break;
+                case PostfixNotation.DICE:
+                    DiceRolls.requireKept(program.getInstruction(index + 1), program.getInstruction(index + 3));
+                    top++;
+                    dice = MethodHandles.insertArguments(DICE, 0, program.getInstruction(index + 1),
+                        program.getInstruction(index + 2), program.getInstruction(index + 3));
+                    operands[top] = Operand.rolled(dice);
+                    index += 4;
+                    break;
+                case PostfixNotation.SUM:
+                case PostfixNotation.PRODUCT:
+                    // The operands are the latest values, in order
+                    size = program.getInstruction(index + 1);
+                    top -= size - 1;
+                    for (int i = 1; i < size; i++) {
+                        operands[top] = operate(program.getInstruction(index + 1 + i), operands[top],
+                            operands[top + i]);
+                    }
+                    index += size + 1;
+                    break;
+                default:
+                    top--;
+                    operands[top] = operate(opcode, operands[top], operands[top + 1]);
+                    index++;
+            }
+        }
+
+        return operands[0].toHandle();
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.compiler;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+
+/**
+ * Compiled expression, run by a single method handle. These are created by the {@link MethodHandleCompiler}.
+ * <p>
+ * The handle takes the generator and returns the total roll. Dice are rolled in the same order as by the
+ * {@code DiceRoller}, so the same generated values give the same total. Only dice to keep use memory, which is reused
+ * by each thread.
+ * <p>
+ * The roll is immutable, and can be shared between threads.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class MethodHandleRoll implements CompiledRoll {
+
+    /**
+     * Handle computing the total roll.
+     */
+    private final MethodHandle    handle;
+
+    /**
+     * Program the handle was composed from.
+     */
+    private final PostfixNotation program;
+
+    /**
+     * Constructs a roll with the received handle.
+     *
+     * @param source
+     *            program the handle was composed from
+     * @param total
+     *            handle computing the total roll, taking the generator
+     */
+    MethodHandleRoll(final PostfixNotation source, final MethodHandle total) {
+        super();
+
+        program = Objects.requireNonNull(source, "Received a null pointer as program");
+        handle = Objects.requireNonNull(total, "Received a null pointer as handle");
+    }
+
+    /**
+     * Returns the handle computing the total roll. It takes an {@link IntNumberGenerator} and returns an {@code int},
+     * so it can be bound to a generator with {@link MethodHandle#bindTo(Object)}.
+     * <p>
+     * The handle is kept in an instance field, so the JIT can't inline the expression through
+     * {@link #roll(IntNumberGenerator)}. To have it inlined, keep the handle in a {@code static final MethodHandle}
+     * field, and roll with {@code (int) HANDLE.invokeExact(generator)}.
+     *
+     * @return the handle for the roll
+     */
+    public final MethodHandle getHandle() {
+        return handle;
+    }
+
+    /**
+     * Returns the program the handle was composed from.
+     *
+     * @return the program for the roll
+     */
+    public final PostfixNotation getProgram() {
+        return program;
+    }
+
+    @Override
+    public final int roll(final IntNumberGenerator generator) {
+        final int result;
+
+        Objects.requireNonNull(generator, "Received a null pointer as generator");
+
+        try {
+            result = (int) handle.invokeExact(generator);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable e) {
+            throw new IllegalStateException(e);
+        }
+
+        return result;
+    }
+
+    @Override
+    public final String toString() {
+        return "MethodHandleRoll(program=" + program + ")";
+    }
+
+}
@@ -0,0 +1,613 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+
+/**
+ * Writes the class file for a {@link GeneratedRoll} subclass, which rolls a single program.
+ * <p>
+ * The roll method is straight line code, the same instructions as the program but for the JVM stack. Small groups of
+ * dice are unrolled into a call to the generator for each dice, while bigger ones, and dice to keep, call
+ * {@link GeneratedRoll#rollDice(int, int, int, IntNumberGenerator)}. There are no
+ * branches, so the class needs no stack map frames.
+ * <p>
+ * The code is written when the writer is created, so its length can be checked before writing the class.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class RollClassWriter {
+
+    /**
+     * Code for a part of the program, which leaves a single value on the stack.
+     */
+    private static final class Segment {
+
+        /**
+         * Bytecode.
+         */
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        /**
+         * Highest number of values on the stack while running the code.
+         */
+        private int                         stack;
+
+        /**
+         * Constructs a segment.
+         *
+         * @param maxStack
+         *            highest number of values on the stack
+         */
+        private Segment(final int maxStack) {
+            super();
+
+            stack = maxStack;
+        }
+
+    }
+
+    /**
+     * Class file major version, for Java 11.
+     */
+    private static final int            CLASS_VERSION = 55;
+
+    /**
+     * Descriptor for the constructor.
+     */
+    private static final String         CONSTRUCTOR   = "(L" + getInternalName(PostfixNotation.class) + ";)V";
+
+    /**
+     * Internal name of the generator interface.
+     */
+    private static final String         GENERATOR     = getInternalName(IntNumberGenerator.class);
+
+    /**
+     * Descriptor for the roll method.
+     */
+    private static final String         ROLL          = "(L" + GENERATOR + ";)I";
+
+    /**
+     * Descriptor for the dice method.
+     */
+    private static final String         ROLL_DICE     = "(IIIL" + GENERATOR + ";)I";
+
+    /**
+     * Internal name of the superclass.
+     */
+    private static final String         SUPERCLASS    = getInternalName(GeneratedRoll.class);
+
+    /**
+     * Biggest group of dice unrolled into calls to the generator.
+     */
+    private static final int            UNROLLED_DICE = 8;
+
+    /**
+     * Code for the roll method.
+     */
+    private final byte[]                code;
+
+    /**
+     * Index of each constant pool entry.
+     */
+    private final Map<String, Integer>  indexes       = new HashMap<>();
+
+    /**
+     * Highest number of values on the stack in the roll method.
+     */
+    private final int                   maxStack;
+
+    /**
+     * Constant pool entries.
+     */
+    private final ByteArrayOutputStream pool          = new ByteArrayOutputStream();
+
+    /**
+     * Returns the name of a class as used in class files.
+     *
+     * @param type
+     *            class to name
+     * @return the internal name of the class
+     */
+    private static final String getInternalName(final Class<?> type) {
+        return type.getName()
+            .replace('.', '/');
+    }
+
+    /**
+     * Constructs a writer for the received program.
+     *
+     * @param program
+     *            program to write
+     */
+    RollClassWriter(final PostfixNotation program) {
+        super();
+
+        final Segment segment;
+
+        Objects.requireNonNull(program, "Received a null pointer as program");
+
+        segment = toSegment(program);
+        segment.code.write(0xAC);
+        code = segment.code.toByteArray();
+        maxStack = segment.stack;
+    }
+
+    /**
+     * Returns the length of the roll method code.
+     *
+     * @return the code length
+     */
+    final int getCodeLength() {
+        return code.length;
+    }
+
+    /**
+     * Writes the class file.
+     *
+     * @param name
+     *            binary name of the class
+     * @return the class file
+     */
+    final byte[] toByteArray(final String name) {
+        final ByteArrayOutputStream output;
+        final int                   thisClass;
+        final int                   superClass;
+        final int                   superConstructor;
+        final int                   codeName;
+        final int                   constructorName;
+        final int                   constructorType;
+        final int                   rollName;
+        final int                   rollType;
+        final byte[]                constructorCode;
+
+        thisClass = getClass(name.replace('.', '/'));
+        superClass = getClass(SUPERCLASS);
+        superConstructor = getMethod(0x0A, SUPERCLASS, "<init>", CONSTRUCTOR);
+        codeName = getUtf8("Code");
+        constructorName = getUtf8("<init>");
+        constructorType = getUtf8(CONSTRUCTOR);
+        rollName = getUtf8("roll");
+        rollType = getUtf8(ROLL);
+
+        // aload_0, aload_1, invokespecial, return
+        constructorCode = new byte[] { 0x2A, 0x2B, (byte) 0xB7, (byte) (superConstructor >> 8),
+                (byte) superConstructor, (byte) 0xB1 };
+
+        output = new ByteArrayOutputStream();
+        writeInt(output, 0xCAFEBABE);
+        writeShort(output, 0);
+        writeShort(output, CLASS_VERSION);
+        writeShort(output, indexes.size() + 1);
+        output.writeBytes(pool.toByteArray());
+        // Public, final and super
+        writeShort(output, 0x31);
+        writeShort(output, thisClass);
+        writeShort(output, superClass);
+        // No interfaces or fields
+        writeShort(output, 0);
+        writeShort(output, 0);
+
+        writeShort(output, 2);
+        // Public constructor
+        writeMethod(output, 0x01, constructorName, constructorType, codeName, 2, constructorCode);
+        // Public final roll method
+        writeMethod(output, 0x11, rollName, rollType, codeName, maxStack, code);
+
+        // No class attributes
+        writeShort(output, 0);
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Returns the index of a class entry, adding it if needed.
+     *
+     * @param name
+     *            internal name of the class
+     * @return the entry index
+     */
+    private final int getClass(final String name) {
+        final String key;
+        final int    nameIndex;
+        Integer      index;
+
+        key = "Class:" + name;
+        index = indexes.get(key);
+        if (index == null) {
+            nameIndex = getUtf8(name);
+            pool.write(7);
+            writeShort(pool, nameIndex);
+            index = register(key);
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the index of an integer entry, adding it if needed.
+     *
+     * @param value
+     *            integer value
+     * @return the entry index
+     */
+    private final int getInteger(final int value) {
+        final String key;
+        Integer      index;
+
+        key = "Integer:" + value;
+        index = indexes.get(key);
+        if (index == null) {
+            pool.write(3);
+            writeInt(pool, value);
+            index = register(key);
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the index of a method reference entry, adding it if needed.
+     *
+     * @param tag
+     *            entry tag, for class or interface methods
+     * @param owner
+     *            internal name of the class with the method
+     * @param name
+     *            method name
+     * @param descriptor
+     *            method descriptor
+     * @return the entry index
+     */
+    private final int getMethod(final int tag, final String owner, final String name, final String descriptor) {
+        final String key;
+        final int    ownerIndex;
+        final int    nameAndType;
+        Integer      index;
+
+        key = "Method:" + owner + '.' + name + descriptor;
+        index = indexes.get(key);
+        if (index == null) {
+            ownerIndex = getClass(owner);
+            nameAndType = getNameAndType(name, descriptor);
+            pool.write(tag);
+            writeShort(pool, ownerIndex);
+            writeShort(pool, nameAndType);
+            index = register(key);
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the index of a name and type entry, adding it if needed.
+     *
+     * @param name
+     *            member name
+     * @param descriptor
+     *            member descriptor
+     * @return the entry index
+     */
+    private final int getNameAndType(final String name, final String descriptor) {
+        final String key;
+        final int    nameIndex;
+        final int    typeIndex;
+        Integer      index;
+
+        key = "NameAndType:" + name + descriptor;
+        index = indexes.get(key);
+        if (index == null) {
+            nameIndex = getUtf8(name);
+            typeIndex = getUtf8(descriptor);
+            pool.write(12);
+            writeShort(pool, nameIndex);
+            writeShort(pool, typeIndex);
+            index = register(key);
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the index of a text entry, adding it if needed.
+     *
+     * @param text
+     *            text value
+     * @return the entry index
+     */
+    private final int getUtf8(final String text) {
+        final String key;
+        final byte[] bytes;
+        Integer      index;
+
+        key = "Utf8:" + text;
+        index = indexes.get(key);
+        if (index == null) {
+            // The names used are all ASCII, which is the same in the modified UTF-8 of class files
+            bytes = text.getBytes(StandardCharsets.US_ASCII);
+            pool.write(1);
+            writeShort(pool, bytes.length);
+            pool.writeBytes(bytes);
+            index = register(key);
+        }
+
+        return index;
+    }
+
+    /**
+     * Appends an operand to a segment, followed by an operator.
+     *
+     * @param left
+     *            segment leaving the left value on the stack
+     * @param right
+     *            segment leaving the right value on the stack
+     * @param opcode
+     *            operator opcode
+     */
+    private final void operate(final Segment left, final Segment right, final int opcode) {
+        left.stack = Math.max(left.stack, right.stack + 1);
+        left.code.writeBytes(right.code.toByteArray());
+        switch (opcode) {
+            case PostfixNotation.ADDITION:
+                // iadd
+                left.code.write(0x60);
+                break;
+            case PostfixNotation.SUBTRACTION:
+                // isub
+                left.code.write(0x64);
+                break;
+            case PostfixNotation.MULTIPLICATION:
+                // imul
+                left.code.write(0x68);
+                break;
+            default:
+                // idiv, which throws an ArithmeticException when dividing by zero
+                left.code.write(0x6C);
+        }
+    }
+
+    /**
+     * Stores a new entry, which was just written in the pool.
+     *
+     * @param key
+     *            key for the entry
+     * @return the entry index
+     */
+    private final int register(final String key) {
+        final int index;
+
+        index = indexes.size() + 1;
+        indexes.put(key, index);
+
+        return index;
+    }
+
+    /**
+     * Writes the code which rolls a group of dice.
+     *
+     * @param quantity
+     *            number of dice
+     * @param sides
+     *            number of sides
+     * @param keep
+     *            dice to keep
+     * @return the code for the dice
+     */
+    private final Segment rollDice(final int quantity, final int sides, final int keep) {
+        final Segment segment;
+        final int     count;
+        final int     generate;
+        final int     rollDice;
+
+        count = Math.abs(quantity);
+        if (count == 0) {
+            segment = new Segment(1);
+            writePush(segment.code, 0);
+        } else if ((keep == 0) && (count <= UNROLLED_DICE)) {
+            // The partial total, the generator and the sides
+            segment = new Segment(3);
+            generate = getMethod(0x0B, GENERATOR, "generate", "(I)I");
+            for (int i = 0; i < count; i++) {
+                // aload_1
+                segment.code.write(0x2B);
+                writePush(segment.code, sides);
+                // invokeinterface, with the generator and the sides as arguments
+                segment.code.write(0xB9);
+                writeShort(segment.code, generate);
+                segment.code.write(2);
+                segment.code.write(0);
+                if (quantity < 0) {
+                    // ineg
+                    segment.code.write(0x74);
+                }
+                if (i > 0) {
+                    // iadd
+                    segment.code.write(0x60);
+                }
+            }
+        } else {
+            segment = new Segment(4);
+            rollDice = getMethod(0x0A, SUPERCLASS, "rollDice", ROLL_DICE);
+            writePush(segment.code, quantity);
+            writePush(segment.code, sides);
+            writePush(segment.code, keep);
+            // aload_1, invokestatic
+            segment.code.write(0x2B);
+            segment.code.write(0xB8);
+            writeShort(segment.code, rollDice);
+        }
+
+        return segment;
+    }
+
+    /**
+     * Writes the code for a program. The program is read in order, with a stack of segments, and each operation joins
+     * its operands with the operators between them, so the dice are rolled in the same order.
+     *
+     * @param program
+     *            program to write
+     * @return the code for the program
+     */
+    private final Segment toSegment(final PostfixNotation program) {
+        final Segment[] segments;
+        Segment         constant;
+        int             opcode;
+        int             index;
+        int             top;
+        int             size;
+
+        segments = new Segment[program.getDepth()];
+        top = -1;
+        index = 0;
+        while (index < program.getLength()) {
+            opcode = program.getInstruction(index);
+            switch (opcode) {
+                case PostfixNotation.CONSTANT:
+                    top++;
+                    constant = new Segment(1);
+                    writePush(constant.code, program.getInstruction(index + 1));
+                    segments[top] = constant;
+                    index += 2;
+                    break;
+                case PostfixNotation.DICE:
+                    DiceRolls.requireKept(program.getInstruction(index + 1), program.getInstruction(index + 3));
+                    top++;
+                    segments[top] = rollDice(program.getInstruction(index + 1), program.getInstruction(index + 2),
+                        program.getInstruction(index + 3));
+                    index += 4;
+                    break;
+                case PostfixNotation.SUM:
+                case PostfixNotation.PRODUCT:
+                    // The operands are the latest values, in order
+                    size = program.getInstruction(index + 1);
+                    top -= size - 1;
+                    for (int i = 1; i < size; i++) {
+                        operate(segments[top], segments[top + i], program.getInstruction(index + 1 + i));
+                    }
+                    index += size + 1;
+                    break;
+                default:
+                    top--;
+                    operate(segments[top], segments[top + 1], opcode);
+                    index++;
+            }
+        }
+
+        return segments[0];
+    }
+
+    /**
+     * Writes a four bytes value.
+     *
+     * @param output
+     *            output to write into
+     * @param value
+     *            value to write
+     */
+    private final void writeInt(final ByteArrayOutputStream output, final int value) {
+        writeShort(output, value >>> 16);
+        writeShort(output, value);
+    }
+
+    /**
+     * Writes a method with its code.
+     *
+     * @param output
+     *            output to write into
+     * @param access
+     *            access flags
+     * @param name
+     *            index of the name entry
+     * @param descriptor
+     *            index of the descriptor entry
+     * @param codeName
+     *            index of the code attribute name
+     * @param stack
+     *            highest number of values on the stack
+     * @param bytecode
+     *            method code
+     */
+    private final void writeMethod(final ByteArrayOutputStream output, final int access, final int name,
+            final int descriptor, final int codeName, final int stack, final byte[] bytecode) {
+        writeShort(output, access);
+        writeShort(output, name);
+        writeShort(output, descriptor);
+        writeShort(output, 1);
+        writeShort(output, codeName);
+        // Stack and locals, code length, code, and the empty exception and attribute tables
+        writeInt(output, 12 + bytecode.length);
+        writeShort(output, stack);
+        // This and the generator
+        writeShort(output, 2);
+        writeInt(output, bytecode.length);
+        output.writeBytes(bytecode);
+        writeShort(output, 0);
+        writeShort(output, 0);
+    }
+
+    /**
+     * Writes the shortest instruction which pushes an integer on the stack.
+     *
+     * @param output
+     *            output to write into
+     * @param value
+     *            value to push
+     */
+    private final void writePush(final ByteArrayOutputStream output, final int value) {
+        final int index;
+
+        if ((value >= -1) && (value <= 5)) {
+            // iconst
+            output.write(0x03 + value);
+        } else if ((value >= Byte.MIN_VALUE) && (value <= Byte.MAX_VALUE)) {
+            // bipush
+            output.write(0x10);
+            output.write(value);
+        } else if ((value >= Short.MIN_VALUE) && (value <= Short.MAX_VALUE)) {
+            // sipush
+            output.write(0x11);
+            writeShort(output, value);
+        } else {
+            // ldc_w
+            index = getInteger(value);
+            output.write(0x13);
+            writeShort(output, index);
+        }
+    }
+
+    /**
+     * Writes a two bytes value.
+     *
+     * @param output
+     *            output to write into
+     * @param value
+     *            value to write
+     */
+    private final void writeShort(final ByteArrayOutputStream output, final int value) {
+        output.write(value >>> 8);
+        output.write(value);
+    }
+
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.compiler;
+
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+
+/**
+ * Compiled expression, run by a stack machine over primitive integers.
+ * <p>
+ * The instructions are the ones from the {@link PostfixNotation}. They are run on an array reused by each thread, so
+ * rolling allocates no memory, as long as the generator doesn't. The array only grows for a longer program, or more
+ * dice to keep, than the ones rolled before on the same thread.
+ * <p>
+ * Dice are rolled in the same order as by the {@code DiceRoller}, so the same generated values give the same total.
+ * Keeping more dice than those rolled keeps all of them.
+ * <p>
+ * The program is immutable, and can be shared between threads.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class StackMachineProgram implements CompiledRoll {
+
+    /**
+     * Working memory for the programs run on a thread.
+     */
+    private static final class Scratch {
+
+        /**
+         * Flag telling if a program is running with this memory. A generator rolling another program would need its
+         * own memory.
+         */
+        private boolean busy   = false;
+
+        /**
+         * Stack and dice values.
+         */
+        private int[]   values = new int[INITIAL_CAPACITY];
+
+        /**
+         * Default constructor.
+         */
+        private Scratch() {
+            super();
+        }
+
+    }
+
+    /**
+     * Initial size of the working memory.
+     */
+    private static final int                  INITIAL_CAPACITY = 64;
+
+    /**
+     * Working memory for each thread.
+     */
+    private static final ThreadLocal<Scratch> SCRATCH          = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Instructions of the program.
+     */
+    private final int[]                       code;
+
+    /**
+     * Size of the stack.
+     */
+    private final int                         depth;
+
+    /**
+     * Size of the working memory, the stack plus the biggest group of dice to keep.
+     */
+    private final int                         memory;
+
+    /**
+     * Constructs a program with the received instructions.
+     *
+     * @param program
+     *            instructions to run
+     * @throws IllegalArgumentException
+     *             if any dice keeps more dice than it rolls
+     */
+    public StackMachineProgram(final PostfixNotation program) {
+        super();
+
+        Objects.requireNonNull(program, "Received a null pointer as program");
+
+        code = program.toArray();
+        depth = program.getDepth();
+        memory = depth + getKeptDice(code);
+    }
+
+    /**
+     * Returns the instructions of the program.
+     *
+     * @return the program instructions
+     */
+    public final PostfixNotation getProgram() {
+        return PostfixNotation.of(code);
+    }
+
+    @Override
+    public final int roll(final IntNumberGenerator generator) {
+        final Scratch scratch;
+        final int     result;
+
+        Objects.requireNonNull(generator, "Received a null pointer as generator");
+
+        scratch = SCRATCH.get();
+        if (scratch.busy) {
+            // Nested roll on the same thread
+            result = run(new int[memory], generator);
+        } else {
+            scratch.busy = true;
+            try {
+                if (scratch.values.length < memory) {
+                    scratch.values = new int[Math.max(memory, scratch.values.length * 2)];
+                }
+                result = run(scratch.values, generator);
+            } finally {
+                scratch.busy = false;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the highest number of dice to keep in a single group. These need to be stored to choose the kept ones.
+     *
+     * @param instructions
+     *            program instructions
+     * @return the biggest group of dice to keep
+     */
+    private final int getKeptDice(final int[] instructions) {
+        int kept;
+        int index;
+
+        kept = 0;
+        index = 0;
+        while (index < instructions.length) {
+            switch (instructions[index]) {
+                case PostfixNotation.CONSTANT:
+                    index += 2;
+                    break;
+                case PostfixNotation.DICE:
+                    DiceRolls.requireKept(instructions[index + 1], instructions[index + 3]);
+                    if (instructions[index + 3] != 0) {
+                        kept = Math.max(kept, Math.abs(instructions[index + 1]));
+                    }
+                    index += 4;
+                    break;
+                case PostfixNotation.SUM:
+                case PostfixNotation.PRODUCT:
+                    index += instructions[index + 1] + 1;
+                    break;
+                default:
+                    index++;
+            }
+        }
+
+        return kept;
+    }
+
+    /**
+     * Applies a binary operation.
+     *
+     * @param opcode
+     *            opcode of the operation
+     * @param left
+     *            left operand
+     * @param right
+     *            right operand
+     * @return the result of the operation
+     */
+    private final int operate(final int opcode, final int left, final int right) {
+        final int result;
+
+        switch (opcode) {
+            case PostfixNotation.ADDITION:
+                result = left + right;
+                break;
+            case PostfixNotation.SUBTRACTION:
+                result = left - right;
+                break;
+            case PostfixNotation.MULTIPLICATION:
+                result = left * right;
+                break;
+            default:
+                result = left / right;
+        }
+
+        return result;
+    }
+
+    /**
+     * Runs the program.
+     *
+     * @param values
+     *            working memory, with room for the stack and the dice to keep
+     * @param generator
+     *            generator for the dice values
+     * @return the total roll
+     */
+    private final int run(final int[] values, final IntNumberGenerator generator) {
+        int opcode;
+        int index;
+        int top;
+        int size;
+
+        top = -1;
+        index = 0;
+        while (index < code.length) {
+            opcode = code[index];
+            switch (opcode) {
+                case PostfixNotation.CONSTANT:
+                    top++;
+                    values[top] = code[index + 1];
+                    index += 2;
+                    break;
+                case PostfixNotation.DICE:
+                    top++;
+                    values[top] = DiceRolls.roll(code[index + 1], code[index + 2], code[index + 3], values, depth,
+                        generator);
+                    index += 4;
+                    break;
+                case PostfixNotation.SUM:
+                case PostfixNotation.PRODUCT:
+                    // The operands are the latest values, in order
+                    size = code[index + 1];
+                    top -= size - 1;
+                    for (int i = 1; i < size; i++) {
+                        values[top] = operate(code[index + 1 + i], values[top], values[top + i]);
+                    }
+                    index += size + 1;
+                    break;
+                default:
+                    top--;
+                    values[top] = operate(opcode, values[top], values[top + 1]);
+                    index++;
+            }
+        }
+
+        return values[0];
+    }
+
+}
@@ -0,0 +1,349 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.compiler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.bernardomg.tabletop.dice.interpreter.DiceInterpreter;
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+import com.bernardomg.tabletop.dice.random.NumberGenerator;
+import com.bernardomg.tabletop.dice.random.RandomNumberGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dice roller which interprets the expressions until they are rolled often, and then compiles them. It returns the
+ * total roll.
+ * <p>
+ * Each expression starts being rolled by a {@link DiceRoller}. Once it has been rolled as many times as the
+ * threshold, it is compiled in the background, and the later rolls use the compiled expression. Expressions rolled only
+ * a few times never pay for compiling.
+ * <p>
+ * Both ways use the same generator, and the compiled expressions roll the dice in the same order as the
+ * {@code DiceRoller}, so the same generated values give the same total before and after compiling. An expression is
+ * only counted when it was rolled successfully, so expressions which the {@code DiceRoller} rejects, such as those
+ * keeping more dice than rolled, are never compiled.
+ * <p>
+ * Expressions are tracked by their fingerprint, which is cheap for reused trees, and checked for equality. The tracked
+ * expressions are bounded. Once there are too many, the least recently rolled ones are forgotten, compiled or not, so
+ * their compiled rolls can be collected. An expression which is forgotten and rolled again starts counting anew.
+ * <p>
+ * The roller is thread safe as long as the generator is thread safe too.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Slf4j
+public final class TieredDiceRoller implements DiceInterpreter<Integer> {
+
+    /**
+     * Counters and compiled roll for an expression.
+     */
+    private static final class Tier {
+
+        /**
+         * Compiled expression, once it is ready.
+         */
+        private volatile CompiledRoll        compiled;
+
+        /**
+         * Tracked expression.
+         */
+        private final DiceNotationExpression expression;
+
+        /**
+         * Number of rolls made with the interpreter.
+         */
+        private final AtomicInteger          rolls = new AtomicInteger();
+
+        /**
+         * Value of the clock the last time the expression was rolled.
+         */
+        private volatile long                used;
+
+        /**
+         * Constructs a tier for the received expression.
+         *
+         * @param exp
+         *            tracked expression
+         */
+        private Tier(final DiceNotationExpression exp) {
+            super();
+
+            expression = exp;
+        }
+
+    }
+
+    /**
+     * Number of expressions forgotten at once, when there are too many tracked. Forgetting several at a time means the
+     * tracked expressions are only sorted once every so many new expressions.
+     */
+    private static final Integer                          EVICTED           = 128;
+
+    /**
+     * Default number of rolls before compiling an expression.
+     */
+    public static final Integer                           DEFAULT_THRESHOLD = 1000;
+
+    /**
+     * Maximum number of tracked expressions.
+     */
+    private static final Integer                          MAX_TRACKED       = 1024;
+
+    /**
+     * Clock for telling how recently each expression was rolled. It only advances when a new expression is tracked, so
+     * rolling a tracked expression never writes to it.
+     */
+    private final AtomicLong                              clock             = new AtomicLong();
+
+    /**
+     * Compiler for the hot expressions.
+     */
+    private final DiceInterpreter<? extends CompiledRoll> compiler;
+
+    /**
+     * Executor for the compilations.
+     */
+    private final Executor                                executor;
+
+    /**
+     * Generator for the compiled expressions.
+     */
+    private final IntNumberGenerator                      generator;
+
+    /**
+     * Interpreter for the cold expressions. The {@code DiceRoller} keeps state while rolling, so each thread gets its
+     * own.
+     */
+    private final ThreadLocal<DiceRoller>                 interpreter;
+
+    /**
+     * Number of rolls before compiling an expression.
+     */
+    private final Integer                                 threshold;
+
+    /**
+     * Tracked expressions, by fingerprint.
+     */
+    private final ConcurrentMap<Long, Tier>               tiers             = new ConcurrentHashMap<>();
+
+    /**
+     * Default constructor.
+     */
+    public TieredDiceRoller() {
+        this(new RandomNumberGenerator());
+    }
+
+    /**
+     * Constructs a roller using the received generator.
+     *
+     * @param numberGenerator
+     *            generator for the dice values
+     */
+    public TieredDiceRoller(final NumberGenerator numberGenerator) {
+        this(numberGenerator, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a roller using the received generator and threshold. Expressions are compiled into stack machine
+     * programs, in the common pool.
+     *
+     * @param numberGenerator
+     *            generator for the dice values
+     * @param rolls
+     *            number of rolls before compiling an expression
+     */
+    public TieredDiceRoller(final NumberGenerator numberGenerator, final Integer rolls) {
+        this(numberGenerator, rolls, new DiceCompiler(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a roller using the received generator, threshold and compiler.
+     *
+     * @param numberGenerator
+     *            generator for the dice values
+     * @param rolls
+     *            number of rolls before compiling an expression
+     * @param hotCompiler
+     *            compiler for the hot expressions
+     * @param compilerExecutor
+     *            executor for the compilations
+     */
+    public TieredDiceRoller(final NumberGenerator numberGenerator, final Integer rolls,
+            final DiceInterpreter<? extends CompiledRoll> hotCompiler, final Executor compilerExecutor) {
+        super();
+
+        Objects.requireNonNull(numberGenerator, "Received a null pointer as generator");
+
+        threshold = Objects.requireNonNull(rolls, "Received a null pointer as threshold");
+        compiler = Objects.requireNonNull(hotCompiler, "Received a null pointer as compiler");
+        executor = Objects.requireNonNull(compilerExecutor, "Received a null pointer as executor");
+
+        if (threshold <= 0) {
+            throw new IllegalArgumentException(
+                String.format("The threshold should be positive, but got %d", threshold));
+        }
+
+        interpreter = ThreadLocal.withInitial(() -> new DiceRoller(numberGenerator));
+        generator = numberGenerator::generate;
+    }
+
+    /**
+     * Returns the number of tracked expressions which are already compiled.
+     *
+     * @return the number of compiled expressions
+     */
+    public final Long getCompiled() {
+        return tiers.values()
+            .stream()
+            .filter(t -> t.compiled != null)
+            .count();
+    }
+
+    /**
+     * Returns the number of rolls before compiling an expression.
+     *
+     * @return the compiling threshold
+     */
+    public final Integer getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns the number of tracked expressions, compiled or not.
+     *
+     * @return the number of tracked expressions
+     */
+    public final Integer getTracked() {
+        return tiers.size();
+    }
+
+    @Override
+    public final Integer transform(final DiceNotationExpression expression) {
+        final Tier         tier;
+        final CompiledRoll compiled;
+        final Integer      result;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        tier = getTier(expression);
+        if (tier == null) {
+            compiled = null;
+        } else {
+            compiled = tier.compiled;
+        }
+
+        if (compiled == null) {
+            result = interpreter.get()
+                .transform(expression)
+                .getTotalRoll();
+            if ((tier != null) && (tier.rolls.incrementAndGet() == threshold)) {
+                promote(tier);
+            }
+        } else {
+            result = compiled.roll(generator);
+        }
+
+        return result;
+    }
+
+    /**
+     * Forgets the least recently rolled expressions.
+     */
+    private final void evict() {
+        final List<Map.Entry<Long, Tier>> tracked;
+        Map.Entry<Long, Tier>             entry;
+
+        tracked = new ArrayList<>(tiers.entrySet());
+        tracked.sort(Comparator.comparingLong(e -> e.getValue().used));
+        for (Integer i = 0; (i < EVICTED) && (i < tracked.size()); i++) {
+            entry = tracked.get(i);
+            log.trace("Forgetting expression {}", entry.getValue().expression);
+            tiers.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the tier for an expression, tracking it if needed. Returns {@code null} if another expression has the
+     * same fingerprint.
+     *
+     * @param expression
+     *            expression to find
+     * @return the tier for the expression
+     */
+    private final Tier getTier(final DiceNotationExpression expression) {
+        final Long fingerprint;
+        final long now;
+        Tier       tier;
+
+        fingerprint = expression.getFingerprint();
+        tier = tiers.get(fingerprint);
+        if (tier == null) {
+            if (tiers.size() >= MAX_TRACKED) {
+                // Forgets the least recently rolled expressions
+                evict();
+            }
+            clock.incrementAndGet();
+            tier = tiers.computeIfAbsent(fingerprint, k -> new Tier(expression));
+        }
+
+        now = clock.get();
+        if (tier.used != now) {
+            // Only written when the clock advanced, so hot tiers are not written on each roll
+            tier.used = now;
+        }
+
+        if ((tier.expression != expression) && (!tier.expression.equals(expression))) {
+            // Fingerprint collision
+            tier = null;
+        }
+
+        return tier;
+    }
+
+    /**
+     * Compiles the expression of a tier in the background. If compiling fails, the expression keeps being interpreted.
+     *
+     * @param tier
+     *            tier to compile
+     */
+    private final void promote(final Tier tier) {
+        log.debug("Compiling expression {} after {} rolls", tier.expression, threshold);
+
+        executor.execute(() -> {
+            try {
+                tier.compiled = compiler.transform(tier.expression);
+            } catch (final RuntimeException e) {
+                log.warn("Failed to compile expression {}", tier.expression, e);
+            }
+        });
+    }
+
+}
@@ -80,7 +80,8 @@ public DefaultRollResult(@NonNull final Dice d, @NonNull final Iterable<Integer>
     public DefaultRollResult(@NonNull final Integer total) {
         super();
 
-        dice = new DefaultDice(1, total, 0); // TODO: this may need changing
+        // Any value may be received, so these dice are not interned
+        dice = DefaultDice.valueOfUninterned(1, total, 0); // TODO: this may need changing
         totalRoll = Objects.requireNonNull(total, "Received a null pointer as total roll");
 
         allRolls = Arrays.asList(total);
@@ -0,0 +1,451 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.interpreter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Stack;
+import java.util.TreeMap;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.Dice;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.ConstantOperand;
+import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.DiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.DivisionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.MultiplicationOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transforms an expression into its canonical form, so equivalent expressions become equal trees.
+ * <p>
+ * The canonical form is built this way:
+ * <ul>
+ * <li>Chains of additions and subtractions, parenthesized or not, are flattened into a list of terms.</li>
+ * <li>Dice with the same sides, no keep or drop, and the same sign are merged, so {@code 1d6+2d6} becomes
+ * {@code 3d6}.</li>
+ * <li>Constant terms are added into a single constant, which goes last.</li>
+ * <li>The terms are sorted. Added terms go before subtracted ones, dice go before other terms, and dice with more sides
+ * go first.</li>
+ * <li>Chains of multiplications are handled in the same way, except that dice are not merged.</li>
+ * <li>Divisions are kept as they are, as they are neither commutative nor associative, but their operands are
+ * canonicalized.</li>
+ * </ul>
+ * <p>
+ * So {@code 2+1d6}, {@code 1d6+2} and {@code 1d6+1+1} share the canonical form {@code 1d6+2}, and with it the same
+ * {@link DiceNotationExpression#getFingerprint() fingerprint}.
+ * <p>
+ * The canonical form has the same distribution of values as the original expression, but the dice may be rolled in
+ * a different order. N-ary operations are turned into binary ones.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Slf4j
+public final class Canonicalizer implements DiceInterpreter<DiceNotationExpression> {
+
+    /**
+     * Order for dice. More sides first, then more dice, then by keep.
+     */
+    private static final Comparator<Dice> DICE_ORDER = Comparator.comparing(Dice::getSides)
+        .reversed()
+        .thenComparing(Comparator.comparing(Dice::getQuantity)
+            .reversed())
+        .thenComparing(Dice::getKeep);
+
+    /**
+     * Order for any other expression. By fingerprint, and then by text in case of collisions.
+     */
+    private static final Comparator<Term> TERM_ORDER = Comparator
+        .comparing((final Term t) -> t.getExpression()
+            .getFingerprint())
+        .thenComparing(t -> t.getExpression()
+            .getExpression());
+
+    /**
+     * Default constructor.
+     */
+    public Canonicalizer() {
+        super();
+    }
+
+    @Override
+    public final DiceNotationExpression transform(final DiceNotationExpression expression) {
+        final DiceNotationExpression result;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        result = canonicalize(expression);
+
+        log.debug("Canonicalized {} into {}", expression.getExpression(), result.getExpression());
+
+        return result;
+    }
+
+    /**
+     * Returns the canonical form of the received expression.
+     *
+     * @param expression
+     *            expression to canonicalize
+     * @return the canonical expression
+     */
+    private final DiceNotationExpression canonicalize(final DiceNotationExpression expression) {
+        final DiceNotationExpression result;
+
+        if (expression instanceof NaryOperation) {
+            result = canonicalize(((NaryOperation) expression).toBinary());
+        } else if ((expression instanceof AdditionOperation) || (expression instanceof SubtractionOperation)) {
+            result = canonicalizeSum(expression);
+        } else if (expression instanceof MultiplicationOperation) {
+            result = canonicalizeProduct(expression);
+        } else if (expression instanceof DivisionOperation) {
+            result = canonicalizeDivision((DivisionOperation) expression);
+        } else if (expression instanceof ConstantOperand) {
+            result = IntegerOperand.valueOf(((ConstantOperand) expression).getValue());
+        } else if ((expression instanceof DiceOperand)
+                && (((DiceOperand) expression).getDice() instanceof DefaultDice)) {
+            result = DefaultDiceOperand.valueOf(((DiceOperand) expression).getDice());
+        } else {
+            // Unknown expression
+            result = expression;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the canonical form of a division. Only the operands are canonicalized, and divisions between constants
+     * are folded, unless they are divisions by zero.
+     *
+     * @param division
+     *            division to canonicalize
+     * @return the canonical expression
+     */
+    private final DiceNotationExpression canonicalizeDivision(final DivisionOperation division) {
+        final DiceNotationExpression left;
+        final DiceNotationExpression right;
+        final DiceNotationExpression result;
+
+        left = canonicalize(division.getLeft());
+        right = canonicalize(division.getRight());
+
+        if ((left instanceof ConstantOperand) && (right instanceof ConstantOperand)
+                && (((ConstantOperand) right).getValue() != 0)) {
+            result = IntegerOperand.valueOf(
+                ((ConstantOperand) left).getValue() / ((ConstantOperand) right).getValue());
+        } else {
+            result = new DivisionOperation(left, right);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the canonical form of a chain of multiplications.
+     *
+     * @param expression
+     *            root of the chain
+     * @return the canonical expression
+     */
+    private final DiceNotationExpression canonicalizeProduct(final DiceNotationExpression expression) {
+        final Stack<DiceNotationExpression> pending;
+        final List<DiceOperand>             dice;
+        final List<Term>                    others;
+        DiceNotationExpression              current;
+        DiceNotationExpression              factor;
+        Integer                             constant;
+        Boolean                             hasConstant;
+        DiceNotationExpression              result;
+
+        dice = new ArrayList<>();
+        others = new ArrayList<>();
+        constant = 1;
+        hasConstant = false;
+
+        // Factors are gathered without recursion over the chain
+        pending = new Stack<>();
+        pending.push(expression);
+        while (!pending.isEmpty()) {
+            current = pending.pop();
+            if (current instanceof MultiplicationOperation) {
+                pending.push(((MultiplicationOperation) current).getRight());
+                pending.push(((MultiplicationOperation) current).getLeft());
+            } else if (current instanceof NaryOperation) {
+                pending.push(((NaryOperation) current).toBinary());
+            } else {
+                factor = canonicalize(current);
+                if (factor instanceof ConstantOperand) {
+                    constant *= ((ConstantOperand) factor).getValue();
+                    hasConstant = true;
+                } else if (factor instanceof DiceOperand) {
+                    dice.add((DiceOperand) factor);
+                } else {
+                    others.add(new Term(factor, false));
+                }
+            }
+        }
+
+        dice.sort(Comparator.comparing(DiceOperand::getDice, DICE_ORDER));
+        others.sort(TERM_ORDER);
+
+        result = null;
+        for (final DiceOperand operand : dice) {
+            result = multiply(result, operand);
+        }
+        for (final Term term : others) {
+            result = multiply(result, term.getExpression());
+        }
+        // A constant one is only kept if there is nothing else
+        if ((result == null) || (hasConstant && (constant != 1))) {
+            result = multiply(result, IntegerOperand.valueOf(constant));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the canonical form of a chain of additions and subtractions.
+     *
+     * @param expression
+     *            root of the chain
+     * @return the canonical expression
+     */
+    private final DiceNotationExpression canonicalizeSum(final DiceNotationExpression expression) {
+        final Stack<Term>           pending;
+        final Map<DiceKey, Integer> merged;
+        final List<Term>            others;
+        final List<Term>            terms;
+        Term                        current;
+        DiceNotationExpression      term;
+        Dice                        dice;
+        Boolean                     negative;
+        Integer                     constant;
+        DiceNotationExpression      result;
+
+        merged = new TreeMap<>();
+        others = new ArrayList<>();
+        constant = 0;
+
+        // Terms are gathered without recursion over the chain
+        pending = new Stack<>();
+        pending.push(new Term(expression, false));
+        while (!pending.isEmpty()) {
+            current = pending.pop();
+            term = current.getExpression();
+            if (term instanceof AdditionOperation) {
+                pending.push(new Term(((AdditionOperation) term).getRight(), current.getNegative()));
+                pending.push(new Term(((AdditionOperation) term).getLeft(), current.getNegative()));
+            } else if (term instanceof SubtractionOperation) {
+                pending.push(new Term(((SubtractionOperation) term).getRight(), !current.getNegative()));
+                pending.push(new Term(((SubtractionOperation) term).getLeft(), current.getNegative()));
+            } else if (term instanceof NaryOperation) {
+                pending.push(new Term(((NaryOperation) term).toBinary(), current.getNegative()));
+            } else {
+                term = canonicalize(term);
+                if (term instanceof ConstantOperand) {
+                    if (current.getNegative()) {
+                        constant -= ((ConstantOperand) term).getValue();
+                    } else {
+                        constant += ((ConstantOperand) term).getValue();
+                    }
+                } else if (isMergeable(term)) {
+                    // The sign of the quantity is moved to the term
+                    dice = ((DiceOperand) term).getDice();
+                    negative = current.getNegative() ^ (dice.getQuantity() < 0);
+                    merged.merge(new DiceKey(negative, dice.getSides()), Math.abs(dice.getQuantity()), Integer::sum);
+                } else if ((term instanceof DiceOperand) && (((DiceOperand) term).getDice()
+                    .getQuantity() < 0)) {
+                    // The sign of the quantity is moved to the term
+                    dice = ((DiceOperand) term).getDice();
+                    others.add(new Term(DefaultDiceOperand.valueOf(
+                        DefaultDice.valueOf(0 - dice.getQuantity(), dice.getSides(), dice.getKeep())),
+                        !current.getNegative()));
+                } else {
+                    others.add(new Term(term, current.getNegative()));
+                }
+            }
+        }
+
+        others.sort(TERM_ORDER);
+
+        // Added terms first, then subtracted ones
+        terms = new ArrayList<>();
+        for (final Boolean sign : new Boolean[] { false, true }) {
+            merged.forEach((k, q) -> {
+                if (k.getNegative()
+                    .equals(sign)) {
+                    terms.add(new Term(DefaultDiceOperand.valueOf(DefaultDice.valueOf(q, k.getSides(), 0)), sign));
+                }
+            });
+            others.stream()
+                .filter(t -> t.getNegative()
+                    .equals(sign))
+                .forEach(terms::add);
+        }
+
+        result = null;
+        for (final Term t : terms) {
+            result = add(result, t);
+        }
+        // A constant zero is only kept if there is nothing else
+        if (result == null) {
+            result = IntegerOperand.valueOf(constant);
+        } else if ((constant < 0) && (constant != Integer.MIN_VALUE)) {
+            result = new SubtractionOperation(result, IntegerOperand.valueOf(0 - constant));
+        } else if (constant != 0) {
+            result = new AdditionOperation(result, IntegerOperand.valueOf(constant));
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds the term to the accumulated expression. If there is no accumulated expression, the term becomes the first
+     * one.
+     *
+     * @param accumulated
+     *            expression accumulated so far, or {@code null} if there is none
+     * @param term
+     *            term to add
+     * @return the expression with the term
+     */
+    private final DiceNotationExpression add(final DiceNotationExpression accumulated, final Term term) {
+        final DiceNotationExpression result;
+        final Dice                   dice;
+
+        if ((accumulated == null) && (term.getNegative()) && (term.getExpression() instanceof DiceOperand)) {
+            // Negative first dice
+            dice = ((DiceOperand) term.getExpression()).getDice();
+            result = DefaultDiceOperand
+                .valueOf(DefaultDice.valueOf(0 - dice.getQuantity(), dice.getSides(), dice.getKeep()));
+        } else if ((accumulated == null) && (term.getNegative())) {
+            // Negative first expression
+            result = new SubtractionOperation(IntegerOperand.valueOf(0), term.getExpression());
+        } else if (accumulated == null) {
+            result = term.getExpression();
+        } else if (term.getNegative()) {
+            result = new SubtractionOperation(accumulated, term.getExpression());
+        } else {
+            result = new AdditionOperation(accumulated, term.getExpression());
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if the expression is a dice which can be merged with others with the same sides.
+     *
+     * @param expression
+     *            expression to check
+     * @return {@code true} if the dice can be merged, {@code false} otherwise
+     */
+    private final Boolean isMergeable(final DiceNotationExpression expression) {
+        final Boolean mergeable;
+        final Dice    dice;
+
+        if ((expression instanceof DiceOperand) && (((DiceOperand) expression).getDice() instanceof DefaultDice)) {
+            dice = ((DiceOperand) expression).getDice();
+            mergeable = (dice.getKeep() == 0) && (dice.getQuantity() != 0);
+        } else {
+            mergeable = false;
+        }
+
+        return mergeable;
+    }
+
+    /**
+     * Multiplies the accumulated expression by the factor. If there is no accumulated expression, the factor becomes
+     * the first one.
+     *
+     * @param accumulated
+     *            expression accumulated so far, or {@code null} if there is none
+     * @param factor
+     *            factor to multiply by
+     * @return the expression with the factor
+     */
+    private final DiceNotationExpression multiply(final DiceNotationExpression accumulated,
+            final DiceNotationExpression factor) {
+        final DiceNotationExpression result;
+
+        if (accumulated == null) {
+            result = factor;
+        } else {
+            result = new MultiplicationOperation(accumulated, factor);
+        }
+
+        return result;
+    }
+
+    /**
+     * Key for merging dice. Sorted with added dice first, and then by sides, from more to less.
+     */
+    @Data
+    private static final class DiceKey implements Comparable<DiceKey> {
+
+        /**
+         * Flag telling if the dice are subtracted.
+         */
+        private final Boolean negative;
+
+        /**
+         * Number of sides.
+         */
+        private final Integer sides;
+
+        @Override
+        public final int compareTo(final DiceKey other) {
+            final int result;
+
+            if (negative.equals(other.negative)) {
+                result = Integer.compare(other.sides, sides);
+            } else {
+                result = Boolean.compare(negative, other.negative);
+            }
+
+            return result;
+        }
+
+    }
+
+    /**
+     * Term in a chain of operations, with its sign.
+     */
+    @Data
+    private static final class Term {
+
+        /**
+         * Term expression.
+         */
+        private final DiceNotationExpression expression;
+
+        /**
+         * Flag telling if the term is subtracted.
+         */
+        private final Boolean negative;
+
+    }
+
+}
@@ -22,6 +22,7 @@
 import com.bernardomg.tabletop.dice.notation.operand.ConstantOperand;
 import com.bernardomg.tabletop.dice.notation.operand.DiceOperand;
 import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
 import com.bernardomg.tabletop.dice.visitor.NotationAccumulator;
 
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +33,10 @@
  * It chains a traverser, which is another interpreter returning an {@code Iterable<DiceNotationExpression>}, with a
  * {@link NotationAccumulator}. The traverser will flatten the notation tree, and then the accumulator will go through
  * it.
+ * <p>
+ * If the accumulator doesn't support n-ary operations, as told by
+ * {@link NotationAccumulator#supportsNaryOperations()}, these are expanded into binary ones before traversing the
+ * tree. So these accumulators get the same nodes as if the chains had not been flattened.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  *
@@ -46,6 +51,11 @@
      */
     private final NotationAccumulator<V>                            accumulator;
 
+    /**
+     * Expander for n-ary operations. Only used if the accumulator doesn't support them.
+     */
+    private final DiceInterpreter<DiceNotationExpression>           expander;
+
     /**
      * Intrepreter to flatten the received tree.
      */
@@ -65,6 +75,14 @@ public ConfigurableInterpreter(final DiceInterpreter<Iterable<DiceNotationExpres
 
         traverser = Objects.requireNonNull(trav, "Received a null pointer as traverser");
         accumulator = Objects.requireNonNull(accum, "Received a null pointer as accumulator");
+
+        if (accumulator.supportsNaryOperations()) {
+            expander = null;
+        } else {
+            log.debug("Accumulator {} doesn't support n-ary operations, these will be expanded",
+                accumulator.getClass());
+            expander = new NaryOperationExpander();
+        }
     }
 
     @Override
@@ -77,7 +95,11 @@ public final V transform(final DiceNotationExpression expression) {
         log.debug("Root expression {}", expression);
 
         // The expression is broken down
-        exps = traverser.transform(expression);
+        if (expander == null) {
+            exps = traverser.transform(expression);
+        } else {
+            exps = traverser.transform(expander.transform(expression));
+        }
 
         log.trace("Traversed root into {}", exps);
 
@@ -108,6 +130,8 @@ private final V process(final Iterable<DiceNotationExpression> nodes) {
                 accumulator.constantOperand((ConstantOperand) current);
             } else if (current instanceof DiceOperand) {
                 accumulator.diceOperand((DiceOperand) current);
+            } else if (current instanceof NaryOperation) {
+                accumulator.naryOperation((NaryOperation) current);
             } else {
                 log.warn("Unsupported expression of type {}", current.getClass());
             }
@@ -18,18 +18,24 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Stack;
 
 import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
 import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
 
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Breaks down the received expression into an inorder list.
  * <p>
  * The tree {@code ((1 + 2) - 3)} becomes {@code 1 + 2 - 3} with this transformer.
+ * <p>
+ * N-ary operations are repeated between each pair of operands, so the chain {@code 1 + 2 - 3} becomes
+ * {@code 1 +- 2 +- 3}.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  *
@@ -49,6 +55,7 @@ public final Iterable<DiceNotationExpression> transform(final DiceNotationExpres
         final Stack<DiceNotationExpression>      nodes;
         final Collection<DiceNotationExpression> exps;
         DiceNotationExpression                   current;
+        List<DiceNotationExpression>             operands;
 
         Objects.requireNonNull(expression, "Received a null pointer as expression");
 
@@ -64,19 +71,37 @@ public final Iterable<DiceNotationExpression> transform(final DiceNotationExpres
                 current = nodes.pop();
                 log.debug("No current node. Recovered {} from stack", current);
 
-                // This is the next node for inorder traverse
-                log.debug("Stored current node {} into return", current);
-                exps.add(current);
-
-                if (current instanceof BinaryOperation) {
-                    // Moves to a right node
-                    current = ((BinaryOperation) current).getRight();
-                    log.trace("Moved to right node {}", current);
+                if (current instanceof OperandStep) {
+                    // Operand from an n-ary operation
+                    // The operation goes before it
+                    log.debug("Stored current node {} into return", ((OperandStep) current).getOperation());
+                    exps.add(((OperandStep) current).getOperation());
+                    current = ((OperandStep) current).getOperand();
+                    log.trace("Moved to next operand {}", current);
                 } else {
-                    // Not binary node
-                    // There is no right node
-                    current = null;
+                    // This is the next node for inorder traverse
+                    log.debug("Stored current node {} into return", current);
+                    exps.add(current);
+
+                    if (current instanceof BinaryOperation) {
+                        // Moves to a right node
+                        current = ((BinaryOperation) current).getRight();
+                        log.trace("Moved to right node {}", current);
+                    } else {
+                        // Not binary node
+                        // There is no right node
+                        current = null;
+                    }
                 }
+            } else if (current instanceof NaryOperation) {
+                // Stores the steps to the following operands, and moves to the first one
+                operands = ((NaryOperation) current).getOperands();
+                for (Integer i = operands.size() - 1; i > 0; i--) {
+                    nodes.push(new OperandStep(operands.get(i), (NaryOperation) current));
+                }
+                log.trace("Pushed n-ary operands into stack");
+                current = operands.get(0);
+                log.trace("Moved to first operand {}", current);
             } else {
                 // Store and keep moving
                 nodes.push(current);
@@ -96,4 +121,27 @@ public final Iterable<DiceNotationExpression> transform(final DiceNotationExpres
         return exps;
     }
 
+    /**
+     * Step to one of the operands of an n-ary operation, after the first one.
+     */
+    @Data
+    private static final class OperandStep implements DiceNotationExpression {
+
+        /**
+         * Operand to move to.
+         */
+        private final DiceNotationExpression operand;
+
+        /**
+         * Operation containing the operand.
+         */
+        private final NaryOperation          operation;
+
+        @Override
+        public final String getExpression() {
+            return operand.getExpression();
+        }
+
+    }
+
 }
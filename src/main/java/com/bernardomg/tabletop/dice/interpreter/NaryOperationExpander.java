@@ -0,0 +1,149 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Stack;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.DivisionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.MultiplicationOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Expands all the n-ary operations in an expression into the equivalent chains of binary operations.
+ * <p>
+ * The tree is rebuilt from its postorder, so long chains don't exhaust the call stack. Nodes without n-ary operations
+ * below them are kept as they are.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class NaryOperationExpander implements DiceInterpreter<DiceNotationExpression> {
+
+    /**
+     * Traverser to flatten the received tree.
+     */
+    private final DiceInterpreter<Iterable<DiceNotationExpression>> traverser = new PostorderTraverser();
+
+    /**
+     * Default constructor.
+     */
+    public NaryOperationExpander() {
+        super();
+    }
+
+    @Override
+    public final DiceNotationExpression transform(final DiceNotationExpression expression) {
+        final Stack<DiceNotationExpression> expanded;
+        List<DiceNotationExpression>        operands;
+        DiceNotationExpression              left;
+        DiceNotationExpression              right;
+        Integer                             count;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        expanded = new Stack<>();
+        for (final DiceNotationExpression current : traverser.transform(expression)) {
+            if (current instanceof BinaryOperation) {
+                right = expanded.pop();
+                left = expanded.pop();
+                expanded.push(rebuild((BinaryOperation) current, left, right));
+            } else if (current instanceof NaryOperation) {
+                count = ((NaryOperation) current).getOperands()
+                    .size();
+                operands = new ArrayList<>(expanded.subList(expanded.size() - count, expanded.size()));
+                expanded.setSize(expanded.size() - count);
+                expanded.push(toBinary((NaryOperation) current, operands));
+            } else {
+                expanded.push(current);
+            }
+        }
+
+        return expanded.pop();
+    }
+
+    /**
+     * Returns the binary operation with the received operands. If these are the original ones, the operation is
+     * returned unchanged.
+     *
+     * @param operation
+     *            operation to rebuild
+     * @param left
+     *            expanded left operand
+     * @param right
+     *            expanded right operand
+     * @return the operation with the expanded operands
+     */
+    private final DiceNotationExpression rebuild(final BinaryOperation operation, final DiceNotationExpression left,
+            final DiceNotationExpression right) {
+        final DiceNotationExpression result;
+
+        if ((left == operation.getLeft()) && (right == operation.getRight())) {
+            result = operation;
+        } else if (operation instanceof AdditionOperation) {
+            result = new AdditionOperation(left, right);
+        } else if (operation instanceof SubtractionOperation) {
+            result = new SubtractionOperation(left, right);
+        } else if (operation instanceof MultiplicationOperation) {
+            result = new MultiplicationOperation(left, right);
+        } else if (operation instanceof DivisionOperation) {
+            result = new DivisionOperation(left, right);
+        } else {
+            log.warn("Unsupported binary operation of type {}, its operands won't be expanded", operation.getClass());
+            result = operation;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the chain of binary operations equivalent to the n-ary operation, over the expanded operands.
+     *
+     * @param operation
+     *            operation to expand
+     * @param operands
+     *            expanded operands
+     * @return the equivalent binary operations
+     */
+    private final DiceNotationExpression toBinary(final NaryOperation operation,
+            final List<DiceNotationExpression> operands) {
+        final List<ArithmeticOperator> operators;
+        DiceNotationExpression         result;
+
+        operators = operation.getOperators();
+
+        result = operands.get(0);
+        for (Integer i = 1; i < operands.size(); i++) {
+            result = operators.get(i - 1)
+                .toOperation(result, operands.get(i));
+        }
+
+        return result;
+    }
+
+}
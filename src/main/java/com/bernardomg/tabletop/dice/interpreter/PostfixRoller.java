@@ -0,0 +1,238 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.Dice;
+import com.bernardomg.tabletop.dice.history.DefaultRollHistory;
+import com.bernardomg.tabletop.dice.history.DefaultRollResult;
+import com.bernardomg.tabletop.dice.history.RollHistory;
+import com.bernardomg.tabletop.dice.history.RollResult;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.random.DiceToRollResult;
+import com.bernardomg.tabletop.dice.random.NumberGenerator;
+
+/**
+ * Interpreter which simulates rolling a {@link PostfixNotation} program.
+ * <p>
+ * The program is run with arrays as stacks, sized from the program depth, and no tree is involved. The history is
+ * the same one {@link DiceRoller} returns for the equivalent tree, using the same rolls. The only exception are folded
+ * constants, as programs keep just their values, so these appear as a single constant.
+ * <p>
+ * Trees can be rolled too, they are converted into programs first.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PostfixRoller implements DiceInterpreter<RollHistory> {
+
+    /**
+     * Value for the origins which don't come from a constant.
+     */
+    private static final int                 NO_ORIGIN = -1;
+
+    /**
+     * Generator for the rolls.
+     */
+    private final Function<Dice, RollResult> rollGenerator;
+
+    /**
+     * Default constructor.
+     */
+    public PostfixRoller() {
+        this(new DiceToRollResult());
+    }
+
+    /**
+     * Constructs a roller using the received roll generator for simulating rolls.
+     *
+     * @param roller
+     *            the roller to use
+     */
+    public PostfixRoller(final Function<Dice, RollResult> roller) {
+        super();
+
+        rollGenerator = Objects.requireNonNull(roller, "Received a null pointer as roll generator");
+    }
+
+    /**
+     * Constructs a roller using the received number generator for simulating rolls.
+     *
+     * @param generator
+     *            the random number generator to use
+     */
+    public PostfixRoller(final NumberGenerator generator) {
+        this(new DiceToRollResult(generator));
+    }
+
+    /**
+     * Rolls the received program.
+     *
+     * @param program
+     *            program to roll
+     * @return the history of the roll
+     */
+    public final RollHistory roll(final PostfixNotation program) {
+        final List<RollResult> results;
+        final int[]            values;
+        final String[]         texts;
+        final int[]            origins;
+        final int              length;
+        RollResult             rollResult;
+        ArithmeticOperator     operator;
+        StringBuilder          text;
+        int                    top;
+        int                    index;
+        int                    size;
+        int                    opcode;
+
+        Objects.requireNonNull(program, "Received a null pointer as program");
+
+        length = program.getLength();
+        values = new int[program.getDepth()];
+        texts = new String[program.getDepth()];
+        origins = new int[program.getDepth()];
+        results = new ArrayList<>();
+
+        top = -1;
+        index = 0;
+        while (index < length) {
+            opcode = program.getInstruction(index);
+            switch (opcode) {
+                case PostfixNotation.CONSTANT:
+                    // Constant
+                    // Stores the value
+                    top++;
+                    values[top] = program.getInstruction(index + 1);
+                    texts[top] = String.valueOf(values[top]);
+                    origins[top] = results.size();
+                    results.add(new DefaultRollResult(values[top]));
+                    index += 2;
+                    break;
+                case PostfixNotation.DICE:
+                    // Dice
+                    // Generates a random value
+                    // The dice are not interned, as this is done on each roll
+                    rollResult = rollGenerator.apply(DefaultDice.valueOfUninterned(program.getInstruction(index + 1),
+                        program.getInstruction(index + 2), program.getInstruction(index + 3)));
+                    results.add(rollResult);
+                    top++;
+                    values[top] = rollResult.getTotalRoll();
+                    texts[top] = getText(rollResult);
+                    origins[top] = NO_ORIGIN;
+                    index += 4;
+                    break;
+                case PostfixNotation.SUM:
+                case PostfixNotation.PRODUCT:
+                    // N-ary operation
+                    // The operands are the latest values, in order
+                    size = program.getInstruction(index + 1);
+                    top -= size - 1;
+                    text = new StringBuilder(texts[top]);
+                    for (Integer i = 1; i < size; i++) {
+                        operator = PostfixNotation.getOperator(program.getInstruction(index + 1 + i));
+                        values[top] = operator.applyAsInt(values[top], values[top + i]);
+                        text.append(' ');
+                        text.append(operator.getSymbol());
+                        text.append(' ');
+                        text.append(texts[top + i]);
+                        if ((operator == ArithmeticOperator.SUBTRACTION) && (origins[top + i] != NO_ORIGIN)) {
+                            // This constant is subtracted
+                            // The sign is changed
+                            negate(results, origins[top + i]);
+                        }
+                    }
+                    texts[top] = text.toString();
+                    origins[top] = NO_ORIGIN;
+                    index += size + 1;
+                    break;
+                default:
+                    // Binary operation
+                    // Takes back the two latest values and applies
+                    operator = PostfixNotation.getOperator(opcode);
+                    top--;
+                    values[top] = operator.applyAsInt(values[top], values[top + 1]);
+                    texts[top] = texts[top] + " " + operator.getSymbol() + " " + texts[top + 1];
+                    if ((opcode == PostfixNotation.SUBTRACTION) && (origins[top + 1] != NO_ORIGIN)) {
+                        // This is a subtraction
+                        // The previous value was a constant
+                        // The sign is changed
+                        negate(results, origins[top + 1]);
+                    }
+                    origins[top] = NO_ORIGIN;
+                    index++;
+            }
+        }
+
+        return new DefaultRollHistory(results, texts[0], values[0]);
+    }
+
+    @Override
+    public final RollHistory transform(final DiceNotationExpression expression) {
+        return roll(PostfixNotation.fromExpression(expression));
+    }
+
+    /**
+     * Returns the text for a dice roll. These are all the rolls, if there is more than one, or the total roll.
+     *
+     * @param rollResult
+     *            roll to get the text for
+     * @return the text for the roll
+     */
+    private final String getText(final RollResult rollResult) {
+        final Long   totalRolls;
+        final String text;
+
+        totalRolls = StreamSupport.stream(rollResult.getAllRolls()
+            .spliterator(), false)
+            .count();
+        if (totalRolls > 1) {
+            text = rollResult.getAllRolls()
+                .toString();
+        } else {
+            text = rollResult.getTotalRoll()
+                .toString();
+        }
+
+        return text;
+    }
+
+    /**
+     * Changes the sign of the result in the received position.
+     *
+     * @param results
+     *            results generated so far
+     * @param index
+     *            position of the result to change
+     */
+    private final void negate(final List<RollResult> results, final int index) {
+        final Integer value;
+
+        value = 0 - results.get(index)
+            .getTotalRoll();
+        results.set(index, new DefaultRollResult(value));
+    }
+
+}
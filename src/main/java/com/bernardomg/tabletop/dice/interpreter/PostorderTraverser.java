@@ -18,12 +18,14 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Stack;
 import java.util.stream.Collectors;
 
 import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
 import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -31,6 +33,8 @@
  * Breaks down the received expression into a postorder list.
  * <p>
  * The tree {@code ((1 + 2) - 3)} becomes {@code 1 2 + 3 -} with this transformer.
+ * <p>
+ * N-ary operations come after all their operands, so the chain {@code 1 + 2 - 3} becomes {@code 1 2 3 +-}.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  *
@@ -50,6 +54,7 @@ public final Iterable<DiceNotationExpression> transform(final DiceNotationExpres
         final Stack<DiceNotationExpression>      nodes;
         final Collection<DiceNotationExpression> exps;
         DiceNotationExpression                   current;
+        List<DiceNotationExpression>             operands;
 
         Objects.requireNonNull(expression, "Received a null pointer as expression");
 
@@ -68,6 +73,16 @@ public final Iterable<DiceNotationExpression> transform(final DiceNotationExpres
                 nodes.push(new ExpressionWrapper(current));
                 nodes.push(((BinaryOperation) current).getRight());
                 nodes.push(((BinaryOperation) current).getLeft());
+            } else if (current instanceof NaryOperation) {
+                // N-ary operation
+                // Temporally prunes node and stores all the operands, the first one on top
+                log.trace("The current node is an n-ary node");
+                log.trace("Pushing node and operands into stack");
+                nodes.push(new ExpressionWrapper(current));
+                operands = ((NaryOperation) current).getOperands();
+                for (Integer i = operands.size() - 1; i >= 0; i--) {
+                    nodes.push(operands.get(i));
+                }
             } else {
                 // Leaf node
                 log.trace("The current node is a leaf node");
@@ -18,11 +18,13 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Stack;
 
 import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
 import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -30,6 +32,8 @@
  * Breaks down the received expression into a preorder list.
  * <p>
  * The tree {@code ((1 + 2) - 3)} becomes {@code - + 1 2 3} with this transformer.
+ * <p>
+ * N-ary operations come before all their operands, so the chain {@code 1 + 2 - 3} becomes {@code +- 1 2 3}.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  *
@@ -49,6 +53,7 @@ public final Iterable<DiceNotationExpression> transform(final DiceNotationExpres
         final Stack<DiceNotationExpression>      nodes;
         final Collection<DiceNotationExpression> exps;
         DiceNotationExpression                   current;
+        List<DiceNotationExpression>             operands;
 
         Objects.requireNonNull(expression, "Received a null pointer as expression");
 
@@ -68,6 +73,13 @@ public final Iterable<DiceNotationExpression> transform(final DiceNotationExpres
                 log.trace("Pushing branches into stack");
                 nodes.push(((BinaryOperation) current).getRight());
                 nodes.push(((BinaryOperation) current).getLeft());
+            } else if (current instanceof NaryOperation) {
+                log.trace("The current node is an n-ary node");
+                log.trace("Pushing operands into stack");
+                operands = ((NaryOperation) current).getOperands();
+                for (Integer i = operands.size() - 1; i >= 0; i--) {
+                    nodes.push(operands.get(i));
+                }
             }
         }
 
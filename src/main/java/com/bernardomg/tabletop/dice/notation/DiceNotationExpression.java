@@ -16,6 +16,10 @@
 
 package com.bernardomg.tabletop.dice.notation;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
 /**
  * A dice notation expression.
  * <p>
@@ -27,6 +31,44 @@
  */
 public interface DiceNotationExpression {
 
+    /**
+     * Writes the expression into the received output.
+     * <p>
+     * This writes the same text returned by {@link #getExpression()}, but it allows writing straight into an existing
+     * buffer or stream.
+     *
+     * @param out
+     *            output where the expression is written
+     * @throws UncheckedIOException
+     *             if the output fails
+     */
+    public default void appendExpression(final Appendable out) {
+        Objects.requireNonNull(out, "Received a null pointer as output");
+
+        try {
+            out.append(getExpression());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a 64-bit structural fingerprint for the expression.
+     * <p>
+     * Expressions with the same structure and values have the same fingerprint, which makes it a cheap key for caches.
+     * Different expressions have different fingerprints, except for unlikely collisions, so caches should still
+     * compare the expressions for equality. Equivalent but different trees, such as {@code 2+1d6} and {@code 1d6+2},
+     * only share a fingerprint after being canonicalized.
+     * <p>
+     * By default this is taken from the expression text.
+     *
+     * @return the expression fingerprint
+     * @see Fingerprints
+     */
+    public default Long getFingerprint() {
+        return Fingerprints.ofText(getExpression());
+    }
+
     /**
      * Returns the expression as a string.
      * <p>
@@ -0,0 +1,160 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.notation;
+
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.Dice;
+
+/**
+ * Builds the 64-bit structural fingerprints for expressions.
+ * <p>
+ * Each node combines a tag for its kind with its own values, and with the fingerprints of its children, in order. So
+ * trees with the same structure and values share a fingerprint, and any other tree gets a different one, except for
+ * unlikely collisions. It is not a cryptographic hash.
+ * <p>
+ * The values are mixed with the MurmurHash3 finalizer, which spreads each bit of the input over the whole result.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class Fingerprints {
+
+    /**
+     * Tag for binary operations.
+     */
+    public static final Long  BINARY_TAG   = 0x62696E617279L;
+
+    /**
+     * Tag for constants.
+     */
+    public static final Long  CONSTANT_TAG = 0x636F6E7374L;
+
+    /**
+     * Tag for dice.
+     */
+    public static final Long  DICE_TAG     = 0x64696365L;
+
+    /**
+     * Tag for n-ary operations.
+     */
+    public static final Long  NARY_TAG     = 0x6E617279L;
+
+    /**
+     * Tag for expressions identified only by their text.
+     */
+    public static final Long  TEXT_TAG     = 0x74657874L;
+
+    /**
+     * Multiplier applied to the accumulated value before adding a new one. The 64-bit golden ratio.
+     */
+    private static final long GOLDEN       = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Combines the accumulated fingerprint with a new value. The order of the values is taken into account.
+     *
+     * @param seed
+     *            fingerprint accumulated so far
+     * @param value
+     *            value to add
+     * @return the combined fingerprint
+     */
+    public static final Long combine(final Long seed, final Long value) {
+        return mix((seed * GOLDEN) + value);
+    }
+
+    /**
+     * Returns the fingerprint for a constant.
+     *
+     * @param value
+     *            constant value
+     * @return the fingerprint for the constant
+     */
+    public static final Long ofConstant(final Integer value) {
+        return combine(CONSTANT_TAG, value.longValue());
+    }
+
+    /**
+     * Returns the fingerprint for a dice.
+     *
+     * @param dice
+     *            dice to fingerprint
+     * @return the fingerprint for the dice
+     */
+    public static final Long ofDice(final Dice dice) {
+        Long fingerprint;
+
+        Objects.requireNonNull(dice, "Received a null pointer as dice");
+
+        fingerprint = combine(DICE_TAG, dice.getQuantity()
+            .longValue());
+        fingerprint = combine(fingerprint, dice.getSides()
+            .longValue());
+        fingerprint = combine(fingerprint, dice.getKeep()
+            .longValue());
+
+        return fingerprint;
+    }
+
+    /**
+     * Returns the fingerprint for an expression text. Used for expressions which don't know their own structure.
+     *
+     * @param text
+     *            expression text
+     * @return the fingerprint for the text
+     */
+    public static final Long ofText(final CharSequence text) {
+        long fingerprint;
+
+        Objects.requireNonNull(text, "Received a null pointer as text");
+
+        // Primitive, to avoid boxing each character
+        fingerprint = TEXT_TAG;
+        for (int i = 0; i < text.length(); i++) {
+            fingerprint = mix((fingerprint * GOLDEN) + text.charAt(i));
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Spreads the bits of the received value over the result.
+     *
+     * @param value
+     *            value to mix
+     * @return the mixed value
+     */
+    private static final long mix(final long value) {
+        long result;
+
+        result = value;
+        result ^= result >>> 33;
+        result *= 0xFF51AFD7ED558CCDL;
+        result ^= result >>> 33;
+        result *= 0xC4CEB9FE1A85EC53L;
+        result ^= result >>> 33;
+
+        return result;
+    }
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private Fingerprints() {
+        super();
+    }
+
+}
@@ -16,28 +16,135 @@
 
 package com.bernardomg.tabletop.dice.notation.operand;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
 import com.bernardomg.tabletop.dice.Dice;
+import com.bernardomg.tabletop.dice.WeakInterner;
+import com.bernardomg.tabletop.dice.notation.Fingerprints;
 
 import lombok.Data;
 import lombok.NonNull;
 
 /**
  * Default implementation of the dice operand.
+ * <p>
+ * Operands for the usual dice can be acquired with {@link #valueOf(Dice)}, which returns shared instances, one for
+ * each of the dice preallocated by {@link DefaultDice}. Other operands are interned if the
+ * {@value WeakInterner#INTERN_PROPERTY} system property is {@code true}, and created anew otherwise.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
 @Data
 public final class DefaultDiceOperand implements DiceOperand {
 
+    /**
+     * Interner for the operands outside the table. Used only if interning is enabled.
+     */
+    private static final WeakInterner<DefaultDiceOperand> INTERNER  = new WeakInterner<>();
+
+    /**
+     * Flag telling if the operands outside the table are interned.
+     */
+    private static final Boolean                          INTERNING = Boolean
+        .getBoolean(WeakInterner.INTERN_PROPERTY);
+
+    /**
+     * Preallocated operands, mapped to their dice. It is never modified after being built, so it can be shared.
+     */
+    private static final Map<Dice, DefaultDiceOperand>    TABLE     = buildTable();
+
     /**
      * Operand dice value.
      */
     @NonNull
     private final Dice dice;
 
+    /**
+     * Returns an operand for the received dice. Operands for the preallocated dice are taken from a table, so the same
+     * instance is returned for them each time. Otherwise the received dice is kept, unless interning.
+     *
+     * @param dice
+     *            operand dice
+     * @return an operand for the received dice
+     */
+    public static final DefaultDiceOperand valueOf(@NonNull final Dice dice) {
+        final DefaultDice        preallocated;
+        final DefaultDiceOperand shared;
+        final DefaultDiceOperand operand;
+
+        if (dice instanceof DefaultDice) {
+            // Equal dice are swapped for the shared instance, which is the key on the table
+            preallocated = DefaultDice.findPreallocated(dice.getQuantity(), dice.getSides(), dice.getKeep());
+        } else {
+            // Other implementations are never in the table
+            preallocated = null;
+        }
+
+        if (preallocated == null) {
+            shared = null;
+        } else {
+            shared = TABLE.get(preallocated);
+        }
+
+        if (shared != null) {
+            operand = shared;
+        } else if (INTERNING && (dice instanceof DefaultDice)) {
+            operand = INTERNER.intern(
+                new DefaultDiceOperand(DefaultDice.valueOf(dice.getQuantity(), dice.getSides(), dice.getKeep())));
+        } else if (INTERNING) {
+            operand = INTERNER.intern(new DefaultDiceOperand(dice));
+        } else {
+            operand = new DefaultDiceOperand(dice);
+        }
+
+        return operand;
+    }
+
+    @Override
+    public final void appendExpression(final Appendable out) {
+        Objects.requireNonNull(out, "Received a null pointer as output");
+
+        try {
+            out.append(getDice().getQuantity()
+                .toString());
+            out.append('d');
+            out.append(getDice().getSides()
+                .toString());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Override
     public final String getExpression() {
-        return String.format("%dd%d", getDice().getQuantity(), getDice().getSides());
+        return getDice().getQuantity() + "d" + getDice().getSides();
+    }
+
+    @Override
+    public final Long getFingerprint() {
+        return Fingerprints.ofDice(getDice());
+    }
+
+    /**
+     * Builds the table of preallocated operands.
+     *
+     * @return the preallocated operands
+     */
+    private static final Map<Dice, DefaultDiceOperand> buildTable() {
+        final Map<Dice, DefaultDiceOperand> table;
+
+        // Compared by identity, as only the shared dice instances are keys
+        table = new IdentityHashMap<>();
+        for (final DefaultDice dice : DefaultDice.getPreallocated()) {
+            table.put(dice, new DefaultDiceOperand(dice));
+        }
+
+        return table;
     }
 
 }
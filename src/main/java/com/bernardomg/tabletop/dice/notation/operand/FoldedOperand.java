@@ -0,0 +1,216 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.notation.operand;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Stack;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operation.AbstractArithmeticOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Operand for the constant value of an operation between constants, which was folded while parsing.
+ * <p>
+ * It keeps the original operation, so the expression text, the fingerprint and the roll histories stay the same as
+ * for the operation. Only its value is taken by those interpreters which just compute totals.
+ * <p>
+ * What the operation adds to a roll history, its constants and its text, is built once, the first time it is required,
+ * and then kept. So rolling a folded constant again doesn't walk the original operation.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Data
+public final class FoldedOperand implements ConstantOperand {
+
+    /**
+     * Cached constants for the roll histories. Built the first time they are required.
+     * <p>
+     * It is not synchronized, as it is an immutable value, and building it more than once gives the same list.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private volatile List<Integer>       constants;
+
+    /**
+     * Cached text for the roll histories. Built the first time it is required.
+     * <p>
+     * It is not synchronized, as it is an immutable value, and building it more than once gives the same text.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private volatile String              historyText;
+
+    /**
+     * Original operation. Contains only constants and arithmetic operations.
+     */
+    @NonNull
+    private final DiceNotationExpression operation;
+
+    /**
+     * Value of the operation.
+     */
+    @NonNull
+    private final Integer                value;
+
+    /**
+     * Constructs a folded operand.
+     *
+     * @param original
+     *            original operation
+     * @param folded
+     *            value of the operation
+     */
+    public FoldedOperand(@NonNull final DiceNotationExpression original, @NonNull final Integer folded) {
+        super();
+
+        operation = original;
+        value = folded;
+    }
+
+    @Override
+    public final void appendExpression(final Appendable out) {
+        operation.appendExpression(out);
+    }
+
+    /**
+     * Returns the constants of the original operation, in order, as they appear in the roll histories. Those which
+     * are subtracted directly have their sign changed.
+     *
+     * @return the constants of the original operation
+     */
+    public final List<Integer> getConstants() {
+        if (constants == null) {
+            summarize();
+        }
+
+        return constants;
+    }
+
+    @Override
+    public final String getExpression() {
+        return operation.getExpression();
+    }
+
+    @Override
+    public final Long getFingerprint() {
+        return operation.getFingerprint();
+    }
+
+    /**
+     * Returns the text of the original operation, as it appears in the roll histories. This is each constant, with the
+     * operators surrounded by spaces.
+     *
+     * @return the history text of the original operation
+     */
+    public final String getHistoryText() {
+        if (historyText == null) {
+            summarize();
+        }
+
+        return historyText;
+    }
+
+    /**
+     * Walks the original operation, building the constants and the text for the roll histories.
+     * <p>
+     * The operation is walked in order with a stack, which contains both the expressions still to walk and the
+     * operator symbols.
+     */
+    private final void summarize() {
+        final Stack<Object>          pending;
+        final Stack<Boolean>         subtracted;
+        final List<Integer>          found;
+        final StringBuilder          text;
+        Object                       current;
+        Boolean                      negated;
+        AbstractArithmeticOperation  binary;
+        NaryOperation                nary;
+        List<DiceNotationExpression> operands;
+        ArithmeticOperator           operator;
+        Integer                      constant;
+
+        pending = new Stack<>();
+        subtracted = new Stack<>();
+        found = new ArrayList<>();
+        text = new StringBuilder();
+
+        pending.push(operation);
+        subtracted.push(false);
+        while (!pending.isEmpty()) {
+            current = pending.pop();
+            negated = subtracted.pop();
+            if (current instanceof String) {
+                // Operator symbol
+                text.append(' ')
+                    .append((String) current)
+                    .append(' ');
+            } else if (current instanceof AbstractArithmeticOperation) {
+                // Pushed in reverse order
+                binary = (AbstractArithmeticOperation) current;
+                pending.push(binary.getRight());
+                subtracted.push(binary.getOperator() == ArithmeticOperator.SUBTRACTION);
+                pending.push(binary.getOperator()
+                    .getSymbol());
+                subtracted.push(false);
+                pending.push(binary.getLeft());
+                subtracted.push(false);
+            } else if (current instanceof NaryOperation) {
+                // Pushed in reverse order
+                nary = (NaryOperation) current;
+                operands = nary.getOperands();
+                for (Integer i = operands.size() - 1; i > 0; i--) {
+                    operator = nary.getOperators()
+                        .get(i - 1);
+                    pending.push(operands.get(i));
+                    subtracted.push(operator == ArithmeticOperator.SUBTRACTION);
+                    pending.push(operator.getSymbol());
+                    subtracted.push(false);
+                }
+                pending.push(operands.get(0));
+                subtracted.push(false);
+            } else {
+                // Constant
+                // The text keeps the sign, only the result is changed
+                constant = ((ConstantOperand) current).getValue();
+                text.append(constant);
+                if (negated) {
+                    found.add(0 - constant);
+                } else {
+                    found.add(constant);
+                }
+            }
+        }
+
+        constants = Collections.unmodifiableList(found);
+        historyText = text.toString();
+    }
+
+}
@@ -16,26 +16,101 @@
 
 package com.bernardomg.tabletop.dice.notation.operand;
 
+import com.bernardomg.tabletop.dice.WeakInterner;
+import com.bernardomg.tabletop.dice.notation.Fingerprints;
+
 import lombok.Data;
 import lombok.NonNull;
 
 /**
  * Operand for an integer constant value.
+ * <p>
+ * The usual values can be acquired with {@link #valueOf(Integer)}, which returns shared instances from a preallocated
+ * table. These cover the same values as {@link Integer#valueOf(int)}, from -128 to 127. Other values are interned if
+ * the {@value WeakInterner#INTERN_PROPERTY} system property is {@code true}, and created anew otherwise.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
 @Data
 public final class IntegerOperand implements ConstantOperand {
 
+    /**
+     * Interner for the operands outside the table. Used only if interning is enabled.
+     */
+    private static final WeakInterner<IntegerOperand> INTERNER  = new WeakInterner<>();
+
+    /**
+     * Flag telling if the operands outside the table are interned.
+     */
+    private static final Boolean                      INTERNING = Boolean.getBoolean(WeakInterner.INTERN_PROPERTY);
+
+    /**
+     * Highest value in the table.
+     */
+    private static final Integer                      MAX_VALUE = 127;
+
+    /**
+     * Lowest value in the table.
+     */
+    private static final Integer                      MIN_VALUE = -128;
+
+    /**
+     * Preallocated operands. Indexed by value, shifted to start on zero.
+     */
+    private static final IntegerOperand[]             TABLE     = buildTable();
+
     /**
      * Operand value.
      */
     @NonNull
     private final Integer value;
 
+    /**
+     * Returns an operand with the received value. The usual values are taken from a preallocated table, so the same
+     * instance is returned for them each time.
+     *
+     * @param value
+     *            operand value
+     * @return an operand with the received value
+     */
+    public static final IntegerOperand valueOf(@NonNull final Integer value) {
+        final IntegerOperand operand;
+
+        if ((value >= MIN_VALUE) && (value <= MAX_VALUE)) {
+            operand = TABLE[value - MIN_VALUE];
+        } else if (INTERNING) {
+            operand = INTERNER.intern(new IntegerOperand(value));
+        } else {
+            operand = new IntegerOperand(value);
+        }
+
+        return operand;
+    }
+
     @Override
     public final String getExpression() {
         return getValue().toString();
     }
 
+    @Override
+    public final Long getFingerprint() {
+        return Fingerprints.ofConstant(getValue());
+    }
+
+    /**
+     * Builds the table of preallocated operands.
+     *
+     * @return the preallocated operands
+     */
+    private static final IntegerOperand[] buildTable() {
+        final IntegerOperand[] table;
+
+        table = new IntegerOperand[(MAX_VALUE - MIN_VALUE) + 1];
+        for (Integer value = MIN_VALUE; value <= MAX_VALUE; value++) {
+            table[value - MIN_VALUE] = new IntegerOperand(value);
+        }
+
+        return table;
+    }
+
 }
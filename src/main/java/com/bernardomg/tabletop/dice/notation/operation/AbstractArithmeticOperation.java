@@ -0,0 +1,108 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.notation.operation;
+
+import java.util.function.BinaryOperator;
+import java.util.function.IntBinaryOperator;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Binary operation for an {@link ArithmeticOperator}, such as the built-in additions, subtractions, multiplications
+ * and divisions.
+ * <p>
+ * The operator gives the symbol for the expression text, and the primitive operation. The text is built once, in a
+ * single walk over the tree, and then kept. As the operation is immutable this text never changes, and it is not
+ * taken into account for equality.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public abstract class AbstractArithmeticOperation extends AbstractBinaryOperation {
+
+    /**
+     * Cached expression text. Built the first time it is required.
+     * <p>
+     * It is not synchronized, as it is an immutable value, and building it more than once gives the same text.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Getter(AccessLevel.PACKAGE)
+    private String                   cachedExpression;
+
+    /**
+     * Operator for the operation.
+     */
+    @Getter
+    private final ArithmeticOperator operator;
+
+    /**
+     * Constructs an operation with the specified operands.
+     *
+     * @param leftOperand
+     *            the left sided operand
+     * @param rightOperand
+     *            the right sided operand
+     * @param func
+     *            operation to apply
+     * @param oper
+     *            operator used in the expression text
+     */
+    protected AbstractArithmeticOperation(@NonNull final DiceNotationExpression leftOperand,
+            @NonNull final DiceNotationExpression rightOperand, @NonNull final BinaryOperator<Integer> func,
+            @NonNull final ArithmeticOperator oper) {
+        super(leftOperand, rightOperand, func);
+
+        operator = oper;
+    }
+
+    @Override
+    public final void appendExpression(final Appendable out) {
+        ExpressionWriter.write(this, out);
+    }
+
+    @Override
+    public final String getExpression() {
+        final StringBuilder builder;
+
+        if (cachedExpression == null) {
+            builder = new StringBuilder();
+            ExpressionWriter.write(this, builder);
+            cachedExpression = builder.toString();
+        }
+
+        return cachedExpression;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This is the operator of the operation.
+     */
+    @Override
+    public final IntBinaryOperator getIntOperation() {
+        return operator;
+    }
+
+}
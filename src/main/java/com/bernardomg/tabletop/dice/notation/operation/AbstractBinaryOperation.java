@@ -21,19 +21,39 @@
 
 import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * Abstract class for binary operations, containing all the common fields.
  * <p>
- * These fields are the operands and the operation, stored as a {@link BiFunction}.
+ * These fields are the operands and the operation, stored as a {@link BiFunction}. Subclasses build their own
+ * expression text, unless they extend {@link AbstractArithmeticOperation}, which builds it from its operator.
+ * <p>
+ * The fingerprint is computed once, in a single walk over the tree, and then kept. As the operation is immutable this
+ * value never changes, and it is not taken into account for equality.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
 @Data
 public abstract class AbstractBinaryOperation implements BinaryOperation {
 
+    /**
+     * Cached fingerprint. Computed the first time it is required.
+     * <p>
+     * It is not synchronized, as it is an immutable value, and computing it more than once gives the same value.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private Long                          cachedFingerprint;
+
     /**
      * Left sided operand.
      */
@@ -42,8 +62,12 @@ public abstract class AbstractBinaryOperation implements BinaryOperation {
 
     /**
      * Operation to apply.
+     * <p>
+     * It is not taken into account for equality, as each lambda is a different object.
      */
     @NonNull
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private final BinaryOperator<Integer> operation;
 
     /**
@@ -53,7 +77,7 @@ public abstract class AbstractBinaryOperation implements BinaryOperation {
     private final DiceNotationExpression  right;
 
     /**
-     * Constructs a subtraction operation with the specified operands.
+     * Constructs an operation with the specified operands.
      *
      * @param leftOperand
      *            the left sided operand
@@ -71,4 +95,13 @@ protected AbstractBinaryOperation(@NonNull final DiceNotationExpression leftOper
         operation = func;
     }
 
+    @Override
+    public Long getFingerprint() {
+        if (cachedFingerprint == null) {
+            ExpressionFingerprinter.fingerprint(this);
+        }
+
+        return cachedFingerprint;
+    }
+
 }
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.notation.operation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Abstract class for n-ary operations, containing all the common fields.
+ * <p>
+ * The expression text is built once, in a single walk over the tree, and then kept. As the operation is immutable
+ * this text never changes, and it is not taken into account for equality. The same applies to the fingerprint.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Data
+public abstract class AbstractNaryOperation implements NaryOperation {
+
+    /**
+     * Cached expression text. Built the first time it is required.
+     * <p>
+     * It is not synchronized, as it is an immutable value, and building it more than once gives the same text.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.NONE)
+    private String                             cachedExpression;
+
+    /**
+     * Cached fingerprint. Computed the first time it is required.
+     * <p>
+     * It is not synchronized, as it is an immutable value, and computing it more than once gives the same value.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private Long                               cachedFingerprint;
+
+    /**
+     * Operands, in the order they are applied.
+     */
+    private final List<DiceNotationExpression> operands;
+
+    /**
+     * Operators, one before each operand from the second one onwards.
+     */
+    private final List<ArithmeticOperator>     operators;
+
+    /**
+     * Constructs an operation with the specified operands and operators.
+     *
+     * @param ops
+     *            operands, in the order they are applied
+     * @param opers
+     *            operators, one before each operand from the second one onwards
+     * @param allowed
+     *            operators allowed in the operation
+     */
+    protected AbstractNaryOperation(final List<? extends DiceNotationExpression> ops,
+            final List<ArithmeticOperator> opers, final Collection<ArithmeticOperator> allowed) {
+        super();
+
+        Objects.requireNonNull(ops, "Received a null pointer as operands");
+        Objects.requireNonNull(opers, "Received a null pointer as operators");
+
+        if (ops.size() < 2) {
+            throw new IllegalArgumentException(
+                String.format("An operation requires at least two operands, but received %d", ops.size()));
+        }
+        if (opers.size() != (ops.size() - 1)) {
+            throw new IllegalArgumentException(String.format("Received %d operators for %d operands, expected %d",
+                opers.size(), ops.size(), ops.size() - 1));
+        }
+        for (final ArithmeticOperator operator : opers) {
+            if (!allowed.contains(operator)) {
+                throw new IllegalArgumentException(
+                    String.format("The %s operator is not allowed in this operation", operator));
+            }
+        }
+
+        // Null operands and operators are rejected by the copies
+        operands = List.copyOf(ops);
+        operators = List.copyOf(opers);
+    }
+
+    @Override
+    public final void appendExpression(final Appendable out) {
+        ExpressionWriter.write(this, out);
+    }
+
+    @Override
+    public final String getExpression() {
+        final StringBuilder builder;
+
+        if (cachedExpression == null) {
+            builder = new StringBuilder();
+            ExpressionWriter.write(this, builder);
+            cachedExpression = builder.toString();
+        }
+
+        return cachedExpression;
+    }
+
+    @Override
+    public final Long getFingerprint() {
+        if (cachedFingerprint == null) {
+            ExpressionFingerprinter.fingerprint(this);
+        }
+
+        return cachedFingerprint;
+    }
+
+}
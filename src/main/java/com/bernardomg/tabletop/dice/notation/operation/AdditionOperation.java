@@ -23,7 +23,7 @@
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
-public final class AdditionOperation extends AbstractBinaryOperation {
+public final class AdditionOperation extends AbstractArithmeticOperation {
 
     /**
      * Constructs an addition operation with the specified operands.
@@ -34,23 +34,7 @@ public final class AdditionOperation extends AbstractBinaryOperation {
      *            the right sided operand
      */
     public AdditionOperation(final DiceNotationExpression left, final DiceNotationExpression right) {
-        super(left, right, (a, b) -> a + b);
-    }
-
-    /**
-     * Returns the values from the left and right operands added together.
-     *
-     * @return the left and right values added together
-     */
-    @Override
-    public final String getExpression() {
-        final String left;
-        final String right;
-
-        left = getLeft().getExpression();
-        right = getRight().getExpression();
-
-        return String.format("%s+%s", left, right);
+        super(left, right, (a, b) -> a + b, ArithmeticOperator.ADDITION);
     }
 
 }
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.notation.operation;
+
+import java.util.function.IntBinaryOperator;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+
+/**
+ * Arithmetic operators, which can be applied on primitive integers.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public enum ArithmeticOperator implements IntBinaryOperator {
+
+    /**
+     * Addition.
+     */
+    ADDITION("+"),
+    /**
+     * Subtraction.
+     */
+    SUBTRACTION("-"),
+    /**
+     * Multiplication.
+     */
+    MULTIPLICATION("*"),
+    /**
+     * Integer division. Dividing by zero throws an {@code ArithmeticException}.
+     */
+    DIVISION("/");
+
+    /**
+     * Symbol used for the operator in the dice notation.
+     */
+    private final String symbol;
+
+    /**
+     * Constructs an operator with the specified symbol.
+     *
+     * @param smbl
+     *            symbol used in the dice notation
+     */
+    private ArithmeticOperator(final String smbl) {
+        symbol = smbl;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All the operators share this method, so call sites applying any of them stay monomorphic.
+     */
+    @Override
+    public final int applyAsInt(final int left, final int right) {
+        final int result;
+
+        switch (this) {
+            case ADDITION:
+                result = left + right;
+                break;
+            case SUBTRACTION:
+                result = left - right;
+                break;
+            case MULTIPLICATION:
+                result = left * right;
+                break;
+            default:
+                result = left / right;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the symbol used for the operator in the dice notation.
+     *
+     * @return the operator symbol
+     */
+    public final String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the binary operation which applies this operator to the received operands.
+     *
+     * @param left
+     *            the left sided operand
+     * @param right
+     *            the right sided operand
+     * @return the binary operation for the operator
+     */
+    public final BinaryOperation toOperation(final DiceNotationExpression left, final DiceNotationExpression right) {
+        final BinaryOperation result;
+
+        switch (this) {
+            case ADDITION:
+                result = new AdditionOperation(left, right);
+                break;
+            case SUBTRACTION:
+                result = new SubtractionOperation(left, right);
+                break;
+            case MULTIPLICATION:
+                result = new MultiplicationOperation(left, right);
+                break;
+            default:
+                result = new DivisionOperation(left, right);
+        }
+
+        return result;
+    }
+
+}
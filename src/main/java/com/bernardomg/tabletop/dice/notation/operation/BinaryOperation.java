@@ -17,6 +17,7 @@
 package com.bernardomg.tabletop.dice.notation.operation;
 
 import java.util.function.BinaryOperator;
+import java.util.function.IntBinaryOperator;
 
 import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
 
@@ -27,6 +28,17 @@
  */
 public interface BinaryOperation extends DiceNotationExpression {
 
+    /**
+     * Returns the operation to apply, over primitive integers. This avoids boxing the operands and the result.
+     * <p>
+     * By default this applies the boxed operation.
+     *
+     * @return the operation over primitive integers
+     */
+    public default IntBinaryOperator getIntOperation() {
+        return (left, right) -> getOperation().apply(left, right);
+    }
+
     /**
      * Returns the left sided operand.
      *
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.notation.operation;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Stack;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.Fingerprints;
+
+/**
+ * Computes the fingerprints of operations in a single walk over the tree.
+ * <p>
+ * The tree is walked in postorder with a stack instead of recursion, so deep trees don't overflow the call stack. The
+ * fingerprint of each operation is cached on it, so each node is computed only once, and later calls on any subtree
+ * are immediate.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class ExpressionFingerprinter {
+
+    /**
+     * Computes and caches the fingerprints of all the operations in the tree.
+     *
+     * @param expression
+     *            root of the tree
+     */
+    public static final void fingerprint(final DiceNotationExpression expression) {
+        final Stack<DiceNotationExpression> pending;
+        DiceNotationExpression              current;
+        AbstractBinaryOperation             binary;
+        AbstractNaryOperation               nary;
+        List<DiceNotationExpression>        operands;
+        Boolean                             ready;
+        Long                                fingerprint;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        pending = new Stack<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            current = pending.peek();
+            if (isPending(current) && (current instanceof AbstractBinaryOperation)) {
+                binary = (AbstractBinaryOperation) current;
+                ready = true;
+                if (isPending(binary.getRight())) {
+                    pending.push(binary.getRight());
+                    ready = false;
+                }
+                if (isPending(binary.getLeft())) {
+                    pending.push(binary.getLeft());
+                    ready = false;
+                }
+
+                if (ready) {
+                    // The operands are already fingerprinted
+                    pending.pop();
+                    fingerprint = Fingerprints.combine(Fingerprints.BINARY_TAG, getTag(binary));
+                    fingerprint = Fingerprints.combine(fingerprint, binary.getLeft()
+                        .getFingerprint());
+                    fingerprint = Fingerprints.combine(fingerprint, binary.getRight()
+                        .getFingerprint());
+                    binary.setCachedFingerprint(fingerprint);
+                }
+            } else if (isPending(current)) {
+                nary = (AbstractNaryOperation) current;
+                operands = nary.getOperands();
+                ready = true;
+                for (Integer i = operands.size() - 1; i >= 0; i--) {
+                    if (isPending(operands.get(i))) {
+                        pending.push(operands.get(i));
+                        ready = false;
+                    }
+                }
+
+                if (ready) {
+                    // The operands are already fingerprinted
+                    pending.pop();
+                    fingerprint = Fingerprints.combine(Fingerprints.NARY_TAG, operands.get(0)
+                        .getFingerprint());
+                    for (Integer i = 1; i < operands.size(); i++) {
+                        fingerprint = Fingerprints.combine(fingerprint, getTag(nary.getOperators()
+                            .get(i - 1)));
+                        fingerprint = Fingerprints.combine(fingerprint, operands.get(i)
+                            .getFingerprint());
+                    }
+                    nary.setCachedFingerprint(fingerprint);
+                }
+            } else {
+                // Leaf, or a node which is already fingerprinted
+                pending.pop();
+            }
+        }
+    }
+
+    /**
+     * Returns the value identifying the operator of a binary operation in the fingerprints. Operations which are not
+     * arithmetic ones are identified by their class.
+     *
+     * @param operation
+     *            operation to identify
+     * @return the value for the operator
+     */
+    private static final Long getTag(final AbstractBinaryOperation operation) {
+        final Long tag;
+
+        if (operation instanceof AbstractArithmeticOperation) {
+            tag = getTag(((AbstractArithmeticOperation) operation).getOperator());
+        } else {
+            tag = (long) operation.getClass()
+                .getName()
+                .hashCode();
+        }
+
+        return tag;
+    }
+
+    /**
+     * Returns the value identifying the operator in the fingerprints. This is its symbol, so it doesn't depend on the
+     * order of the operators.
+     *
+     * @param operator
+     *            operator to identify
+     * @return the value for the operator
+     */
+    private static final Long getTag(final ArithmeticOperator operator) {
+        return (long) operator.getSymbol()
+            .charAt(0);
+    }
+
+    /**
+     * Checks if the expression is an operation which still has no fingerprint.
+     *
+     * @param expression
+     *            expression to check
+     * @return {@code true} if the fingerprint is still to be computed, {@code false} otherwise
+     */
+    private static final Boolean isPending(final DiceNotationExpression expression) {
+        final Boolean pending;
+
+        if (expression instanceof AbstractBinaryOperation) {
+            pending = ((AbstractBinaryOperation) expression).getCachedFingerprint() == null;
+        } else if (expression instanceof AbstractNaryOperation) {
+            pending = ((AbstractNaryOperation) expression).getCachedFingerprint() == null;
+        } else {
+            pending = false;
+        }
+
+        return pending;
+    }
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private ExpressionFingerprinter() {
+        super();
+    }
+
+}
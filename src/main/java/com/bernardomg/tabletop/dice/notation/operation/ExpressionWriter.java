@@ -0,0 +1,114 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.notation.operation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Stack;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+
+/**
+ * Writes the text of operations in a single walk over the tree.
+ * <p>
+ * The tree is walked with a stack instead of recursion, so each node is visited once, the text is never copied, and
+ * deep trees don't overflow the call stack. Nodes which already have their text cached write it directly.
+ * <p>
+ * Binary operations which are not an {@link AbstractArithmeticOperation} write their own text.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class ExpressionWriter {
+
+    /**
+     * Writes the expression into the received output.
+     *
+     * @param expression
+     *            expression to write
+     * @param out
+     *            output where the expression is written
+     * @throws UncheckedIOException
+     *             if the output fails
+     */
+    public static final void write(final DiceNotationExpression expression, final Appendable out) {
+        final Stack<Object>          pending;
+        Object                       current;
+        AbstractArithmeticOperation  binary;
+        AbstractNaryOperation        nary;
+        List<DiceNotationExpression> operands;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+        Objects.requireNonNull(out, "Received a null pointer as output");
+
+        // Contains expressions to write, and operator symbols
+        pending = new Stack<>();
+        pending.push(expression);
+
+        try {
+            while (!pending.isEmpty()) {
+                current = pending.pop();
+                if (current instanceof String) {
+                    // Operator symbol
+                    out.append((String) current);
+                } else if ((current instanceof AbstractArithmeticOperation)
+                        && (((AbstractArithmeticOperation) current).getCachedExpression() != null)) {
+                    // Text already built
+                    out.append(((AbstractArithmeticOperation) current).getCachedExpression());
+                } else if (current instanceof AbstractArithmeticOperation) {
+                    // Left operand, operator and right operand
+                    // Pushed in reverse order
+                    binary = (AbstractArithmeticOperation) current;
+                    pending.push(binary.getRight());
+                    pending.push(binary.getOperator()
+                        .getSymbol());
+                    pending.push(binary.getLeft());
+                } else if ((current instanceof AbstractNaryOperation)
+                        && (((AbstractNaryOperation) current).getCachedExpression() != null)) {
+                    // Text already built
+                    out.append(((AbstractNaryOperation) current).getCachedExpression());
+                } else if (current instanceof AbstractNaryOperation) {
+                    // Each operand preceded by its operator, except the first
+                    // Pushed in reverse order
+                    nary = (AbstractNaryOperation) current;
+                    operands = nary.getOperands();
+                    for (Integer i = operands.size() - 1; i > 0; i--) {
+                        pending.push(operands.get(i));
+                        pending.push(nary.getOperators()
+                            .get(i - 1)
+                            .getSymbol());
+                    }
+                    pending.push(operands.get(0));
+                } else {
+                    // Leaf, or an expression which writes itself
+                    ((DiceNotationExpression) current).appendExpression(out);
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private ExpressionWriter() {
+        super();
+    }
+
+}
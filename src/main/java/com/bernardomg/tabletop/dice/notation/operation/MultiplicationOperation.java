@@ -23,7 +23,7 @@
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
-public final class MultiplicationOperation extends AbstractBinaryOperation {
+public final class MultiplicationOperation extends AbstractArithmeticOperation {
 
     /**
      * Constructs a multiplication operation with the specified operands.
@@ -34,18 +34,7 @@ public final class MultiplicationOperation extends AbstractBinaryOperation {
      *            the right sided operand
      */
     public MultiplicationOperation(final DiceNotationExpression left, final DiceNotationExpression right) {
-        super(left, right, (a, b) -> a * b);
-    }
-
-    @Override
-    public final String getExpression() {
-        final String left;  // Left side operand as a string
-        final String right; // Right side operand as a string
-
-        left = getLeft().getExpression();
-        right = getRight().getExpression();
-
-        return String.format("%s*%s", left, right);
+        super(left, right, (a, b) -> a * b, ArithmeticOperator.MULTIPLICATION);
     }
 
 }
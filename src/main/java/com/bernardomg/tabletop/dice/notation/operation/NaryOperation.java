@@ -0,0 +1,73 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.notation.operation;
+
+import java.util.List;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+
+/**
+ * An operation over any number of operands for the dice notation. It represents a chain of operations with the same
+ * precedence, such as {@code 1d6+2-1d4}, in a single node.
+ * <p>
+ * The operators are applied from left to right. The first operator is applied to the first and second operands, and
+ * each of the following ones to the result so far and the next operand. So the value is the same as that of the
+ * equivalent chain of {@link BinaryOperation binary operations}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface NaryOperation extends DiceNotationExpression {
+
+    /**
+     * Returns the operands, in the order they are applied.
+     *
+     * @return the operands
+     */
+    public List<DiceNotationExpression> getOperands();
+
+    /**
+     * Returns the operators. There is one less than operands, as each operator comes before one of the operands, from
+     * the second one onwards.
+     *
+     * @return the operators
+     */
+    public List<ArithmeticOperator> getOperators();
+
+    /**
+     * Returns the equivalent chain of binary operations. The first operator is applied to the first two operands, and
+     * each of the following ones to the operation so far and the next operand.
+     *
+     * @return the equivalent binary operations
+     */
+    public default DiceNotationExpression toBinary() {
+        final List<DiceNotationExpression> operands;
+        final List<ArithmeticOperator>     operators;
+        DiceNotationExpression             result;
+
+        operands = getOperands();
+        operators = getOperators();
+
+        result = operands.get(0);
+        for (Integer i = 1; i < operands.size(); i++) {
+            result = operators.get(i - 1)
+                .toOperation(result, operands.get(i));
+        }
+
+        return result;
+    }
+
+}
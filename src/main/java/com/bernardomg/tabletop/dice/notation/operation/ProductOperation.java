@@ -0,0 +1,62 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.notation.operation;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+
+/**
+ * Chain of multiplications and divisions, such as {@code 2*1d6/3}, in a single node.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ProductOperation extends AbstractNaryOperation {
+
+    /**
+     * Operators allowed in the operation.
+     */
+    private static final Set<ArithmeticOperator> ALLOWED = EnumSet.of(ArithmeticOperator.MULTIPLICATION,
+        ArithmeticOperator.DIVISION);
+
+    /**
+     * Constructs an operation where all the operands are multiplied together.
+     *
+     * @param operands
+     *            the operands, in the order they are applied
+     */
+    public ProductOperation(final List<? extends DiceNotationExpression> operands) {
+        super(operands, Collections.nCopies(Math.max(0, operands.size() - 1), ArithmeticOperator.MULTIPLICATION), ALLOWED);
+    }
+
+    /**
+     * Constructs an operation with the specified operands and operators.
+     *
+     * @param operands
+     *            the operands, in the order they are applied
+     * @param operators
+     *            the operators, one before each operand from the second one onwards
+     */
+    public ProductOperation(final List<? extends DiceNotationExpression> operands,
+            final List<ArithmeticOperator> operators) {
+        super(operands, operators, ALLOWED);
+    }
+
+}
@@ -23,7 +23,7 @@
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
-public final class SubtractionOperation extends AbstractBinaryOperation {
+public final class SubtractionOperation extends AbstractArithmeticOperation {
 
     /**
      * Constructs a subtraction operation with the specified operands.
@@ -34,18 +34,7 @@ public final class SubtractionOperation extends AbstractBinaryOperation {
      *            the right sided operand
      */
     public SubtractionOperation(final DiceNotationExpression left, final DiceNotationExpression right) {
-        super(left, right, (a, b) -> a - b);
-    }
-
-    @Override
-    public final String getExpression() {
-        final String left;
-        final String right;
-
-        left = getLeft().getExpression();
-        right = getRight().getExpression();
-
-        return String.format("%s-%s", left, right);
+        super(left, right, (a, b) -> a - b, ArithmeticOperator.SUBTRACTION);
     }
 
 }
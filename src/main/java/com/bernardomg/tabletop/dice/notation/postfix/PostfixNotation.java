@@ -0,0 +1,590 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.notation.postfix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Stack;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.notation.Fingerprints;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.ConstantOperand;
+import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.DiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.DivisionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.MultiplicationOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ProductOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SumOperation;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Dice notation expression stored as a postfix program, in a flat array of integers.
+ * <p>
+ * Each instruction is an opcode followed by its arguments:
+ * <ul>
+ * <li>{@link #CONSTANT}, followed by the value.</li>
+ * <li>{@link #DICE}, followed by the quantity, sides and keep of the dice.</li>
+ * <li>{@link #ADDITION}, {@link #SUBTRACTION}, {@link #MULTIPLICATION} and {@link #DIVISION}, which take the two
+ * latest values.</li>
+ * <li>{@link #SUM} and {@link #PRODUCT}, followed by the number of operands and the opcode of each operator, which
+ * take that many values.</li>
+ * </ul>
+ * So {@code 1d6+2} is stored as {@code DICE 1 6 0 CONSTANT 2 ADDITION}, seven integers, instead of three nodes along
+ * their dice and boxed values.
+ * <p>
+ * Each node, n-ary operations included, becomes an instruction, and {@link #toExpression()} builds back an equal tree.
+ * The only exception are constants folded while parsing, which are stored as a single {@link #CONSTANT} with their
+ * value. So the original operation is lost, and {@code 1d20+3*4}, parsed with folding, comes back as {@code 1d20+12}.
+ * The value of the program is always the same, but the text and roll history of the rebuilt tree are those of the
+ * folded value.
+ * <p>
+ * The program is validated when created, so it always leaves a single value on the stack. Instances are immutable.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@EqualsAndHashCode
+@ToString
+public final class PostfixNotation {
+
+    /**
+     * Operation to be visited again, after its operands.
+     */
+    @Data
+    private static final class Pending {
+
+        /**
+         * Operation waiting for its operands.
+         */
+        private final DiceNotationExpression operation;
+
+    }
+
+    /**
+     * Opcode for additions.
+     */
+    public static final int ADDITION       = 2;
+
+    /**
+     * Opcode for constants.
+     */
+    public static final int CONSTANT       = 0;
+
+    /**
+     * Opcode for dice.
+     */
+    public static final int DICE           = 1;
+
+    /**
+     * Opcode for divisions.
+     */
+    public static final int DIVISION       = 5;
+
+    /**
+     * Opcode for multiplications.
+     */
+    public static final int MULTIPLICATION = 4;
+
+    /**
+     * Opcode for n-ary products.
+     */
+    public static final int PRODUCT        = 7;
+
+    /**
+     * Opcode for subtractions.
+     */
+    public static final int SUBTRACTION    = 3;
+
+    /**
+     * Opcode for n-ary sums.
+     */
+    public static final int SUM            = 6;
+
+    /**
+     * Tag starting the fingerprints of programs.
+     */
+    private static final Long PROGRAM_TAG  = 0x70726F6772616DL;
+
+    /**
+     * Instructions of the program.
+     */
+    private final int[] code;
+
+    /**
+     * Highest number of values on the stack while running the program.
+     */
+    @EqualsAndHashCode.Exclude
+    private final int   depth;
+
+    /**
+     * Creates a program from the received tree. The tree is walked without recursion, so deep trees are supported.
+     * <p>
+     * Folded constants are stored just with their value.
+     *
+     * @param expression
+     *            expression to convert
+     * @return the program for the expression
+     */
+    public static final PostfixNotation fromExpression(final DiceNotationExpression expression) {
+        final PostfixNotationBuilder builder;
+        final Stack<Object>          pending;
+        Object                       current;
+        List<DiceNotationExpression> operands;
+        DiceNotationExpression       node;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        builder = new PostfixNotationBuilder();
+        pending = new Stack<>();
+        pending.push(expression);
+        while (!pending.isEmpty()) {
+            current = pending.pop();
+            if (current instanceof Pending) {
+                // The operands were already added
+                appendOperation(builder, ((Pending) current).getOperation());
+            } else {
+                node = (DiceNotationExpression) current;
+                if (node instanceof ConstantOperand) {
+                    builder.appendConstant(((ConstantOperand) node).getValue());
+                } else if (node instanceof DiceOperand) {
+                    builder.appendDice(((DiceOperand) node).getDice());
+                } else if (node instanceof BinaryOperation) {
+                    pending.push(new Pending(node));
+                    pending.push(((BinaryOperation) node).getRight());
+                    pending.push(((BinaryOperation) node).getLeft());
+                } else if (node instanceof NaryOperation) {
+                    pending.push(new Pending(node));
+                    operands = ((NaryOperation) node).getOperands();
+                    for (Integer i = operands.size() - 1; i >= 0; i--) {
+                        pending.push(operands.get(i));
+                    }
+                } else {
+                    throw new IllegalArgumentException(
+                        String.format("Unsupported expression of type %s", node.getClass()));
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Returns the operator for the received binary opcode.
+     *
+     * @param opcode
+     *            opcode of a binary operation
+     * @return the operator for the opcode
+     */
+    public static final ArithmeticOperator getOperator(final int opcode) {
+        final ArithmeticOperator operator;
+
+        switch (opcode) {
+            case ADDITION:
+                operator = ArithmeticOperator.ADDITION;
+                break;
+            case SUBTRACTION:
+                operator = ArithmeticOperator.SUBTRACTION;
+                break;
+            case MULTIPLICATION:
+                operator = ArithmeticOperator.MULTIPLICATION;
+                break;
+            case DIVISION:
+                operator = ArithmeticOperator.DIVISION;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Opcode %d is not a binary operation", opcode));
+        }
+
+        return operator;
+    }
+
+    /**
+     * Creates a program from the received instructions. These are copied and validated.
+     *
+     * @param instructions
+     *            instructions for the program
+     * @return the program with the instructions
+     * @throws IllegalArgumentException
+     *             if the instructions are not a valid program
+     */
+    public static final PostfixNotation of(final int[] instructions) {
+        Objects.requireNonNull(instructions, "Received a null pointer as instructions");
+
+        return new PostfixNotation(instructions.clone());
+    }
+
+    /**
+     * Returns the opcode for the received operator.
+     *
+     * @param operator
+     *            operator to get the opcode for
+     * @return the opcode for the operator
+     */
+    static final int getOpcode(final ArithmeticOperator operator) {
+        final int opcode;
+
+        switch (operator) {
+            case ADDITION:
+                opcode = ADDITION;
+                break;
+            case SUBTRACTION:
+                opcode = SUBTRACTION;
+                break;
+            case MULTIPLICATION:
+                opcode = MULTIPLICATION;
+                break;
+            default:
+                opcode = DIVISION;
+        }
+
+        return opcode;
+    }
+
+    /**
+     * Adds the instruction for an operation, once its operands were added.
+     *
+     * @param builder
+     *            builder for the program
+     * @param operation
+     *            operation to add
+     */
+    private static final void appendOperation(final PostfixNotationBuilder builder,
+            final DiceNotationExpression operation) {
+        if (operation instanceof AdditionOperation) {
+            builder.appendOperation(ArithmeticOperator.ADDITION);
+        } else if (operation instanceof SubtractionOperation) {
+            builder.appendOperation(ArithmeticOperator.SUBTRACTION);
+        } else if (operation instanceof MultiplicationOperation) {
+            builder.appendOperation(ArithmeticOperator.MULTIPLICATION);
+        } else if (operation instanceof DivisionOperation) {
+            builder.appendOperation(ArithmeticOperator.DIVISION);
+        } else if (operation instanceof SumOperation) {
+            builder.appendSum(((NaryOperation) operation).getOperators());
+        } else if (operation instanceof ProductOperation) {
+            builder.appendProduct(((NaryOperation) operation).getOperators());
+        } else {
+            throw new IllegalArgumentException(
+                String.format("Unsupported operation of type %s", operation.getClass()));
+        }
+    }
+
+    /**
+     * Constructs a program with the received instructions, which are validated. The array is not copied, so it
+     * shouldn't be modified afterwards.
+     *
+     * @param instructions
+     *            instructions for the program
+     * @throws IllegalArgumentException
+     *             if the instructions are not a valid program
+     */
+    PostfixNotation(final int[] instructions) {
+        super();
+
+        code = instructions;
+        depth = validate(instructions);
+    }
+
+    /**
+     * Returns the highest number of values on the stack while running the program. A stack of this size is enough to
+     * run it.
+     *
+     * @return the highest number of values on the stack
+     */
+    public final int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns a 64-bit fingerprint for the program, computed from its instructions. Programs with the same
+     * instructions have the same fingerprint.
+     *
+     * @return the program fingerprint
+     * @see Fingerprints
+     */
+    public final Long getFingerprint() {
+        Long fingerprint;
+
+        fingerprint = Fingerprints.combine(PROGRAM_TAG, (long) code.length);
+        for (final int instruction : code) {
+            fingerprint = Fingerprints.combine(fingerprint, (long) instruction);
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Returns the integer at the received position of the program.
+     *
+     * @param index
+     *            position to read
+     * @return the integer at the position
+     */
+    public final int getInstruction(final int index) {
+        return code[index];
+    }
+
+    /**
+     * Returns the number of integers in the program, counting both opcodes and their arguments.
+     *
+     * @return the length of the program
+     */
+    public final int getLength() {
+        return code.length;
+    }
+
+    /**
+     * Returns a copy of the program instructions.
+     *
+     * @return the program instructions
+     */
+    public final int[] toArray() {
+        return code.clone();
+    }
+
+    /**
+     * Builds the tree for the program. Shared instances are used for the usual dice and constants.
+     *
+     * @return the tree for the program
+     */
+    public final DiceNotationExpression toExpression() {
+        final Stack<DiceNotationExpression> values;
+        List<ArithmeticOperator>            operators;
+        List<DiceNotationExpression>        operands;
+        DiceNotationExpression              right;
+        DiceNotationExpression              left;
+        Integer                             size;
+        int                                 opcode;
+        int                                 index;
+
+        values = new Stack<>();
+        index = 0;
+        while (index < code.length) {
+            opcode = code[index];
+            switch (opcode) {
+                case CONSTANT:
+                    values.push(IntegerOperand.valueOf(code[index + 1]));
+                    index += 2;
+                    break;
+                case DICE:
+                    values.push(DefaultDiceOperand
+                        .valueOf(DefaultDice.valueOf(code[index + 1], code[index + 2], code[index + 3])));
+                    index += 4;
+                    break;
+                case SUM:
+                case PRODUCT:
+                    size = code[index + 1];
+                    operands = new ArrayList<>(size);
+                    operators = new ArrayList<>(size - 1);
+                    for (Integer i = 0; i < size; i++) {
+                        operands.add(null);
+                    }
+                    for (Integer i = size - 1; i >= 0; i--) {
+                        operands.set(i, values.pop());
+                    }
+                    for (Integer i = 1; i < size; i++) {
+                        operators.add(getOperator(code[index + 1 + i]));
+                    }
+                    if (opcode == SUM) {
+                        values.push(new SumOperation(operands, operators));
+                    } else {
+                        values.push(new ProductOperation(operands, operators));
+                    }
+                    index += size + 1;
+                    break;
+                default:
+                    right = values.pop();
+                    left = values.pop();
+                    values.push(toBinary(opcode, left, right));
+                    index++;
+            }
+        }
+
+        return values.pop();
+    }
+
+    /**
+     * Checks the instruction at the received position has all its arguments.
+     *
+     * @param instructions
+     *            program to validate
+     * @param index
+     *            position of the instruction
+     * @param arguments
+     *            number of arguments
+     */
+    private final void requireArguments(final int[] instructions, final int index, final int arguments) {
+        if ((instructions.length - index - 1) < arguments) {
+            throw new IllegalArgumentException(String.format("Missing arguments for the instruction at %d", index));
+        }
+    }
+
+    /**
+     * Checks the n-ary operation accepts the received operator.
+     *
+     * @param opcode
+     *            opcode of the n-ary operation
+     * @param operator
+     *            opcode of the operator
+     * @param index
+     *            position of the instruction
+     */
+    private final void requireOperator(final int opcode, final int operator, final int index) {
+        final boolean valid;
+
+        if (opcode == SUM) {
+            valid = (operator == ADDITION) || (operator == SUBTRACTION);
+        } else {
+            valid = (operator == MULTIPLICATION) || (operator == DIVISION);
+        }
+
+        if (!valid) {
+            throw new IllegalArgumentException(
+                String.format("Invalid operator %d for the n-ary operation at %d", operator, index));
+        }
+    }
+
+    /**
+     * Checks there are enough values on the stack for an operation.
+     *
+     * @param current
+     *            values on the stack
+     * @param required
+     *            values taken by the operation
+     * @param index
+     *            position of the instruction
+     */
+    private final void requireValues(final int current, final int required, final int index) {
+        if (current < required) {
+            throw new IllegalArgumentException(
+                String.format("The operation at %d requires %d values, but there are %d", index, required, current));
+        }
+    }
+
+    /**
+     * Builds a binary operation.
+     *
+     * @param opcode
+     *            opcode of the operation
+     * @param left
+     *            left operand
+     * @param right
+     *            right operand
+     * @return the binary operation
+     */
+    private final DiceNotationExpression toBinary(final int opcode, final DiceNotationExpression left,
+            final DiceNotationExpression right) {
+        final DiceNotationExpression operation;
+
+        switch (opcode) {
+            case ADDITION:
+                operation = new AdditionOperation(left, right);
+                break;
+            case SUBTRACTION:
+                operation = new SubtractionOperation(left, right);
+                break;
+            case MULTIPLICATION:
+                operation = new MultiplicationOperation(left, right);
+                break;
+            default:
+                operation = new DivisionOperation(left, right);
+        }
+
+        return operation;
+    }
+
+    /**
+     * Checks the program is valid, and returns the highest number of values on the stack while running it.
+     *
+     * @param instructions
+     *            program to validate
+     * @return the highest number of values on the stack
+     * @throws IllegalArgumentException
+     *             if the program is not valid
+     */
+    private final int validate(final int[] instructions) {
+        int maxDepth;
+        int current;
+        int index;
+        int size;
+
+        maxDepth = 0;
+        current = 0;
+        index = 0;
+        while (index < instructions.length) {
+            switch (instructions[index]) {
+                case CONSTANT:
+                    requireArguments(instructions, index, 1);
+                    current++;
+                    index += 2;
+                    break;
+                case DICE:
+                    requireArguments(instructions, index, 3);
+                    current++;
+                    index += 4;
+                    break;
+                case ADDITION:
+                case SUBTRACTION:
+                case MULTIPLICATION:
+                case DIVISION:
+                    requireValues(current, 2, index);
+                    current--;
+                    index++;
+                    break;
+                case SUM:
+                case PRODUCT:
+                    requireArguments(instructions, index, 1);
+                    size = instructions[index + 1];
+                    if (size < 2) {
+                        throw new IllegalArgumentException(
+                            String.format("N-ary operation at %d has %d operands, at least 2 are required", index,
+                                size));
+                    }
+                    requireArguments(instructions, index, size);
+                    requireValues(current, size, index);
+                    for (Integer i = 1; i < size; i++) {
+                        requireOperator(instructions[index], instructions[index + 1 + i], index);
+                    }
+                    current -= size - 1;
+                    index += size + 1;
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                        String.format("Invalid opcode %d at %d", instructions[index], index));
+            }
+            maxDepth = Math.max(maxDepth, current);
+        }
+
+        if (current != 1) {
+            throw new IllegalArgumentException(
+                String.format("The program leaves %d values on the stack, instead of 1", current));
+        }
+
+        return maxDepth;
+    }
+
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.notation.postfix;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.Dice;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+
+/**
+ * Builds a {@link PostfixNotation} one instruction at a time.
+ * <p>
+ * The instructions are appended in postfix order, so each operation comes after its operands. The program is
+ * validated when built.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PostfixNotationBuilder {
+
+    /**
+     * Initial size of the instructions array.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Instructions appended so far. The array grows as needed.
+     */
+    private int[]            code             = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of integers appended so far.
+     */
+    private int              length           = 0;
+
+    /**
+     * Default constructor.
+     */
+    public PostfixNotationBuilder() {
+        super();
+    }
+
+    /**
+     * Appends a constant.
+     *
+     * @param value
+     *            value of the constant
+     */
+    public final void appendConstant(final Integer value) {
+        Objects.requireNonNull(value, "Received a null pointer as value");
+
+        ensureCapacity(2);
+        code[length++] = PostfixNotation.CONSTANT;
+        code[length++] = value;
+    }
+
+    /**
+     * Appends a dice.
+     *
+     * @param dice
+     *            dice to append
+     */
+    public final void appendDice(final Dice dice) {
+        Objects.requireNonNull(dice, "Received a null pointer as dice");
+
+        appendDice(dice.getQuantity(), dice.getSides(), dice.getKeep());
+    }
+
+    /**
+     * Appends a dice.
+     *
+     * @param quantity
+     *            number of dice
+     * @param sides
+     *            number of sides
+     * @param keep
+     *            number of dice to keep, positive for the highest and negative for the lowest, or zero to keep all
+     */
+    public final void appendDice(final Integer quantity, final Integer sides, final Integer keep) {
+        Objects.requireNonNull(quantity, "Received a null pointer as quantity");
+        Objects.requireNonNull(sides, "Received a null pointer as sides");
+        Objects.requireNonNull(keep, "Received a null pointer as keep");
+
+        ensureCapacity(4);
+        code[length++] = PostfixNotation.DICE;
+        code[length++] = quantity;
+        code[length++] = sides;
+        code[length++] = keep;
+    }
+
+    /**
+     * Appends a binary operation, applied on the two latest values.
+     *
+     * @param operator
+     *            operator to apply
+     */
+    public final void appendOperation(final ArithmeticOperator operator) {
+        Objects.requireNonNull(operator, "Received a null pointer as operator");
+
+        ensureCapacity(1);
+        code[length++] = PostfixNotation.getOpcode(operator);
+    }
+
+    /**
+     * Appends an n-ary product, applied on as many values as operators plus one.
+     *
+     * @param operators
+     *            operators, one before each operand from the second one onwards
+     */
+    public final void appendProduct(final List<ArithmeticOperator> operators) {
+        appendNary(PostfixNotation.PRODUCT, operators);
+    }
+
+    /**
+     * Appends an n-ary sum, applied on as many values as operators plus one.
+     *
+     * @param operators
+     *            operators, one before each operand from the second one onwards
+     */
+    public final void appendSum(final List<ArithmeticOperator> operators) {
+        appendNary(PostfixNotation.SUM, operators);
+    }
+
+    /**
+     * Builds the program with the instructions appended so far.
+     *
+     * @return the program
+     * @throws IllegalArgumentException
+     *             if the instructions are not a valid program
+     */
+    public final PostfixNotation build() {
+        return new PostfixNotation(Arrays.copyOf(code, length));
+    }
+
+    /**
+     * Appends an n-ary operation.
+     *
+     * @param opcode
+     *            opcode of the operation
+     * @param operators
+     *            operators of the operation
+     */
+    private final void appendNary(final int opcode, final List<ArithmeticOperator> operators) {
+        Objects.requireNonNull(operators, "Received a null pointer as operators");
+
+        ensureCapacity(operators.size() + 2);
+        code[length++] = opcode;
+        code[length++] = operators.size() + 1;
+        for (final ArithmeticOperator operator : operators) {
+            code[length++] = PostfixNotation.getOpcode(operator);
+        }
+    }
+
+    /**
+     * Grows the instructions array, if needed, to fit the received number of integers.
+     *
+     * @param required
+     *            integers to be appended
+     */
+    private final void ensureCapacity(final int required) {
+        if ((length + required) > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, length + required));
+        }
+    }
+
+}
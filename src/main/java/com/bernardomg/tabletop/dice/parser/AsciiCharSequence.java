@@ -0,0 +1,135 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Read-only view of ASCII bytes as characters. The bytes are read in place, without decoding them into a
+ * {@code String}.
+ * <p>
+ * Each byte is a single character. Bytes outside the ASCII range are read as ISO-8859-1 characters, none of which is
+ * part of the dice notation, so they are rejected by the parsers.
+ * <p>
+ * The view is backed by the received bytes, so any change to them is seen through it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class AsciiCharSequence implements CharSequence {
+
+    /**
+     * Buffer with the bytes.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Number of bytes in the view.
+     */
+    private final int        length;
+
+    /**
+     * Position, in the buffer, of the first byte in the view.
+     */
+    private final int        start;
+
+    /**
+     * Constructs a view over a slice of a byte array.
+     *
+     * @param bytes
+     *            bytes to read
+     * @param offset
+     *            position of the first byte to read
+     * @param size
+     *            number of bytes to read
+     */
+    public AsciiCharSequence(final byte[] bytes, final int offset, final int size) {
+        super();
+
+        Objects.requireNonNull(bytes, "Received a null pointer as bytes");
+        Objects.checkFromIndexSize(offset, size, bytes.length);
+
+        buffer = ByteBuffer.wrap(bytes);
+        start = offset;
+        length = size;
+    }
+
+    /**
+     * Constructs a view over the remaining bytes of a buffer, from its position to its limit. The position of the
+     * buffer is not changed.
+     *
+     * @param bytes
+     *            bytes to read
+     */
+    public AsciiCharSequence(final ByteBuffer bytes) {
+        super();
+
+        buffer = Objects.requireNonNull(bytes, "Received a null pointer as buffer");
+        start = bytes.position();
+        length = bytes.remaining();
+    }
+
+    /**
+     * Constructs a view over a range of a buffer.
+     *
+     * @param bytes
+     *            bytes to read
+     * @param offset
+     *            position in the buffer of the first byte to read
+     * @param size
+     *            number of bytes to read
+     */
+    private AsciiCharSequence(final ByteBuffer bytes, final int offset, final int size) {
+        super();
+
+        buffer = bytes;
+        start = offset;
+        length = size;
+    }
+
+    @Override
+    public final char charAt(final int index) {
+        Objects.checkIndex(index, length);
+
+        return (char) (buffer.get(start + index) & 0xFF);
+    }
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+    @Override
+    public final CharSequence subSequence(final int begin, final int end) {
+        Objects.checkFromToIndex(begin, end, length);
+
+        return new AsciiCharSequence(buffer, start + begin, end - begin);
+    }
+
+    @Override
+    public final String toString() {
+        final char[] chars;
+
+        chars = new char[length];
+        for (Integer i = 0; i < length; i++) {
+            chars[i] = charAt(i);
+        }
+
+        return new String(chars);
+    }
+
+}
@@ -0,0 +1,370 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.bernardomg.tabletop.dice.interpreter.DiceInterpreter;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dice notation parser which caches the parsed expressions.
+ * <p>
+ * It wraps another parser, and stores the trees it returns using the received text as key. As the dice notation model
+ * is immutable, the same tree is returned to all the callers asking for the same expression.
+ * <p>
+ * The cache is bounded. Once it is full, entries are evicted following a clock policy, an approximation of LRU where
+ * each entry gets a second chance if it was read since the last time the clock went through it. Reading an entry
+ * requires no locking. Storing and clearing entries lock the clock, so the cache and the clock always contain the same
+ * entries.
+ * <p>
+ * Only strings are cached. Other character sequences, which may be read in place, and validations are sent straight
+ * to the wrapped parser.
+ * <p>
+ * The parser is thread safe as long as the wrapped parser is thread safe too. Failed parsings are never cached.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Slf4j
+public final class CachingDiceParser implements DiceParser {
+
+    /**
+     * Cache entry.
+     */
+    private static final class CacheEntry {
+
+        /**
+         * Parsed expression.
+         */
+        private final DiceNotationExpression expression;
+
+        /**
+         * Text which was parsed.
+         */
+        private final String                 key;
+
+        /**
+         * Flag telling if the entry was read since the last time the clock went through it.
+         */
+        private volatile boolean             referenced = false;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param text
+         *            text which was parsed
+         * @param exp
+         *            parsed expression
+         */
+        private CacheEntry(final String text, final DiceNotationExpression exp) {
+            super();
+
+            key = text;
+            expression = exp;
+        }
+
+    }
+
+    /**
+     * Default maximum number of cached expressions.
+     */
+    private static final Integer                    DEFAULT_MAX_SIZE = 1024;
+
+    /**
+     * Cached expressions.
+     */
+    private final ConcurrentMap<String, CacheEntry> cache            = new ConcurrentHashMap<>();
+
+    /**
+     * Clock for the eviction policy. Contains all the cached entries, in the order they are checked for eviction.
+     * <p>
+     * It is also the lock for any change to the cache.
+     */
+    private final Queue<CacheEntry>                 clock            = new ArrayDeque<>();
+
+    /**
+     * Number of evicted entries.
+     */
+    private final LongAdder                         evictions        = new LongAdder();
+
+    /**
+     * Number of requests answered from the cache.
+     */
+    private final LongAdder                         hits             = new LongAdder();
+
+    /**
+     * Maximum number of cached expressions.
+     */
+    private final Integer                           maxSize;
+
+    /**
+     * Number of requests which had to be sent to the wrapped parser.
+     */
+    private final LongAdder                         misses           = new LongAdder();
+
+    /**
+     * Wrapped parser.
+     */
+    private final DiceParser                        wrapped;
+
+    /**
+     * Constructs a caching parser with the default maximum size.
+     *
+     * @param parser
+     *            parser to wrap
+     */
+    public CachingDiceParser(final DiceParser parser) {
+        this(parser, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a caching parser with the specified maximum size.
+     *
+     * @param parser
+     *            parser to wrap
+     * @param size
+     *            maximum number of cached expressions
+     */
+    public CachingDiceParser(final DiceParser parser, final Integer size) {
+        super();
+
+        wrapped = Objects.requireNonNull(parser, "Received a null pointer as parser");
+        maxSize = Objects.requireNonNull(size, "Received a null pointer as size");
+
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(String.format("The cache size should be positive, but got %d", size));
+        }
+    }
+
+    /**
+     * Removes all the cached expressions. The counters are kept.
+     */
+    public final void clear() {
+        synchronized (clock) {
+            cache.clear();
+            clock.clear();
+        }
+    }
+
+    /**
+     * Returns the number of entries evicted to keep the cache bounded.
+     *
+     * @return the number of evicted entries
+     */
+    public final Long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of requests answered from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public final Long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the maximum number of cached expressions.
+     *
+     * @return the maximum number of cached expressions
+     */
+    public final Integer getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of requests which had to be sent to the wrapped parser.
+     *
+     * @return the number of cache misses
+     */
+    public final Long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of cached expressions.
+     *
+     * @return the number of cached expressions
+     */
+    public final Integer getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public final DiceNotationExpression parse(final CharSequence expression) {
+        final DiceNotationExpression parsed;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        if (expression instanceof String) {
+            parsed = parse((String) expression);
+        } else {
+            parsed = wrapped.parse(expression);
+        }
+
+        return parsed;
+    }
+
+    @Override
+    public final DiceNotationExpression parse(final String expression) {
+        final CacheEntry       cached;
+        DiceNotationExpression parsed;
+
+        Objects.requireNonNull(expression, "Received a null pointer as string");
+
+        cached = cache.get(expression);
+        if (cached == null) {
+            log.trace("Cache miss for {}", expression);
+            misses.increment();
+
+            parsed = wrapped.parse(expression);
+            if (parsed != null) {
+                parsed = store(expression, parsed);
+            }
+        } else {
+            log.trace("Cache hit for {}", expression);
+            hits.increment();
+
+            cached.referenced = true;
+            parsed = cached.expression;
+        }
+
+        return parsed;
+    }
+
+    @Override
+    public final <V> V parse(final String expression, final DiceInterpreter<V> interpreter) {
+        final DiceNotationExpression parsed;
+
+        parsed = parse(expression);
+
+        return interpreter.transform(parsed);
+    }
+
+    @Override
+    public final ParseResult tryParse(final CharSequence expression) {
+        final ParseResult result;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        if (expression instanceof String) {
+            result = tryParse((String) expression);
+        } else {
+            result = wrapped.tryParse(expression);
+        }
+
+        return result;
+    }
+
+    @Override
+    public final ParseResult tryParse(final String expression) {
+        final CacheEntry cached;
+        ParseResult      result;
+
+        Objects.requireNonNull(expression, "Received a null pointer as string");
+
+        cached = cache.get(expression);
+        if (cached == null) {
+            log.trace("Cache miss for {}", expression);
+            misses.increment();
+
+            result = wrapped.tryParse(expression);
+            if (result.isValid()) {
+                result = new DefaultParseResult(expression, store(expression, result.getExpression()));
+            }
+        } else {
+            log.trace("Cache hit for {}", expression);
+            hits.increment();
+
+            cached.referenced = true;
+            result = new DefaultParseResult(expression, cached.expression);
+        }
+
+        return result;
+    }
+
+    @Override
+    public final ValidationResult validate(final CharSequence expression) {
+        return wrapped.validate(expression);
+    }
+
+    /**
+     * Evicts entries until the cache is back to its maximum size. Should be called while locking the clock.
+     * <p>
+     * Entries read since the last check are given a second chance, and sent back to the end of the clock.
+     */
+    private final void evict() {
+        CacheEntry candidate;
+        Integer    checks;
+
+        // Each entry can be moved back at most once before the clock finds one to evict
+        checks = 2 * (maxSize + 1);
+        while ((cache.size() > maxSize) && (checks > 0)) {
+            candidate = clock.poll();
+            if (candidate == null) {
+                checks = 0;
+            } else if (candidate.referenced) {
+                candidate.referenced = false;
+                clock.add(candidate);
+            } else if (cache.remove(candidate.key, candidate)) {
+                log.trace("Evicted {}", candidate.key);
+                evictions.increment();
+            }
+            checks--;
+        }
+    }
+
+    /**
+     * Stores a parsed expression, evicting older ones if needed. If another thread stored the same text first, the
+     * expression it stored is kept and returned.
+     *
+     * @param expression
+     *            text which was parsed
+     * @param parsed
+     *            parsed expression
+     * @return the cached expression
+     */
+    private final DiceNotationExpression store(final String expression, final DiceNotationExpression parsed) {
+        final CacheEntry             entry;
+        final CacheEntry             previous;
+        final DiceNotationExpression stored;
+
+        entry = new CacheEntry(expression, parsed);
+        synchronized (clock) {
+            previous = cache.putIfAbsent(expression, entry);
+            if (previous == null) {
+                clock.add(entry);
+                evict();
+                stored = parsed;
+            } else {
+                // Another thread cached it first
+                stored = previous.expression;
+            }
+        }
+
+        return stored;
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * ANTLR4 character stream which reads a {@code CharSequence} in place.
+ * <p>
+ * {@code CharStreams} copies the text into an array of code points. The dice notation only contains ASCII
+ * characters, so the characters can be read directly from the sequence instead.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class CharSequenceCharStream implements CharStream {
+
+    /**
+     * Position of the next character to read.
+     */
+    private int                position = 0;
+
+    /**
+     * Text to read.
+     */
+    private final CharSequence text;
+
+    /**
+     * Constructs a stream for the received text.
+     *
+     * @param txt
+     *            text to read
+     */
+    CharSequenceCharStream(final CharSequence txt) {
+        super();
+
+        text = txt;
+    }
+
+    @Override
+    public final void consume() {
+        if (position >= text.length()) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        position++;
+    }
+
+    @Override
+    public final String getSourceName() {
+        return IntStream.UNKNOWN_SOURCE_NAME;
+    }
+
+    @Override
+    public final String getText(final Interval interval) {
+        final int begin;
+        final int end;
+
+        begin = Math.min(interval.a, text.length());
+        end = Math.min(interval.b + 1, text.length());
+
+        return text.subSequence(begin, Math.max(begin, end))
+            .toString();
+    }
+
+    @Override
+    public final int index() {
+        return position;
+    }
+
+    @Override
+    public final int LA(final int i) {
+        final int value;
+        final int offset;
+
+        if (i == 0) {
+            // Undefined
+            value = 0;
+        } else {
+            if (i > 0) {
+                offset = (position + i) - 1;
+            } else {
+                offset = position + i;
+            }
+
+            if ((offset < 0) || (offset >= text.length())) {
+                value = IntStream.EOF;
+            } else {
+                value = text.charAt(offset);
+            }
+        }
+
+        return value;
+    }
+
+    @Override
+    public final int mark() {
+        // Everything is in memory, there is nothing to keep
+        return -1;
+    }
+
+    @Override
+    public final void release(final int marker) {
+        // Everything is in memory, there is nothing to release
+    }
+
+    @Override
+    public final void seek(final int index) {
+        position = index;
+    }
+
+    @Override
+    public final int size() {
+        return text.length();
+    }
+
+    @Override
+    public final String toString() {
+        return text.toString();
+    }
+
+}
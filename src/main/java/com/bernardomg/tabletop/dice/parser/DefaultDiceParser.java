@@ -16,13 +16,27 @@
 
 package com.bernardomg.tabletop.dice.parser;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.antlr.v4.runtime.ANTLRErrorListener;
-import org.antlr.v4.runtime.CharStream;
-import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.LexerNoViableAltException;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 
 import com.bernardomg.tabletop.dice.generated.DiceNotationLexer;
 import com.bernardomg.tabletop.dice.generated.DiceNotationParser;
@@ -32,6 +46,8 @@
 import com.bernardomg.tabletop.dice.parser.listener.DefaultErrorListener;
 import com.bernardomg.tabletop.dice.parser.listener.DiceExpressionBuilder;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * Dice notation parser. Can parse the full grammar.
  * <p>
@@ -40,23 +56,305 @@
  * <p>
  * This {@code DiceExpressionBuilder} is a listener making use of the visitor pattern to generate the returned tree of
  * dice notation model objects.
+ * <p>
+ * Unless a builder instance is received, a new builder is created for each parsed expression. In that case the parser
+ * keeps no state between calls, and a single instance can be shared between threads.
+ * <p>
+ * The ANTLR lexer and parser are created once for each thread, and reset for each parsed expression. If an expression
+ * is parsed while the same thread is already parsing another, for example from a listener, new ones are created for
+ * it.
+ * <p>
+ * The expression is read in place, and any {@code CharSequence} can be parsed without copying it.
+ * <p>
+ * Invalid expressions can be rejected without exceptions or logging through {@link #tryParse(String)}. These are
+ * caught first by a {@link NotationValidator}, so most of them never reach ANTLR, which uses exceptions internally to
+ * recover from errors. In any case nothing is reported to the error listener.
+ * <p>
+ * By default ANTLR uses full LL prediction and builds the parse tree. Other {@link PredictionStrategy strategies} can
+ * be chosen, which avoid part of this work.
+ * <p>
+ * Untrusted expressions can be bounded by {@link ParseLimits limits}. Expressions over them are rejected before ANTLR
+ * parses them.
+ * <p>
+ * ANTLR fills its prediction caches, the DFA, while parsing, and these are shared by all the parsers in the JVM. So the
+ * first expressions take longer to parse. The caches can be filled in advance with {@link #warmUp()}, which is also
+ * called when the class is loaded if the {@value #WARM_UP_PROPERTY} system property is {@code true}. Their size can be
+ * checked with {@link #getDfaStateCount()}, and bounded with {@link #trimDfaCache(Integer)}.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
+@Slf4j
 public final class DefaultDiceParser implements DiceParser {
 
+    /**
+     * Error listener which cancels the parsing on the first error.
+     * <p>
+     * Used on the SLL stage, so errors are reported only by the LL stage.
+     */
+    private static final class BailErrorListener extends BaseErrorListener {
+
+        /**
+         * Default constructor.
+         */
+        private BailErrorListener() {
+            super();
+        }
+
+        @Override
+        public final void syntaxError(final Recognizer<?, ?> recognizer, final Object offendingSymbol, final int line,
+                final int charPositionInLine, final String msg, final RecognitionException e) {
+            throw new ParseCancellationException(msg, e);
+        }
+
+    }
+
+    /**
+     * Gives access to the prediction caches of the lexer, which are shared by all its instances. Never instantiated.
+     */
+    private static final class LexerDfa extends DiceNotationLexer {
+
+        /**
+         * Prediction caches of the lexer.
+         */
+        private static final DFA[] CACHE = _decisionToDFA;
+
+        /**
+         * Private constructor to avoid initialization.
+         */
+        private LexerDfa() {
+            super(null);
+        }
+
+    }
+
+    /**
+     * Gives access to the prediction caches of the parser, which are shared by all its instances. Never instantiated.
+     */
+    private static final class ParserDfa extends DiceNotationParser {
+
+        /**
+         * Prediction caches of the parser.
+         */
+        private static final DFA[] CACHE = _decisionToDFA;
+
+        /**
+         * Private constructor to avoid initialization.
+         */
+        private ParserDfa() {
+            super(null);
+        }
+
+    }
+
+    /**
+     * Error listener which records the first error, without throwing exceptions or logging.
+     * <p>
+     * After the first error the builder is removed from the parser, as it would receive incomplete rules while the
+     * parser recovers.
+     */
+    private static final class RecordingErrorListener extends BaseErrorListener {
+
+        /**
+         * Listener building the tree.
+         */
+        private final DiceExpressionBuilder builder;
+
+        /**
+         * Reason of the first error, or {@code null} if there is none.
+         */
+        private ParseErrorCode              errorCode;
+
+        /**
+         * Position of the first error, or {@code null} if unknown.
+         */
+        private Integer                     errorPosition;
+
+        /**
+         * Parser to which the builder is attached.
+         */
+        private final DiceNotationParser    parser;
+
+        /**
+         * Constructs a listener for the received parser and builder.
+         *
+         * @param prsr
+         *            parser to which the builder is attached
+         * @param bldr
+         *            listener building the tree
+         */
+        private RecordingErrorListener(final DiceNotationParser prsr, final DiceExpressionBuilder bldr) {
+            super();
+
+            parser = prsr;
+            builder = bldr;
+        }
+
+        @Override
+        public final void syntaxError(final Recognizer<?, ?> recognizer, final Object offendingSymbol, final int line,
+                final int charPositionInLine, final String msg, final RecognitionException e) {
+            final Token token;
+
+            if (errorCode == null) {
+                if (offendingSymbol instanceof Token) {
+                    // Parser error
+                    token = (Token) offendingSymbol;
+                    errorPosition = token.getStartIndex();
+                    if (token.getType() == Token.EOF) {
+                        errorCode = ParseErrorCode.UNEXPECTED_END;
+                    } else {
+                        errorCode = ParseErrorCode.UNEXPECTED_INPUT;
+                    }
+                } else if (e instanceof LexerNoViableAltException) {
+                    // Lexer error
+                    errorPosition = ((LexerNoViableAltException) e).getStartIndex();
+                    errorCode = ParseErrorCode.INVALID_CHARACTER;
+                } else {
+                    errorCode = ParseErrorCode.INVALID_EXPRESSION;
+                }
+
+                parser.removeParseListener(builder);
+            }
+        }
+
+    }
+
+    /**
+     * ANTLR4 lexer and parser, kept to be reused.
+     */
+    private static final class Recognizers {
+
+        /**
+         * Flag telling if the recognizers are parsing an expression.
+         */
+        private boolean                  inUse = false;
+
+        /**
+         * Lexer.
+         */
+        private final DiceNotationLexer  lexer;
+
+        /**
+         * Parser.
+         */
+        private final DiceNotationParser parser;
+
+        /**
+         * Token stream between the lexer and the parser.
+         */
+        private final CommonTokenStream  tokens;
+
+        /**
+         * Constructs the recognizers.
+         *
+         * @param lex
+         *            lexer
+         * @param tks
+         *            token stream
+         * @param prsr
+         *            parser
+         */
+        private Recognizers(final DiceNotationLexer lex, final CommonTokenStream tks, final DiceNotationParser prsr) {
+            super();
+
+            lexer = lex;
+            tokens = tks;
+            parser = prsr;
+        }
+
+    }
+
+    /**
+     * Error listener for the SLL stage.
+     */
+    private static final ANTLRErrorListener                 BAIL_LISTENER    = new BailErrorListener();
+
+    /**
+     * Errors caused by exceeding the limits.
+     */
+    private static final Set<ParseErrorCode>                LIMIT_ERRORS     = EnumSet.of(
+        ParseErrorCode.DEPTH_LIMIT_EXCEEDED, ParseErrorCode.DICE_LIMIT_EXCEEDED, ParseErrorCode.LENGTH_LIMIT_EXCEEDED,
+        ParseErrorCode.NODE_LIMIT_EXCEEDED, ParseErrorCode.SIDES_LIMIT_EXCEEDED);
+
+    /**
+     * Expressions parsed by {@link #warmUp()}. They cover all the rules on the grammar, and the usual errors.
+     */
+    private static final List<String>                       WARM_UP_CORPUS   = Collections
+        .unmodifiableList(Arrays.asList("1", "-5", "1d6", "d20", "-2d6", "+1d8", "4d6kh3", "4d6kl1", "4d6dh1",
+            "4d6dl1", "1d20+5", "2d6-1d4", "3*1d6", "1d12/2", "1+2-3*4/5", "(1d6+2)*3", "((1d4))",
+            "1d20-5*1d8+2d6/3d12", "2*-3", "1--5", "1d6\t+\t2", "", "1d", "1d6)", "(1", "1+", "*2", "1d6kh", "abc",
+            "1 + 2"));
+
+    /**
+     * System property which, if {@code true}, makes the parser warm up when the class is loaded.
+     */
+    public static final String                              WARM_UP_PROPERTY =
+        "com.bernardomg.tabletop.dice.parser.warmup";
+
     /**
      * Error listener for the parser and lexer.
      */
-    private final ANTLRErrorListener    errorListener;
+    private final ANTLRErrorListener                        errorListener;
 
     /**
-     * Visitor used to build the returned object.
+     * Source for the visitors used to build the returned object.
      * <p>
-     * It is a listener which will be called when the ANTLR parser goes through each node on the generated grammar tree,
-     * creating from it a tree of dice notation model objects.
+     * These are listeners which will be called when the ANTLR parser goes through each node on the generated grammar
+     * tree, creating from it a tree of dice notation model objects. One is taken for each parsed expression.
+     */
+    private final Supplier<? extends DiceExpressionBuilder> expressionBuilder;
+
+    /**
+     * Limits for the parsed expressions.
+     */
+    private final ParseLimits                               limits;
+
+    /**
+     * Recognizers for full LL prediction, one for each thread.
+     */
+    private final ThreadLocal<Recognizers>                  llRecognizers    = ThreadLocal
+        .withInitial(this::buildLlRecognizers);
+
+    /**
+     * Strategy used to drive the ANTLR parser.
+     */
+    private final PredictionStrategy                        predictionStrategy;
+
+    /**
+     * Recognizers which report no errors, for {@link #tryParse(String)}, one for each thread.
+     */
+    private final ThreadLocal<Recognizers>                  quietRecognizers = ThreadLocal
+        .withInitial(this::buildQuietRecognizers);
+
+    /**
+     * Recognizers for the SLL stage, one for each thread.
+     */
+    private final ThreadLocal<Recognizers>                  sllRecognizers   = ThreadLocal
+        .withInitial(this::buildSllRecognizers);
+
+    /**
+     * Validator used to check the limits, and to reject invalid expressions before ANTLR parses them.
+     */
+    private final NotationValidator                         validator;
+
+    static {
+        // Optional warm up, so the first expressions are parsed as fast as the rest
+        if (Boolean.getBoolean(WARM_UP_PROPERTY)) {
+            new DefaultDiceParser(PredictionStrategy.SLL_FIRST).warmUp();
+        }
+    }
+
+    /**
+     * Returns a supplier which always returns the received builder.
+     *
+     * @param builder
+     *            builder to share
+     * @return supplier for the shared builder
      */
-    private final DiceExpressionBuilder expressionBuilder;
+    private static final Supplier<DiceExpressionBuilder> share(final DiceExpressionBuilder builder) {
+        Objects.requireNonNull(builder, "Received a null pointer as expression builder");
+
+        return () -> builder;
+    }
 
     /**
      * Default constructor.
@@ -64,10 +362,8 @@ public final class DefaultDiceParser implements DiceParser {
      * It makes use of a {@link DefaultDiceExpressionBuilder}.
      */
     public DefaultDiceParser() {
-        super();
-
-        errorListener = new DefaultErrorListener();
-        expressionBuilder = new DefaultDiceExpressionBuilder();
+        this(DefaultDiceExpressionBuilder::new, new DefaultErrorListener(), PredictionStrategy.LL,
+            ParseLimits.UNLIMITED);
     }
 
     /**
@@ -77,27 +373,25 @@ public DefaultDiceParser() {
      *            error listener
      */
     public DefaultDiceParser(final ANTLRErrorListener listener) {
-        super();
-
-        errorListener = Objects.requireNonNull(listener, "Received a null pointer as listener");
-        expressionBuilder = new DefaultDiceExpressionBuilder();
+        this(DefaultDiceExpressionBuilder::new, listener, PredictionStrategy.LL, ParseLimits.UNLIMITED);
     }
 
     /**
      * Constructs a parser with the specified builder.
+     * <p>
+     * The same builder will be used for all the parsed expressions, so the parser can't be shared between threads.
      *
      * @param builder
      *            builder to generate the returned tree
      */
     public DefaultDiceParser(final DiceExpressionBuilder builder) {
-        super();
-
-        errorListener = new DefaultErrorListener();
-        expressionBuilder = Objects.requireNonNull(builder, "Received a null pointer as expression builder");
+        this(share(builder), new DefaultErrorListener(), PredictionStrategy.LL, ParseLimits.UNLIMITED);
     }
 
     /**
      * Constructs a parser with the specified builder and error listener.
+     * <p>
+     * The same builder will be used for all the parsed expressions, so the parser can't be shared between threads.
      *
      * @param builder
      *            builder to generate the returned tree
@@ -105,26 +399,149 @@ public DefaultDiceParser(final DiceExpressionBuilder builder) {
      *            error listener
      */
     public DefaultDiceParser(final DiceExpressionBuilder builder, final ANTLRErrorListener listener) {
+        this(share(builder), listener, PredictionStrategy.LL, ParseLimits.UNLIMITED);
+    }
+
+    /**
+     * Constructs a parser which takes a new builder from the supplier for each parsed expression.
+     * <p>
+     * As long as the supplier returns a new builder on each call, the parser can be shared between threads.
+     *
+     * @param builders
+     *            supplier for the builders which generate the returned tree
+     */
+    public DefaultDiceParser(final Supplier<? extends DiceExpressionBuilder> builders) {
+        this(builders, new DefaultErrorListener(), PredictionStrategy.LL, ParseLimits.UNLIMITED);
+    }
+
+    /**
+     * Constructs a parser which takes a new builder from the supplier for each parsed expression, and uses the
+     * specified error listener.
+     * <p>
+     * As long as the supplier returns a new builder on each call, and the listener keeps no state, the parser can be
+     * shared between threads.
+     *
+     * @param builders
+     *            supplier for the builders which generate the returned tree
+     * @param listener
+     *            error listener
+     */
+    public DefaultDiceParser(final Supplier<? extends DiceExpressionBuilder> builders,
+            final ANTLRErrorListener listener) {
+        this(builders, listener, PredictionStrategy.LL, ParseLimits.UNLIMITED);
+    }
+
+    /**
+     * Constructs a parser with the specified prediction strategy.
+     *
+     * @param strategy
+     *            strategy used to drive the ANTLR parser
+     */
+    public DefaultDiceParser(final PredictionStrategy strategy) {
+        this(DefaultDiceExpressionBuilder::new, new DefaultErrorListener(), strategy, ParseLimits.UNLIMITED);
+    }
+
+    /**
+     * Constructs a parser which takes a new builder from the supplier for each parsed expression, and uses the
+     * specified error listener and prediction strategy.
+     * <p>
+     * As long as the supplier returns a new builder on each call, and the listener keeps no state, the parser can be
+     * shared between threads.
+     *
+     * @param builders
+     *            supplier for the builders which generate the returned tree
+     * @param listener
+     *            error listener
+     * @param strategy
+     *            strategy used to drive the ANTLR parser
+     */
+    public DefaultDiceParser(final Supplier<? extends DiceExpressionBuilder> builders,
+            final ANTLRErrorListener listener, final PredictionStrategy strategy) {
+        this(builders, listener, strategy, ParseLimits.UNLIMITED);
+    }
+
+    /**
+     * Constructs a parser with the specified limits. Expressions over these limits are rejected.
+     *
+     * @param lmts
+     *            limits for the parsed expressions
+     */
+    public DefaultDiceParser(final ParseLimits lmts) {
+        this(DefaultDiceExpressionBuilder::new, new DefaultErrorListener(), PredictionStrategy.LL, lmts);
+    }
+
+    /**
+     * Constructs a parser which takes a new builder from the supplier for each parsed expression, and uses the
+     * specified error listener, prediction strategy and limits.
+     * <p>
+     * As long as the supplier returns a new builder on each call, and the listener keeps no state, the parser can be
+     * shared between threads.
+     *
+     * @param builders
+     *            supplier for the builders which generate the returned tree
+     * @param listener
+     *            error listener
+     * @param strategy
+     *            strategy used to drive the ANTLR parser
+     * @param lmts
+     *            limits for the parsed expressions
+     */
+    public DefaultDiceParser(final Supplier<? extends DiceExpressionBuilder> builders,
+            final ANTLRErrorListener listener, final PredictionStrategy strategy, final ParseLimits lmts) {
         super();
 
         errorListener = Objects.requireNonNull(listener, "Received a null pointer as listener");
-        expressionBuilder = Objects.requireNonNull(builder, "Received a null pointer as expression builder");
+        expressionBuilder = Objects.requireNonNull(builders, "Received a null pointer as expression builder supplier");
+        predictionStrategy = Objects.requireNonNull(strategy, "Received a null pointer as prediction strategy");
+        limits = Objects.requireNonNull(lmts, "Received a null pointer as limits");
+        validator = new NotationValidator(limits);
+    }
+
+    /**
+     * Clears the ANTLR prediction caches. These are shared by all the parsers, which will fill them again as they parse
+     * new expressions.
+     */
+    public final void clearDfaCache() {
+        clearDfa(LexerDfa.CACHE, DiceNotationLexer._ATN);
+        clearDfa(ParserDfa.CACHE, DiceNotationParser._ATN);
+
+        log.debug("Cleared DFA cache");
+    }
+
+    /**
+     * Returns the number of states stored in the ANTLR prediction caches, for both the lexer and the parser. These are
+     * shared by all the parsers.
+     *
+     * @return the number of states in the DFA cache
+     */
+    public final Integer getDfaStateCount() {
+        return getStateCount(LexerDfa.CACHE) + getStateCount(ParserDfa.CACHE);
     }
 
     @Override
-    public final DiceNotationExpression parse(final String expression) {
-        final DiceNotationParser parser; // ANTLR parser
+    public final DiceNotationExpression parse(final CharSequence expression) {
+        final DiceNotationExpression root;
 
-        Objects.requireNonNull(expression, "Received a null pointer as string");
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
 
-        // Creates the ANTLR parser
-        parser = buildDiceNotationParser(expression);
+        if (!ParseLimits.UNLIMITED.equals(limits)) {
+            checkLimits(expression);
+        }
 
-        // Parses the root rule
-        parser.notation();
+        if (PredictionStrategy.SLL_FIRST.equals(predictionStrategy)) {
+            root = parseSllFirst(expression);
+        } else {
+            root = parseLl(expression, true);
+        }
 
-        // Returns the tree root node
-        return expressionBuilder.getDiceExpressionRoot();
+        return root;
+    }
+
+    @Override
+    public final DiceNotationExpression parse(final String expression) {
+        Objects.requireNonNull(expression, "Received a null pointer as string");
+
+        return parse((CharSequence) expression);
     }
 
     @Override
@@ -137,33 +554,361 @@ public final <V> V parse(final String expression, final DiceInterpreter<V> inter
     }
 
     /**
-     * Creates the ANTLR4 parser to be used for processing the dice expression.
+     * Clears the ANTLR prediction caches if they hold more than the received number of states.
+     * <p>
+     * Meant to be called periodically by long running processes, which parse many distinct expressions, to keep the
+     * caches bounded.
+     *
+     * @param maxStates
+     *            maximum number of states to keep in the DFA cache
+     * @return {@code true} if the caches were cleared, {@code false} otherwise
+     */
+    public final Boolean trimDfaCache(final Integer maxStates) {
+        final Integer states;
+        final Boolean trimmed;
+
+        Objects.requireNonNull(maxStates, "Received a null pointer as maximum states");
+
+        states = getDfaStateCount();
+        if (states > maxStates) {
+            log.debug("DFA cache has {} states, over the limit of {}", states, maxStates);
+            clearDfaCache();
+            trimmed = true;
+        } else {
+            trimmed = false;
+        }
+
+        return trimmed;
+    }
+
+    @Override
+    public final ParseResult tryParse(final String expression) {
+        final ValidationResult validation;
+        final ParseResult      result;
+
+        Objects.requireNonNull(expression, "Received a null pointer as string");
+
+        // Invalid expressions are rejected before reaching ANTLR
+        validation = validator.validate(expression);
+        if (validation.isValid()) {
+            result = tryParseValidated(expression);
+        } else {
+            result = new DefaultParseResult(expression, validation.getErrorCode(), validation.getErrorPosition(),
+                null);
+        }
+
+        return result;
+    }
+
+    @Override
+    public final ValidationResult validate(final CharSequence expression) {
+        return validator.validate(expression);
+    }
+
+    /**
+     * Parses a corpus of representative expressions, which fills the ANTLR prediction caches, and loads and initializes
+     * the classes used for parsing. The caches are shared by all the parsers, so this is only needed once.
+     * <p>
+     * All the parsing paths are used, whatever the prediction strategy of this parser. Invalid expressions are parsed
+     * without reporting errors.
+     */
+    public final void warmUp() {
+        warmUp(WARM_UP_CORPUS);
+    }
+
+    /**
+     * Parses the received expressions, which fills the ANTLR prediction caches, and loads and initializes the classes
+     * used for parsing. The caches are shared by all the parsers, so this is only needed once.
+     * <p>
+     * All the parsing paths are used, whatever the prediction strategy of this parser. Invalid expressions are parsed
+     * without reporting errors.
+     *
+     * @param corpus
+     *            expressions to parse
+     */
+    public final void warmUp(final Collection<String> corpus) {
+        final long start;
+
+        Objects.requireNonNull(corpus, "Received a null pointer as corpus");
+
+        start = System.nanoTime();
+        for (final String expression : corpus) {
+            if (tryParse(expression).isValid()) {
+                parseLl(expression, true);
+                parseSllFirst(expression);
+            }
+        }
+
+        log.debug("Warmed up with {} expressions in {} ms, DFA cache has {} states", corpus.size(),
+            (System.nanoTime() - start) / 1_000_000, getDfaStateCount());
+    }
+
+    /**
+     * Checks the expression is inside the limits. Otherwise an exception is thrown.
      * <p>
-     * This parser will be tailored to the received expression, but it will still need a listener which, using the
-     * visitor pattern, will create the final object.
+     * Other errors are left to ANTLR, so they are reported to the error listener.
      *
      * @param expression
-     *            expression used to generate the parser
-     * @return an ANTLR4 parser tailored for the expression
+     *            expression to check
+     */
+    private final void checkLimits(final CharSequence expression) {
+        final ValidationResult validation;
+        final String           message;
+
+        validation = validator.validate(expression);
+        if (LIMIT_ERRORS.contains(validation.getErrorCode())) {
+            message = new DefaultParseResult(expression.toString(), validation.getErrorCode(),
+                validation.getErrorPosition(), null).getMessage();
+
+            log.error(message);
+
+            throw new IllegalStateException(message);
+        }
+    }
+
+    /**
+     * Replaces each prediction cache with an empty one, as the ANTLR simulators do when clearing them.
+     *
+     * @param dfas
+     *            caches to clear
+     * @param atn
+     *            network the caches are built for
+     */
+    private final void clearDfa(final DFA[] dfas, final ATN atn) {
+        for (int i = 0; i < dfas.length; i++) {
+            dfas[i] = new DFA(atn.getDecisionState(i), i);
+        }
+    }
+
+    /**
+     * Creates the ANTLR4 recognizers used for full LL prediction.
+     * <p>
+     * They still need to receive the expression, and a listener which, using the visitor pattern, will create the
+     * final object.
+     *
+     * @return ANTLR4 recognizers for full LL prediction
      */
-    private final DiceNotationParser buildDiceNotationParser(final String expression) {
-        final CharStream         stream;
+    private final Recognizers buildLlRecognizers() {
         final DiceNotationLexer  lexer;
-        final TokenStream        tokens;
+        final CommonTokenStream  tokens;
         final DiceNotationParser parser;
 
-        stream = CharStreams.fromString(expression);
-
-        lexer = new DiceNotationLexer(stream);
+        lexer = new DiceNotationLexer(new CharSequenceCharStream(""));
         lexer.addErrorListener(errorListener);
 
         tokens = new CommonTokenStream(lexer);
 
         parser = new DiceNotationParser(tokens);
         parser.addErrorListener(errorListener);
-        parser.addParseListener(expressionBuilder);
 
-        return parser;
+        return new Recognizers(lexer, tokens, parser);
+    }
+
+    /**
+     * Creates the ANTLR4 recognizers used for {@link #tryParse(String)}. They use full LL prediction, and have no error
+     * listeners, as these are added for each parsed expression.
+     *
+     * @return ANTLR4 recognizers which report no errors
+     */
+    private final Recognizers buildQuietRecognizers() {
+        final DiceNotationLexer  lexer;
+        final CommonTokenStream  tokens;
+        final DiceNotationParser parser;
+
+        lexer = new DiceNotationLexer(new CharSequenceCharStream(""));
+        lexer.removeErrorListeners();
+
+        tokens = new CommonTokenStream(lexer);
+
+        parser = new DiceNotationParser(tokens);
+        parser.removeErrorListeners();
+        parser.setBuildParseTree(false);
+
+        return new Recognizers(lexer, tokens, parser);
+    }
+
+    /**
+     * Creates the ANTLR4 recognizers for the SLL stage. Any error cancels the parsing, and nothing is reported.
+     *
+     * @return ANTLR4 recognizers for SLL prediction
+     */
+    private final Recognizers buildSllRecognizers() {
+        final DiceNotationLexer  lexer;
+        final CommonTokenStream  tokens;
+        final DiceNotationParser parser;
+
+        lexer = new DiceNotationLexer(new CharSequenceCharStream(""));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(BAIL_LISTENER);
+
+        tokens = new CommonTokenStream(lexer);
+
+        parser = new DiceNotationParser(tokens);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter()
+            .setPredictionMode(PredictionMode.SLL);
+        parser.setBuildParseTree(false);
+
+        return new Recognizers(lexer, tokens, parser);
+    }
+
+    /**
+     * Returns the number of states stored in the received DFAs.
+     *
+     * @param dfas
+     *            DFAs to check
+     * @return the number of states in the DFAs
+     */
+    private final Integer getStateCount(final DFA[] dfas) {
+        Integer count;
+
+        count = 0;
+        for (final DFA dfa : dfas) {
+            count += dfa.states.size();
+        }
+
+        return count;
+    }
+
+    /**
+     * Parses the expression with full LL prediction.
+     *
+     * @param expression
+     *            expression to parse
+     * @param buildTree
+     *            flag telling if the parse tree should be built
+     * @return the parsed expression
+     */
+    private final DiceNotationExpression parseLl(final CharSequence expression, final boolean buildTree) {
+        final DiceExpressionBuilder builder; // Listener building the tree
+        Recognizers                 recognizers;
+
+        // Each parsing gets its own builder
+        builder = expressionBuilder.get();
+
+        recognizers = llRecognizers.get();
+        if (recognizers.inUse) {
+            // Called while this thread is already parsing, for example from a listener
+            log.trace("Recognizers in use. Creating new ones");
+            recognizers = buildLlRecognizers();
+        }
+
+        recognizers.parser.setBuildParseTree(buildTree);
+
+        // Parses the root rule
+        parse(recognizers, expression, builder);
+
+        // Returns the tree root node
+        return builder.getDiceExpressionRoot();
+    }
+
+    /**
+     * Parses the expression with SLL prediction, and if this fails with full LL prediction.
+     *
+     * @param expression
+     *            expression to parse
+     * @return the parsed expression
+     */
+    private final DiceNotationExpression parseSllFirst(final CharSequence expression) {
+        final DiceExpressionBuilder builder;
+        Recognizers                 recognizers;
+        DiceNotationExpression      root;
+
+        builder = expressionBuilder.get();
+
+        recognizers = sllRecognizers.get();
+        if (recognizers.inUse) {
+            // Called while this thread is already parsing, for example from a listener
+            log.trace("Recognizers in use. Creating new ones");
+            recognizers = buildSllRecognizers();
+        }
+
+        try {
+            parse(recognizers, expression, builder);
+            root = builder.getDiceExpressionRoot();
+        } catch (final RuntimeException e) {
+            // The cancellation may be hidden by errors from the builder, which received an incomplete rule
+            // Any failure is handled by the second stage, which will report it if needed
+            log.debug("SLL parsing failed for {}. Retrying with LL", expression);
+            root = parseLl(expression, false);
+        }
+
+        return root;
+    }
+
+    /**
+     * Parses the expression with the received recognizers. These are reset for the expression, and left without the
+     * builder after the parsing.
+     *
+     * @param recognizers
+     *            ANTLR4 recognizers to use
+     * @param expression
+     *            expression to parse
+     * @param builder
+     *            listener which will build the tree
+     */
+    private final void parse(final Recognizers recognizers, final CharSequence expression,
+            final DiceExpressionBuilder builder) {
+        recognizers.inUse = true;
+        try {
+            recognizers.lexer.setInputStream(new CharSequenceCharStream(expression));
+            recognizers.tokens.setTokenSource(recognizers.lexer);
+            recognizers.parser.setTokenStream(recognizers.tokens);
+            recognizers.parser.addParseListener(builder);
+
+            recognizers.parser.file_();
+        } finally {
+            recognizers.parser.removeParseListeners();
+            recognizers.inUse = false;
+        }
+    }
+
+    /**
+     * Parses an expression which passed the validation, without exceptions or logging.
+     *
+     * @param expression
+     *            expression to parse
+     * @return the result of parsing the expression
+     */
+    private final ParseResult tryParseValidated(final String expression) {
+        final DiceExpressionBuilder  builder;  // Listener building the tree
+        final RecordingErrorListener listener; // Listener recording errors
+        Recognizers                  recognizers;
+        DiceNotationExpression       root;
+        ParseResult                  result;
+
+        builder = expressionBuilder.get();
+
+        recognizers = quietRecognizers.get();
+        if (recognizers.inUse) {
+            // Called while this thread is already parsing, for example from a listener
+            recognizers = buildQuietRecognizers();
+        }
+
+        listener = new RecordingErrorListener(recognizers.parser, builder);
+        recognizers.lexer.addErrorListener(listener);
+        recognizers.parser.addErrorListener(listener);
+        try {
+            parse(recognizers, expression, builder);
+
+            root = builder.getDiceExpressionRoot();
+            if (listener.errorCode != null) {
+                result = new DefaultParseResult(expression, listener.errorCode, listener.errorPosition, null);
+            } else if (root == null) {
+                result = new DefaultParseResult(expression, ParseErrorCode.INVALID_EXPRESSION, null, null);
+            } else {
+                result = new DefaultParseResult(expression, root);
+            }
+        } catch (final NumberFormatException e) {
+            // The builder can't store one of the numbers
+            result = new DefaultParseResult(expression, ParseErrorCode.NUMBER_OUT_OF_RANGE, null, null);
+        } finally {
+            recognizers.lexer.removeErrorListener(listener);
+            recognizers.parser.removeErrorListener(listener);
+        }
+
+        return result;
     }
 
 }
@@ -0,0 +1,161 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+
+import lombok.Data;
+
+/**
+ * Immutable parse result.
+ * <p>
+ * Failures keep only the error code and position. The error message is built from them when asked for.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Data
+public final class DefaultParseResult implements ParseResult {
+
+    /**
+     * Additional information about the error.
+     */
+    private final String                 detail;
+
+    /**
+     * Reason the notation couldn't be parsed.
+     */
+    private final ParseErrorCode         errorCode;
+
+    /**
+     * Position of the error.
+     */
+    private final Integer                errorPosition;
+
+    /**
+     * Parsed expression.
+     */
+    private final DiceNotationExpression expression;
+
+    /**
+     * Notation which was parsed. It may be read in place, so it is copied only when asked for.
+     */
+    private final CharSequence           notation;
+
+    /**
+     * Constructs a result for a parsed notation.
+     *
+     * @param text
+     *            notation which was parsed
+     * @param exp
+     *            parsed expression
+     */
+    public DefaultParseResult(final CharSequence text, final DiceNotationExpression exp) {
+        super();
+
+        notation = text;
+        expression = Objects.requireNonNull(exp, "Received a null pointer as expression");
+        errorCode = null;
+        errorPosition = null;
+        detail = null;
+    }
+
+    /**
+     * Constructs a result for a notation which couldn't be parsed.
+     *
+     * @param text
+     *            notation which was parsed
+     * @param code
+     *            reason the notation couldn't be parsed
+     * @param position
+     *            position of the error, or {@code null} if unknown
+     * @param info
+     *            additional information about the error, or {@code null} if there is none
+     */
+    public DefaultParseResult(final CharSequence text, final ParseErrorCode code, final Integer position,
+            final String info) {
+        super();
+
+        notation = text;
+        expression = null;
+        errorCode = Objects.requireNonNull(code, "Received a null pointer as error code");
+        errorPosition = position;
+        detail = info;
+    }
+
+    @Override
+    public final String getMessage() {
+        final String message;
+        final String reason;
+        Integer      line;
+        Integer      column;
+
+        if (errorCode == null) {
+            message = null;
+        } else if ((errorPosition == null) || (notation == null)) {
+            if (detail == null) {
+                message = errorCode.getDescription();
+            } else {
+                message = detail;
+            }
+        } else {
+            // Positions are reported as lines and columns, as in the ANTLR parser
+            line = 1;
+            column = 1;
+            for (Integer i = 0; i < Math.min(errorPosition, notation.length()); i++) {
+                if (notation.charAt(i) == '\n') {
+                    line++;
+                    column = 1;
+                } else {
+                    column++;
+                }
+            }
+
+            if ((errorPosition < notation.length()) && ((ParseErrorCode.INVALID_CHARACTER.equals(errorCode))
+                    || (ParseErrorCode.UNEXPECTED_INPUT.equals(errorCode)))) {
+                reason = String.format("%s '%s'", errorCode.getDescription(), notation.charAt(errorPosition));
+            } else {
+                reason = errorCode.getDescription();
+            }
+
+            message = String.format("Failed to parse at line %1$d on char %2$d due to %3$s", line, column, reason);
+        }
+
+        return message;
+    }
+
+    @Override
+    public final String getNotation() {
+        final String text;
+
+        if (notation == null) {
+            text = null;
+        } else {
+            text = notation.toString();
+        }
+
+        return text;
+    }
+
+    @Override
+    public final Boolean isValid() {
+        return expression != null;
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+import java.util.Objects;
+
+import lombok.Data;
+
+/**
+ * Immutable validation result.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Data
+public final class DefaultValidationResult implements ValidationResult {
+
+    /**
+     * Reason the notation is invalid.
+     */
+    private final ParseErrorCode errorCode;
+
+    /**
+     * Position of the error.
+     */
+    private final Integer        errorPosition;
+
+    /**
+     * Constructs a result for a valid notation.
+     */
+    public DefaultValidationResult() {
+        super();
+
+        errorCode = null;
+        errorPosition = null;
+    }
+
+    /**
+     * Constructs a result for an invalid notation.
+     *
+     * @param code
+     *            reason the notation is invalid
+     * @param position
+     *            position of the error, or {@code null} if unknown
+     */
+    public DefaultValidationResult(final ParseErrorCode code, final Integer position) {
+        super();
+
+        errorCode = Objects.requireNonNull(code, "Received a null pointer as error code");
+        errorPosition = position;
+    }
+
+    @Override
+    public final Boolean isValid() {
+        return errorCode == null;
+    }
+
+}
@@ -16,6 +16,18 @@
 
 package com.bernardomg.tabletop.dice.parser;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import com.bernardomg.tabletop.dice.interpreter.DiceInterpreter;
 import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
 
@@ -23,6 +35,16 @@
  * Transforms a dice notation expression, received as a string, into the dice notation model.
  * <p>
  * The returned object is expected to be the root node of a tree made up by dice notation model objects.
+ * <p>
+ * Expressions can also be read in place from a {@code CharSequence} or from ASCII bytes, which parsers may use to
+ * avoid copying them into a {@code String}.
+ * <p>
+ * Invalid expressions can be handled without exceptions with {@link #tryParse(String)}, which returns a
+ * {@link ParseResult}. Several expressions can be parsed in a single call. In this case a failure doesn't stop the
+ * parsing, instead each expression gets its own result.
+ * <p>
+ * Expressions can also be just validated with {@link #validate(CharSequence)}, which doesn't parse them, and so is
+ * the cheapest way to reject invalid input.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
@@ -37,6 +59,53 @@ public interface DiceParser {
      */
     public DiceNotationExpression parse(final String expression);
 
+    /**
+     * Transforms ASCII bytes, containing a dice notation expression, into the dice notation model.
+     * <p>
+     * The bytes are read in place, through an {@link AsciiCharSequence}.
+     *
+     * @param bytes
+     *            the bytes containing the expression to parse
+     * @param offset
+     *            position of the first byte of the expression
+     * @param length
+     *            number of bytes in the expression
+     * @return a dice notation expression object
+     */
+    public default DiceNotationExpression parse(final byte[] bytes, final int offset, final int length) {
+        return parse(new AsciiCharSequence(bytes, offset, length));
+    }
+
+    /**
+     * Transforms ASCII bytes, containing a dice notation expression, into the dice notation model.
+     * <p>
+     * The expression is read from the position of the buffer up to its limit. The bytes are read in place, through
+     * an {@link AsciiCharSequence}, and the position of the buffer is not changed.
+     *
+     * @param buffer
+     *            the buffer containing the expression to parse
+     * @return a dice notation expression object
+     */
+    public default DiceNotationExpression parse(final ByteBuffer buffer) {
+        return parse(new AsciiCharSequence(buffer));
+    }
+
+    /**
+     * Transforms a dice notation expression into the dice notation model.
+     * <p>
+     * By default the expression is copied into a {@code String}. Parsers which can read it in place are expected to
+     * override this method.
+     *
+     * @param expression
+     *            the expression to parse
+     * @return a dice notation expression object
+     */
+    public default DiceNotationExpression parse(final CharSequence expression) {
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        return parse(expression.toString());
+    }
+
     /**
      * Transforms a dice notation expression into the dice notation model and applies the received interpreter.
      *
@@ -50,4 +119,195 @@ public interface DiceParser {
      */
     public <V> V parse(final String expression, final DiceInterpreter<V> interpreter);
 
+    /**
+     * Transforms all the received expressions into the dice notation model.
+     * <p>
+     * Each distinct expression is parsed only once, with {@link #tryParse(String)}. The results are returned in the
+     * same order as the expressions, and a failure is returned as an invalid result, without stopping the parsing of
+     * the other expressions. This includes exceptions thrown by {@code tryParse}, and stack overflows from expressions
+     * nested too deeply.
+     * <p>
+     * The expressions are checked before parsing any of them, and a null expression is rejected.
+     *
+     * @param expressions
+     *            the expressions to parse
+     * @return the result for each expression
+     */
+    public default List<ParseResult> parseAll(final Collection<String> expressions) {
+        final Map<String, ParseResult> results;
+
+        requireNoNulls(expressions);
+
+        // Repeated expressions are parsed once
+        results = new HashMap<>();
+        for (final String expression : expressions) {
+            results.computeIfAbsent(expression, this::tryParseItem);
+        }
+
+        return expressions.stream()
+            .map(results::get)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Transforms all the received expressions into the dice notation model, parsing them in the received pool.
+     * <p>
+     * Works as {@link #parseAll(Collection)}, but the distinct expressions are parsed in parallel, so this parser
+     * should be thread safe.
+     *
+     * @param expressions
+     *            the expressions to parse
+     * @param pool
+     *            pool where the expressions will be parsed
+     * @return the result for each expression
+     */
+    public default List<ParseResult> parseAll(final Collection<String> expressions, final ForkJoinPool pool) {
+        final List<String>             distinct;
+        final List<ParseResult>        parsed;
+        final Map<String, ParseResult> results;
+
+        requireNoNulls(expressions);
+        Objects.requireNonNull(pool, "Received a null pointer as pool");
+
+        // Repeated expressions are parsed once
+        distinct = new ArrayList<>(new LinkedHashSet<>(expressions));
+
+        // A parallel stream started from a task runs in the task pool
+        parsed = pool.submit(() -> distinct.parallelStream()
+            .map(this::tryParseItem)
+            .collect(Collectors.toList()))
+            .join();
+
+        results = new HashMap<>();
+        for (Integer i = 0; i < distinct.size(); i++) {
+            results.put(distinct.get(i), parsed.get(i));
+        }
+
+        return expressions.stream()
+            .map(results::get)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Transforms all the received expressions into the dice notation model.
+     * <p>
+     * Works as {@link #parseAll(Collection)}. The stream is consumed before returning.
+     *
+     * @param expressions
+     *            the expressions to parse
+     * @return the result for each expression
+     */
+    public default List<ParseResult> parseAll(final Stream<String> expressions) {
+        Objects.requireNonNull(expressions, "Received a null pointer as expressions");
+
+        return parseAll(expressions.collect(Collectors.toList()));
+    }
+
+    /**
+     * Transforms a dice notation expression into the dice notation model, without throwing an exception if it is
+     * invalid.
+     * <p>
+     * Failures are returned as an invalid result, with an error code and, if possible, the position of the error.
+     * Parsers are expected to do this without throwing exceptions or logging errors, which is much cheaper for
+     * invalid expressions. By default, the exception thrown by {@link #parse(String)} is caught into the result, as is
+     * a stack overflow from an expression nested too deeply.
+     *
+     * @param expression
+     *            the expression to parse
+     * @return the result of parsing the expression
+     */
+    public default ParseResult tryParse(final String expression) {
+        ParseResult result;
+
+        Objects.requireNonNull(expression, "Received a null pointer as string");
+
+        try {
+            result = new DefaultParseResult(expression, parse(expression));
+        } catch (final RuntimeException e) {
+            result = new DefaultParseResult(expression, ParseErrorCode.INVALID_EXPRESSION, null, e.getMessage());
+        } catch (final StackOverflowError e) {
+            result = new DefaultParseResult(expression, ParseErrorCode.DEPTH_LIMIT_EXCEEDED, null,
+                "The expression is nested too deeply to be parsed");
+        }
+
+        return result;
+    }
+
+    /**
+     * Transforms a dice notation expression into the dice notation model, without throwing an exception if it is
+     * invalid.
+     * <p>
+     * By default the expression is copied into a {@code String}. Parsers which can read it in place are expected to
+     * override this method. In that case the result may keep the received sequence, and copy it only when its notation
+     * or message is read, so the sequence shouldn't change while the result is used.
+     *
+     * @param expression
+     *            the expression to parse
+     * @return the result of parsing the expression
+     */
+    public default ParseResult tryParse(final CharSequence expression) {
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        return tryParse(expression.toString());
+    }
+
+    /**
+     * Checks if a dice notation expression is valid, without parsing it.
+     * <p>
+     * No model objects are created, but the errors are the same ones that {@link #tryParse(String)} would return. By
+     * default a {@link NotationValidator} without limits is used. Parsers with {@link ParseLimits limits} are expected
+     * to override this method, so the limits are enforced too.
+     *
+     * @param expression
+     *            the expression to validate
+     * @return the result of validating the expression
+     */
+    public default ValidationResult validate(final CharSequence expression) {
+        return new NotationValidator().validate(expression);
+    }
+
+    /**
+     * Rejects a collection of expressions containing a null one.
+     *
+     * @param expressions
+     *            the expressions to check
+     */
+    private void requireNoNulls(final Collection<String> expressions) {
+        Integer index;
+
+        Objects.requireNonNull(expressions, "Received a null pointer as expressions");
+
+        index = 0;
+        for (final String expression : expressions) {
+            if (expression == null) {
+                throw new NullPointerException(
+                    String.format("Received a null pointer as the expression at position %d", index));
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Parses one of the expressions of a batch. Any failure, even if {@link #tryParse(String)} throws it, is returned
+     * as an invalid result, so it doesn't stop the batch.
+     *
+     * @param expression
+     *            the expression to parse
+     * @return the result of parsing the expression
+     */
+    private ParseResult tryParseItem(final String expression) {
+        ParseResult result;
+
+        try {
+            result = tryParse(expression);
+        } catch (final RuntimeException e) {
+            result = new DefaultParseResult(expression, ParseErrorCode.INVALID_EXPRESSION, null, e.getMessage());
+        } catch (final StackOverflowError e) {
+            result = new DefaultParseResult(expression, ParseErrorCode.DEPTH_LIMIT_EXCEEDED, null,
+                "The expression is nested too deeply to be parsed");
+        }
+
+        return result;
+    }
+
 }
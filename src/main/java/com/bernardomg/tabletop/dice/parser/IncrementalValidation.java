@@ -0,0 +1,199 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.parser;
+
+import java.util.Objects;
+
+/**
+ * Validation state of a text which is built one character at a time, such as the contents of an input box.
+ * <p>
+ * Each appended character advances a flat state machine, the same one used by {@link NotationValidator}, and returns
+ * a new state. So each keystroke takes constant time and no exceptions are thrown, whatever the text is. The text
+ * itself is not stored.
+ * <p>
+ * The state tells if the text is a valid expression, the start of one, or invalid. Once invalid, the error is kept
+ * and further characters are ignored. Limits are rejected as soon as they can't be met, even if the text could still
+ * grow, so their errors may be reported earlier than by the {@code NotationValidator}.
+ * <p>
+ * Instances are immutable, so each one is a snapshot of the text validated so far. Removing characters from the end
+ * is just going back to a previous state.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class IncrementalValidation {
+
+    /**
+     * Number of characters validated.
+     */
+    private int                   length;
+
+    /**
+     * Limits for the expression.
+     */
+    private final ParseLimits     limits;
+
+    /**
+     * State machine for the text.
+     */
+    private final NotationScanner scanner;
+
+    /**
+     * Constructs the state for an empty text, without limits.
+     */
+    public IncrementalValidation() {
+        this(ParseLimits.UNLIMITED);
+    }
+
+    /**
+     * Constructs the state for an empty text, with the received limits.
+     *
+     * @param lmts
+     *            limits for the expression
+     */
+    public IncrementalValidation(final ParseLimits lmts) {
+        super();
+
+        limits = Objects.requireNonNull(lmts, "Received a null pointer as limits");
+        scanner = new NotationScanner(limits, true);
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param previous
+     *            state to copy
+     */
+    private IncrementalValidation(final IncrementalValidation previous) {
+        super();
+
+        length = previous.length;
+        limits = previous.limits;
+        scanner = new NotationScanner(previous.scanner);
+    }
+
+    /**
+     * Returns the state after appending the received character. This state is not modified.
+     *
+     * @param character
+     *            character to append
+     * @return the state for the longer text
+     */
+    public final IncrementalValidation append(final char character) {
+        final IncrementalValidation next;
+
+        next = new IncrementalValidation(this);
+        next.advance(character);
+
+        return next;
+    }
+
+    /**
+     * Returns the state after appending the received characters. This state is not modified.
+     *
+     * @param characters
+     *            characters to append
+     * @return the state for the longer text
+     */
+    public final IncrementalValidation append(final CharSequence characters) {
+        final IncrementalValidation next;
+
+        Objects.requireNonNull(characters, "Received a null pointer as characters");
+
+        next = new IncrementalValidation(this);
+        for (Integer i = 0; i < characters.length(); i++) {
+            next.advance(characters.charAt(i));
+        }
+
+        return next;
+    }
+
+    /**
+     * Returns the reason the text is invalid, or {@code null} if it is not invalid.
+     *
+     * @return the error code
+     */
+    public final ParseErrorCode getErrorCode() {
+        return scanner.getErrorCode();
+    }
+
+    /**
+     * Returns the position of the error, or {@code null} if the text is not invalid.
+     *
+     * @return the error position
+     */
+    public final Integer getErrorPosition() {
+        final Integer position;
+
+        if (scanner.getErrorCode() == null) {
+            position = null;
+        } else {
+            position = scanner.getErrorPosition();
+        }
+
+        return position;
+    }
+
+    /**
+     * Returns the number of characters validated.
+     *
+     * @return the length of the text
+     */
+    public final Integer getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the status of the text validated so far.
+     *
+     * @return the validation status
+     */
+    public final ValidationStatus getStatus() {
+        final ValidationStatus status;
+
+        if (scanner.getErrorCode() != null) {
+            status = ValidationStatus.INVALID;
+        } else if (scanner.isComplete()) {
+            status = ValidationStatus.VALID;
+        } else {
+            status = ValidationStatus.VALID_PREFIX;
+        }
+
+        return status;
+    }
+
+    /**
+     * Advances the state machine with the received character. Characters after an error are only counted.
+     *
+     * @param character
+     *            character to validate
+     */
+    private final void advance(final char character) {
+        final int position;
+
+        position = length;
+        length++;
+
+        // Once invalid, the machine ignores any character
+        if (length > limits.getMaxLength()) {
+            scanner.exceedLength(limits.getMaxLength());
+        } else {
+            scanner.advance(character, position);
+        }
+    }
+
+}
@@ -0,0 +1,634 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.parser;
+
+/**
+ * Lexical rules of the dice notation, and the state machine which validates it one character at a time.
+ * <p>
+ * The static members are the character checks and number ranges shared by the parsers and the validators. An
+ * instance is the state machine shared by {@link NotationValidator}, which reads a whole text, and
+ * {@link IncrementalValidation}, which receives one character at a time. The machine needs no lookahead, so characters
+ * which depend on the next one, such as a lowercase {@code d}, wait for it in their own states.
+ * <p>
+ * By default limits and ranges are checked once each token ends, which gives the same errors, at the same positions,
+ * as the parsers. An eager machine also checks them while reading each token, so these errors are found as soon as
+ * they can't be avoided, even if they are reported with a different code than the parsers would use.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class NotationScanner {
+
+    /**
+     * States of the state machine.
+     */
+    private enum State {
+        /**
+         * After an operand, expecting an operator, a closing parenthesis or the end.
+         */
+        AFTER_OPERAND,
+        /**
+         * After the sides of a dice, which may be followed by a keep or drop operator.
+         */
+        DICE_END,
+        /**
+         * Reading the number of dice to keep or drop.
+         */
+        KEEP,
+        /**
+         * After the first character of a keep or drop operator, expecting {@code h} or {@code l}.
+         */
+        KEEP_OPERATOR,
+        /**
+         * After a keep or drop operator, expecting the number of dice.
+         */
+        KEEP_START,
+        /**
+         * Reading a number, which may be the quantity of dice.
+         */
+        NUMBER,
+        /**
+         * Expecting an operand.
+         */
+        OPERAND,
+        /**
+         * After a number, which may be the quantity for a dice.
+         */
+        QUANTITY,
+        /**
+         * After a lowercase dice separator following the quantity. It is a separator unless followed by {@code h} or
+         * {@code l}.
+         */
+        SEPARATOR,
+        /**
+         * Reading the sides of a dice.
+         */
+        SIDES,
+        /**
+         * After a dice separator, expecting the sides.
+         */
+        SIDES_START,
+        /**
+         * After a sign, expecting a number or a dice.
+         */
+        SIGNED,
+        /**
+         * After a lowercase dice separator starting an operand, so the dice has no quantity. It is a separator unless
+         * followed by {@code h} or {@code l}.
+         */
+        SINGLE_SEPARATOR
+    }
+
+    /**
+     * Marker for the end of the text. It can't be part of a valid expression.
+     */
+    static final char                 END                 = '\0';
+
+    /**
+     * Absolute value of the lowest integer.
+     */
+    static final long                 MIN_MAGNITUDE       = 1L + Integer.MAX_VALUE;
+
+    /**
+     * Value used for numbers which don't fit into an integer.
+     */
+    static final long                 OUT_OF_RANGE        = MIN_MAGNITUDE + 1L;
+
+    /**
+     * Characters, other than digits, which are part of the dice notation.
+     */
+    private static final String       NOTATION_CHARACTERS = "dDkhl+-*/()\t\r\n";
+
+    /**
+     * Open parenthesis.
+     */
+    private int                       depth;
+
+    /**
+     * Number of dice so far.
+     */
+    private long                      dice;
+
+    /**
+     * Flag telling if limits and ranges are checked while reading each token.
+     */
+    private final boolean             eager;
+
+    /**
+     * Reason of the error, or {@code null} if there is none.
+     */
+    private ParseErrorCode            errorCode;
+
+    /**
+     * Position of the error.
+     */
+    private int                       errorPosition;
+
+    /**
+     * Limits for the expression.
+     */
+    private final ParseLimits         limits;
+
+    /**
+     * Flag telling if the current number is negative.
+     */
+    private boolean                   negative;
+
+    /**
+     * Number of nodes so far.
+     */
+    private int                       nodes;
+
+    /**
+     * Position of the character waiting for the next one to be validated.
+     */
+    private int                       pending;
+
+    /**
+     * Start of the current token.
+     */
+    private int                       start;
+
+    /**
+     * Current state.
+     */
+    private State                     state;
+
+    /**
+     * Value of the current number.
+     */
+    private long                      value;
+
+    /**
+     * Returns the value after appending a digit. Values too big for an integer become {@link #OUT_OF_RANGE}, so they
+     * never overflow.
+     *
+     * @param value
+     *            value read so far
+     * @param digit
+     *            digit to append
+     * @return the value with the digit
+     */
+    static final long appendDigit(final long value, final char digit) {
+        return Math.min((value * 10) + (digit - '0'), OUT_OF_RANGE);
+    }
+
+    /**
+     * Checks if the character is a digit.
+     *
+     * @param character
+     *            character to check
+     * @return {@code true} if it is a digit
+     */
+    static final boolean isDigit(final char character) {
+        return (character >= '0') && (character <= '9');
+    }
+
+    /**
+     * Checks if the character selects the highest or lowest dice.
+     *
+     * @param character
+     *            character to check
+     * @return {@code true} if it is a high or low marker
+     */
+    static final boolean isHighLow(final char character) {
+        return (character == 'h') || (character == 'l');
+    }
+
+    /**
+     * Checks if the characters are a keep or drop operator, such as {@code kh} or {@code dl}.
+     *
+     * @param keepDrop
+     *            first character, which keeps or drops
+     * @param highLow
+     *            second character, which selects the highest or lowest dice
+     * @return {@code true} if the characters are a keep or drop operator
+     */
+    static final boolean isKeepDrop(final char keepDrop, final char highLow) {
+        return ((keepDrop == 'k') || (keepDrop == 'd')) && isHighLow(highLow);
+    }
+
+    /**
+     * Checks if the character is part of the dice notation.
+     *
+     * @param character
+     *            character to check
+     * @return {@code true} if it is part of the dice notation
+     */
+    static final boolean isNotationCharacter(final char character) {
+        return isDigit(character) || (NOTATION_CHARACTERS.indexOf(character) >= 0);
+    }
+
+    /**
+     * Checks if the character is ignored between tokens.
+     *
+     * @param character
+     *            character to check
+     * @return {@code true} if it is whitespace
+     */
+    static final boolean isWhitespace(final char character) {
+        return (character == '\t') || (character == '\r') || (character == '\n');
+    }
+
+    /**
+     * Constructs the machine for an empty text.
+     *
+     * @param lmts
+     *            limits for the expression
+     * @param eagerChecks
+     *            flag telling if limits and ranges are checked while reading each token
+     */
+    NotationScanner(final ParseLimits lmts, final boolean eagerChecks) {
+        super();
+
+        limits = lmts;
+        eager = eagerChecks;
+        state = State.OPERAND;
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param previous
+     *            machine to copy
+     */
+    NotationScanner(final NotationScanner previous) {
+        super();
+
+        depth = previous.depth;
+        dice = previous.dice;
+        eager = previous.eager;
+        errorCode = previous.errorCode;
+        errorPosition = previous.errorPosition;
+        limits = previous.limits;
+        negative = previous.negative;
+        nodes = previous.nodes;
+        pending = previous.pending;
+        start = previous.start;
+        state = previous.state;
+        value = previous.value;
+    }
+
+    /**
+     * Advances the machine with the received character. Characters after an error are ignored.
+     *
+     * @param character
+     *            character to validate
+     * @param position
+     *            position of the character
+     */
+    final void advance(final char character, final int position) {
+        step(character, position, false);
+    }
+
+    /**
+     * Advances the machine with the end of the text. Afterwards the text is either complete or invalid.
+     *
+     * @param position
+     *            position of the end, which is the length of the text
+     */
+    final void end(final int position) {
+        step(END, position, true);
+    }
+
+    /**
+     * Rejects the text for being too long, unless it is already invalid.
+     *
+     * @param position
+     *            position of the first character over the limit
+     */
+    final void exceedLength(final int position) {
+        if (errorCode == null) {
+            fail(ParseErrorCode.LENGTH_LIMIT_EXCEEDED, position);
+        }
+    }
+
+    /**
+     * Returns the reason the text is invalid, or {@code null} if it is not invalid.
+     *
+     * @return the error code
+     */
+    final ParseErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * Returns the position of the error. Only meaningful if there is an error.
+     *
+     * @return the error position
+     */
+    final int getErrorPosition() {
+        return errorPosition;
+    }
+
+    /**
+     * Checks if the text read so far is a full expression.
+     *
+     * @return {@code true} if the expression can end here
+     */
+    final boolean isComplete() {
+        return (errorCode == null) && (depth == 0)
+                && ((state == State.NUMBER) || (state == State.QUANTITY) || (state == State.SIDES)
+                        || (state == State.DICE_END) || (state == State.KEEP) || (state == State.AFTER_OPERAND));
+    }
+
+    /**
+     * Counts a new node, and checks the nodes limit.
+     */
+    private final void addNode() {
+        nodes++;
+        if (nodes > limits.getMaxNodes()) {
+            // Reported at the start of the node
+            fail(ParseErrorCode.NODE_LIMIT_EXCEEDED, start);
+        }
+    }
+
+    /**
+     * Checks the quantity read is in range as a constant. Negative constants can reach the lowest integer.
+     */
+    private final void checkConstant() {
+        if (value > (negative ? MIN_MAGNITUDE : Integer.MAX_VALUE)) {
+            fail(ParseErrorCode.NUMBER_OUT_OF_RANGE, start);
+        }
+    }
+
+    /**
+     * Checks the number being read is in range. Numbers only grow with more digits, so this is known as soon as they
+     * are too big. Only used by eager machines.
+     */
+    private final void checkNumber() {
+        final long maximum;
+
+        if (state == State.NUMBER) {
+            // Negative constants can reach the lowest integer
+            maximum = negative ? MIN_MAGNITUDE : Integer.MAX_VALUE;
+        } else {
+            maximum = Integer.MAX_VALUE;
+        }
+
+        if (value > maximum) {
+            fail(ParseErrorCode.NUMBER_OUT_OF_RANGE, start);
+        } else if ((state == State.SIDES) && (value > limits.getMaxSides())) {
+            fail(ParseErrorCode.SIDES_LIMIT_EXCEEDED, start);
+        }
+    }
+
+    /**
+     * Checks the limits a lowercase separator would exceed, before knowing if it is a separator. Only used by eager
+     * machines.
+     *
+     * @param single
+     *            flag telling if the dice has no quantity, so it is also a new node
+     */
+    private final void checkSeparator(final boolean single) {
+        if (single && ((nodes + 1) > limits.getMaxNodes())) {
+            fail(ParseErrorCode.NODE_LIMIT_EXCEEDED, start);
+        } else if (value > Integer.MAX_VALUE) {
+            fail(ParseErrorCode.NUMBER_OUT_OF_RANGE, start);
+        } else if ((dice + value) > limits.getMaxDice()) {
+            fail(ParseErrorCode.DICE_LIMIT_EXCEEDED, start);
+        }
+    }
+
+    /**
+     * Records the error.
+     *
+     * @param code
+     *            error code
+     * @param position
+     *            error position
+     */
+    private final void fail(final ParseErrorCode code, final int position) {
+        errorCode = code;
+        errorPosition = position;
+    }
+
+    /**
+     * Reads a dice separator, after the quantity, and checks the limits for the dice.
+     */
+    private final void separate() {
+        dice += value;
+        if (value > Integer.MAX_VALUE) {
+            fail(ParseErrorCode.NUMBER_OUT_OF_RANGE, start);
+        } else if (dice > limits.getMaxDice()) {
+            fail(ParseErrorCode.DICE_LIMIT_EXCEEDED, start);
+        } else {
+            state = State.SIDES_START;
+        }
+    }
+
+    /**
+     * Advances the machine with the received character, or with the end of the text. This is the transition table.
+     *
+     * @param character
+     *            character to validate
+     * @param position
+     *            position of the character
+     * @param last
+     *            flag telling if this is the end of the text, instead of a character
+     */
+    private final void step(final char character, final int position, final boolean last) {
+        boolean consumed;
+
+        // A character may go through several states, until one consumes it
+        consumed = (errorCode != null);
+        while (!consumed) {
+            switch (state) {
+                case OPERAND:
+                case SIGNED:
+                    consumed = true;
+                    if (last) {
+                        unexpected(character, position, last);
+                    } else if (isWhitespace(character)) {
+                        // Ignored
+                    } else if ((character == '(') && (state == State.OPERAND)) {
+                        depth++;
+                        if (depth > limits.getMaxDepth()) {
+                            fail(ParseErrorCode.DEPTH_LIMIT_EXCEEDED, position);
+                        }
+                    } else if (((character == '+') || (character == '-')) && (state == State.OPERAND)) {
+                        negative = (character == '-');
+                        state = State.SIGNED;
+                    } else if (isDigit(character) || (character == 'D')) {
+                        if (state == State.OPERAND) {
+                            negative = false;
+                        }
+                        start = position;
+                        // A dice without quantity has a single dice
+                        value = (character == 'D') ? 1 : 0;
+                        addNode();
+                        state = (character == 'D') ? State.QUANTITY : State.NUMBER;
+                        consumed = false;
+                    } else if (character == 'd') {
+                        start = position;
+                        value = 1;
+                        pending = position;
+                        state = State.SINGLE_SEPARATOR;
+                        if (eager) {
+                            checkSeparator(true);
+                        }
+                    } else {
+                        unexpected(character, position, last);
+                    }
+                    break;
+                case NUMBER:
+                case SIDES:
+                case KEEP:
+                    if (!last && isDigit(character)) {
+                        value = appendDigit(value, character);
+                        if (eager) {
+                            checkNumber();
+                        }
+                        consumed = true;
+                    } else if (state == State.NUMBER) {
+                        // The range depends on what follows
+                        state = State.QUANTITY;
+                    } else if (value > Integer.MAX_VALUE) {
+                        fail(ParseErrorCode.NUMBER_OUT_OF_RANGE, start);
+                    } else if (state == State.KEEP) {
+                        state = State.AFTER_OPERAND;
+                    } else if (value > limits.getMaxSides()) {
+                        fail(ParseErrorCode.SIDES_LIMIT_EXCEEDED, start);
+                    } else {
+                        state = State.DICE_END;
+                    }
+                    break;
+                case QUANTITY:
+                    if (last) {
+                        checkConstant();
+                        state = State.AFTER_OPERAND;
+                    } else if (isWhitespace(character)) {
+                        consumed = true;
+                    } else if (character == 'D') {
+                        separate();
+                        consumed = true;
+                    } else if (character == 'd') {
+                        pending = position;
+                        state = State.SEPARATOR;
+                        if (eager) {
+                            checkSeparator(false);
+                        }
+                        consumed = true;
+                    } else {
+                        checkConstant();
+                        state = State.AFTER_OPERAND;
+                    }
+                    break;
+                case SEPARATOR:
+                case SINGLE_SEPARATOR:
+                    if (!last && isHighLow(character)) {
+                        // It was a keep or drop operator, which can't follow a number
+                        checkConstant();
+                        if (errorCode == null) {
+                            fail(ParseErrorCode.UNEXPECTED_INPUT, pending);
+                        }
+                        consumed = true;
+                    } else {
+                        if (state == State.SINGLE_SEPARATOR) {
+                            start = pending;
+                            addNode();
+                        }
+                        if (errorCode == null) {
+                            separate();
+                        }
+                    }
+                    break;
+                case SIDES_START:
+                case KEEP_START:
+                    if (!last && isWhitespace(character)) {
+                        consumed = true;
+                    } else if (!last && isDigit(character)) {
+                        start = position;
+                        value = 0;
+                        state = (state == State.SIDES_START) ? State.SIDES : State.KEEP;
+                    } else {
+                        unexpected(character, position, last);
+                        consumed = true;
+                    }
+                    break;
+                case DICE_END:
+                    if (!last && isWhitespace(character)) {
+                        consumed = true;
+                    } else if (!last && ((character == 'k') || (character == 'd'))) {
+                        pending = position;
+                        state = State.KEEP_OPERATOR;
+                        consumed = true;
+                    } else {
+                        state = State.AFTER_OPERAND;
+                    }
+                    break;
+                case KEEP_OPERATOR:
+                    if (!last && isHighLow(character)) {
+                        state = State.KEEP_START;
+                    } else {
+                        // It wasn't a keep or drop operator
+                        fail(ParseErrorCode.UNEXPECTED_INPUT, pending);
+                    }
+                    consumed = true;
+                    break;
+                case AFTER_OPERAND:
+                default:
+                    if (last) {
+                        if (depth > 0) {
+                            unexpected(character, position, last);
+                        }
+                    } else if (isWhitespace(character)) {
+                        // Ignored
+                    } else if ((character == '+') || (character == '-') || (character == '*') || (character == '/')) {
+                        // Binary operation
+                        start = position;
+                        addNode();
+                        if (eager && (errorCode == null) && (nodes >= limits.getMaxNodes())) {
+                            // There is no room for the next operand
+                            fail(ParseErrorCode.NODE_LIMIT_EXCEEDED, position + 1);
+                        }
+                        state = State.OPERAND;
+                    } else if ((character == ')') && (depth > 0)) {
+                        depth--;
+                    } else {
+                        unexpected(character, position, last);
+                    }
+                    consumed = true;
+            }
+
+            if (errorCode != null) {
+                consumed = true;
+            }
+        }
+    }
+
+    /**
+     * Records an unexpected character, or the end of the text.
+     *
+     * @param character
+     *            unexpected character
+     * @param position
+     *            position of the character
+     * @param last
+     *            flag telling if this is the end of the text
+     */
+    private final void unexpected(final char character, final int position, final boolean last) {
+        if (last) {
+            fail(ParseErrorCode.UNEXPECTED_END, position);
+        } else if (isNotationCharacter(character)) {
+            fail(ParseErrorCode.UNEXPECTED_INPUT, position);
+        } else {
+            fail(ParseErrorCode.INVALID_CHARACTER, position);
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+import java.util.Objects;
+
+/**
+ * Checks if a dice notation expression is valid, without parsing it.
+ * <p>
+ * The expression is read in a single pass by a flat state machine, the same one used by
+ * {@link IncrementalValidation}. It checks the characters, their order, the balance of the parenthesis and the range
+ * of the numbers, the same as the parsers do, but no tokens or model objects are created. The errors are the same
+ * ones, at the same positions, that {@link DiceParser#tryParse(String)} would return.
+ * <p>
+ * It can also enforce {@link ParseLimits limits} on the expression. These are checked as the expression is read, so
+ * an expression over the limits is rejected as soon as one of them is exceeded.
+ * <p>
+ * The validator keeps no state between calls, so it is thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class NotationValidator {
+
+    /**
+     * Result for all the valid expressions.
+     */
+    private static final ValidationResult VALID = new DefaultValidationResult();
+
+    /**
+     * Limits for the expressions.
+     */
+    private final ParseLimits             limits;
+
+    /**
+     * Default constructor. No limits are applied.
+     */
+    public NotationValidator() {
+        super();
+
+        limits = ParseLimits.UNLIMITED;
+    }
+
+    /**
+     * Constructs a validator with the received limits.
+     *
+     * @param lmts
+     *            limits for the expressions
+     */
+    public NotationValidator(final ParseLimits lmts) {
+        super();
+
+        limits = Objects.requireNonNull(lmts, "Received a null pointer as limits");
+    }
+
+    /**
+     * Validates the expression.
+     *
+     * @param expression
+     *            expression to validate
+     * @return the validation result
+     */
+    public final ValidationResult validate(final CharSequence expression) {
+        final NotationScanner  scanner;
+        final int              length;
+        final ValidationResult result;
+        int                    position;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        length = expression.length();
+        if (length > limits.getMaxLength()) {
+            // Rejected before reading it
+            result = new DefaultValidationResult(ParseErrorCode.LENGTH_LIMIT_EXCEEDED, limits.getMaxLength());
+        } else {
+            scanner = new NotationScanner(limits, false);
+            for (position = 0; (position < length) && (scanner.getErrorCode() == null); position++) {
+                scanner.advance(expression.charAt(position), position);
+            }
+            scanner.end(length);
+
+            if (scanner.getErrorCode() == null) {
+                result = VALID;
+            } else {
+                result = new DefaultValidationResult(scanner.getErrorCode(), scanner.getErrorPosition());
+            }
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+/**
+ * Reasons a dice notation expression may fail to be parsed.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public enum ParseErrorCode {
+
+    /**
+     * The expression was rejected, but the parser gave no details. The error message will contain the reason, if
+     * any.
+     */
+    INVALID_EXPRESSION("invalid expression"),
+    /**
+     * The parenthesis are nested deeper than allowed by the {@link ParseLimits limits}.
+     */
+    DEPTH_LIMIT_EXCEEDED("nesting depth limit exceeded"),
+    /**
+     * The expression contains more dice than allowed by the {@link ParseLimits limits}.
+     */
+    DICE_LIMIT_EXCEEDED("dice limit exceeded"),
+    /**
+     * A character which is not part of the dice notation.
+     */
+    INVALID_CHARACTER("invalid character"),
+    /**
+     * The expression is longer than allowed by the {@link ParseLimits limits}.
+     */
+    LENGTH_LIMIT_EXCEEDED("length limit exceeded"),
+    /**
+     * The expression has more nodes than allowed by the {@link ParseLimits limits}.
+     */
+    NODE_LIMIT_EXCEEDED("node limit exceeded"),
+    /**
+     * A number too big to be stored.
+     */
+    NUMBER_OUT_OF_RANGE("number out of range"),
+    /**
+     * A dice has more sides than allowed by the {@link ParseLimits limits}.
+     */
+    SIDES_LIMIT_EXCEEDED("sides limit exceeded"),
+    /**
+     * The expression ended before it was complete.
+     */
+    UNEXPECTED_END("unexpected end of expression"),
+    /**
+     * A valid character, but at a position where it is not allowed.
+     */
+    UNEXPECTED_INPUT("unexpected input");
+
+    /**
+     * Short description, used for the error messages.
+     */
+    private final String description;
+
+    /**
+     * Constructs an error code with the specified description.
+     *
+     * @param desc
+     *            short description
+     */
+    private ParseErrorCode(final String desc) {
+        description = desc;
+    }
+
+    /**
+     * Returns the short description used for the error messages.
+     *
+     * @return the error description
+     */
+    public final String getDescription() {
+        return description;
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Immutable limits for the expressions accepted by the parsers. Meant to protect against untrusted expressions which
+ * would take too many resources to parse or roll.
+ * <p>
+ * Any limit not set is unbounded:
+ *
+ * <pre>
+ * {@code
+ * ParseLimits.builder().maxLength(200).maxDepth(10).maxDice(100).build();
+ * }
+ * </pre>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Data
+@Builder
+public final class ParseLimits {
+
+    /**
+     * No limits. This is the default for the parsers.
+     */
+    public static final ParseLimits UNLIMITED = ParseLimits.builder()
+        .build();
+
+    /**
+     * Maximum nesting depth of the parenthesis.
+     */
+    @Builder.Default
+    private final Integer           maxDepth  = Integer.MAX_VALUE;
+
+    /**
+     * Maximum number of dice in the whole expression. This is the sum of the quantities of all the dice.
+     */
+    @Builder.Default
+    private final Integer           maxDice   = Integer.MAX_VALUE;
+
+    /**
+     * Maximum length of the expression, including whitespace.
+     */
+    @Builder.Default
+    private final Integer           maxLength = Integer.MAX_VALUE;
+
+    /**
+     * Maximum number of nodes in the expression tree. Each number, dice and operation is a node.
+     */
+    @Builder.Default
+    private final Integer           maxNodes  = Integer.MAX_VALUE;
+
+    /**
+     * Maximum number of sides for a dice.
+     */
+    @Builder.Default
+    private final Integer           maxSides  = Integer.MAX_VALUE;
+
+}
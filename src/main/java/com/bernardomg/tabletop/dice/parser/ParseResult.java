@@ -0,0 +1,53 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+
+/**
+ * Result from parsing a single dice notation expression. It may contain the parsed expression, or the reason it could
+ * not be parsed.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public interface ParseResult extends ValidationResult {
+
+    /**
+     * The parsed expression. This will be {@code null} if the notation couldn't be parsed.
+     *
+     * @return the parsed expression
+     */
+    public DiceNotationExpression getExpression();
+
+    /**
+     * Description of the error which stopped the parsing. This will be {@code null} if the notation was parsed.
+     * <p>
+     * The message is created when this method is called, so it costs nothing when not used.
+     *
+     * @return the error message
+     */
+    public String getMessage();
+
+    /**
+     * The notation which was parsed.
+     *
+     * @return the parsed notation
+     */
+    public String getNotation();
+
+}
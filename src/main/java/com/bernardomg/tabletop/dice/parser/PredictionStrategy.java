@@ -0,0 +1,39 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+/**
+ * Strategies the {@link DefaultDiceParser} can use to drive the ANTLR parser.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public enum PredictionStrategy {
+
+    /**
+     * Full LL prediction, building the complete parse tree. This is the default strategy.
+     */
+    LL,
+    /**
+     * SLL prediction first, which stops on the first error, and full LL prediction only if that fails. The parse tree
+     * is not built.
+     * <p>
+     * SLL prediction is faster, and it is enough for any valid expression, so the second stage is only reached for
+     * invalid ones. These will be parsed twice, and the errors are reported by the second stage.
+     */
+    SLL_FIRST
+
+}
@@ -0,0 +1,815 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.interpreter.DiceInterpreter;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.operation.DivisionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.MultiplicationOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotationBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dice notation parser which reads the characters directly, without the help of ANTLR.
+ * <p>
+ * It is a recursive descent parser following the same grammar as {@link DefaultDiceParser}, and returns the same
+ * trees. Each rule of the grammar is a method, which creates the model objects as soon as the rule is matched, so no
+ * tokens, parse tree or listener callbacks are involved.
+ * <p>
+ * Tabs and line breaks are ignored between tokens, any other unexpected character is an error. Errors don't use
+ * exceptions internally. The first error is recorded, and the rules return {@code null} up to the root. So
+ * {@link #tryParse(String)} rejects invalid expressions without any exception or logging, while
+ * {@link #parse(String)} reports them with an {@code IllegalStateException}.
+ * <p>
+ * Any {@code CharSequence} can be parsed in place, without copying it.
+ * <p>
+ * The same rules can emit a {@link PostfixNotation} with {@link #parsePostfix(CharSequence)}. Then the instructions
+ * are appended as the rules are matched, and no tree is built at all.
+ * <p>
+ * Untrusted expressions can be bounded by {@link ParseLimits limits}. These are checked before parsing, so deeply
+ * nested expressions never reach the recursive rules.
+ * <p>
+ * The parser keeps no state between calls, so it is thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Slf4j
+public final class RecursiveDescentDiceParser implements DiceParser {
+
+    /**
+     * Parsing state for a single expression.
+     *
+     * @param <T>
+     *            type of the parsed nodes
+     */
+    private static final class Cursor<T> {
+
+        /**
+         * Reason of the first error found, or {@code null} if there is none.
+         */
+        private ParseErrorCode       errorCode;
+
+        /**
+         * Position of the first error found.
+         */
+        private int                  errorPosition;
+
+        /**
+         * Factory for the parsed nodes.
+         */
+        private final NodeFactory<T> factory;
+
+        /**
+         * Length of the text.
+         */
+        private final int            length;
+
+        /**
+         * Current position on the text.
+         */
+        private int                  position = 0;
+
+        /**
+         * Text being parsed.
+         */
+        private final CharSequence   text;
+
+        /**
+         * Constructs a cursor at the start of the received text.
+         *
+         * @param txt
+         *            text to parse
+         * @param nodeFactory
+         *            factory for the parsed nodes
+         */
+        private Cursor(final CharSequence txt, final NodeFactory<T> nodeFactory) {
+            super();
+
+            text = txt;
+            factory = nodeFactory;
+            length = txt.length();
+        }
+
+        /**
+         * Returns the character at the current position, or {@code END} if the text was fully read.
+         *
+         * @return the current character
+         */
+        private final char peek() {
+            final char current;
+
+            if (position < length) {
+                current = text.charAt(position);
+            } else {
+                current = NotationScanner.END;
+            }
+
+            return current;
+        }
+
+        /**
+         * Returns the character after the current one, or {@code END} if there is none.
+         *
+         * @return the next character
+         */
+        private final char peekNext() {
+            final char next;
+
+            if ((position + 1) < length) {
+                next = text.charAt(position + 1);
+            } else {
+                next = NotationScanner.END;
+            }
+
+            return next;
+        }
+
+        /**
+         * Moves the cursor over any whitespace.
+         */
+        private final void skipWhitespace() {
+            char current;
+
+            current = peek();
+            while (NotationScanner.isWhitespace(current)) {
+                position++;
+                current = peek();
+            }
+        }
+
+    }
+
+    /**
+     * Creates the nodes for the matched rules. This allows the same rules to build a tree or a postfix program.
+     *
+     * @param <T>
+     *            type of the parsed nodes
+     */
+    private interface NodeFactory<T> {
+
+        /**
+         * Creates a constant.
+         *
+         * @param value
+         *            value of the constant
+         * @return the constant node
+         */
+        public T constant(final Integer value);
+
+        /**
+         * Creates a dice.
+         *
+         * @param quantity
+         *            number of dice
+         * @param sides
+         *            number of sides
+         * @param keep
+         *            number of dice to keep
+         * @return the dice node
+         */
+        public T dice(final Integer quantity, final Integer sides, final Integer keep);
+
+        /**
+         * Creates a binary operation. It is called after both operands were created.
+         *
+         * @param operator
+         *            operator to apply
+         * @param left
+         *            left operand
+         * @param right
+         *            right operand
+         * @return the operation node
+         */
+        public T operation(final ArithmeticOperator operator, final T left, final T right);
+
+    }
+
+    /**
+     * Appends the matched rules to a postfix program. As the operands are always matched before their operation, the
+     * instructions are appended in postfix order.
+     */
+    private static final class PostfixFactory implements NodeFactory<Boolean> {
+
+        /**
+         * Builder for the program.
+         */
+        private final PostfixNotationBuilder builder = new PostfixNotationBuilder();
+
+        /**
+         * Default constructor.
+         */
+        private PostfixFactory() {
+            super();
+        }
+
+        @Override
+        public final Boolean constant(final Integer value) {
+            builder.appendConstant(value);
+
+            return Boolean.TRUE;
+        }
+
+        @Override
+        public final Boolean dice(final Integer quantity, final Integer sides, final Integer keep) {
+            builder.appendDice(quantity, sides, keep);
+
+            return Boolean.TRUE;
+        }
+
+        @Override
+        public final Boolean operation(final ArithmeticOperator operator, final Boolean left, final Boolean right) {
+            builder.appendOperation(operator);
+
+            return Boolean.TRUE;
+        }
+
+    }
+
+    /**
+     * Builds the tree for the matched rules. It keeps no state, so a single instance is shared.
+     */
+    private static final class TreeFactory implements NodeFactory<DiceNotationExpression> {
+
+        /**
+         * Default constructor.
+         */
+        private TreeFactory() {
+            super();
+        }
+
+        @Override
+        public final DiceNotationExpression constant(final Integer value) {
+            return IntegerOperand.valueOf(value);
+        }
+
+        @Override
+        public final DiceNotationExpression dice(final Integer quantity, final Integer sides, final Integer keep) {
+            return DefaultDiceOperand.valueOf(DefaultDice.valueOf(quantity, sides, keep));
+        }
+
+        @Override
+        public final DiceNotationExpression operation(final ArithmeticOperator operator,
+                final DiceNotationExpression left, final DiceNotationExpression right) {
+            final DiceNotationExpression operation;
+
+            switch (operator) {
+                case ADDITION:
+                    operation = new AdditionOperation(left, right);
+                    break;
+                case SUBTRACTION:
+                    operation = new SubtractionOperation(left, right);
+                    break;
+                case MULTIPLICATION:
+                    operation = new MultiplicationOperation(left, right);
+                    break;
+                default:
+                    operation = new DivisionOperation(left, right);
+            }
+
+            return operation;
+        }
+
+    }
+
+    /**
+     * Factory for the trees, shared by all the calls.
+     */
+    private static final TreeFactory TREE = new TreeFactory();
+
+    /**
+     * Validator checking the limits, or {@code null} if there are no limits.
+     */
+    private final NotationValidator  limitsValidator;
+
+    /**
+     * Default constructor.
+     */
+    public RecursiveDescentDiceParser() {
+        super();
+
+        limitsValidator = null;
+    }
+
+    /**
+     * Constructs a parser with the specified limits. Expressions over these limits are rejected.
+     *
+     * @param limits
+     *            limits for the parsed expressions
+     */
+    public RecursiveDescentDiceParser(final ParseLimits limits) {
+        super();
+
+        Objects.requireNonNull(limits, "Received a null pointer as limits");
+
+        limitsValidator = new NotationValidator(limits);
+    }
+
+    @Override
+    public final DiceNotationExpression parse(final CharSequence expression) {
+        return parseWith(expression, TREE);
+    }
+
+    @Override
+    public final DiceNotationExpression parse(final String expression) {
+        Objects.requireNonNull(expression, "Received a null pointer as string");
+
+        return parse((CharSequence) expression);
+    }
+
+    @Override
+    public final <V> V parse(final String expression, final DiceInterpreter<V> interpreter) {
+        final DiceNotationExpression parsed;
+
+        parsed = parse(expression);
+
+        return interpreter.transform(parsed);
+    }
+
+    /**
+     * Parses the received expression into a postfix program, without building the tree.
+     * <p>
+     * The program is the same one {@link PostfixNotation#fromExpression(DiceNotationExpression)} would return for the
+     * tree parsed by {@link #parse(CharSequence)}.
+     *
+     * @param expression
+     *            expression to parse
+     * @return the program for the expression
+     * @throws IllegalStateException
+     *             if the expression is not valid
+     */
+    public final PostfixNotation parsePostfix(final CharSequence expression) {
+        final PostfixFactory factory;
+
+        factory = new PostfixFactory();
+        parseWith(expression, factory);
+
+        return factory.builder.build();
+    }
+
+    @Override
+    public final ParseResult tryParse(final CharSequence expression) {
+        final Cursor<DiceNotationExpression> cursor;
+        final DiceNotationExpression         root;
+        final ParseResult                    result;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        cursor = new Cursor<>(expression, TREE);
+
+        if (isWithinLimits(cursor)) {
+            root = parseRoot(cursor);
+        } else {
+            root = null;
+        }
+        if (root == null) {
+            result = new DefaultParseResult(expression, cursor.errorCode, cursor.errorPosition, null);
+        } else {
+            result = new DefaultParseResult(expression, root);
+        }
+
+        return result;
+    }
+
+    @Override
+    public final ParseResult tryParse(final String expression) {
+        Objects.requireNonNull(expression, "Received a null pointer as string");
+
+        return tryParse((CharSequence) expression);
+    }
+
+    @Override
+    public final ValidationResult validate(final CharSequence expression) {
+        final ValidationResult result;
+
+        if (limitsValidator == null) {
+            result = DiceParser.super.validate(expression);
+        } else {
+            result = limitsValidator.validate(expression);
+        }
+
+        return result;
+    }
+
+    /**
+     * Records an error at the current position. Only the first error is kept.
+     *
+     * @param cursor
+     *            parsing state
+     * @param code
+     *            error code
+     * @return {@code null}, to be returned by the failed rule
+     */
+    private final <T> T fail(final Cursor<T> cursor, final ParseErrorCode code) {
+        if (cursor.errorCode == null) {
+            cursor.errorCode = code;
+            cursor.errorPosition = cursor.position;
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if the cursor is at a dice separator. A lowercase {@code d} followed by {@code h} or {@code l} is a
+     * keep/drop operator instead.
+     *
+     * @param cursor
+     *            parsing state
+     * @return {@code true} if the current character is a dice separator
+     */
+    private final boolean isDiceSeparator(final Cursor<?> cursor) {
+        final char current;
+
+        current = cursor.peek();
+
+        return (current == 'D') || ((current == 'd') && !NotationScanner.isHighLow(cursor.peekNext()));
+    }
+
+    /**
+     * Checks if the text is inside the limits. Otherwise the error is recorded.
+     *
+     * @param cursor
+     *            parsing state
+     * @return {@code true} if there are no limits or the text is inside them
+     */
+    private final boolean isWithinLimits(final Cursor<?> cursor) {
+        final ValidationResult validation;
+        final boolean          valid;
+
+        if (limitsValidator == null) {
+            valid = true;
+        } else {
+            validation = limitsValidator.validate(cursor.text);
+            valid = validation.isValid();
+            if (!valid) {
+                cursor.errorCode = validation.getErrorCode();
+                cursor.errorPosition = validation.getErrorPosition();
+            }
+        }
+
+        return valid;
+    }
+
+    /**
+     * Parses a sequence of additions and subtractions. This is the {@code addOp} rule.
+     *
+     * @param cursor
+     *            parsing state
+     * @return the parsed expression, or {@code null} if it failed
+     */
+    private final <T> T parseAdditive(final Cursor<T> cursor) {
+        T    left;
+        T    right;
+        char operator;
+
+        left = parseMultiplicative(cursor);
+
+        cursor.skipWhitespace();
+        operator = cursor.peek();
+        while ((left != null) && ((operator == '+') || (operator == '-'))) {
+            cursor.position++;
+            right = parseMultiplicative(cursor);
+
+            // Operations are built from left to right
+            if (right == null) {
+                left = null;
+            } else if (operator == '+') {
+                left = cursor.factory.operation(ArithmeticOperator.ADDITION, left, right);
+            } else {
+                left = cursor.factory.operation(ArithmeticOperator.SUBTRACTION, left, right);
+            }
+
+            cursor.skipWhitespace();
+            operator = cursor.peek();
+        }
+
+        return left;
+    }
+
+    /**
+     * Parses a dice. The cursor is expected to be at the dice separator. This is the {@code dice} rule.
+     *
+     * @param cursor
+     *            parsing state
+     * @param unsigned
+     *            number of dice, or {@code null} if it was not defined
+     * @param negative
+     *            flag telling if the dice is negative
+     * @return the parsed dice, or {@code null} if it failed
+     */
+    private final <T> T parseDice(final Cursor<T> cursor, final Integer unsigned, final boolean negative) {
+        final Integer quantity;
+        final Integer sides;
+        final char    keepDrop;
+        final char    highLow;
+        Integer       keep;
+        T             dice;
+
+        // Skips the separator
+        cursor.position++;
+
+        if (unsigned == null) {
+            // No quantity of dice defined
+            // Defaults to 1
+            quantity = negative ? -1 : 1;
+        } else if (negative) {
+            quantity = 0 - unsigned;
+        } else {
+            quantity = unsigned;
+        }
+
+        sides = parseInteger(cursor);
+        if (sides == null) {
+            dice = null;
+        } else {
+            cursor.skipWhitespace();
+            keepDrop = cursor.peek();
+            highLow = cursor.peekNext();
+            if (NotationScanner.isKeepDrop(keepDrop, highLow)) {
+                cursor.position += 2;
+                keep = parseInteger(cursor);
+                if (keep != null) {
+                    if (keepDrop == 'd') {
+                        keep = (quantity - keep) * -1;
+                    }
+                    if (highLow == 'l') {
+                        keep *= -1;
+                    }
+                }
+            } else {
+                keep = 0;
+            }
+
+            if (keep == null) {
+                dice = null;
+            } else {
+                dice = cursor.factory.dice(quantity, sides, keep);
+            }
+        }
+
+        return dice;
+    }
+
+    /**
+     * Reads a sequence of digits. Values too big for an integer are returned as {@code OUT_OF_RANGE}.
+     * <p>
+     * The cursor is expected to be at a digit.
+     *
+     * @param cursor
+     *            parsing state
+     * @return the value of the digits
+     */
+    private final long parseDigits(final Cursor<?> cursor) {
+        long value;
+
+        value = 0;
+        while (NotationScanner.isDigit(cursor.peek())) {
+            if (value < NotationScanner.OUT_OF_RANGE) {
+                value = NotationScanner.appendDigit(value, cursor.peek());
+            }
+            cursor.position++;
+        }
+
+        return value;
+    }
+
+    /**
+     * Reads a positive integer.
+     *
+     * @param cursor
+     *            parsing state
+     * @return the parsed integer, or {@code null} if it failed
+     */
+    private final Integer parseInteger(final Cursor<?> cursor) {
+        final int  start;
+        final long value;
+        Integer    parsed;
+
+        cursor.skipWhitespace();
+        if (NotationScanner.isDigit(cursor.peek())) {
+            start = cursor.position;
+            value = parseDigits(cursor);
+            if (value > Integer.MAX_VALUE) {
+                cursor.position = start;
+                fail(cursor, ParseErrorCode.NUMBER_OUT_OF_RANGE);
+                parsed = null;
+            } else {
+                parsed = (int) value;
+            }
+        } else {
+            unexpected(cursor);
+            parsed = null;
+        }
+
+        return parsed;
+    }
+
+    /**
+     * Parses a sequence of multiplications and divisions. This is the {@code multOp} rule.
+     *
+     * @param cursor
+     *            parsing state
+     * @return the parsed expression, or {@code null} if it failed
+     */
+    private final <T> T parseMultiplicative(final Cursor<T> cursor) {
+        T    left;
+        T    right;
+        char operator;
+
+        left = parseOperand(cursor);
+
+        cursor.skipWhitespace();
+        operator = cursor.peek();
+        while ((left != null) && ((operator == '*') || (operator == '/'))) {
+            cursor.position++;
+            right = parseOperand(cursor);
+
+            // Operations are built from left to right
+            if (right == null) {
+                left = null;
+            } else if (operator == '*') {
+                left = cursor.factory.operation(ArithmeticOperator.MULTIPLICATION, left, right);
+            } else {
+                left = cursor.factory.operation(ArithmeticOperator.DIVISION, left, right);
+            }
+
+            cursor.skipWhitespace();
+            operator = cursor.peek();
+        }
+
+        return left;
+    }
+
+    /**
+     * Parses a single operand, which may be a dice, a number or an expression in parenthesis. This is the
+     * {@code operand} rule, including the {@code dice} and {@code number} rules.
+     *
+     * @param cursor
+     *            parsing state
+     * @return the parsed operand, or {@code null} if it failed
+     */
+    private final <T> T parseOperand(final Cursor<T> cursor) {
+        T             operand;
+        final boolean negative;
+        final int     start;
+        final long    value;
+        char          current;
+
+        cursor.skipWhitespace();
+        current = cursor.peek();
+        if (current == '(') {
+            cursor.position++;
+            operand = parseAdditive(cursor);
+            if (operand != null) {
+                cursor.skipWhitespace();
+                if (cursor.peek() == ')') {
+                    cursor.position++;
+                } else {
+                    operand = unexpected(cursor);
+                }
+            }
+        } else {
+            // Optional sign
+            negative = (current == '-');
+            if ((current == '+') || (current == '-')) {
+                cursor.position++;
+                cursor.skipWhitespace();
+                current = cursor.peek();
+            }
+
+            if (NotationScanner.isDigit(current)) {
+                start = cursor.position;
+                value = parseDigits(cursor);
+                cursor.skipWhitespace();
+                if (isDiceSeparator(cursor)) {
+                    // The digits were the dice quantity
+                    if (value > Integer.MAX_VALUE) {
+                        cursor.position = start;
+                        operand = fail(cursor, ParseErrorCode.NUMBER_OUT_OF_RANGE);
+                    } else {
+                        operand = parseDice(cursor, (int) value, negative);
+                    }
+                } else if (value > (negative ? NotationScanner.MIN_MAGNITUDE : Integer.MAX_VALUE)) {
+                    cursor.position = start;
+                    operand = fail(cursor, ParseErrorCode.NUMBER_OUT_OF_RANGE);
+                } else if (negative) {
+                    operand = cursor.factory.constant((int) (0 - value));
+                } else {
+                    operand = cursor.factory.constant((int) value);
+                }
+            } else if (isDiceSeparator(cursor)) {
+                operand = parseDice(cursor, null, negative);
+            } else {
+                operand = unexpected(cursor);
+            }
+        }
+
+        return operand;
+    }
+
+    /**
+     * Parses the whole text. This is the {@code file_} rule.
+     *
+     * @param cursor
+     *            parsing state
+     * @return the parsed expression, or {@code null} if it failed
+     */
+    private final <T> T parseRoot(final Cursor<T> cursor) {
+        T root;
+
+        root = parseAdditive(cursor);
+
+        // The whole text should have been consumed
+        if (root != null) {
+            cursor.skipWhitespace();
+            if (cursor.position < cursor.length) {
+                root = unexpected(cursor);
+            }
+        }
+
+        return root;
+    }
+
+    /**
+     * Parses the whole text with the received factory. Errors are logged and thrown.
+     *
+     * @param <T>
+     *            type of the parsed nodes
+     * @param expression
+     *            expression to parse
+     * @param factory
+     *            factory for the parsed nodes
+     * @return the root node
+     */
+    private final <T> T parseWith(final CharSequence expression, final NodeFactory<T> factory) {
+        final Cursor<T> cursor;
+        final T         root;
+        final String    message;
+
+        Objects.requireNonNull(expression, "Received a null pointer as expression");
+
+        cursor = new Cursor<>(expression, factory);
+
+        if (isWithinLimits(cursor)) {
+            root = parseRoot(cursor);
+        } else {
+            root = null;
+        }
+        if (root == null) {
+            // The text is copied only to build the message
+            message = new DefaultParseResult(expression.toString(), cursor.errorCode, cursor.errorPosition, null)
+                .getMessage();
+
+            log.error(message);
+
+            throw new IllegalStateException(message);
+        }
+
+        return root;
+    }
+
+    /**
+     * Records an unexpected character, or the end of the text, at the current position.
+     *
+     * @param cursor
+     *            parsing state
+     * @return {@code null}, to be returned by the failed rule
+     */
+    private final <T> T unexpected(final Cursor<T> cursor) {
+        final ParseErrorCode code;
+
+        if (cursor.position >= cursor.length) {
+            code = ParseErrorCode.UNEXPECTED_END;
+        } else if (NotationScanner.isNotationCharacter(cursor.peek())) {
+            code = ParseErrorCode.UNEXPECTED_INPUT;
+        } else {
+            code = ParseErrorCode.INVALID_CHARACTER;
+        }
+
+        return fail(cursor, code);
+    }
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.parser;
+
+/**
+ * Result from validating a single dice notation expression. It tells if the notation is valid, and otherwise the
+ * reason and where the error was found.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public interface ValidationResult {
+
+    /**
+     * The reason the notation is invalid. This will be {@code null} if the notation is valid.
+     *
+     * @return the error code
+     */
+    public ParseErrorCode getErrorCode();
+
+    /**
+     * Position of the character where the error was found, starting at zero. This will be {@code null} if the
+     * notation is valid, or if the position is unknown.
+     *
+     * @return the error position
+     */
+    public Integer getErrorPosition();
+
+    /**
+     * Indicates if the notation is valid.
+     *
+     * @return {@code true} if the notation is valid, {@code false} otherwise
+     */
+    public Boolean isValid();
+
+}
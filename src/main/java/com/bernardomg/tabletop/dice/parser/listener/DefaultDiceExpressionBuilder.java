@@ -16,13 +16,17 @@
 
 package com.bernardomg.tabletop.dice.parser.listener;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Stack;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
 import com.bernardomg.tabletop.dice.DefaultDice;
@@ -33,14 +37,20 @@
 import com.bernardomg.tabletop.dice.generated.DiceNotationParser.NumberContext;
 import com.bernardomg.tabletop.dice.generated.DiceNotationParserBaseListener;
 import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.ConstantOperand;
 import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
 import com.bernardomg.tabletop.dice.notation.operand.DiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.FoldedOperand;
 import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
 import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
 import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
 import com.bernardomg.tabletop.dice.notation.operation.DivisionOperation;
 import com.bernardomg.tabletop.dice.notation.operation.MultiplicationOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ProductOperation;
 import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SumOperation;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -49,7 +59,20 @@
  * <p>
  * This {@code DiceNotationExpression} is the root for a tree representing the expression received by the parser.
  * <p>
- * The builder makes use of a stack for storing the objects as they are parsed.
+ * The builder makes use of a stack for storing the objects as they are parsed. This stack is cleared each time a new
+ * expression begins, so the same builder can be reused for several expressions, as long as this happens on a single
+ * thread.
+ * <p>
+ * Optionally, operations between constants are folded into a single {@link FoldedOperand} while building the tree,
+ * so "1d20+3*4" has the constant 12 as its right operand. The folded value is computed with the operation itself, so
+ * it is the same value the interpreters would get. The dice, and the order in which they are rolled, don't change, so
+ * rolling the folded tree gives the same total. The folded operand keeps the original operation, so the expression
+ * text and the roll histories are the same as without folding. Divisions by zero are never folded, so they still fail
+ * when the expression is evaluated.
+ * <p>
+ * Also optionally, chains of operations with the same precedence are flattened into a single n-ary node, so
+ * "1d6+2-1d4" becomes a {@link SumOperation} with three operands, instead of two nested binary operations. This keeps
+ * the tree shallow for long chains. Single operations are always binary.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
@@ -82,6 +105,16 @@ public final class DefaultDiceExpressionBuilder extends DiceNotationParserBaseLi
     private static final String                 HIGH_OPERATOR           = "h";
     private static final String                 LOW_OPERATOR           = "l";
 
+    /**
+     * Flag telling if chains of operations should be flattened into n-ary operations.
+     */
+    private final Boolean                       flattenChains;
+
+    /**
+     * Flag telling if operations between constants should be folded.
+     */
+    private final Boolean                       foldConstants;
+
     /**
      * Stack to store objects as they are parsed. The last object left inside it will be the root of the parsed tree.
      */
@@ -92,6 +125,47 @@ public final class DefaultDiceExpressionBuilder extends DiceNotationParserBaseLi
      */
     public DefaultDiceExpressionBuilder() {
         super();
+
+        foldConstants = false;
+        flattenChains = false;
+    }
+
+    /**
+     * Constructs a builder which may fold operations between constants.
+     *
+     * @param fold
+     *            flag telling if operations between constants should be folded
+     */
+    public DefaultDiceExpressionBuilder(final Boolean fold) {
+        super();
+
+        foldConstants = Objects.requireNonNull(fold, "Received a null pointer as fold flag");
+        flattenChains = false;
+    }
+
+    /**
+     * Constructs a builder which may fold operations between constants, and may flatten chains of operations.
+     *
+     * @param fold
+     *            flag telling if operations between constants should be folded
+     * @param flatten
+     *            flag telling if chains of operations should be flattened into n-ary operations
+     */
+    public DefaultDiceExpressionBuilder(final Boolean fold, final Boolean flatten) {
+        super();
+
+        foldConstants = Objects.requireNonNull(fold, "Received a null pointer as fold flag");
+        flattenChains = Objects.requireNonNull(flatten, "Received a null pointer as flatten flag");
+    }
+
+    @Override
+    public final void enterEveryRule(final ParserRuleContext ctx) {
+        if (ctx.getParent() == null) {
+            // Starting a new expression
+            // Any node left from a previous expression is discarded
+            log.trace("Starting new expression. Clearing nodes");
+            nodes.clear();
+        }
     }
 
     @Override
@@ -107,7 +181,7 @@ public final void exitAddOp(final AddOpContext ctx) {
             .map(TerminalNode::getText)
             .collect(Collectors.toList());
 
-        expression = getBinaryOperation(operators);
+        expression = getOperation(operators);
 
         log.debug("Parsed addition operation: {}", expression);
 
@@ -140,7 +214,7 @@ public final void exitMultOp(final MultOpContext ctx) {
             .map(TerminalNode::getText)
             .collect(Collectors.toList());
 
-        expression = getBinaryOperation(operators);
+        expression = getOperation(operators);
 
         log.debug("Parsed multiplication operation: {}", expression);
 
@@ -225,7 +299,11 @@ private final DiceNotationExpression getBinaryOperation(final Collection<String>
             log.debug("Parsed operation {}", operation);
 
             // Each new expression is stored back for the next iteration
-            operands.push(operation);
+            if (foldConstants) {
+                operands.push(getFolded(operation));
+            } else {
+                operands.push(operation);
+            }
         }
 
         return operands.pop();
@@ -243,6 +321,7 @@ private final DiceNotationExpression getBinaryOperation(final Collection<String>
     private final DiceOperand getDiceOperand(final DiceContext ctx) {
         final Dice                   dice;     // Parsed dice
         final Integer                quantity; // Number of dice
+        final Integer                unsigned; // Number of dice, before applying the sign
         final Integer                sides;    // Number of sides
         Integer                      keep = 0;     // Number of dice to keep
         final Iterator<TerminalNode> digits;   // Parsed digits
@@ -255,24 +334,26 @@ private final DiceOperand getDiceOperand(final DiceContext ctx) {
             .spliterator(), false)
             .count();
 
-        if (size > 1) {
+        // The keep or drop amount is not part of the dice digits
+        if (((ctx.KEEPDROP() == null) && (size > 1)) || ((ctx.KEEPDROP() != null) && (size > 2))) {
             // Contains the quantity of dice
-            if ((ctx.ADDOPERATOR() != null) && (SUBTRACTION_OPERATOR.equals(ctx.ADDOPERATOR()
-                .getText()))) {
-                // Subtraction
-                log.debug("This is part of a subtraction. Reversing sign.");
-                quantity = 0 - Integer.parseInt(digits.next()
-                    .getText());
-            } else {
-                // Addition
-                quantity = Integer.parseInt(digits.next()
-                    .getText());
-            }
+            unsigned = Integer.parseInt(digits.next()
+                .getText());
         } else {
             // No quantity of dice defined
             // Defaults to 1
             log.trace("No dice quantity defined. Defaulting to 1");
-            quantity = 1;
+            unsigned = 1;
+        }
+
+        if ((ctx.ADDOPERATOR() != null) && (SUBTRACTION_OPERATOR.equals(ctx.ADDOPERATOR()
+            .getText()))) {
+            // Subtraction
+            log.debug("This is part of a subtraction. Reversing sign.");
+            quantity = 0 - unsigned;
+        } else {
+            // Addition
+            quantity = unsigned;
         }
 
         sides = Integer.parseInt(digits.next()
@@ -293,9 +374,98 @@ private final DiceOperand getDiceOperand(final DiceContext ctx) {
          */
 
         // Creates the dice
-        dice = new DefaultDice(quantity, sides, keep);
+        dice = DefaultDice.valueOf(quantity, sides, keep);
+
+        return DefaultDiceOperand.valueOf(dice);
+    }
+
+    /**
+     * Folds the operation into a constant, if both operands are constants. Otherwise the operation is returned.
+     * <p>
+     * Operands which were already folded are replaced by their original operations, so the folded operand keeps a
+     * single tree with all the original constants.
+     *
+     * @param operation
+     *            operation to fold
+     * @return the folded operation
+     */
+    private final DiceNotationExpression getFolded(final BinaryOperation operation) {
+        final DiceNotationExpression folded;
+        final Integer                left;
+        final Integer                right;
+        final ArithmeticOperator     operator;
+
+        if ((operation.getLeft() instanceof ConstantOperand) && (operation.getRight() instanceof ConstantOperand)) {
+            left = ((ConstantOperand) operation.getLeft()).getValue();
+            right = ((ConstantOperand) operation.getRight()).getValue();
+            if ((operation instanceof DivisionOperation) && (right == 0)) {
+                // Kept to fail when evaluated
+                log.trace("Division by zero. Not folding");
+                folded = operation;
+            } else {
+                operator = getOperator(operation);
+                folded = new FoldedOperand(
+                    operator.toOperation(getOriginal(operation.getLeft()), getOriginal(operation.getRight())),
+                    operator.applyAsInt(left, right));
+                log.debug("Folded operation {} into {}", operation, folded);
+            }
+        } else {
+            folded = operation;
+        }
 
-        return new DefaultDiceOperand(dice);
+        return folded;
+    }
+
+    /**
+     * Folds the operation into a constant, if all the operands are constants. Otherwise the operation is returned.
+     * <p>
+     * As with binary operations, operands which were already folded are replaced by their original operations.
+     *
+     * @param operation
+     *            operation to fold
+     * @return the folded operation
+     */
+    private final DiceNotationExpression getFolded(final NaryOperation operation) {
+        final DiceNotationExpression       folded;
+        final List<ArithmeticOperator>     operators;
+        final List<DiceNotationExpression> operands;
+        final List<DiceNotationExpression> originals;
+        Boolean                            foldable;
+        Integer                            value;
+        Integer                            right;
+
+        operands = operation.getOperands();
+        operators = operation.getOperators();
+
+        foldable = operands.stream()
+            .allMatch(ConstantOperand.class::isInstance);
+        for (Integer i = 1; foldable && (i < operands.size()); i++) {
+            // Kept to fail when evaluated
+            foldable = (operators.get(i - 1) != ArithmeticOperator.DIVISION)
+                    || (((ConstantOperand) operands.get(i)).getValue() != 0);
+        }
+
+        if (foldable) {
+            value = ((ConstantOperand) operands.get(0)).getValue();
+            for (Integer i = 1; i < operands.size(); i++) {
+                right = ((ConstantOperand) operands.get(i)).getValue();
+                value = operators.get(i - 1)
+                    .applyAsInt(value, right);
+            }
+            originals = operands.stream()
+                .map(this::getOriginal)
+                .collect(Collectors.toList());
+            if (operation instanceof SumOperation) {
+                folded = new FoldedOperand(new SumOperation(originals, operators), value);
+            } else {
+                folded = new FoldedOperand(new ProductOperation(originals, operators), value);
+            }
+            log.debug("Folded operation {} into {}", operation, folded);
+        } else {
+            folded = operation;
+        }
+
+        return folded;
     }
 
     /**
@@ -311,7 +481,132 @@ private final IntegerOperand getIntegerOperand(final String expression) {
         // Parses the value
         value = Integer.parseInt(expression);
 
-        return new IntegerOperand(value);
+        return IntegerOperand.valueOf(value);
+    }
+
+    /**
+     * Creates an n-ary operation from the operators received.
+     * <p>
+     * All the operands are taken from the nodes stack, and kept in the same order as in the expression.
+     *
+     * @param operators
+     *            parsed operators
+     * @return an n-ary operation
+     */
+    private final DiceNotationExpression getNaryOperation(final Collection<String> operators) {
+        final List<DiceNotationExpression> operands;
+        final List<ArithmeticOperator>     arithmetic;
+        final NaryOperation                operation;
+        final DiceNotationExpression       result;
+        Boolean                            sum;
+
+        // There are as many operands as operators plus one
+        // They are on the stack in reverse order
+        operands = new ArrayList<>(operators.size() + 1);
+        for (Integer i = 0; i <= operators.size(); i++) {
+            operands.add(nodes.pop());
+        }
+        Collections.reverse(operands);
+
+        arithmetic = new ArrayList<>(operators.size());
+        sum = true;
+        for (final String operator : operators) {
+            if (ADDITION_OPERATOR.equals(operator)) {
+                arithmetic.add(ArithmeticOperator.ADDITION);
+            } else if (SUBTRACTION_OPERATOR.equals(operator)) {
+                arithmetic.add(ArithmeticOperator.SUBTRACTION);
+            } else if (MULTIPLICATION_OPERATOR.equals(operator)) {
+                arithmetic.add(ArithmeticOperator.MULTIPLICATION);
+                sum = false;
+            } else if (DIVISION_OPERATOR.equals(operator)) {
+                arithmetic.add(ArithmeticOperator.DIVISION);
+                sum = false;
+            } else {
+                log.error("Unknown operator {}", operator);
+                throw new IllegalArgumentException(String.format("The %s operator is invalid", operator));
+            }
+        }
+
+        // The grammar never mixes precedences in a single chain
+        if (sum) {
+            operation = new SumOperation(operands, arithmetic);
+        } else {
+            operation = new ProductOperation(operands, arithmetic);
+        }
+
+        log.debug("Parsed operation {}", operation);
+
+        if (foldConstants) {
+            result = getFolded(operation);
+        } else {
+            result = operation;
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates the operation for the operators received.
+     * <p>
+     * Chains of operations are flattened into an n-ary operation, if the builder was told to do so. Otherwise a tree of
+     * binary operations is built.
+     *
+     * @param operators
+     *            parsed operators
+     * @return an operation
+     */
+    private final DiceNotationExpression getOperation(final Collection<String> operators) {
+        final DiceNotationExpression operation;
+
+        if (flattenChains && (operators.size() > 1)) {
+            operation = getNaryOperation(operators);
+        } else {
+            operation = getBinaryOperation(operators);
+        }
+
+        return operation;
+    }
+
+    /**
+     * Returns the operator applied by a binary operation.
+     *
+     * @param operation
+     *            operation to check
+     * @return the operator of the operation
+     */
+    private final ArithmeticOperator getOperator(final BinaryOperation operation) {
+        final ArithmeticOperator operator;
+
+        if (operation instanceof AdditionOperation) {
+            operator = ArithmeticOperator.ADDITION;
+        } else if (operation instanceof SubtractionOperation) {
+            operator = ArithmeticOperator.SUBTRACTION;
+        } else if (operation instanceof MultiplicationOperation) {
+            operator = ArithmeticOperator.MULTIPLICATION;
+        } else {
+            operator = ArithmeticOperator.DIVISION;
+        }
+
+        return operator;
+    }
+
+    /**
+     * Returns the original operation for an operand which was folded. Any other operand is returned unchanged.
+     *
+     * @param operand
+     *            operand to check
+     * @return the original operation of the operand
+     */
+    private final DiceNotationExpression getOriginal(final DiceNotationExpression operand) {
+        final DiceNotationExpression original;
+
+        if (operand instanceof FoldedOperand) {
+            original = ((FoldedOperand) operand).getOperation();
+        } else {
+            original = operand;
+        }
+
+        return original;
     }
 
 }
@@ -0,0 +1,472 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.pipeline;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.bernardomg.tabletop.dice.interpreter.DiceInterpreter;
+import com.bernardomg.tabletop.dice.parser.AsciiCharSequence;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.ParseResult;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Parses and interprets files of newline-delimited expressions, writing one line of output for each line of input.
+ * <p>
+ * The input file is memory-mapped in windows, and its lines are split into batches, which are parsed and interpreted
+ * on a pool of threads. The results are written in the same order as the input, and only a bounded number of batches
+ * is kept waiting to be written. So neither the whole input nor the whole output are ever held in memory.
+ * <p>
+ * The parser is shared by all the threads, so it should be thread safe. Each thread takes its own interpreter from the
+ * received supplier. The lines are handed to {@link DiceParser#tryParse(CharSequence)} as views over the mapped bytes,
+ * so parsers which read in place never copy them into strings.
+ * <p>
+ * Each output line is the formatted result of interpreting the expression. Empty lines are kept as empty lines. If an
+ * expression can't be parsed or interpreted, its line contains {@value #ERROR_PREFIX} followed by the error message.
+ * Both {@code \n} and {@code \r\n} line endings are accepted, and the output always uses {@code \n}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ * @param <V>
+ *            type of the interpreted results
+ */
+@Slf4j
+public final class BulkRollPipeline<V> {
+
+    /**
+     * Lines of input parsed and interpreted together.
+     */
+    private static final class Batch {
+
+        /**
+         * Start and end, in the window, of each line. Starts are on the even positions, and ends on the odd ones.
+         */
+        private int[]                  bounds;
+
+        /**
+         * Number of lines in the batch.
+         */
+        private int                    count = 0;
+
+        /**
+         * Memory-mapped window containing the lines.
+         */
+        private final MappedByteBuffer window;
+
+        /**
+         * Constructs a batch for the window.
+         *
+         * @param buffer
+         *            memory-mapped window containing the lines
+         * @param size
+         *            expected number of lines
+         */
+        private Batch(final MappedByteBuffer buffer, final int size) {
+            super();
+
+            window = buffer;
+            bounds = new int[size * 2];
+        }
+
+        /**
+         * Adds a line to the batch.
+         *
+         * @param start
+         *            position in the window of the first byte of the line
+         * @param end
+         *            position in the window after the last byte of the line
+         */
+        private final void add(final int start, final int end) {
+            if ((count * 2) == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[count * 2] = start;
+            bounds[(count * 2) + 1] = end;
+            count++;
+        }
+
+        /**
+         * Returns the text of the line at the received position. The line is read in place, from the window.
+         *
+         * @param index
+         *            position of the line in the batch
+         * @return the text of the line
+         */
+        private final CharSequence getLine(final int index) {
+            final ByteBuffer view;
+
+            view = window.duplicate();
+            view.limit(bounds[(index * 2) + 1]);
+            view.position(bounds[index * 2]);
+
+            return new AsciiCharSequence(view);
+        }
+
+    }
+
+    /**
+     * Prefix for the lines with errors.
+     */
+    public static final String                           ERROR_PREFIX        = "ERROR: ";
+
+    /**
+     * Default number of lines in each batch.
+     */
+    private static final Integer                         DEFAULT_BATCH_SIZE  = 1024;
+
+    /**
+     * Default size, in bytes, of the memory-mapped windows.
+     */
+    private static final Integer                         DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Number of batches which can be waiting to be written, for each thread.
+     */
+    private static final Integer                         PENDING_PER_THREAD  = 2;
+
+    /**
+     * Number of lines in each batch.
+     */
+    private final Integer                                batchSize;
+
+    /**
+     * Transforms the interpreted results into output lines, which are written through {@code toString}.
+     */
+    private final Function<? super V, ?>                 formatter;
+
+    /**
+     * Source for the interpreters. One is taken for each thread.
+     */
+    private final Supplier<? extends DiceInterpreter<V>> interpreters;
+
+    /**
+     * Number of threads parsing and interpreting.
+     */
+    private final Integer                                parallelism;
+
+    /**
+     * Parser for the expressions.
+     */
+    private final DiceParser                             parser;
+
+    /**
+     * Size, in bytes, of the memory-mapped windows. No line can be longer than this.
+     */
+    private final Integer                                windowSize;
+
+    /**
+     * Constructs a pipeline with one thread for each available processor.
+     *
+     * @param prsr
+     *            parser for the expressions
+     * @param interps
+     *            source for the interpreters, one is taken for each thread
+     * @param fmt
+     *            transforms the interpreted results into output lines
+     */
+    public BulkRollPipeline(final DiceParser prsr, final Supplier<? extends DiceInterpreter<V>> interps,
+            final Function<? super V, ?> fmt) {
+        this(prsr, interps, fmt, Runtime.getRuntime()
+            .availableProcessors(), DEFAULT_BATCH_SIZE, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a pipeline with the received number of threads, batch size and window size.
+     *
+     * @param prsr
+     *            parser for the expressions
+     * @param interps
+     *            source for the interpreters, one is taken for each thread
+     * @param fmt
+     *            transforms the interpreted results into output lines
+     * @param threads
+     *            number of threads parsing and interpreting
+     * @param lines
+     *            number of lines in each batch
+     * @param window
+     *            size, in bytes, of the memory-mapped windows, no line can be longer than this
+     */
+    public BulkRollPipeline(final DiceParser prsr, final Supplier<? extends DiceInterpreter<V>> interps,
+            final Function<? super V, ?> fmt, final Integer threads, final Integer lines,
+            final Integer window) {
+        super();
+
+        parser = Objects.requireNonNull(prsr, "Received a null pointer as parser");
+        interpreters = Objects.requireNonNull(interps, "Received a null pointer as interpreter supplier");
+        formatter = Objects.requireNonNull(fmt, "Received a null pointer as formatter");
+        parallelism = Objects.requireNonNull(threads, "Received a null pointer as threads");
+        batchSize = Objects.requireNonNull(lines, "Received a null pointer as batch size");
+        windowSize = Objects.requireNonNull(window, "Received a null pointer as window size");
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The number of threads should be positive, but received " + threads);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size should be positive, but received " + lines);
+        }
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("The window size should be positive, but received " + window);
+        }
+    }
+
+    /**
+     * Parses and interprets each line of the input channel, and writes the results to the output channel.
+     *
+     * @param input
+     *            file with the expressions
+     * @param output
+     *            channel for the results
+     * @return the number of lines read
+     * @throws IOException
+     *             if the input can't be read, the output can't be written, or a line is longer than the window size
+     */
+    public final Long run(final FileChannel input, final WritableByteChannel output) throws IOException {
+        final ExecutorService                 executor;
+        final Deque<Future<ByteBuffer>>       pending;
+        final ThreadLocal<DiceInterpreter<V>> interpreter;
+        final long                            size;
+        MappedByteBuffer                      window;
+        Batch                                 batch;
+        long                                  position;
+        long                                  lines;
+        int                                   length;
+        int                                   start;
+        boolean                               last;
+
+        Objects.requireNonNull(input, "Received a null pointer as input");
+        Objects.requireNonNull(output, "Received a null pointer as output");
+
+        executor = Executors.newFixedThreadPool(parallelism);
+        interpreter = ThreadLocal.withInitial(interpreters);
+        pending = new ArrayDeque<>();
+        lines = 0;
+        try {
+            size = input.size();
+            position = 0;
+            while (position < size) {
+                length = (int) Math.min(windowSize, size - position);
+                last = (position + length) == size;
+                window = input.map(MapMode.READ_ONLY, position, length);
+
+                batch = new Batch(window, batchSize);
+                start = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        batch.add(start, trimCarriageReturn(window, start, i));
+                        start = i + 1;
+                        if (batch.count == batchSize) {
+                            lines += batch.count;
+                            submit(executor, pending, batch, interpreter, output);
+                            batch = new Batch(window, batchSize);
+                        }
+                    }
+                }
+
+                if (last && (start < length)) {
+                    // Last line, without line ending
+                    batch.add(start, trimCarriageReturn(window, start, length));
+                    start = length;
+                } else if (start == 0) {
+                    throw new IOException(String.format("Line at byte %d is longer than the window size of %d bytes",
+                        position, windowSize));
+                }
+
+                if (batch.count > 0) {
+                    lines += batch.count;
+                    submit(executor, pending, batch, interpreter, output);
+                }
+
+                // The next window starts after the last complete line
+                position += start;
+            }
+
+            while (!pending.isEmpty()) {
+                write(pending.removeFirst(), output);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.debug("Processed {} lines", lines);
+
+        return lines;
+    }
+
+    /**
+     * Parses and interprets each line of the input file, and writes the results to the output file. The output file is
+     * created if it doesn't exist, and replaced otherwise.
+     *
+     * @param input
+     *            file with the expressions
+     * @param output
+     *            file for the results
+     * @return the number of lines read
+     * @throws IOException
+     *             if the input can't be read, the output can't be written, or a line is longer than the window size
+     */
+    public final Long run(final Path input, final Path output) throws IOException {
+        Objects.requireNonNull(input, "Received a null pointer as input");
+        Objects.requireNonNull(output, "Received a null pointer as output");
+
+        try (final FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                final FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return run(in, out);
+        }
+    }
+
+    /**
+     * Parses and interprets the lines in the batch.
+     *
+     * @param batch
+     *            lines to process
+     * @param interpreter
+     *            interpreter for the current thread
+     * @return the encoded output lines
+     */
+    private final ByteBuffer process(final Batch batch, final ThreadLocal<DiceInterpreter<V>> interpreter) {
+        final StringBuilder builder;
+        CharSequence        line;
+        ParseResult         result;
+
+        builder = new StringBuilder();
+        for (int i = 0; i < batch.count; i++) {
+            line = batch.getLine(i);
+            if (line.length() > 0) {
+                result = parser.tryParse(line);
+                if (result.isValid()) {
+                    try {
+                        builder.append(formatter.apply(interpreter.get()
+                            .transform(result.getExpression())));
+                    } catch (final RuntimeException e) {
+                        // The expression can't be evaluated, for example due to a division by zero
+                        builder.append(ERROR_PREFIX)
+                            .append(e.getMessage());
+                    }
+                } else {
+                    builder.append(ERROR_PREFIX)
+                        .append(result.getMessage());
+                }
+            }
+            builder.append('\n');
+        }
+
+        return StandardCharsets.UTF_8.encode(CharBuffer.wrap(builder));
+    }
+
+    /**
+     * Submits a batch to be processed. If too many batches are waiting, the oldest one is written first.
+     *
+     * @param executor
+     *            executor processing the batches
+     * @param pending
+     *            batches waiting to be written, in input order
+     * @param batch
+     *            batch to submit
+     * @param interpreter
+     *            interpreter for each thread
+     * @param output
+     *            channel for the results
+     * @throws IOException
+     *             if the output can't be written
+     */
+    private final void submit(final ExecutorService executor, final Deque<Future<ByteBuffer>> pending,
+            final Batch batch, final ThreadLocal<DiceInterpreter<V>> interpreter, final WritableByteChannel output)
+            throws IOException {
+        if (pending.size() >= (parallelism * PENDING_PER_THREAD)) {
+            write(pending.removeFirst(), output);
+        }
+
+        pending.addLast(executor.submit(() -> process(batch, interpreter)));
+    }
+
+    /**
+     * Returns the end of the line, excluding a trailing carriage return.
+     *
+     * @param window
+     *            window containing the line
+     * @param start
+     *            position of the first byte of the line
+     * @param end
+     *            position after the last byte of the line
+     * @return the end of the line, without the carriage return
+     */
+    private final int trimCarriageReturn(final ByteBuffer window, final int start, final int end) {
+        final int trimmed;
+
+        if ((end > start) && (window.get(end - 1) == '\r')) {
+            trimmed = end - 1;
+        } else {
+            trimmed = end;
+        }
+
+        return trimmed;
+    }
+
+    /**
+     * Waits for a batch to be processed, and writes its results.
+     *
+     * @param result
+     *            batch being processed
+     * @param output
+     *            channel for the results
+     * @throws IOException
+     *             if the output can't be written
+     */
+    private final void write(final Future<ByteBuffer> result, final WritableByteChannel output) throws IOException {
+        final ByteBuffer bytes;
+
+        try {
+            bytes = result.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the results");
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        while (bytes.hasRemaining()) {
+            output.write(bytes);
+        }
+    }
+
+}
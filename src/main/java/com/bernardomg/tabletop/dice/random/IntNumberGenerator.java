@@ -0,0 +1,43 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.random;
+
+/**
+ * Generates a random integer value, without boxing it. This is meant for rolls which shouldn't allocate memory.
+ * <p>
+ * The possible values which the generator may return are expected to begin at 1, and end in a specified maximum value.
+ * <p>
+ * Any {@link NumberGenerator} can be adapted with {@code generator::generate}, boxing each value.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@FunctionalInterface
+public interface IntNumberGenerator {
+
+    /**
+     * Generates a random value.
+     * <p>
+     * This is expected to be in the interval [1,max].
+     *
+     * @param max
+     *            the maximum value which can be generated
+     * @return a random value
+     */
+    public int generate(final int max);
+
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.random;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Primitive number generator using the random generator of the current thread. It keeps no state, so it can be
+ * shared between threads, and it doesn't allocate memory.
+ * <p>
+ * Like {@link RandomNumberGenerator}, maximums lower than one generate zero.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ThreadLocalIntNumberGenerator implements IntNumberGenerator {
+
+    /**
+     * Lowest value which can be generated.
+     */
+    private static final int LOWER_LIMIT = 1;
+
+    /**
+     * Default constructor.
+     */
+    public ThreadLocalIntNumberGenerator() {
+        super();
+    }
+
+    @Override
+    public final int generate(final int max) {
+        final int result;
+
+        if (max < LOWER_LIMIT) {
+            result = 0;
+        } else {
+            result = ThreadLocalRandom.current()
+                .nextInt(max) + LOWER_LIMIT;
+        }
+
+        return result;
+    }
+
+}
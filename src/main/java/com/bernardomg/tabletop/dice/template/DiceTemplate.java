@@ -0,0 +1,462 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.template;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.bernardomg.tabletop.dice.history.RollHistory;
+import com.bernardomg.tabletop.dice.interpreter.DiceInterpreter;
+import com.bernardomg.tabletop.dice.interpreter.PostfixRoller;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.parser.ParseLimits;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+
+import lombok.Data;
+
+/**
+ * Dice notation expression with named slots in place of some numbers, such as {@code {level}d8+{con}}.
+ * <p>
+ * Slots are written as a name in braces, and can take the place of any number: dice quantities, sides, keep or drop
+ * counts and constants. Names start with a letter or an underscore, followed by letters, digits or underscores. The
+ * same name can be used several times.
+ * <p>
+ * The template is parsed once, into a {@link PostfixNotation} program. Each value of the program depends linearly on
+ * the slots, so the template is parsed again with each slot increased by one, to find which values it changes.
+ * Afterwards binding the slots only copies the program and adds the received values to it, without parsing the text
+ * again. As the bound values never go through the parser, the dice of the bound program are checked against the
+ * {@link ParseLimits limits} of the template, and rejected if they couldn't be rolled.
+ * <p>
+ * The bound program can be rolled directly, or converted into an expression for any interpreter, such as the
+ * {@code DiceRoller}.
+ * <p>
+ * Templates are immutable, so they can be shared between threads.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class DiceTemplate {
+
+    /**
+     * Values changed by a slot.
+     */
+    @Data
+    private static final class Slot {
+
+        /**
+         * Change on each value for each unit added to the slot. These are {@code 1} or {@code -1}.
+         */
+        private final int[] coefficients;
+
+        /**
+         * Positions of the values in the program.
+         */
+        private final int[] offsets;
+
+    }
+
+    /**
+     * Value given to the slots for the base program.
+     */
+    private static final int        BASE_VALUE = 1;
+
+    /**
+     * Program with all the slots set to the base value.
+     */
+    private final int[]             base;
+
+    /**
+     * Limits for the template and the bound programs.
+     */
+    private final ParseLimits       limits;
+
+    /**
+     * Slots, by name, in the order they appear in the template.
+     */
+    private final Map<String, Slot> slots;
+
+    /**
+     * Text of the template.
+     */
+    private final String            template;
+
+    /**
+     * Constructs a template from the received text.
+     *
+     * @param text
+     *            text of the template
+     * @throws IllegalArgumentException
+     *             if a slot is malformed
+     * @throws IllegalStateException
+     *             if the text is not a valid expression
+     */
+    public DiceTemplate(final String text) {
+        this(text, ParseLimits.UNLIMITED);
+    }
+
+    /**
+     * Constructs a template from the received text, with the received limits. These are applied both to the template
+     * and to the programs with the slots bound.
+     *
+     * @param text
+     *            text of the template
+     * @param lmts
+     *            limits for the template and the bound programs
+     * @throws IllegalArgumentException
+     *             if a slot is malformed
+     * @throws IllegalStateException
+     *             if the text is not a valid expression, or is over the limits
+     */
+    public DiceTemplate(final String text, final ParseLimits lmts) {
+        super();
+
+        final RecursiveDescentDiceParser parser;
+        final List<String>               names;
+        final Map<String, Slot>          found;
+        int[]                            probe;
+
+        template = Objects.requireNonNull(text, "Received a null pointer as template");
+        limits = Objects.requireNonNull(lmts, "Received a null pointer as limits");
+
+        parser = new RecursiveDescentDiceParser(limits);
+        names = readNames(text);
+        base = parser.parsePostfix(replace(text, null))
+            .toArray();
+
+        found = new LinkedHashMap<>();
+        for (final String name : names) {
+            probe = parser.parsePostfix(replace(text, name))
+                .toArray();
+            found.put(name, getSlot(name, probe));
+        }
+        slots = Collections.unmodifiableMap(found);
+    }
+
+    /**
+     * Returns the program for the received slot values. Values for names not in the template are ignored.
+     *
+     * @param values
+     *            values for the slots
+     * @return the program with the slots bound
+     * @throws IllegalArgumentException
+     *             if any slot has no value, or the bound dice are over the limits or can't be rolled
+     */
+    public final PostfixNotation bind(final Map<String, Integer> values) {
+        final int[] code;
+        Integer     value;
+        int         delta;
+        int[]       offsets;
+        int[]       coefficients;
+
+        Objects.requireNonNull(values, "Received a null pointer as values");
+
+        code = base.clone();
+        for (final Map.Entry<String, Slot> slot : slots.entrySet()) {
+            value = values.get(slot.getKey());
+            if (value == null) {
+                throw new IllegalArgumentException(String.format("Missing value for slot %s", slot.getKey()));
+            }
+
+            delta = value - BASE_VALUE;
+            offsets = slot.getValue()
+                .getOffsets();
+            coefficients = slot.getValue()
+                .getCoefficients();
+            for (Integer i = 0; i < offsets.length; i++) {
+                code[offsets[i]] += coefficients[i] * delta;
+            }
+        }
+        checkDice(code);
+
+        return PostfixNotation.of(code);
+    }
+
+    /**
+     * Returns the expression for the received slot values. The usual dice and constants are shared instances.
+     *
+     * @param values
+     *            values for the slots
+     * @return the expression with the slots bound
+     * @throws IllegalArgumentException
+     *             if any slot has no value
+     */
+    public final DiceNotationExpression bindExpression(final Map<String, Integer> values) {
+        return bind(values).toExpression();
+    }
+
+    /**
+     * Returns the names of the slots, in the order they first appear in the template.
+     *
+     * @return the names of the slots
+     */
+    public final List<String> getSlots() {
+        return new ArrayList<>(slots.keySet());
+    }
+
+    /**
+     * Returns the text of the template.
+     *
+     * @return the text of the template
+     */
+    public final String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Rolls the template with the received slot values. The bound program is rolled directly, without building an
+     * expression.
+     *
+     * @param values
+     *            values for the slots
+     * @param roller
+     *            roller for the program
+     * @return the history of the roll
+     * @throws IllegalArgumentException
+     *             if any slot has no value
+     */
+    public final RollHistory roll(final Map<String, Integer> values, final PostfixRoller roller) {
+        Objects.requireNonNull(roller, "Received a null pointer as roller");
+
+        return roller.roll(bind(values));
+    }
+
+    @Override
+    public final String toString() {
+        return template;
+    }
+
+    /**
+     * Applies the interpreter on the expression for the received slot values. Any interpreter can be used, such as
+     * the {@code DiceRoller}.
+     *
+     * @param <V>
+     *            type of the value returned by the interpreter
+     * @param values
+     *            values for the slots
+     * @param interpreter
+     *            interpreter to apply
+     * @return the result of the interpreter
+     * @throws IllegalArgumentException
+     *             if any slot has no value
+     */
+    public final <V> V transform(final Map<String, Integer> values, final DiceInterpreter<V> interpreter) {
+        Objects.requireNonNull(interpreter, "Received a null pointer as interpreter");
+
+        return interpreter.transform(bindExpression(values));
+    }
+
+    /**
+     * Checks the dice of a bound program. These should be inside the limits, have sides and not keep more dice than
+     * they roll.
+     *
+     * @param code
+     *            bound program
+     * @throws IllegalArgumentException
+     *             if any dice is not valid
+     */
+    private final void checkDice(final int[] code) {
+        long dice;
+        int  index;
+        int  quantity;
+        int  sides;
+        int  keep;
+
+        dice = 0;
+        index = 0;
+        while (index < code.length) {
+            switch (code[index]) {
+                case PostfixNotation.CONSTANT:
+                    index += 2;
+                    break;
+                case PostfixNotation.DICE:
+                    quantity = code[index + 1];
+                    sides = code[index + 2];
+                    keep = code[index + 3];
+                    // Widened, as the absolute value of the lowest int overflows
+                    dice += Math.abs((long) quantity);
+                    if (dice > limits.getMaxDice()) {
+                        throw new IllegalArgumentException(String.format("Bound %s rolls %d dice, over the limit of %d",
+                            template, dice, limits.getMaxDice()));
+                    } else if (sides > limits.getMaxSides()) {
+                        throw new IllegalArgumentException(String.format(
+                            "Bound %s has a dice with %d sides, over the limit of %d", template, sides,
+                            limits.getMaxSides()));
+                    } else if (sides < 1) {
+                        throw new IllegalArgumentException(
+                            String.format("Bound %s has a dice with %d sides", template, sides));
+                    } else if (Math.abs((long) keep) > Math.abs((long) quantity)) {
+                        throw new IllegalArgumentException(String.format("Bound %s keeps %d dice out of %d",
+                            template, Math.abs((long) keep), Math.abs((long) quantity)));
+                    }
+                    index += 4;
+                    break;
+                case PostfixNotation.SUM:
+                case PostfixNotation.PRODUCT:
+                    index += code[index + 1] + 1;
+                    break;
+                default:
+                    index++;
+            }
+        }
+    }
+
+    /**
+     * Compares the probe program with the base one, to find the values changed by the slot.
+     *
+     * @param name
+     *            name of the slot
+     * @param probe
+     *            program with the slot increased by one
+     * @return the values changed by the slot
+     */
+    private final Slot getSlot(final String name, final int[] probe) {
+        final List<Integer> changed;
+        final int[]         offsets;
+        final int[]         coefficients;
+        int                 difference;
+
+        changed = new ArrayList<>();
+        for (Integer i = 0; i < base.length; i++) {
+            difference = probe[i] - base[i];
+            if (difference != 0) {
+                if (Math.abs(difference) != 1) {
+                    throw new IllegalArgumentException(
+                        String.format("Slot %s is not used as a single number in %s", name, template));
+                }
+                changed.add(i);
+            }
+        }
+
+        offsets = new int[changed.size()];
+        coefficients = new int[changed.size()];
+        for (Integer i = 0; i < offsets.length; i++) {
+            offsets[i] = changed.get(i);
+            coefficients[i] = probe[offsets[i]] - base[offsets[i]];
+        }
+
+        return new Slot(coefficients, offsets);
+    }
+
+    /**
+     * Checks if the character is a digit.
+     *
+     * @param character
+     *            character to check
+     * @return {@code true} if it is a digit
+     */
+    private final boolean isDigit(final char character) {
+        return (character >= '0') && (character <= '9');
+    }
+
+    /**
+     * Checks if the character is valid in a slot name.
+     *
+     * @param character
+     *            character to check
+     * @param first
+     *            flag telling if it is the first character of the name
+     * @return {@code true} if it is valid
+     */
+    private final boolean isNameCharacter(final char character, final boolean first) {
+        return ((character >= 'a') && (character <= 'z')) || ((character >= 'A') && (character <= 'Z'))
+                || (character == '_') || (!first && isDigit(character));
+    }
+
+    /**
+     * Reads the names of the slots in the template, and checks they are well formed. Slots can't be next to digits
+     * or other slots, as they would be joined into a single number.
+     *
+     * @param text
+     *            text of the template
+     * @return the names of the slots, without repetitions
+     */
+    private final List<String> readNames(final String text) {
+        final List<String> names;
+        String             name;
+        int                start;
+        int                end;
+
+        names = new ArrayList<>();
+        start = text.indexOf('{');
+        while (start >= 0) {
+            end = text.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException(String.format("Unclosed slot at %d in %s", start, text));
+            }
+            name = text.substring(start + 1, end);
+            if (name.isEmpty() || !isNameCharacter(name.charAt(0), true)
+                    || !name.chars()
+                        .allMatch(c -> isNameCharacter((char) c, false))) {
+                throw new IllegalArgumentException(String.format("Invalid slot name at %d in %s", start, text));
+            }
+            if (((start > 0) && (isDigit(text.charAt(start - 1)) || (text.charAt(start - 1) == '}')))
+                    || (((end + 1) < text.length()) && isDigit(text.charAt(end + 1)))) {
+                throw new IllegalArgumentException(
+                    String.format("Slot at %d is next to another number in %s", start, text));
+            }
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+            start = text.indexOf('{', end);
+        }
+
+        return names;
+    }
+
+    /**
+     * Replaces the slots with numbers. All of them get the base value, except for the probed one, which is increased
+     * by one.
+     *
+     * @param text
+     *            text of the template
+     * @param probed
+     *            name of the probed slot, or {@code null} for the base program
+     * @return the text with numbers in place of the slots
+     */
+    private final String replace(final String text, final String probed) {
+        final StringBuilder replaced;
+        String              name;
+        int                 position;
+        int                 start;
+        int                 end;
+
+        replaced = new StringBuilder(text.length());
+        position = 0;
+        start = text.indexOf('{');
+        while (start >= 0) {
+            end = text.indexOf('}', start);
+            name = text.substring(start + 1, end);
+            replaced.append(text, position, start);
+            if (name.equals(probed)) {
+                replaced.append(BASE_VALUE + 1);
+            } else {
+                replaced.append(BASE_VALUE);
+            }
+            position = end + 1;
+            start = text.indexOf('{', position);
+        }
+        replaced.append(text, position, text.length());
+
+        return replaced.toString();
+    }
+
+}
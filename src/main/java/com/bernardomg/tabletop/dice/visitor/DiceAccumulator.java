@@ -18,18 +18,24 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import com.bernardomg.tabletop.dice.DefaultDice;
 import com.bernardomg.tabletop.dice.Dice;
 import com.bernardomg.tabletop.dice.notation.operand.ConstantOperand;
 import com.bernardomg.tabletop.dice.notation.operand.DiceOperand;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
 import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
 import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
 
 /**
  * Stores all the dice set from the expressions received.
  * <p>
  * It handles negative dice sets. Any dice directly after a subtraction is a negative dice set.
+ * <p>
+ * This expects an inorder traversal, where n-ary operations are received once before each operand after the first.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  *
@@ -39,12 +45,21 @@ public final class DiceAccumulator implements NotationAccumulator<Iterable<Dice>
     /**
      * All the dice collected so far.
      */
-    private final Collection<Dice> dice     = new ArrayList<>();
+    private final Collection<Dice>            dice     = new ArrayList<>();
 
     /**
      * Flag indicating if the next dice set is a negative value.
      */
-    private Boolean                negative = false;
+    private Boolean                           negative = false;
+
+    /**
+     * Number of times each n-ary operation has been received, since the last time it reached its last operator. Used to
+     * know which operator applies to the next operand.
+     * <p>
+     * The same operation may appear several times in a tree. As an operation can't contain itself, each appearance is
+     * traversed fully before the next one begins, so the count is restarted after the last operator.
+     */
+    private final Map<NaryOperation, Integer> visits   = new IdentityHashMap<>();
 
     /**
      * Default constructor.
@@ -81,10 +96,34 @@ public final Iterable<Dice> getValue() {
         return dice;
     }
 
+    @Override
+    public final void naryOperation(final NaryOperation exp) {
+        final Integer            visit;
+        final ArithmeticOperator operator;
+
+        visit = visits.merge(exp, 1, Integer::sum);
+        operator = exp.getOperators()
+            .get(visit - 1);
+        negative = (operator == ArithmeticOperator.SUBTRACTION);
+
+        if (visit == exp.getOperators()
+            .size()) {
+            // Last operator
+            // Any other visit comes from another appearance of the operation
+            visits.remove(exp);
+        }
+    }
+
     @Override
     public final void reset() {
         negative = false;
         dice.clear();
+        visits.clear();
+    }
+
+    @Override
+    public final boolean supportsNaryOperations() {
+        return true;
     }
 
     /**
@@ -95,7 +134,7 @@ public final void reset() {
      * @return dice with the sign reversed
      */
     private final Dice reverse(final Dice d) {
-        return new DefaultDice(0 - d.getQuantity(), d.getSides(), d.getKeep());
+        return DefaultDice.valueOf(0 - d.getQuantity(), d.getSides(), d.getKeep());
     }
 
 }
@@ -16,10 +16,12 @@
 
 package com.bernardomg.tabletop.dice.visitor;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.Stack;
-import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
 import java.util.stream.StreamSupport;
 
 import com.bernardomg.tabletop.dice.Dice;
@@ -27,13 +29,15 @@
 import com.bernardomg.tabletop.dice.history.DefaultRollResult;
 import com.bernardomg.tabletop.dice.history.RollHistory;
 import com.bernardomg.tabletop.dice.history.RollResult;
-import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
 import com.bernardomg.tabletop.dice.notation.operand.ConstantOperand;
 import com.bernardomg.tabletop.dice.notation.operand.DiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.FoldedOperand;
 import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
 import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
 import com.bernardomg.tabletop.dice.notation.operation.DivisionOperation;
 import com.bernardomg.tabletop.dice.notation.operation.MultiplicationOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
 import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
 
 import lombok.extern.slf4j.Slf4j;
@@ -41,7 +45,8 @@
 /**
  * Stores all the rolls generated from the expressions.
  * <p>
- * Integer values are handled as a roll, just with a constant value.
+ * Integer values are handled as a roll, just with a constant value. Folded constants are handled as the operations
+ * they come from.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  *
@@ -50,14 +55,27 @@
 public final class DiceRollAccumulator implements NotationAccumulator<RollHistory> {
 
     /**
-     * The last expression received.
+     * Initial size of the values stack.
      */
-    private DiceNotationExpression           previous;
+    private static final int                 INITIAL_CAPACITY = 16;
+
+    /**
+     * Number of values in the stack.
+     */
+    private int                              depth            = 0;
+
+    /**
+     * The origins of the values generated so far.
+     * <p>
+     * For each value this contains the index of its result, if the value comes from a constant, or {@code null}
+     * otherwise. It is used to change the sign of subtracted constants.
+     */
+    private final Stack<Integer>             origins          = new Stack<>();
 
     /**
      * All the results generated so far.
      */
-    private final Stack<RollResult>          results = new Stack<>();
+    private final Stack<RollResult>          results          = new Stack<>();
 
     /**
      * Generator for the rolls.
@@ -70,15 +88,15 @@ public final class DiceRollAccumulator implements NotationAccumulator<RollHistor
      * It always contain the text representation of all the nodes parsed so far, along temporal texts to keep building
      * the final result.
      */
-    private final Stack<String>              texts   = new Stack<>();
+    private final Stack<String>              texts            = new Stack<>();
 
     /**
      * The expression values generated so far.
      * <p>
      * It always contain the sum of all the nodes parsed so far, along temporal values to keep building the final
-     * result.
+     * result. They are kept as primitive integers, to avoid boxing each step.
      */
-    private final Stack<Integer>             values  = new Stack<>();
+    private int[]                            values           = new int[INITIAL_CAPACITY];
 
     /**
      * Constructs an accumulator with the specified arguments.
@@ -94,39 +112,35 @@ public DiceRollAccumulator(final Function<Dice, RollResult> generator) {
 
     @Override
     public final void binaryOperation(final BinaryOperation exp) {
-        final Integer                 operandA;
-        final Integer                 operandB;
-        final BinaryOperator<Integer> operation;
-        final String                  textA;
-        final String                  textB;
-        final String                  op;
-        Integer                       value;
-        RollResult                    rollResult;
+        final int               operandA;
+        final int               operandB;
+        final IntBinaryOperator operation;
+        final String            textA;
+        final String            textB;
+        final String            op;
+        final Integer           origin;
 
         // Operation
         // Takes back the two latest values and applies
-        operandB = values.pop();
-        operandA = values.pop();
-        operation = exp.getOperation();
-        value = operation.apply(operandA, operandB);
-        values.push(value);
+        operandB = popValue();
+        operandA = popValue();
+        operation = exp.getIntOperation();
+        pushValue(operation.applyAsInt(operandA, operandB));
 
         op = getOperationText(exp);
         textA = texts.pop();
         textB = texts.pop();
         texts.push(textB + op + textA);
 
-        if ((exp instanceof SubtractionOperation) && (previous instanceof ConstantOperand)) {
+        origin = origins.pop();
+        origins.pop();
+        if ((exp instanceof SubtractionOperation) && (origin != null)) {
             // This is a subtraction
             // The previous value was a constant
             // The sign is changed
-            rollResult = results.pop();
-            value = 0 - rollResult.getTotalRoll();
-            rollResult = new DefaultRollResult(value);
-            results.push(rollResult);
+            negate(origin);
         }
-
-        previous = exp;
+        origins.push(null);
     }
 
     @Override
@@ -134,18 +148,24 @@ public final void constantOperand(final ConstantOperand exp) {
         final Integer    value;
         final RollResult rollResult;
 
-        // Constant
-        // Stores the value
-        value = exp.getValue();
-        rollResult = new DefaultRollResult(value);
-        results.add(rollResult);
+        if (exp instanceof FoldedOperand) {
+            // Folded constant
+            // The history of the original operation is kept
+            visitFolded((FoldedOperand) exp);
+        } else {
+            // Constant
+            // Stores the value
+            value = exp.getValue();
+            rollResult = new DefaultRollResult(value);
+            results.add(rollResult);
 
-        values.push(rollResult.getTotalRoll());
+            pushValue(rollResult.getTotalRoll());
 
-        texts.push(rollResult.getTotalRoll()
-            .toString());
+            texts.push(rollResult.getTotalRoll()
+                .toString());
 
-        previous = exp;
+            origins.push(results.size() - 1);
+        }
     }
 
     @Override
@@ -161,7 +181,7 @@ public final void diceOperand(final DiceOperand exp) {
         rollResult = rollGenerator.apply(exp.getDice());
         results.add(rollResult);
 
-        values.push(rollResult.getTotalRoll());
+        pushValue(rollResult.getTotalRoll());
 
         totalRolls = StreamSupport.stream(rollResult.getAllRolls()
             .spliterator(), false)
@@ -174,7 +194,7 @@ public final void diceOperand(final DiceOperand exp) {
                 .toString());
         }
 
-        previous = exp;
+        origins.push(null);
     }
 
     @Override
@@ -182,12 +202,12 @@ public final RollHistory getValue() {
         final String  text;
         final Integer result;
 
-        if (values.isEmpty()) {
+        if (depth == 0) {
             // By default the returned value is 0
             result = 0;
         } else {
             // The value which is left is returned
-            result = values.pop();
+            result = popValue();
         }
 
         if (texts.isEmpty()) {
@@ -199,12 +219,64 @@ public final RollHistory getValue() {
         return new DefaultRollHistory(results, text, result);
     }
 
+    @Override
+    public final void naryOperation(final NaryOperation exp) {
+        final List<ArithmeticOperator> operators;
+        final int[]                    operandValues;
+        final String[]                 operandTexts;
+        final Integer[]                operandOrigins;
+        final StringBuilder            text;
+        final Integer                  size;
+        ArithmeticOperator             operator;
+        int                            value;
+
+        // Operation
+        // Takes back as many values as operands, which are on the stack in reverse order
+        size = exp.getOperands()
+            .size();
+        operandValues = new int[size];
+        operandTexts = new String[size];
+        operandOrigins = new Integer[size];
+        for (Integer i = size - 1; i >= 0; i--) {
+            operandValues[i] = popValue();
+            operandTexts[i] = texts.pop();
+            operandOrigins[i] = origins.pop();
+        }
+
+        operators = exp.getOperators();
+        value = operandValues[0];
+        text = new StringBuilder(operandTexts[0]);
+        for (Integer i = 1; i < size; i++) {
+            operator = operators.get(i - 1);
+            value = operator.applyAsInt(value, operandValues[i]);
+            text.append(' ');
+            text.append(operator.getSymbol());
+            text.append(' ');
+            text.append(operandTexts[i]);
+
+            if ((operator == ArithmeticOperator.SUBTRACTION) && (operandOrigins[i] != null)) {
+                // This constant is subtracted
+                // The sign is changed
+                negate(operandOrigins[i]);
+            }
+        }
+
+        pushValue(value);
+        texts.push(text.toString());
+        origins.push(null);
+    }
+
     @Override
     public final void reset() {
-        previous = null;
+        origins.clear();
         results.clear();
         texts.clear();
-        values.clear();
+        depth = 0;
+    }
+
+    @Override
+    public final boolean supportsNaryOperations() {
+        return true;
     }
 
     /**
@@ -233,4 +305,60 @@ private final String getOperationText(final BinaryOperation exp) {
         return text;
     }
 
+    /**
+     * Changes the sign of the result in the received position.
+     *
+     * @param index
+     *            position of the result to change
+     */
+    private final void negate(final Integer index) {
+        final Integer value;
+
+        value = 0 - results.get(index)
+            .getTotalRoll();
+        results.set(index, new DefaultRollResult(value));
+    }
+
+    /**
+     * Takes back the latest value.
+     *
+     * @return the latest value
+     */
+    private final int popValue() {
+        depth--;
+
+        return values[depth];
+    }
+
+    /**
+     * Stores a new value, growing the stack if needed.
+     *
+     * @param value
+     *            value to store
+     */
+    private final void pushValue(final int value) {
+        if (depth == values.length) {
+            values = Arrays.copyOf(values, depth * 2);
+        }
+        values[depth] = value;
+        depth++;
+    }
+
+    /**
+     * Visits a folded constant. The history gets the same results and text as if it had not been folded, which are
+     * taken from the folded constant, as these are built only once.
+     *
+     * @param exp
+     *            folded constant to visit
+     */
+    private final void visitFolded(final FoldedOperand exp) {
+        for (final Integer constant : exp.getConstants()) {
+            results.add(new DefaultRollResult(constant));
+        }
+
+        pushValue(exp.getValue());
+        texts.push(exp.getHistoryText());
+        origins.push(null);
+    }
+
 }
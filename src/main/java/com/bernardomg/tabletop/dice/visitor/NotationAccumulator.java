@@ -16,6 +16,8 @@
 
 package com.bernardomg.tabletop.dice.visitor;
 
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
+
 /**
  * Visitor which accumulates values as it goes through dice notation expressions.
  *
@@ -38,4 +40,17 @@
      */
     public void reset();
 
+    /**
+     * Indicates if the accumulator handles n-ary operations by itself. Otherwise these are expanded into binary
+     * operations before being visited.
+     * <p>
+     * By default this is {@code false}. Accumulators overriding {@link #naryOperation(NaryOperation) naryOperation}
+     * should override this too.
+     *
+     * @return {@code true} if the accumulator supports n-ary operations, {@code false} otherwise
+     */
+    public default boolean supportsNaryOperations() {
+        return false;
+    }
+
 }
@@ -16,9 +16,14 @@
 
 package com.bernardomg.tabletop.dice.visitor;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
 import com.bernardomg.tabletop.dice.notation.operand.ConstantOperand;
 import com.bernardomg.tabletop.dice.notation.operand.DiceOperand;
 import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
 
 /**
  * Visitor for dice notation expressions.
@@ -51,4 +56,34 @@ public interface NotationVisitor {
      */
     public void diceOperand(final DiceOperand exp);
 
+    /**
+     * Visits an n-ary operation.
+     * <p>
+     * By default this visits the equivalent chain of binary operations, from the first operator to the last one. The
+     * operands are not visited again. Accumulators which don't tell they support them, through
+     * {@link NotationAccumulator#supportsNaryOperations()}, don't receive n-ary operations from the
+     * {@link com.bernardomg.tabletop.dice.interpreter.ConfigurableInterpreter ConfigurableInterpreter}, which expands
+     * them before traversing the tree, so each binary operation is visited in the same place as when parsed without
+     * flattening chains.
+     *
+     * @param exp
+     *            expression to visit
+     */
+    public default void naryOperation(final NaryOperation exp) {
+        final Deque<BinaryOperation> operations;
+        DiceNotationExpression       current;
+
+        operations = new ArrayDeque<>();
+        current = exp.toBinary();
+        for (Integer i = 1; i < exp.getOperands()
+            .size(); i++) {
+            operations.push((BinaryOperation) current);
+            current = ((BinaryOperation) current).getLeft();
+        }
+
+        while (!operations.isEmpty()) {
+            binaryOperation(operations.pop());
+        }
+    }
+
 }
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.benchmark.compiler;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.bernardomg.tabletop.dice.compiler.MethodHandleCompiler;
+import com.bernardomg.tabletop.dice.compiler.MethodHandleRoll;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+import com.bernardomg.tabletop.dice.random.ThreadLocalIntNumberGenerator;
+
+/**
+ * Latency of a roll compiled into a method handle, when rolled through the {@link MethodHandleRoll}, and when its
+ * handle is kept in a {@code static final} field.
+ * <p>
+ * The roll keeps its handle in an instance field, which the JIT doesn't take as a constant, so the handle can't be
+ * inlined. A handle in a {@code static final} field is a constant, and the whole expression can be inlined into the
+ * caller.
+ * <p>
+ * Run the main method, or run it through Maven with:
+ * <p>
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.bernardomg.tabletop.dice.test.benchmark.compiler.MethodHandleRollBenchmark}
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodHandleRollBenchmark {
+
+    private static final MethodHandle     HANDLE;
+
+    private static final MethodHandleRoll ROLL;
+
+    static {
+        ROLL = (MethodHandleRoll) new MethodHandleCompiler()
+            .transform(new DefaultDiceParser().parse("1d20-5*1d8+2d6/3d12"));
+        HANDLE = ROLL.getHandle();
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args
+     *            ignored
+     * @throws RunnerException
+     *             if the benchmarks fail
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MethodHandleRollBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+    private final IntNumberGenerator generator = new ThreadLocalIntNumberGenerator();
+
+    public MethodHandleRollBenchmark() {
+        super();
+    }
+
+    @Benchmark
+    public int roll() {
+        return ROLL.roll(generator);
+    }
+
+    @Benchmark
+    public int staticHandle() throws Throwable {
+        return (int) HANDLE.invokeExact(generator);
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.benchmark.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.PredictionStrategy;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+
+/**
+ * Latency and allocation of the parsers for some usual expressions.
+ * <p>
+ * Run the main method, or run it through Maven with:
+ * <p>
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.bernardomg.tabletop.dice.test.benchmark.parser.DiceParserBenchmark}
+ * <p>
+ * The GC profiler reports the bytes allocated for each parsed expression as {@code gc.alloc.rate.norm}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiceParserBenchmark {
+
+    /**
+     * Runs the benchmarks, with the GC profiler.
+     *
+     * @param args
+     *            ignored
+     * @throws RunnerException
+     *             if the benchmarks fail
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DiceParserBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+
+    @Param({ "1d20+5", "4d6kh3", "2d6+1d8-3", "(1d20+5)*2-1d4/2", "1d20-5*1d8+2d6/3d12" })
+    private String     notation;
+
+    @Param({ "LL", "SLL_FIRST", "RECURSIVE_DESCENT" })
+    private String     parserType;
+
+    private DiceParser parser;
+
+    public DiceParserBenchmark() {
+        super();
+    }
+
+    @Benchmark
+    public DiceNotationExpression parse() {
+        return parser.parse(notation);
+    }
+
+    @Setup
+    public void setUp() {
+        if ("RECURSIVE_DESCENT".equals(parserType)) {
+            parser = new RecursiveDescentDiceParser();
+        } else {
+            parser = new DefaultDiceParser(PredictionStrategy.valueOf(parserType));
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.integration.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.compiler.CompiledRoll;
+import com.bernardomg.tabletop.dice.compiler.MethodHandleCompiler;
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+import com.bernardomg.tabletop.dice.random.AbstractNumberGenerator;
+import com.bernardomg.tabletop.dice.random.NumberGenerator;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("Method handle rolls roll the same totals as the DiceRoller")
+public final class ITMethodHandleCompileAndRoll {
+
+    private final DiceParser parser = new DefaultDiceParser();
+
+    public ITMethodHandleCompileAndRoll() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A method handle roll can be rolled from several threads")
+    public final void testRoll_Concurrent() throws Exception {
+        final CompiledRoll          roll;
+        final ExecutorService       executor;
+        final List<Future<Integer>> futures;
+
+        roll = new MethodHandleCompiler().transform(parser.parse("10d6kh5+3d4*2-(2d8kl1)"));
+        executor = Executors.newFixedThreadPool(8);
+        futures = new ArrayList<>();
+        try {
+            for (Integer i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> {
+                    Integer total;
+
+                    total = 0;
+                    for (Integer j = 0; j < 1000; j++) {
+                        total = roll.roll(max -> max);
+                    }
+
+                    return total;
+                }));
+            }
+
+            for (final Future<Integer> future : futures) {
+                Assertions.assertThat(future.get())
+                    .isEqualTo(30 + 24 - 8);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "4d6kh3", "4d6kl1", "5d6dh2", "5d6dl2", "-4d6kh2", "10d10kh3-2d6kl1", "1d6-2+3-1d4",
+            "(1d6+2)*3-4-1d8", "1d20-2*3*1d4+7", "2*3+1d6-4/2" })
+    @DisplayName("An extended notation rolls the same total")
+    public final void testRoll_Extended(final String notation) {
+        assertSameTotal(parser, notation);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d6-2+3-1d4", "2*3*1d6/2", "(1d6+2)*3-4-1d8", "5-1d6-2d4+-3", "4d6kh3+1d6-2" })
+    @DisplayName("A flattened expression rolls the same total")
+    public final void testRoll_Flattened(final String notation) {
+        assertSameTotal(new DefaultDiceParser(() -> new DefaultDiceExpressionBuilder(false, true)), notation);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation rolls the same total")
+    public final void testRoll_Notation(final String notation) {
+        assertSameTotal(parser, notation);
+    }
+
+    @Test
+    @DisplayName("An expression over the limit rolls the same total")
+    public final void testRoll_OverLimit() {
+        final StringBuilder notation;
+
+        notation = new StringBuilder("1d6");
+        for (Integer i = 0; i < MethodHandleCompiler.DEFAULT_MAX_OPERANDS; i++) {
+            notation.append("+1d6");
+        }
+
+        assertSameTotal(parser, notation.toString());
+    }
+
+    private final void assertSameTotal(final DiceParser source, final String notation) {
+        final NumberGenerator compiledGenerator;
+        final Integer         expected;
+        final Integer         result;
+
+        expected = new DiceRoller(getGenerator()).transform(source.parse(notation))
+            .getTotalRoll();
+
+        compiledGenerator = getGenerator();
+        result = new MethodHandleCompiler().transform(source.parse(notation))
+            .roll(compiledGenerator::generate);
+
+        Assertions.assertThat(result)
+            .isEqualTo(expected);
+    }
+
+    private final NumberGenerator getGenerator() {
+        final Random random;
+
+        // Fixed seed, so both rollers get the same values
+        random = new Random(20231021L);
+
+        return new AbstractNumberGenerator() {
+
+            @Override
+            public final Integer generate(final Integer max) {
+                return random.nextInt(max) + 1;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.integration.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import com.bernardomg.tabletop.dice.compiler.ClassCompiler;
+import com.bernardomg.tabletop.dice.compiler.DiceCompiler;
+import com.bernardomg.tabletop.dice.compiler.MethodHandleCompiler;
+import com.bernardomg.tabletop.dice.compiler.TieredDiceRoller;
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.random.AbstractNumberGenerator;
+import com.bernardomg.tabletop.dice.random.NumberGenerator;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("Tiered rolls return the same totals as the DiceRoller")
+public final class ITTieredDiceRoller {
+
+    private final DiceParser parser = new DefaultDiceParser();
+
+    public ITTieredDiceRoller() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Expressions compiled in the background while rolling from several threads keep their totals")
+    public final void testTransform_Concurrent() throws Exception {
+        final TieredDiceRoller       roller;
+        final DiceNotationExpression expression;
+        final ExecutorService        executor;
+        final List<Future<Integer>>  futures;
+
+        roller = new TieredDiceRoller(new AbstractNumberGenerator() {
+
+            @Override
+            public final Integer generate(final Integer max) {
+                return max;
+            }
+
+        }, 100);
+        expression = parser.parse("10d6kh5+3d4*2-(2d8kl1)");
+        executor = Executors.newFixedThreadPool(8);
+        futures = new ArrayList<>();
+        try {
+            for (Integer i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> {
+                    Integer total;
+
+                    total = 0;
+                    for (Integer j = 0; j < 1000; j++) {
+                        total = roller.transform(expression);
+                        Assertions.assertThat(total)
+                            .isEqualTo(30 + 24 - 8);
+                    }
+
+                    return total;
+                }));
+            }
+
+            for (final Future<Integer> future : futures) {
+                Assertions.assertThat(future.get())
+                    .isEqualTo(30 + 24 - 8);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation rolls the same totals with generated classes")
+    public final void testTransform_GeneratedClasses(final String notation) {
+        assertSameTotals(new TieredDiceRoller(getGenerator(), 3, new ClassCompiler(), Runnable::run), notation);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation rolls the same totals with method handles")
+    public final void testTransform_MethodHandles(final String notation) {
+        assertSameTotals(new TieredDiceRoller(getGenerator(), 3, new MethodHandleCompiler(), Runnable::run), notation);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation rolls the same totals with stack machines")
+    public final void testTransform_StackMachines(final String notation) {
+        assertSameTotals(new TieredDiceRoller(getGenerator(), 3, new DiceCompiler(), Runnable::run), notation);
+    }
+
+    private final void assertSameTotals(final TieredDiceRoller roller, final String notation) {
+        final DiceRoller             expected;
+        final DiceNotationExpression expression;
+
+        expected = new DiceRoller(getGenerator());
+        expression = parser.parse(notation);
+        // Rolls before and after compiling
+        for (Integer i = 0; i < 6; i++) {
+            Assertions.assertThat(roller.transform(expression))
+                .isEqualTo(expected.transform(expression)
+                    .getTotalRoll());
+        }
+
+        Assertions.assertThat(roller.getCompiled())
+            .isEqualTo(1L);
+    }
+
+    private final NumberGenerator getGenerator() {
+        final Random random;
+
+        // Fixed seed, so both rollers get the same values
+        random = new Random(20231021L);
+
+        return new AbstractNumberGenerator() {
+
+            @Override
+            public final Integer generate(final Integer max) {
+                return random.nextInt(max) + 1;
+            }
+
+        };
+    }
+
+}
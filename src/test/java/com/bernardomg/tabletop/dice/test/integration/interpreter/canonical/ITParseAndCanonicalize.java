@@ -0,0 +1,155 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.interpreter.canonical;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.Dice;
+import com.bernardomg.tabletop.dice.interpreter.Canonicalizer;
+import com.bernardomg.tabletop.dice.interpreter.DiceGatherer;
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+import com.bernardomg.tabletop.dice.random.AbstractNumberGenerator;
+import com.bernardomg.tabletop.dice.random.NumberGenerator;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("Canonicalizer with a parsed expression")
+public final class ITParseAndCanonicalize {
+
+    private final Canonicalizer canonicalizer = new Canonicalizer();
+
+    private final DiceParser    parser        = new DefaultDiceParser();
+
+    public ITParseAndCanonicalize() {
+        super();
+    }
+
+    @ParameterizedTest(name = "{0} = {1}")
+    @CsvSource({ "2+1d6, 1d6+2", "1d6+2, 1d6+2", "1d6+1+1, 1d6+2", "1d6+2d6, 3d6", "1d6-1d6, 1d6-1d6",
+            "1d20-(1d6+2), 1d20-1d6-2", "2*1d6*3, 1d6*6", "1d6/2, 1d6/2", "1+2, 3", "2-1d6, -1d6+2",
+            "1d4+1d20, 1d20+1d4", "5-2d6, -2d6+5", "1d6-3, 1d6-3", "1d6-2d6+1d6, 2d6-2d6", "1d6*1, 1d6", "6/2*1d6, 1d6*3",
+            "1d6+0, 1d6", "1-1, 0" })
+    @DisplayName("The expression is transformed into its canonical form")
+    public final void testCanonicalize(final String notation, final String canonical) {
+        Assertions.assertThat(canonicalizer.transform(parser.parse(notation))
+            .getExpression())
+            .isEqualTo(canonical);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({ "2+1d6, 1d6+2, 1+1d6+1", "(1d6+2)*3, 3*(2+1d6), 3*(1+1d6+1)", "1d20-1d4+2, 2-1d4+1d20, 1d20+2-1d4",
+            "1d6+1d6+1d8, 1d8+2d6, 1d6+1d8+1d6" })
+    @DisplayName("Equivalent expressions share the canonical form and the fingerprint")
+    public final void testCanonicalize_Equivalent(final String first, final String second, final String third) {
+        final DiceNotationExpression expected;
+
+        expected = canonicalizer.transform(parser.parse(first));
+
+        Assertions.assertThat(canonicalizer.transform(parser.parse(second)))
+            .isEqualTo(expected);
+        Assertions.assertThat(canonicalizer.transform(parser.parse(third)))
+            .isEqualTo(expected);
+        Assertions.assertThat(canonicalizer.transform(parser.parse(second))
+            .getFingerprint())
+            .isEqualTo(expected.getFingerprint());
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("The canonical form of a canonical expression is the same expression")
+    public final void testCanonicalize_Idempotent(final String notation) {
+        final DiceNotationExpression canonical;
+
+        canonical = canonicalizer.transform(parser.parse(notation));
+
+        Assertions.assertThat(canonicalizer.transform(canonical))
+            .isEqualTo(canonical);
+    }
+
+    @Test
+    @DisplayName("Dice with keep or drop are not merged")
+    public final void testCanonicalize_Keep() {
+        final Iterable<Dice> dice;
+
+        dice = new DiceGatherer().transform(canonicalizer.transform(parser.parse("4d6kh3+1d6+4d6kh3")));
+
+        Assertions.assertThat(dice)
+            .containsExactlyInAnyOrder(new DefaultDice(1, 6, 0), new DefaultDice(4, 6, 3), new DefaultDice(4, 6, 3));
+    }
+
+    @Test
+    @DisplayName("Flattened expressions share the canonical form of binary ones")
+    public final void testCanonicalize_Nary() {
+        final DiceParser flattened;
+
+        flattened = new DefaultDiceParser(() -> new DefaultDiceExpressionBuilder(false, true));
+
+        Assertions.assertThat(canonicalizer.transform(flattened.parse("2+1d6-1d4+3*2*1d8")))
+            .isEqualTo(canonicalizer.transform(parser.parse("2+1d6-1d4+3*2*1d8")));
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d6-2+3-1d4", "2*3*1d6/2", "(1d6+2)*3-4-1d8", "1d20-(2+3)-4", "5-1d6-2d4+-3",
+            "1d20-2*3*1d4+7", "4d6kh3+1d6-4d6dl1", "-2d6+1d6", "2-(1d6-1d4)" })
+    @DisplayName("The canonical form rolls the same total with the same dice")
+    public final void testRoll_Extended(final String notation) {
+        assertSameTotal(notation);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("The canonical form rolls the same total with the same dice")
+    public final void testRoll_Notation(final String notation) {
+        assertSameTotal(notation);
+    }
+
+    private final void assertSameTotal(final String notation) {
+        final DiceNotationExpression parsed;
+        final DiceRoller             roller;
+
+        parsed = parser.parse(notation);
+        roller = new DiceRoller(getGenerator());
+
+        Assertions.assertThat(roller.transform(canonicalizer.transform(parsed))
+            .getTotalRoll())
+            .isEqualTo(roller.transform(parsed)
+                .getTotalRoll());
+    }
+
+    private final NumberGenerator getGenerator() {
+        // Always the highest value, so the order of the rolls doesn't matter
+        return new AbstractNumberGenerator() {
+
+            @Override
+            public final Integer generate(final Integer max) {
+                return max;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,313 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.interpreter.roll.flattened;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Random;
+import java.util.Stack;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.Dice;
+import com.bernardomg.tabletop.dice.history.RollHistory;
+import com.bernardomg.tabletop.dice.interpreter.ConfigurableInterpreter;
+import com.bernardomg.tabletop.dice.interpreter.DiceGatherer;
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.interpreter.PostorderTraverser;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.ConstantOperand;
+import com.bernardomg.tabletop.dice.notation.operand.DiceOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+import com.bernardomg.tabletop.dice.random.AbstractNumberGenerator;
+import com.bernardomg.tabletop.dice.random.NumberGenerator;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+import com.bernardomg.tabletop.dice.visitor.NotationAccumulator;
+import com.bernardomg.tabletop.dice.visitor.NotationVisitor;
+
+@DisplayName("Flattened expressions are interpreted in the same way as binary ones")
+public final class ITParseFlattenedAndDiceRoller {
+
+    private final DiceParser binary    = new DefaultDiceParser();
+
+    private final DiceParser flattened = new DefaultDiceParser(() -> new DefaultDiceExpressionBuilder(false, true));
+
+    public ITParseFlattenedAndDiceRoller() {
+        super();
+    }
+
+    @Test
+    @DisplayName("An accumulator telling it supports n-ary operations receives them")
+    public final void testAccumulate_SupportsNary() {
+        final Collection<String> visited;
+
+        visited = new ArrayList<>();
+        new ConfigurableInterpreter<>(new PostorderTraverser(), getRecordingAccumulator(visited, true))
+            .transform(flattened.parse("1d6+2-3"));
+
+        Assertions.assertThat(visited)
+            .containsExactly("1d6+2-3");
+    }
+
+    @Test
+    @DisplayName("An accumulator not telling it supports n-ary operations receives the binary ones")
+    public final void testAccumulate_SupportsNary_NotTold() {
+        final Collection<String> visited;
+
+        visited = new ArrayList<>();
+        new ConfigurableInterpreter<>(new PostorderTraverser(), getRecordingAccumulator(visited, false))
+            .transform(flattened.parse("1d6+2-3"));
+
+        Assertions.assertThat(visited)
+            .containsExactly("1d6+2", "1d6+2-3");
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d6-2+3-1d4", "2*3*1d6/2", "(1d6+2)*3-4-1d8", "1d20-(2+3)-4", "5-1d6-2d4+-3",
+            "1d20-2*3*1d4+7" })
+    @DisplayName("An accumulator without support for n-ary operations gets the same value")
+    public final void testAccumulate_WithoutNary(final String notation) {
+        final Integer expected;
+        final Integer result;
+
+        expected = new ConfigurableInterpreter<>(new PostorderTraverser(), getAccumulator())
+            .transform(binary.parse(notation));
+        result = new ConfigurableInterpreter<>(new PostorderTraverser(), getAccumulator())
+            .transform(flattened.parse(notation));
+
+        Assertions.assertThat(result)
+            .isEqualTo(expected);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d6-2+3-1d4", "2*3*1d6/2", "(1d6+2)*3-4-1d8", "1d20-(2+3)-4", "5-1d6-2d4+-3",
+            "1d20-2*3*1d4+7" })
+    @DisplayName("An extended notation gathers the same dice")
+    public final void testGather_Extended(final String notation) {
+        final Iterable<Dice> expected;
+        final Iterable<Dice> result;
+
+        expected = new DiceGatherer().transform(binary.parse(notation));
+        result = new DiceGatherer().transform(flattened.parse(notation));
+
+        Assertions.assertThat(result)
+            .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("An n-ary operation appearing twice in the tree gathers the dice of both")
+    public final void testGather_SharedOperation() {
+        final DiceNotationExpression shared;
+        final Iterable<Dice>         result;
+
+        shared = flattened.parse("1d6-1d4+1d8");
+        result = new DiceGatherer().transform(new AdditionOperation(shared, shared));
+
+        Assertions.assertThat(result)
+            .containsExactly(new DefaultDice(1, 6, 0), new DefaultDice(-1, 4, 0), new DefaultDice(1, 8, 0),
+                new DefaultDice(1, 6, 0), new DefaultDice(-1, 4, 0), new DefaultDice(1, 8, 0));
+    }
+
+    @Test
+    @DisplayName("A long chain is parsed and rolled")
+    public final void testRoll_LongChain() {
+        final StringBuilder          notation;
+        final DiceNotationExpression parsed;
+        final RollHistory            history;
+
+        notation = new StringBuilder("1d1");
+        for (Integer i = 0; i < 5000; i++) {
+            notation.append("+1d1-1");
+        }
+
+        parsed = flattened.parse(notation.toString());
+        history = new DiceRoller().transform(parsed);
+
+        Assertions.assertThat(parsed.getExpression())
+            .isEqualTo(notation.toString());
+        Assertions.assertThat(history.getTotalRoll())
+            .isEqualTo(1);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d6-2+3-1d4", "2*3*1d6/2", "(1d6+2)*3-4-1d8", "1d20-(2+3)-4", "5-1d6-2d4+-3",
+            "1d20-2*3*1d4+7" })
+    @DisplayName("An extended notation rolls the same history")
+    public final void testRoll_Extended(final String notation) {
+        assertSameHistory(notation);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation rolls the same history")
+    public final void testRoll_Notation(final String notation) {
+        assertSameHistory(notation);
+    }
+
+    @Test
+    @DisplayName("A visitor without support for n-ary operations visits the equivalent binary operations")
+    public final void testVisit_WithoutNary() {
+        final Collection<String> visited;
+        final NotationVisitor    visitor;
+
+        visited = new ArrayList<>();
+        visitor = new NotationVisitor() {
+
+            @Override
+            public final void binaryOperation(final BinaryOperation exp) {
+                visited.add(exp.getExpression());
+            }
+
+            @Override
+            public final void constantOperand(final ConstantOperand exp) {}
+
+            @Override
+            public final void diceOperand(final DiceOperand exp) {}
+
+        };
+
+        visitor.naryOperation((NaryOperation) flattened.parse("1d6+2-3"));
+
+        Assertions.assertThat(visited)
+            .containsExactly("1d6+2", "1d6+2-3");
+    }
+
+    private final void assertSameHistory(final String notation) {
+        final RollHistory expected;
+        final RollHistory result;
+
+        expected = new DiceRoller(getGenerator()).transform(binary.parse(notation));
+        result = new DiceRoller(getGenerator()).transform(flattened.parse(notation));
+
+        Assertions.assertThat(result.getTotalRoll())
+            .isEqualTo(expected.getTotalRoll());
+        Assertions.assertThat(result)
+            .hasToString(expected.toString());
+        Assertions.assertThat(result.getRollResults())
+            .containsExactlyElementsOf(expected.getRollResults());
+    }
+
+    private final NotationAccumulator<Integer> getAccumulator() {
+        final Stack<Integer> values;
+
+        values = new Stack<>();
+
+        // Takes the highest value for the dice, and only supports binary operations
+        return new NotationAccumulator<Integer>() {
+
+            @Override
+            public final void binaryOperation(final BinaryOperation exp) {
+                final Integer right;
+                final Integer left;
+
+                right = values.pop();
+                left = values.pop();
+                values.push(exp.getOperation()
+                    .apply(left, right));
+            }
+
+            @Override
+            public final void constantOperand(final ConstantOperand exp) {
+                values.push(exp.getValue());
+            }
+
+            @Override
+            public final void diceOperand(final DiceOperand exp) {
+                values.push(exp.getDice()
+                    .getQuantity()
+                        * exp.getDice()
+                            .getSides());
+            }
+
+            @Override
+            public final Integer getValue() {
+                return values.pop();
+            }
+
+            @Override
+            public final void reset() {
+                values.clear();
+            }
+
+        };
+    }
+
+    private final NumberGenerator getGenerator() {
+        final Random random;
+
+        // Fixed seed, so both expressions get the same rolls
+        random = new Random(20231017L);
+
+        return new AbstractNumberGenerator() {
+
+            @Override
+            public final Integer generate(final Integer max) {
+                return random.nextInt(max) + 1;
+            }
+
+        };
+    }
+
+    private final NotationAccumulator<Integer> getRecordingAccumulator(final Collection<String> visited,
+            final boolean nary) {
+        // Records the operations received
+        return new NotationAccumulator<Integer>() {
+
+            @Override
+            public final void binaryOperation(final BinaryOperation exp) {
+                visited.add(exp.getExpression());
+            }
+
+            @Override
+            public final void constantOperand(final ConstantOperand exp) {}
+
+            @Override
+            public final void diceOperand(final DiceOperand exp) {}
+
+            @Override
+            public final Integer getValue() {
+                return 0;
+            }
+
+            @Override
+            public final void naryOperation(final NaryOperation exp) {
+                visited.add(exp.getExpression());
+            }
+
+            @Override
+            public final void reset() {}
+
+            @Override
+            public final boolean supportsNaryOperations() {
+                return nary;
+            }
+
+        };
+    }
+
+}
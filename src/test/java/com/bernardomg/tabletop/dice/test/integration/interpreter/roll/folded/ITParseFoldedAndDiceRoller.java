@@ -0,0 +1,105 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.integration.interpreter.roll.folded;
+
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.history.RollHistory;
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+import com.bernardomg.tabletop.dice.random.AbstractNumberGenerator;
+import com.bernardomg.tabletop.dice.random.NumberGenerator;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("Folded expressions roll the same history as unfolded ones")
+public final class ITParseFoldedAndDiceRoller {
+
+    private final DiceParser folded          = new DefaultDiceParser(() -> new DefaultDiceExpressionBuilder(true));
+
+    private final DiceParser foldedFlattened = new DefaultDiceParser(
+        () -> new DefaultDiceExpressionBuilder(true, true));
+
+    private final DiceParser unfolded        = new DefaultDiceParser();
+
+    public ITParseFoldedAndDiceRoller() {
+        super();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d20-2*3", "1d20-(2+3)-4", "2*3*1d6-(4-1)", "1d20+2+3*4", "(1+2)*3-8/2", "5-1d6-2*2",
+            "1d6-2*3*4-5", "1d20-10/2+1d4", "1d8-(1-2)*3" })
+    @DisplayName("An extended notation rolls the same history")
+    public final void testRoll_Extended(final String notation) {
+        assertSameHistory(folded, notation);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d20-2*3", "1d20-(2+3)-4", "2*3*1d6-(4-1)", "1d20+2+3*4", "(1+2)*3-8/2", "5-1d6-2*2",
+            "1d6-2*3*4-5", "1d20-10/2+1d4", "1d8-(1-2)*3" })
+    @DisplayName("An extended notation rolls the same history when flattened")
+    public final void testRoll_Extended_Flattened(final String notation) {
+        assertSameHistory(foldedFlattened, notation);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation rolls the same history")
+    public final void testRoll_Notation(final String notation) {
+        assertSameHistory(folded, notation);
+    }
+
+    private final void assertSameHistory(final DiceParser parser, final String notation) {
+        final RollHistory expected;
+        final RollHistory result;
+
+        expected = new DiceRoller(getGenerator()).transform(unfolded.parse(notation));
+        result = new DiceRoller(getGenerator()).transform(parser.parse(notation));
+
+        Assertions.assertThat(result.getTotalRoll())
+            .isEqualTo(expected.getTotalRoll());
+        Assertions.assertThat(result)
+            .hasToString(expected.toString());
+        Assertions.assertThat(result.getRollResults())
+            .containsExactlyElementsOf(expected.getRollResults());
+    }
+
+    private final NumberGenerator getGenerator() {
+        final Random random;
+
+        // Fixed seed, so both expressions get the same rolls
+        random = new Random(20231017L);
+
+        return new AbstractNumberGenerator() {
+
+            @Override
+            public final Integer generate(final Integer max) {
+                return random.nextInt(max) + 1;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.integration.interpreter.roll.postfix;
+
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.history.RollHistory;
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.interpreter.PostfixRoller;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+import com.bernardomg.tabletop.dice.random.AbstractNumberGenerator;
+import com.bernardomg.tabletop.dice.random.NumberGenerator;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("Postfix programs are rolled in the same way as trees")
+public final class ITParsePostfixAndRoll {
+
+    private final RecursiveDescentDiceParser parser = new RecursiveDescentDiceParser();
+
+    public ITParsePostfixAndRoll() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Dividing by zero throws an exception")
+    public final void testRoll_DivisionByZero() {
+        Assertions.assertThatThrownBy(() -> new PostfixRoller().roll(parser.parsePostfix("1d6/0")))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d6-2+3-1d4", "2*3*1d6/2", "(1d6+2)*3-4-1d8", "1d20-(2+3)-4", "5-1d6-2d4+-3",
+            "1d20-2*3*1d4+7", "4d6kh3-2" })
+    @DisplayName("A flattened tree rolls the same history")
+    public final void testRoll_Flattened(final String notation) {
+        final DiceParser  flattened;
+        final RollHistory expected;
+        final RollHistory result;
+
+        flattened = new DefaultDiceParser(() -> new DefaultDiceExpressionBuilder(false, true));
+
+        expected = new DiceRoller(getGenerator()).transform(flattened.parse(notation));
+        result = new PostfixRoller(getGenerator()).transform(flattened.parse(notation));
+
+        assertSameHistory(result, expected);
+    }
+
+    @Test
+    @DisplayName("A long chain is parsed and rolled")
+    public final void testRoll_LongChain() {
+        final StringBuilder notation;
+        final RollHistory   history;
+
+        notation = new StringBuilder("1d1");
+        for (Integer i = 0; i < 5000; i++) {
+            notation.append("+1d1-1");
+        }
+
+        history = new PostfixRoller().roll(parser.parsePostfix(notation.toString()));
+
+        Assertions.assertThat(history.getTotalRoll())
+            .isEqualTo(1);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation rolls the same history")
+    public final void testRoll_Notation(final String notation) {
+        final RollHistory expected;
+        final RollHistory result;
+
+        expected = new DiceRoller(getGenerator()).transform(parser.parse(notation));
+        result = new PostfixRoller(getGenerator()).roll(parser.parsePostfix(notation));
+
+        assertSameHistory(result, expected);
+    }
+
+    private final void assertSameHistory(final RollHistory result, final RollHistory expected) {
+        Assertions.assertThat(result.getTotalRoll())
+            .isEqualTo(expected.getTotalRoll());
+        Assertions.assertThat(result)
+            .hasToString(expected.toString());
+        Assertions.assertThat(result.getRollResults())
+            .containsExactlyElementsOf(expected.getRollResults());
+    }
+
+    private final NumberGenerator getGenerator() {
+        final Random random;
+
+        // Fixed seed, so both interpreters get the same rolls
+        random = new Random(20231017L);
+
+        return new AbstractNumberGenerator() {
+
+            @Override
+            public final Integer generate(final Integer max) {
+                return random.nextInt(max) + 1;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.interpreter.roll.value;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+import com.bernardomg.tabletop.dice.test.argument.NotationAndRollResultArgumentsProvider;
+
+@DisplayName("DiceRoller returns the expected total roll for folded expressions")
+public final class ITParseFoldedAndDiceRollerTotalRoll {
+
+    public ITParseFoldedAndDiceRollerTotalRoll() {
+        super();
+    }
+
+    @ParameterizedTest(name = "{0} = {1}")
+    @ArgumentsSource(NotationAndRollResultArgumentsProvider.class)
+    @DisplayName("The folded notation parses into the expected value")
+    public final void testParse_Value(final String notation, final Number expected) {
+        final DiceNotationExpression parsed; // Parsed expression
+        final Integer                result; // Resulting value
+
+        parsed = new DefaultDiceParser(() -> new DefaultDiceExpressionBuilder(true)).parse(notation);
+
+        result = new DiceRoller().transform(parsed)
+            .getTotalRoll();
+
+        Assertions.assertThat(result)
+            .isEqualTo(expected);
+    }
+
+}
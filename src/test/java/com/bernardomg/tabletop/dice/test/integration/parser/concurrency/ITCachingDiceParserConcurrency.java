@@ -0,0 +1,83 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.integration.parser.concurrency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.parser.CachingDiceParser;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+
+@DisplayName("CachingDiceParser can be shared between threads")
+public final class ITCachingDiceParserConcurrency {
+
+    public ITCachingDiceParserConcurrency() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Clearing while other threads store entries keeps the cache bounded")
+    public final void testClear_Concurrent() throws Exception {
+        final CachingDiceParser     parser;
+        final ExecutorService       executor;
+        final Collection<Future<?>> futures;
+        final Integer               maxSize;
+
+        maxSize = 8;
+        parser = new CachingDiceParser(new RecursiveDescentDiceParser(), maxSize);
+
+        executor = Executors.newFixedThreadPool(4);
+        futures = new ArrayList<>();
+        try {
+            for (Integer t = 0; t < 3; t++) {
+                final Integer thread = t;
+                futures.add(executor.submit(() -> {
+                    for (Integer i = 0; i < 5000; i++) {
+                        parser.parse(thread + "d" + i);
+                    }
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                for (Integer i = 0; i < 5000; i++) {
+                    parser.clear();
+                }
+            }));
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Any entry missing from the clock would never be evicted
+        for (Integer i = 0; i < (maxSize * 4); i++) {
+            parser.parse("1d" + (i + 1));
+        }
+
+        Assertions.assertThat(parser.getSize())
+            .isLessThanOrEqualTo(maxSize);
+    }
+
+}
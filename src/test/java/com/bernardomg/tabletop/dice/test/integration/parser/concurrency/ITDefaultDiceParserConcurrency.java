@@ -0,0 +1,182 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.concurrency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.PredictionStrategy;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+
+@DisplayName("DefaultDiceParser can be reused")
+public final class ITDefaultDiceParserConcurrency {
+
+    public ITDefaultDiceParserConcurrency() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The parser can be used again after an error")
+    public final void testParse_AfterError() {
+        final DiceParser             parser;
+        final ThrowingCallable       closure;
+        final DiceNotationExpression parsed;
+
+        parser = new DefaultDiceParser();
+
+        closure = () -> parser.parse("1d6+(");
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(Exception.class);
+
+        parsed = parser.parse("1+2");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2)));
+    }
+
+    @Test
+    @DisplayName("The parser can be used again after an error, with SLL prediction first")
+    public final void testParse_AfterError_SllFirst() {
+        final DiceParser             parser;
+        final ThrowingCallable       closure;
+        final DiceNotationExpression parsed;
+
+        parser = new DefaultDiceParser(PredictionStrategy.SLL_FIRST);
+
+        closure = () -> parser.parse("1d6+(");
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(Exception.class);
+
+        parsed = parser.parse("1+2");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2)));
+    }
+
+    @Test
+    @DisplayName("The parser can be used from its own error listener")
+    public final void testParse_Reentrant() {
+        final DiceParser                              parser;
+        final AtomicReference<DiceParser>             parserRef;
+        final AtomicReference<DiceNotationExpression> nested;
+        final ThrowingCallable                        closure;
+
+        parserRef = new AtomicReference<>();
+        nested = new AtomicReference<>();
+        parser = new DefaultDiceParser(DefaultDiceExpressionBuilder::new, new BaseErrorListener() {
+
+            @Override
+            public final void syntaxError(final Recognizer<?, ?> recognizer, final Object offendingSymbol,
+                    final int line, final int charPositionInLine, final String msg, final RecognitionException e) {
+                nested.set(parserRef.get()
+                    .parse("5"));
+                throw new IllegalStateException(msg);
+            }
+
+        });
+        parserRef.set(parser);
+
+        closure = () -> parser.parse("1d6)");
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(IllegalStateException.class);
+
+        Assertions.assertThat(nested.get())
+            .isEqualTo(new IntegerOperand(5));
+        Assertions.assertThat(parser.parse("7"))
+            .isEqualTo(new IntegerOperand(7));
+    }
+
+    @Test
+    @DisplayName("A reused builder returns the last parsed expression")
+    public final void testParse_ReusedBuilder() {
+        final DiceParser             parser;
+        final DiceNotationExpression parsed;
+
+        parser = new DefaultDiceParser(new DefaultDiceExpressionBuilder());
+
+        parser.parse("1d20+2d6");
+        parser.parse("(1+2)*3");
+        parsed = parser.parse("5");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new IntegerOperand(5));
+    }
+
+    @Test
+    @DisplayName("A shared parser returns the expected expressions when used by several threads")
+    public final void testParse_SharedParser() throws Exception {
+        final DiceParser                       parser;
+        final ExecutorService                  executor;
+        final Collection<Future<List<String>>> futures;
+        final List<String>                     notations;
+        final List<String>                     expected;
+
+        parser = new DefaultDiceParser();
+        notations = List.of("1d20+2d6", "5+2d6", "1d20-5*1d8+2d6/3d12", "1+2-3", "(1+2)*3", "4d6kh3");
+
+        expected = new ArrayList<>();
+        for (Integer j = 0; j < 200; j++) {
+            expected.addAll(List.of("1d20+2d6", "5+2d6", "1d20-5*1d8+2d6/3d12", "1+2-3", "1+2*3", "4d6"));
+        }
+
+        executor = Executors.newFixedThreadPool(4);
+        futures = new ArrayList<>();
+        try {
+            for (Integer i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    final List<String> parsed;
+
+                    parsed = new ArrayList<>();
+                    for (Integer j = 0; j < 200; j++) {
+                        for (final String notation : notations) {
+                            parsed.add(parser.parse(notation)
+                                .getExpression());
+                        }
+                    }
+
+                    return parsed;
+                }));
+            }
+
+            for (final Future<List<String>> future : futures) {
+                Assertions.assertThat(future.get())
+                    .isEqualTo(expected);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.conformance;
+
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.PredictionStrategy;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("DefaultDiceParser returns the same expressions with SLL prediction first")
+public final class ITDefaultDiceParserSllFirstConformance {
+
+    private final DiceParser reference = new DefaultDiceParser();
+
+    private final DiceParser tested    = new DefaultDiceParser(PredictionStrategy.SLL_FIRST);
+
+    public ITDefaultDiceParserSllFirstConformance() {
+        super();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "4d6kh3", "4d6dl1", "d6kh1", "-d6", "-2d6", "2*-3", "1d6+-2", "1--5", "-5*2", "(1d6)",
+            "((1+2))*3", "(1d6+2)/(3-1d4)", "1\td6", "\t1d6\n" })
+    @DisplayName("An extended notation returns the same expression")
+    public final void testParse_Extended(final String notation) {
+        Assertions.assertThat(tested.parse(notation))
+            .isEqualTo(reference.parse(notation));
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "", "abc", "6d6y", "1d6)", "2(3)", "--5", "-(1)", "1 + 2", "1d6d6", "(1", "1+",
+            "2147483648" })
+    @DisplayName("An invalid notation is rejected by both parsers")
+    public final void testParse_Invalid(final String notation) {
+        Assertions.assertThat(parse(tested, notation))
+            .isEqualTo(parse(reference, notation))
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Errors are reported with the error listener")
+    public final void testParse_InvalidMessage() {
+        final ThrowingCallable closure;
+
+        closure = () -> tested.parse("1d6)");
+
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageStartingWith("Failed to parse at line 1 on char 4");
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation returns the same expression")
+    public final void testParse_Notation(final String notation) {
+        Assertions.assertThat(tested.parse(notation))
+            .isEqualTo(reference.parse(notation));
+    }
+
+    private final Optional<DiceNotationExpression> parse(final DiceParser parser, final String notation) {
+        Optional<DiceNotationExpression> parsed;
+
+        try {
+            parsed = Optional.of(parser.parse(notation));
+        } catch (final RuntimeException e) {
+            parsed = Optional.empty();
+        }
+
+        return parsed;
+    }
+
+}
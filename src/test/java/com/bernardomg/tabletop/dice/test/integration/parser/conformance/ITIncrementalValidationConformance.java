@@ -0,0 +1,160 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.integration.parser.conformance;
+
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import com.bernardomg.tabletop.dice.parser.IncrementalValidation;
+import com.bernardomg.tabletop.dice.parser.NotationValidator;
+import com.bernardomg.tabletop.dice.parser.ParseLimits;
+import com.bernardomg.tabletop.dice.parser.ValidationResult;
+import com.bernardomg.tabletop.dice.parser.ValidationStatus;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("Incremental validation agrees with the validator on each prefix")
+public final class ITIncrementalValidationConformance {
+
+    private final NotationValidator validator = new NotationValidator();
+
+    public ITIncrementalValidationConformance() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Random notations are validated in the same way on each prefix")
+    public final void testAppend_Random() {
+        final Random          random;
+        final String          alphabet;
+        StringBuilder         notation;
+        IncrementalValidation incremental;
+        Integer               length;
+
+        // Fixed seed, so failures can be reproduced
+        random = new Random(20231019L);
+        alphabet = "0123456789012345dddDkkhl+-*/()\t x";
+
+        for (Integer i = 0; i < 2000; i++) {
+            notation = new StringBuilder();
+            incremental = new IncrementalValidation();
+            length = 1 + random.nextInt(12);
+            for (Integer j = 0; j < length; j++) {
+                notation.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                incremental = incremental.append(notation.charAt(j));
+
+                assertConforms(notation, incremental, validator.validate(notation));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Random notations over the limits are rejected")
+    public final void testAppend_RandomLimits() {
+        final NotationValidator limited;
+        final ParseLimits       limits;
+        final Random            random;
+        final String            alphabet;
+        StringBuilder           notation;
+        IncrementalValidation   incremental;
+        Integer                 length;
+
+        limits = ParseLimits.builder()
+            .maxDepth(2)
+            .maxDice(10)
+            .maxLength(10)
+            .maxNodes(4)
+            .maxSides(20)
+            .build();
+        limited = new NotationValidator(limits);
+
+        // Fixed seed, so failures can be reproduced
+        random = new Random(20231020L);
+        alphabet = "0123456789dD+-*()";
+
+        for (Integer i = 0; i < 2000; i++) {
+            notation = new StringBuilder();
+            incremental = new IncrementalValidation(limits);
+            length = 1 + random.nextInt(12);
+            for (Integer j = 0; j < length; j++) {
+                notation.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                incremental = incremental.append(notation.charAt(j));
+
+                if (ValidationStatus.VALID.equals(incremental.getStatus())) {
+                    Assertions.assertThat(limited.validate(notation)
+                        .isValid())
+                        .as(notation.toString())
+                        .isTrue();
+                } else {
+                    Assertions.assertThat(limited.validate(notation)
+                        .isValid())
+                        .as(notation.toString())
+                        .isFalse();
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("Each prefix of a valid notation is valid, or the start of a valid one")
+    public final void testAppend_ValidNotation(final String notation) {
+        IncrementalValidation incremental;
+
+        incremental = new IncrementalValidation();
+        for (Integer i = 0; i < notation.length(); i++) {
+            incremental = incremental.append(notation.charAt(i));
+
+            Assertions.assertThat(incremental.getStatus())
+                .as(notation.substring(0, i + 1))
+                .isNotEqualTo(ValidationStatus.INVALID);
+        }
+
+        Assertions.assertThat(incremental.getStatus())
+            .isEqualTo(ValidationStatus.VALID);
+    }
+
+    private final void assertConforms(final CharSequence notation, final IncrementalValidation incremental,
+            final ValidationResult expected) {
+        switch (incremental.getStatus()) {
+            case VALID:
+                Assertions.assertThat(expected.isValid())
+                    .as(notation.toString())
+                    .isTrue();
+                break;
+            case VALID_PREFIX:
+                Assertions.assertThat(expected.isValid())
+                    .as(notation.toString())
+                    .isFalse();
+                break;
+            case INVALID:
+            default:
+                Assertions.assertThat(incremental.getErrorCode())
+                    .as(notation.toString())
+                    .isEqualTo(expected.getErrorCode());
+                Assertions.assertThat(incremental.getErrorPosition())
+                    .as(notation.toString())
+                    .isEqualTo(expected.getErrorPosition());
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.conformance;
+
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.ParseResult;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+import com.bernardomg.tabletop.dice.parser.ValidationResult;
+
+@DisplayName("DiceParser validation returns the same errors as parsing")
+public final class ITNotationValidatorConformance {
+
+    private final DiceParser antlr     = new DefaultDiceParser();
+
+    private final DiceParser reference = new RecursiveDescentDiceParser();
+
+    public ITNotationValidatorConformance() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Random notations are validated in the same way they are parsed")
+    public final void testValidate_Random() {
+        final Random     random;
+        final String     alphabet;
+        StringBuilder    notation;
+        Integer          length;
+        ValidationResult validation;
+        ParseResult      parsed;
+
+        // Fixed seed, so failures can be reproduced
+        random = new Random(20231018L);
+        alphabet = "0123456789012345dddDkkhl+-*/()\t x";
+
+        for (Integer i = 0; i < 2000; i++) {
+            notation = new StringBuilder();
+            length = 1 + random.nextInt(12);
+            for (Integer j = 0; j < length; j++) {
+                notation.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            validation = reference.validate(notation);
+            parsed = reference.tryParse(notation.toString());
+
+            Assertions.assertThat(validation.isValid())
+                .as(notation.toString())
+                .isEqualTo(parsed.isValid())
+                .isEqualTo(antlr.tryParse(notation.toString())
+                    .isValid());
+            Assertions.assertThat(validation.getErrorCode())
+                .as(notation.toString())
+                .isEqualTo(parsed.getErrorCode());
+            Assertions.assertThat(validation.getErrorPosition())
+                .as(notation.toString())
+                .isEqualTo(parsed.getErrorPosition());
+        }
+    }
+
+}
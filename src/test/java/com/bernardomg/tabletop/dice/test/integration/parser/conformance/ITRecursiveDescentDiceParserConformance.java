@@ -0,0 +1,122 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.conformance;
+
+import java.util.Optional;
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+import com.bernardomg.tabletop.dice.test.argument.InvalidNotationArgumentsProvider;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("RecursiveDescentDiceParser returns the same expressions as DefaultDiceParser")
+public final class ITRecursiveDescentDiceParserConformance {
+
+    private final DiceParser reference = new DefaultDiceParser();
+
+    private final DiceParser tested    = new RecursiveDescentDiceParser();
+
+    public ITRecursiveDescentDiceParserConformance() {
+        super();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "4d6kh3", "4d6kl1", "4d6dh1", "4d6dl1", "d6kh1", "-4d6kh3", "-d6", "+d6", "-2d6", "+2d6",
+            "1D6", "2*-3", "1d6+-2", "1--5", "-5*2", "(1d6)", "((1+2))*3", "(1d6+2)/(3-1d4)", "1\td6", "1d6\t+\r\n2",
+            "\t1d6\n", "4d6\tkh\t3", "-\t5", "0d0", "2147483647", "-2147483648", "1d20-5*1d8+2d6/3d12" })
+    @DisplayName("An extended notation returns the same expression")
+    public final void testParse_Extended(final String notation) {
+        Assertions.assertThat(tested.parse(notation))
+            .isEqualTo(reference.parse(notation));
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(InvalidNotationArgumentsProvider.class)
+    @DisplayName("An invalid notation is rejected by both parsers")
+    public final void testParse_Invalid(final String notation) {
+        Assertions.assertThat(parse(tested, notation))
+            .isEqualTo(parse(reference, notation))
+            .isEmpty();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d6)", "2(3)", "1\t2", "1d6k3", "1d6+2(", "--5", "-(1)", "1 + 2", "1d6d6", "1dh6",
+            "1d6kh", "4d6Kh3", "1d", "d", "()", "(1", "1+", "*2", "2147483648", "-2147483649", "1d2147483648",
+            "2147483648d6", "4d6kh2147483648" })
+    @DisplayName("A malformed notation is rejected by both parsers")
+    public final void testParse_Malformed(final String notation) {
+        Assertions.assertThat(parse(tested, notation))
+            .isEqualTo(parse(reference, notation))
+            .isEmpty();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation returns the same expression")
+    public final void testParse_Notation(final String notation) {
+        Assertions.assertThat(tested.parse(notation))
+            .isEqualTo(reference.parse(notation));
+    }
+
+    @Test
+    @DisplayName("Random notations are parsed in the same way")
+    public final void testParse_Random() {
+        final Random  random;
+        final String  alphabet;
+        StringBuilder notation;
+        Integer       length;
+
+        // Fixed seed, so failures can be reproduced
+        random = new Random(20231017L);
+        alphabet = "0123456789012345dddDkkhl+-*/()\t";
+
+        for (Integer i = 0; i < 1000; i++) {
+            notation = new StringBuilder();
+            length = 1 + random.nextInt(10);
+            for (Integer j = 0; j < length; j++) {
+                notation.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            Assertions.assertThat(parse(tested, notation.toString()))
+                .as(notation.toString())
+                .isEqualTo(parse(reference, notation.toString()));
+        }
+    }
+
+    private final Optional<DiceNotationExpression> parse(final DiceParser parser, final String notation) {
+        Optional<DiceNotationExpression> parsed;
+
+        try {
+            parsed = Optional.of(parser.parse(notation));
+        } catch (final RuntimeException e) {
+            parsed = Optional.empty();
+        }
+
+        return parsed;
+    }
+
+}
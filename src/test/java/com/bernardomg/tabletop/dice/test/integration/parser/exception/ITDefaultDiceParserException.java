@@ -21,6 +21,7 @@
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
 import com.bernardomg.tabletop.dice.test.argument.InvalidNotationArgumentsProvider;
@@ -44,4 +45,16 @@ public final void testParse(final String notation) {
             .isInstanceOf(Exception.class);
     }
 
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d6)", "1d6k3", "1d20+5)", "(1d6))" })
+    @DisplayName("A notation followed by input which can't be parsed causes an exception")
+    public final void testParse_TrailingInput(final String notation) {
+        final ThrowingCallable closure;
+
+        closure = () -> new DefaultDiceParser().parse(notation);
+
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(IllegalStateException.class);
+    }
+
 }
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.input;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import com.bernardomg.tabletop.dice.parser.CachingDiceParser;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.PredictionStrategy;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("Dice parsers read expressions from text and bytes")
+public final class ITDiceParserInput {
+
+    private final List<DiceParser> parsers = List.of(new DefaultDiceParser(),
+        new DefaultDiceParser(PredictionStrategy.SLL_FIRST), new RecursiveDescentDiceParser(),
+        new CachingDiceParser(new RecursiveDescentDiceParser()));
+
+    public ITDiceParserInput() {
+        super();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation in a buffer returns the same expression as in a string")
+    public final void testParse_Buffer(final String notation) {
+        final ByteBuffer buffer;
+
+        buffer = ByteBuffer.allocateDirect(64);
+        buffer.put(("  " + notation + "  ").getBytes(StandardCharsets.US_ASCII));
+        buffer.position(2);
+        buffer.limit(2 + notation.length());
+
+        for (final DiceParser parser : parsers) {
+            Assertions.assertThat(parser.parse(buffer))
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(parser.parse(notation));
+            Assertions.assertThat(buffer.position())
+                .isEqualTo(2);
+        }
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation in a byte array returns the same expression as in a string")
+    public final void testParse_Bytes(final String notation) {
+        final byte[] bytes;
+
+        bytes = ("xx" + notation + "yy").getBytes(StandardCharsets.US_ASCII);
+
+        for (final DiceParser parser : parsers) {
+            Assertions.assertThat(parser.parse(bytes, 2, notation.length()))
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(parser.parse(notation));
+        }
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation in a char sequence returns the same expression as in a string")
+    public final void testParse_CharSequence(final String notation) {
+        final CharSequence sequence;
+
+        sequence = new StringBuilder(notation);
+
+        for (final DiceParser parser : parsers) {
+            Assertions.assertThat(parser.parse(sequence))
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(parser.parse(notation));
+        }
+    }
+
+    @Test
+    @DisplayName("An invalid notation in bytes causes an exception")
+    public final void testParse_Invalid() {
+        final byte[]     bytes;
+        ThrowingCallable closure;
+
+        bytes = "1d6)".getBytes(StandardCharsets.US_ASCII);
+
+        for (final DiceParser parser : parsers) {
+            closure = () -> parser.parse(bytes, 0, bytes.length);
+
+            Assertions.assertThatThrownBy(closure)
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Failed to parse at line 1 on char 4");
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.limits;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.parser.CachingDiceParser;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.ParseErrorCode;
+import com.bernardomg.tabletop.dice.parser.ParseLimits;
+import com.bernardomg.tabletop.dice.parser.ParseResult;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+import com.bernardomg.tabletop.dice.parser.ValidationResult;
+
+@DisplayName("Dice parsers reject expressions over the limits")
+public final class ITDiceParserLimits {
+
+    private final ParseLimits      limits  = ParseLimits.builder()
+        .maxLength(200000)
+        .maxDepth(64)
+        .maxDice(1000)
+        .maxSides(1000)
+        .build();
+
+    private final List<DiceParser> parsers = List.of(new DefaultDiceParser(limits),
+        new RecursiveDescentDiceParser(limits), new CachingDiceParser(new RecursiveDescentDiceParser(limits)));
+
+    public ITDiceParserLimits() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Deeply nested parenthesis are rejected")
+    public final void testParse_Depth() {
+        final String     notation;
+        ThrowingCallable closure;
+
+        notation = "(".repeat(50000) + "1" + ")".repeat(50000);
+
+        for (final DiceParser parser : parsers) {
+            closure = () -> parser.parse(notation);
+
+            Assertions.assertThatThrownBy(closure)
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(ParseErrorCode.DEPTH_LIMIT_EXCEEDED.getDescription());
+        }
+    }
+
+    @Test
+    @DisplayName("Too many dice are rejected")
+    public final void testParse_Dice() {
+        ThrowingCallable closure;
+
+        for (final DiceParser parser : parsers) {
+            closure = () -> parser.parse("999999999d999999999");
+
+            Assertions.assertThatThrownBy(closure)
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Failed to parse at line 1 on char 1 due to dice limit exceeded");
+        }
+    }
+
+    @Test
+    @DisplayName("Expressions inside the limits are parsed")
+    public final void testParse_WithinLimits() {
+        for (final DiceParser parser : parsers) {
+            Assertions.assertThat(parser.parse("((4d6kh3+2))*1d1000"))
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(new DefaultDiceParser().parse("((4d6kh3+2))*1d1000"));
+        }
+    }
+
+    @Test
+    @DisplayName("Trying to parse an expression over the limits returns the error")
+    public final void testTryParse_Sides() {
+        ParseResult result;
+
+        for (final DiceParser parser : parsers) {
+            result = parser.tryParse("1d6+2d1001");
+
+            Assertions.assertThat(result.getErrorCode())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(ParseErrorCode.SIDES_LIMIT_EXCEEDED);
+            Assertions.assertThat(result.getErrorPosition())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(6);
+        }
+    }
+
+    @Test
+    @DisplayName("Validating an expression over the limits returns the same error as trying to parse it")
+    public final void testValidate_Dice() {
+        ValidationResult result;
+
+        for (final DiceParser parser : parsers) {
+            result = parser.validate("1d6+1001d6");
+
+            Assertions.assertThat(result.isValid())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isFalse();
+            Assertions.assertThat(result.getErrorCode())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(ParseErrorCode.DICE_LIMIT_EXCEEDED)
+                .isEqualTo(parser.tryParse("1d6+1001d6")
+                    .getErrorCode());
+            Assertions.assertThat(result.getErrorPosition())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(parser.tryParse("1d6+1001d6")
+                    .getErrorPosition());
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.integration.parser.postfix;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+import com.bernardomg.tabletop.dice.test.argument.InvalidNotationArgumentsProvider;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("RecursiveDescentDiceParser parses postfix programs which match the parsed trees")
+public final class ITRecursiveDescentDiceParserPostfix {
+
+    private final RecursiveDescentDiceParser parser = new RecursiveDescentDiceParser();
+
+    public ITRecursiveDescentDiceParserPostfix() {
+        super();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d6-2+3-1d4", "2*3*1d6/2", "(1d6+2)*3-4-1d8", "1d20-(2+3)-4", "5-1d6-2d4+-3",
+            "1d20-2*3*1d4+7", "4d6kh3+2" })
+    @DisplayName("A flattened tree is converted back to the same tree")
+    public final void testConvert_Flattened(final String notation) {
+        final DiceParser             flattened;
+        final DiceNotationExpression expected;
+
+        flattened = new DefaultDiceParser(() -> new DefaultDiceExpressionBuilder(false, true));
+        expected = flattened.parse(notation);
+
+        Assertions.assertThat(PostfixNotation.fromExpression(expected)
+            .toExpression())
+            .isEqualTo(expected);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation is converted back to the same tree")
+    public final void testConvert_Notation(final String notation) {
+        final DiceNotationExpression expected;
+
+        expected = parser.parse(notation);
+
+        Assertions.assertThat(parser.parsePostfix(notation)
+            .toExpression())
+            .isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("A long chain is parsed and converted back")
+    public final void testParse_LongChain() {
+        final StringBuilder   notation;
+        final PostfixNotation program;
+
+        notation = new StringBuilder("1d6");
+        for (Integer i = 0; i < 5000; i++) {
+            notation.append("+1d6-1");
+        }
+
+        program = parser.parsePostfix(notation.toString());
+
+        Assertions.assertThat(program.getDepth())
+            .isEqualTo(2);
+        Assertions.assertThat(program.toExpression()
+            .getExpression())
+            .isEqualTo(notation.toString());
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(InvalidNotationArgumentsProvider.class)
+    @DisplayName("An invalid notation is rejected")
+    public final void testParse_Invalid(final String notation) {
+        Assertions.assertThatThrownBy(() -> parser.parsePostfix(notation))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage(parser.tryParse(notation)
+                .getMessage());
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation returns the same program as the converted tree")
+    public final void testParse_Notation(final String notation) {
+        Assertions.assertThat(parser.parsePostfix(notation))
+            .isEqualTo(PostfixNotation.fromExpression(parser.parse(notation)));
+    }
+
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.result;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.bernardomg.tabletop.dice.parser.AsciiCharSequence;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.ParseErrorCode;
+import com.bernardomg.tabletop.dice.parser.ParseResult;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("Dice parsers return parse results")
+public final class ITDiceParserTryParse {
+
+    private final List<DiceParser> parsers = List.of(new DefaultDiceParser(), new RecursiveDescentDiceParser());
+
+    public ITDiceParserTryParse() {
+        super();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @CsvSource({ "'', UNEXPECTED_END, 0", "1d6), UNEXPECTED_INPUT, 3", "1d6+, UNEXPECTED_END, 4",
+            "1 + 2, INVALID_CHARACTER, 1", "abc, INVALID_CHARACTER, 0", "--5, UNEXPECTED_INPUT, 1",
+            "6d6y, INVALID_CHARACTER, 3", "(1+2, UNEXPECTED_END, 4" })
+    @DisplayName("An invalid notation returns the error code and position")
+    public final void testTryParse_Invalid(final String notation, final ParseErrorCode code, final Integer position) {
+        ParseResult result;
+
+        for (final DiceParser parser : parsers) {
+            result = parser.tryParse(notation);
+
+            Assertions.assertThat(result.isValid())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isFalse();
+            Assertions.assertThat(result.getErrorCode())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(code);
+            Assertions.assertThat(result.getErrorPosition())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(position);
+            Assertions.assertThat(result.getExpression())
+                .isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("A number too big is rejected")
+    public final void testTryParse_OutOfRange() {
+        ParseResult result;
+
+        for (final DiceParser parser : parsers) {
+            result = parser.tryParse("1+2147483648");
+
+            Assertions.assertThat(result.getErrorCode())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(ParseErrorCode.NUMBER_OUT_OF_RANGE);
+        }
+    }
+
+    @Test
+    @DisplayName("The error listener is not called")
+    public final void testTryParse_Quiet() {
+        final DiceParser  parser;
+        final ParseResult result;
+
+        parser = new DefaultDiceParser(DefaultDiceExpressionBuilder::new, new BaseErrorListener() {
+
+            @Override
+            public final void syntaxError(final Recognizer<?, ?> recognizer, final Object offendingSymbol,
+                    final int line, final int charPositionInLine, final String msg, final RecognitionException e) {
+                throw new IllegalStateException(msg);
+            }
+
+        });
+
+        result = parser.tryParse("1d6+(");
+
+        Assertions.assertThat(result.getErrorCode())
+            .isEqualTo(ParseErrorCode.UNEXPECTED_END);
+        Assertions.assertThat(parser.parse("1d6"))
+            .isEqualTo(parser.tryParse("1d6")
+                .getExpression());
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @CsvSource({ "1d6), UNEXPECTED_INPUT, 3", "1d6+, UNEXPECTED_END, 4", "abc, INVALID_CHARACTER, 0" })
+    @DisplayName("An invalid notation read in place returns the error code and position")
+    public final void testTryParse_SequenceInvalid(final String notation, final ParseErrorCode code,
+            final Integer position) {
+        ParseResult result;
+
+        for (final DiceParser parser : parsers) {
+            result = parser.tryParse(new AsciiCharSequence(notation.getBytes(StandardCharsets.US_ASCII), 0,
+                notation.length()));
+
+            Assertions.assertThat(result.getErrorCode())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(code);
+            Assertions.assertThat(result.getErrorPosition())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isEqualTo(position);
+            Assertions.assertThat(result.getMessage())
+                .isEqualTo(parser.tryParse(notation)
+                    .getMessage());
+            Assertions.assertThat(result.getNotation())
+                .isEqualTo(notation);
+        }
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A valid notation read in place returns the parsed expression")
+    public final void testTryParse_SequenceValid(final String notation) {
+        ParseResult result;
+
+        for (final DiceParser parser : parsers) {
+            result = parser.tryParse(new AsciiCharSequence(notation.getBytes(StandardCharsets.US_ASCII), 0,
+                notation.length()));
+
+            Assertions.assertThat(result.getExpression())
+                .isEqualTo(parser.parse(notation));
+            Assertions.assertThat(result.getNotation())
+                .isEqualTo(notation);
+        }
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A valid notation returns the parsed expression")
+    public final void testTryParse_Valid(final String notation) {
+        ParseResult result;
+
+        for (final DiceParser parser : parsers) {
+            result = parser.tryParse(notation);
+
+            Assertions.assertThat(result.isValid())
+                .isTrue();
+            Assertions.assertThat(result.getExpression())
+                .isEqualTo(parser.parse(notation));
+            Assertions.assertThat(result.getErrorCode())
+                .isNull();
+            Assertions.assertThat(result.getMessage())
+                .isNull();
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.structure;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.FoldedOperand;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.DivisionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.MultiplicationOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+
+@DisplayName("DefaultDiceParser folds constants when the builder is configured for it")
+public final class ITDefaultDiceParserConstantFoldingStructure {
+
+    private final DiceParser parser = new DefaultDiceParser(() -> new DefaultDiceExpressionBuilder(true));
+
+    public ITDefaultDiceParserConstantFoldingStructure() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Constant operations after a dice are folded")
+    public final void testParse_AfterDice() {
+        final DiceNotationExpression parsed;
+
+        parsed = parser.parse("1d20+2+3*4");
+
+        // ((1d20+2)+12)
+        Assertions.assertThat(parsed)
+            .isEqualTo(new AdditionOperation(
+                new AdditionOperation(new DefaultDiceOperand(new DefaultDice(1, 20, 0)), new IntegerOperand(2)),
+                new FoldedOperand(new MultiplicationOperation(new IntegerOperand(3), new IntegerOperand(4)), 12)));
+    }
+
+    @Test
+    @DisplayName("Constant operations before a dice are folded")
+    public final void testParse_BeforeDice() {
+        final DiceNotationExpression parsed;
+
+        parsed = parser.parse("2*3*1d6-(4-1)");
+
+        // ((6*1d6)-3)
+        Assertions.assertThat(parsed)
+            .isEqualTo(new SubtractionOperation(new MultiplicationOperation(
+                new FoldedOperand(new MultiplicationOperation(new IntegerOperand(2), new IntegerOperand(3)), 6),
+                new DefaultDiceOperand(new DefaultDice(1, 6, 0))),
+                new FoldedOperand(new SubtractionOperation(new IntegerOperand(4), new IntegerOperand(1)), 3)));
+    }
+
+    @Test
+    @DisplayName("A division by zero is not folded")
+    public final void testParse_DivisionByZero() {
+        final DiceNotationExpression parsed;
+
+        parsed = parser.parse("5/0");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new DivisionOperation(new IntegerOperand(5), new IntegerOperand(0)));
+    }
+
+    @Test
+    @DisplayName("Operations with dice are not folded")
+    public final void testParse_Dice() {
+        final DiceNotationExpression parsed;
+
+        parsed = parser.parse("1d6+1d4");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new AdditionOperation(new DefaultDiceOperand(new DefaultDice(1, 6, 0)),
+                new DefaultDiceOperand(new DefaultDice(1, 4, 0))));
+    }
+
+    @Test
+    @DisplayName("An expression with only constants is folded into a single constant")
+    public final void testParse_OnlyConstants() {
+        final DiceNotationExpression parsed;
+
+        parsed = parser.parse("(1+2)*3-8/2");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new FoldedOperand(new SubtractionOperation(
+                new MultiplicationOperation(new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2)),
+                    new IntegerOperand(3)),
+                new DivisionOperation(new IntegerOperand(8), new IntegerOperand(2))), 5));
+    }
+
+    @Test
+    @DisplayName("Constants are not folded by default")
+    public final void testParse_NotFolded() {
+        final DiceNotationExpression parsed;
+
+        parsed = new DefaultDiceParser().parse("1+2");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2)));
+    }
+
+    @Test
+    @DisplayName("The folded expression keeps the original text")
+    public final void testParse_Text() {
+        final DiceNotationExpression parsed;
+
+        parsed = parser.parse("1d20-2*3");
+
+        Assertions.assertThat(parsed.getExpression())
+            .isEqualTo("1d20-2*3");
+    }
+
+}
@@ -84,4 +84,22 @@ public final void testParse_Simple_NoQuantity() {
             .isEqualTo(6);
     }
 
+    @Test
+    @DisplayName("A dice with no quantity and a keep suffix returns the expected structure")
+    public final void testParse_Simple_NoQuantity_Keep() {
+        final DiceNotationExpression parsed; // Parsed expression
+        final Dice                   dice;   // Resulting dice
+
+        parsed = new DefaultDiceParser().parse("d6kh1");
+
+        dice = ((DiceOperand) parsed).getDice();
+
+        Assertions.assertThat(dice.getQuantity())
+            .isEqualTo(1);
+        Assertions.assertThat(dice.getSides())
+            .isEqualTo(6);
+        Assertions.assertThat(dice.getKeep())
+            .isEqualTo(1);
+    }
+
 }
@@ -0,0 +1,103 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.structure;
+
+import java.util.Arrays;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.FoldedOperand;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.operation.ProductOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SumOperation;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.listener.DefaultDiceExpressionBuilder;
+
+@DisplayName("DefaultDiceParser flattens operation chains when the builder is configured for it")
+public final class ITDefaultDiceParserFlattenedStructure {
+
+    private final DiceParser parser = new DefaultDiceParser(() -> new DefaultDiceExpressionBuilder(false, true));
+
+    public ITDefaultDiceParserFlattenedStructure() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A chain of additions and subtractions is flattened")
+    public final void testParse_Chain() {
+        final DiceNotationExpression parsed;
+
+        parsed = parser.parse("1d6+2-1d4");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new SumOperation(
+                Arrays.asList(new DefaultDiceOperand(new DefaultDice(1, 6, 0)), new IntegerOperand(2),
+                    new DefaultDiceOperand(new DefaultDice(1, 4, 0))),
+                Arrays.asList(ArithmeticOperator.ADDITION, ArithmeticOperator.SUBTRACTION)));
+    }
+
+    @Test
+    @DisplayName("Constant chains are folded when folding is enabled")
+    public final void testParse_Folded() {
+        final DiceNotationExpression parsed;
+
+        parsed = new DefaultDiceParser(() -> new DefaultDiceExpressionBuilder(true, true)).parse("1d6+2*3*4-5");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new SumOperation(
+                Arrays.asList(new DefaultDiceOperand(new DefaultDice(1, 6, 0)),
+                    new FoldedOperand(new ProductOperation(
+                        Arrays.asList(new IntegerOperand(2), new IntegerOperand(3), new IntegerOperand(4)),
+                        Arrays.asList(ArithmeticOperator.MULTIPLICATION, ArithmeticOperator.MULTIPLICATION)), 24),
+                    new IntegerOperand(5)),
+                Arrays.asList(ArithmeticOperator.ADDITION, ArithmeticOperator.SUBTRACTION)));
+    }
+
+    @Test
+    @DisplayName("Chains with different precedences are nested")
+    public final void testParse_Nested() {
+        final DiceNotationExpression parsed;
+
+        parsed = parser.parse("1+2*3/4-5");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new SumOperation(Arrays.asList(new IntegerOperand(1),
+                new ProductOperation(Arrays.asList(new IntegerOperand(2), new IntegerOperand(3), new IntegerOperand(4)),
+                    Arrays.asList(ArithmeticOperator.MULTIPLICATION, ArithmeticOperator.DIVISION)),
+                new IntegerOperand(5)), Arrays.asList(ArithmeticOperator.ADDITION, ArithmeticOperator.SUBTRACTION)));
+    }
+
+    @Test
+    @DisplayName("A single operation is kept binary")
+    public final void testParse_SingleOperation() {
+        final DiceNotationExpression parsed;
+
+        parsed = parser.parse("1+2");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2)));
+    }
+
+}
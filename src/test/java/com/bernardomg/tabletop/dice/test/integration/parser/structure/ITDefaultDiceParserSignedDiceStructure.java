@@ -33,6 +33,36 @@ public ITDefaultDiceParserSignedDiceStructure() {
         super();
     }
 
+    @Test
+    @DisplayName("A negative dice with no quantity has a negative quantity")
+    public final void testParse_NoQuantity_SignedNegative() {
+        final DiceOperand operation; // Parsed expression
+
+        operation = (DiceOperand) new DefaultDiceParser().parse("-d6");
+
+        Assertions.assertThat(operation.getDice()
+            .getQuantity())
+            .isEqualTo(-1);
+        Assertions.assertThat(operation.getDice()
+            .getSides())
+            .isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("A positive dice with no quantity has a positive quantity")
+    public final void testParse_NoQuantity_SignedPositive() {
+        final DiceOperand operation; // Parsed expression
+
+        operation = (DiceOperand) new DefaultDiceParser().parse("+d6");
+
+        Assertions.assertThat(operation.getDice()
+            .getQuantity())
+            .isEqualTo(1);
+        Assertions.assertThat(operation.getDice()
+            .getSides())
+            .isEqualTo(6);
+    }
+
     @Test
     @DisplayName("A negative dice returns the expected structure")
     public final void testParse_OnesDice_SignedNegative() {
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.structure;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+
+@DisplayName("Dice parsers share the operands for the usual values")
+public final class ITDiceParserSharedInstances {
+
+    private final List<DiceParser> parsers = List.of(new DefaultDiceParser(), new RecursiveDescentDiceParser());
+
+    public ITDiceParserSharedInstances() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Parsing the same expression twice returns the same operands")
+    public final void testParse_SameOperands() {
+        BinaryOperation first;
+        BinaryOperation second;
+
+        for (final DiceParser parser : parsers) {
+            first = (BinaryOperation) parser.parse("2d6+5");
+            second = (BinaryOperation) parser.parse("2d6+5");
+
+            Assertions.assertThat(second.getLeft())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isSameAs(first.getLeft());
+            Assertions.assertThat(second.getRight())
+                .as(parser.getClass()
+                    .getSimpleName())
+                .isSameAs(first.getRight());
+        }
+    }
+
+    @Test
+    @DisplayName("Parsers return the same operands")
+    public final void testParse_SameOperandsAcrossParsers() {
+        final DiceNotationExpression expected;
+
+        expected = new RecursiveDescentDiceParser().parse("1d20");
+
+        Assertions.assertThat(new DefaultDiceParser().parse("1d20"))
+            .isSameAs(expected);
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.parser.warmup;
+
+import java.util.Arrays;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+
+@DisplayName("DefaultDiceParser warm up and DFA cache")
+public final class ITDefaultDiceParserWarmUp {
+
+    private final DefaultDiceParser parser = new DefaultDiceParser();
+
+    public ITDefaultDiceParserWarmUp() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Clearing the cache removes all the states")
+    public final void testClearDfaCache() {
+        parser.warmUp();
+        parser.clearDfaCache();
+
+        Assertions.assertThat(parser.getDfaStateCount())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Expressions are parsed after clearing the cache")
+    public final void testClearDfaCache_Parse() {
+        final DiceNotationExpression parsed;
+
+        parser.warmUp();
+        parser.clearDfaCache();
+
+        parsed = parser.parse("1d6+2");
+
+        Assertions.assertThat(parsed)
+            .isEqualTo(new AdditionOperation(new DefaultDiceOperand(new DefaultDice(1, 6, 0)), new IntegerOperand(2)));
+    }
+
+    @Test
+    @DisplayName("Trimming a cache over the limit clears it")
+    public final void testTrimDfaCache_OverLimit() {
+        final Boolean trimmed;
+
+        parser.warmUp();
+
+        trimmed = parser.trimDfaCache(1);
+
+        Assertions.assertThat(trimmed)
+            .isTrue();
+        Assertions.assertThat(parser.getDfaStateCount())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Trimming a cache under the limit keeps it")
+    public final void testTrimDfaCache_UnderLimit() {
+        final Integer states;
+        final Boolean trimmed;
+
+        parser.warmUp();
+        states = parser.getDfaStateCount();
+
+        trimmed = parser.trimDfaCache(states);
+
+        Assertions.assertThat(trimmed)
+            .isFalse();
+        Assertions.assertThat(parser.getDfaStateCount())
+            .isEqualTo(states);
+    }
+
+    @Test
+    @DisplayName("Warming up fills the cache")
+    public final void testWarmUp() {
+        parser.clearDfaCache();
+        parser.warmUp();
+
+        Assertions.assertThat(parser.getDfaStateCount())
+            .isPositive();
+    }
+
+    @Test
+    @DisplayName("Warming up with a corpus fills the cache")
+    public final void testWarmUp_Corpus() {
+        parser.clearDfaCache();
+        parser.warmUp(Arrays.asList("1d6+2", "4d6kh3", "1d6)"));
+
+        Assertions.assertThat(parser.getDfaStateCount())
+            .isPositive();
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.integration.pipeline;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.tabletop.dice.history.RollHistory;
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.pipeline.BulkRollPipeline;
+
+@DisplayName("BulkRollPipeline rolls each line of a file")
+public final class ITBulkRollPipeline {
+
+    @TempDir
+    private Path folder;
+
+    public ITBulkRollPipeline() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Empty lines are kept")
+    public final void testRun_EmptyLines() throws IOException {
+        final List<String> results;
+
+        results = run("1+2\n\n3+4\n", 1, 10, 1024);
+
+        Assertions.assertThat(results)
+            .containsExactly("3", "", "7");
+    }
+
+    @Test
+    @DisplayName("An empty file returns no lines")
+    public final void testRun_EmptyFile() throws IOException {
+        final List<String> results;
+
+        results = run("", 1, 10, 1024);
+
+        Assertions.assertThat(results)
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Invalid lines return an error")
+    public final void testRun_Invalid() throws IOException {
+        final List<String> results;
+
+        results = run("1+2\nabc\n5/0\n1d6)\n", 1, 10, 1024);
+
+        Assertions.assertThat(results)
+            .hasSize(4);
+        Assertions.assertThat(results.get(0))
+            .isEqualTo("3");
+        Assertions.assertThat(results.subList(1, 4))
+            .allMatch(r -> r.startsWith(BulkRollPipeline.ERROR_PREFIX));
+    }
+
+    @Test
+    @DisplayName("A line longer than the window is rejected")
+    public final void testRun_LongLine() {
+        final ThrowingCallable closure;
+
+        closure = () -> run("1+2\n1+2+3+4+5+6+7+8+9\n", 1, 10, 8);
+
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("The last line may have no line ending")
+    public final void testRun_NoLastLineEnding() throws IOException {
+        final List<String> results;
+
+        results = run("1+2\r\n3+4", 1, 10, 1024);
+
+        Assertions.assertThat(results)
+            .containsExactly("3", "7");
+    }
+
+    @Test
+    @DisplayName("Many lines on small windows and batches keep their order with several threads")
+    public final void testRun_Ordered() throws IOException {
+        final String       input;
+        final List<String> expected;
+        final List<String> results;
+
+        input = IntStream.range(0, 5000)
+            .mapToObj(i -> i + "+1\n")
+            .collect(Collectors.joining());
+        expected = IntStream.range(0, 5000)
+            .mapToObj(i -> String.valueOf(i + 1))
+            .collect(Collectors.toList());
+
+        results = run(input, 4, 7, 64);
+
+        Assertions.assertThat(results)
+            .isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Dice are rolled")
+    public final void testRun_Dice() throws IOException {
+        final List<String> results;
+
+        results = run("1d6\n2d6+1\n", 2, 1, 1024);
+
+        Assertions.assertThat(results)
+            .hasSize(2);
+        Assertions.assertThat(Integer.valueOf(results.get(0)))
+            .isBetween(1, 6);
+        Assertions.assertThat(Integer.valueOf(results.get(1)))
+            .isBetween(3, 13);
+    }
+
+    private final List<String> run(final String input, final Integer threads, final Integer lines,
+            final Integer window) throws IOException {
+        final BulkRollPipeline<RollHistory> pipeline;
+        final Path                          in;
+        final Path                          out;
+        final Long                          count;
+        final List<String>                  results;
+
+        in = folder.resolve("input.txt");
+        out = folder.resolve("output.txt");
+        Files.write(in, input.getBytes(StandardCharsets.US_ASCII));
+
+        pipeline = new BulkRollPipeline<>(new DefaultDiceParser(), DiceRoller::new, RollHistory::getTotalRoll, threads,
+            lines, window);
+        count = pipeline.run(in, out);
+
+        results = Files.readAllLines(out);
+
+        Assertions.assertThat(count)
+            .isEqualTo(results.size());
+
+        return results;
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.integration.template;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.bernardomg.tabletop.dice.history.RollHistory;
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.interpreter.PostfixRoller;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.random.AbstractNumberGenerator;
+import com.bernardomg.tabletop.dice.random.NumberGenerator;
+import com.bernardomg.tabletop.dice.template.DiceTemplate;
+
+@DisplayName("Bound templates are the same as parsing the replaced text")
+public final class ITDiceTemplate {
+
+    private static final Stream<Arguments> bindings() {
+        return Stream.of(Arguments.of("{level}d8+{con}", Map.of("level", 3, "con", 2), "3d8+2"),
+            Arguments.of("{level}d8+{con}", Map.of("level", 0, "con", -2), "0d8+-2"),
+            Arguments.of("1d{die}-{penalty}", Map.of("die", 20, "penalty", 3), "1d20-3"),
+            Arguments.of("-{n}d6", Map.of("n", 4), "-4d6"),
+            Arguments.of("{n}d6kh{k}", Map.of("n", 4, "k", 3), "4d6kh3"),
+            Arguments.of("{n}d6kl{k}", Map.of("n", 4, "k", 1), "4d6kl1"),
+            Arguments.of("{n}d6dh{k}", Map.of("n", 5, "k", 2), "5d6dh2"),
+            Arguments.of("{n}d6dl1", Map.of("n", 7), "7d6dl1"), Arguments.of("4d6dl{k}", Map.of("k", 2), "4d6dl2"),
+            Arguments.of("{n}d{s}dh{k}", Map.of("n", 6, "s", 10, "k", 2), "6d10dh2"),
+            Arguments.of("({a}+{b})*{c}/2", Map.of("a", 1, "b", 20, "c", 300), "(1+20)*300/2"),
+            Arguments.of("d{s}", Map.of("s", 12), "d12"), Arguments.of("{a}d6+{a}", Map.of("a", 9), "9d6+9"));
+    }
+
+    private final DiceParser parser = new DefaultDiceParser();
+
+    public ITDiceTemplate() {
+        super();
+    }
+
+    @ParameterizedTest(name = "Template: {0}, values: {1}")
+    @MethodSource("bindings")
+    @DisplayName("A bound template returns the same expression as the replaced text")
+    public final void testBind_Expression(final String text, final Map<String, Integer> values,
+            final String replaced) {
+        Assertions.assertThat(new DiceTemplate(text).bindExpression(values))
+            .isEqualTo(parser.parse(replaced));
+    }
+
+    @ParameterizedTest(name = "Template: {0}, values: {1}")
+    @MethodSource("bindings")
+    @DisplayName("A bound template rolls the same history as the replaced text")
+    public final void testBind_Roll(final String text, final Map<String, Integer> values, final String replaced) {
+        final DiceTemplate template;
+        final RollHistory  expected;
+        final RollHistory  rolled;
+        final RollHistory  transformed;
+
+        template = new DiceTemplate(text);
+
+        expected = new DiceRoller(getGenerator()).transform(parser.parse(replaced));
+        transformed = template.transform(values, new DiceRoller(getGenerator()));
+        rolled = template.roll(values, new PostfixRoller(getGenerator()));
+
+        Assertions.assertThat(transformed)
+            .isEqualTo(expected);
+        Assertions.assertThat(rolled.getTotalRoll())
+            .isEqualTo(expected.getTotalRoll());
+        Assertions.assertThat(rolled)
+            .hasToString(expected.toString());
+    }
+
+    private final NumberGenerator getGenerator() {
+        final Random random;
+
+        // Fixed seed, so all the rolls are the same
+        random = new Random(20231017L);
+
+        return new AbstractNumberGenerator() {
+
+            @Override
+            public final Integer generate(final Integer max) {
+                return random.nextInt(max) + 1;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.unit.compiler;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.compiler.ClassCompiler;
+import com.bernardomg.tabletop.dice.compiler.CompiledRoll;
+import com.bernardomg.tabletop.dice.compiler.GeneratedRoll;
+import com.bernardomg.tabletop.dice.compiler.StackMachineProgram;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotationBuilder;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+
+@DisplayName("Class compiler")
+public final class TestClassCompiler {
+
+    private final RecursiveDescentDiceParser parser = new RecursiveDescentDiceParser();
+
+    public TestClassCompiler() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Compiling the same program twice returns the cached roll")
+    public final void testCompile_Cached() {
+        final ClassCompiler compiler;
+
+        compiler = new ClassCompiler();
+
+        Assertions.assertThat(compiler.compile(parser.parsePostfix("1d6+2")))
+            .isSameAs(compiler.compile(parser.parsePostfix("1d6+2")));
+        Assertions.assertThat(compiler.getSize())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Clearing the cache generates the class again")
+    public final void testCompile_Cleared() {
+        final ClassCompiler compiler;
+        final CompiledRoll  roll;
+
+        compiler = new ClassCompiler();
+        roll = compiler.compile(parser.parsePostfix("1d6+2"));
+        compiler.clear();
+
+        Assertions.assertThat(compiler.compile(parser.parsePostfix("1d6+2")))
+            .isNotSameAs(roll);
+    }
+
+    @Test
+    @DisplayName("Different programs get different classes")
+    public final void testCompile_Different() {
+        final ClassCompiler compiler;
+
+        compiler = new ClassCompiler();
+
+        Assertions.assertThat(compiler.compile(parser.parsePostfix("1d6+2"))
+            .getClass())
+            .isNotEqualTo(compiler.compile(parser.parsePostfix("1d6+3"))
+                .getClass());
+    }
+
+    @Test
+    @DisplayName("The least recently used roll is evicted from a full cache")
+    public final void testCompile_Evicted() {
+        final ClassCompiler compiler;
+        final CompiledRoll  first;
+        final CompiledRoll  second;
+
+        compiler = new ClassCompiler(2);
+        first = compiler.compile(parser.parsePostfix("1d6"));
+        second = compiler.compile(parser.parsePostfix("1d8"));
+        compiler.compile(parser.parsePostfix("1d6"));
+        compiler.compile(parser.parsePostfix("1d10"));
+
+        Assertions.assertThat(compiler.getSize())
+            .isEqualTo(2);
+        Assertions.assertThat(compiler.compile(parser.parsePostfix("1d6")))
+            .isSameAs(first);
+        Assertions.assertThat(compiler.compile(parser.parsePostfix("1d8")))
+            .isNotSameAs(second);
+    }
+
+    @Test
+    @DisplayName("A program which fails to compile is not cached, and fails again")
+    public final void testCompile_Failed() {
+        final ClassCompiler   compiler;
+        final PostfixNotation program;
+
+        compiler = new ClassCompiler();
+        program = parser.parsePostfix("2d6kh5");
+
+        Assertions.assertThatThrownBy(() -> compiler.compile(program))
+            .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> compiler.compile(program))
+            .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThat(compiler.getSize())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Programs needing too much code are compiled into a stack machine")
+    public final void testCompile_Huge() {
+        final PostfixNotationBuilder builder;
+        final CompiledRoll           roll;
+
+        builder = new PostfixNotationBuilder();
+        builder.appendDice(1, 6, 0);
+        for (Integer i = 0; i < 2000; i++) {
+            builder.appendDice(1, 6, 0);
+            builder.appendOperation(ArithmeticOperator.ADDITION);
+        }
+
+        roll = new ClassCompiler().compile(builder.build());
+
+        Assertions.assertThat(roll)
+            .isInstanceOf(StackMachineProgram.class);
+        Assertions.assertThat(roll.roll(max -> max))
+            .isEqualTo(2001 * 6);
+    }
+
+    @Test
+    @DisplayName("Programs compiled into a stack machine are cached")
+    public final void testCompile_HugeCached() {
+        final PostfixNotationBuilder builder;
+        final ClassCompiler          compiler;
+        final PostfixNotation        program;
+
+        builder = new PostfixNotationBuilder();
+        builder.appendDice(1, 6, 0);
+        for (Integer i = 0; i < 2000; i++) {
+            builder.appendDice(1, 6, 0);
+            builder.appendOperation(ArithmeticOperator.ADDITION);
+        }
+        program = builder.build();
+
+        compiler = new ClassCompiler();
+
+        Assertions.assertThat(compiler.compile(program))
+            .isSameAs(compiler.compile(program));
+        Assertions.assertThat(compiler.getSize())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("The generated roll keeps its program")
+    public final void testCompile_Program() {
+        final PostfixNotation program;
+
+        program = parser.parsePostfix("2d6kh1+3");
+
+        Assertions.assertThat(((GeneratedRoll) new ClassCompiler().compile(program)).getProgram())
+            .isEqualTo(program);
+    }
+
+    @Test
+    @DisplayName("A cache size below one is rejected")
+    public final void testConstructor_InvalidSize() {
+        Assertions.assertThatThrownBy(() -> new ClassCompiler(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Big constants are rolled")
+    public final void testRoll_BigConstants() {
+        Assertions.assertThat(compile("100000-300+-2000000000").roll(max -> max))
+            .isEqualTo(-1999900300);
+    }
+
+    @Test
+    @DisplayName("Dividing by zero throws an exception")
+    public final void testRoll_DivisionByZero() {
+        final CompiledRoll roll;
+
+        roll = compile("1d6/(2-2)");
+
+        Assertions.assertThatThrownBy(() -> roll.roll(max -> 1))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Keeping the highest dice adds them")
+    public final void testRoll_KeepHighest() {
+        Assertions.assertThat(compile("4d6kh3").roll(sequence(6, 2, 5, 1)))
+            .isEqualTo(13);
+    }
+
+    @Test
+    @DisplayName("Keeping the lowest dice adds them")
+    public final void testRoll_KeepLowest() {
+        Assertions.assertThat(compile("4d6kl2").roll(sequence(6, 2, 5, 1)))
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Big groups of dice add all their values")
+    public final void testRoll_ManyDice() {
+        Assertions.assertThat(compile("10d20").roll(sequence(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)))
+            .isEqualTo(55);
+    }
+
+    @Test
+    @DisplayName("Negative dice subtract their values")
+    public final void testRoll_Negative() {
+        Assertions.assertThat(compile("10-2d6").roll(sequence(3, 4)))
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Operations are applied in order")
+    public final void testRoll_Operations() {
+        Assertions.assertThat(compile("(1d6+2)*3-8/2").roll(max -> 4))
+            .isEqualTo(14);
+    }
+
+    @Test
+    @DisplayName("Dice are rolled from left to right")
+    public final void testRoll_Order() {
+        Assertions.assertThat(compile("1d6-1d6*1d6").roll(sequence(6, 2, 3)))
+            .isEqualTo(0);
+    }
+
+    private final CompiledRoll compile(final String notation) {
+        return new ClassCompiler().compile(parser.parsePostfix(notation));
+    }
+
+    private final IntNumberGenerator sequence(final int... values) {
+        final int[] index;
+
+        index = new int[1];
+
+        return max -> values[index[0]++];
+    }
+
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.unit.compiler;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.compiler.CompiledRoll;
+import com.bernardomg.tabletop.dice.compiler.MethodHandleCompiler;
+import com.bernardomg.tabletop.dice.compiler.MethodHandleRoll;
+import com.bernardomg.tabletop.dice.compiler.StackMachineProgram;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+
+@DisplayName("Method handle compiler")
+public final class TestMethodHandleCompiler {
+
+    private final RecursiveDescentDiceParser parser = new RecursiveDescentDiceParser();
+
+    public TestMethodHandleCompiler() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The handle can be bound to a generator")
+    public final void testCompile_BoundHandle() throws Throwable {
+        final MethodHandleRoll roll;
+
+        roll = (MethodHandleRoll) compile("2d6+3");
+
+        Assertions.assertThat((int) roll.getHandle()
+            .bindTo((IntNumberGenerator) max -> max)
+            .invoke())
+            .isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Expressions over the limit are compiled into a stack machine")
+    public final void testCompile_OverLimit() {
+        final CompiledRoll roll;
+
+        roll = new MethodHandleCompiler(2).compile(parser.parsePostfix("1d6+2+1d4"));
+
+        Assertions.assertThat(roll)
+            .isInstanceOf(StackMachineProgram.class);
+        Assertions.assertThat(roll.roll(max -> max))
+            .isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("Expressions under the limit are compiled into a method handle")
+    public final void testCompile_UnderLimit() {
+        Assertions.assertThat(compile("1d6+2+1d4"))
+            .isInstanceOf(MethodHandleRoll.class);
+    }
+
+    @Test
+    @DisplayName("A limit below one is rejected")
+    public final void testConstructor_InvalidLimit() {
+        Assertions.assertThatThrownBy(() -> new MethodHandleCompiler(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Constant expressions don't use the generator")
+    public final void testRoll_Constant() {
+        Assertions.assertThat(compile("(2+3)*4-6/2").roll(max -> {
+            throw new IllegalStateException();
+        }))
+            .isEqualTo(17);
+    }
+
+    @Test
+    @DisplayName("Dividing by a constant zero throws an exception when rolling")
+    public final void testRoll_ConstantDivisionByZero() {
+        final CompiledRoll roll;
+
+        roll = compile("4/(2-2)");
+
+        Assertions.assertThatThrownBy(() -> roll.roll(max -> 1))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Dividing by zero throws an exception")
+    public final void testRoll_DivisionByZero() {
+        final CompiledRoll roll;
+
+        roll = compile("1d6/(2-2)");
+
+        Assertions.assertThatThrownBy(() -> roll.roll(max -> 1))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Keeping the highest dice adds them")
+    public final void testRoll_KeepHighest() {
+        Assertions.assertThat(compile("4d6kh3").roll(sequence(6, 2, 5, 1)))
+            .isEqualTo(13);
+    }
+
+    @Test
+    @DisplayName("Keeping the lowest dice adds them")
+    public final void testRoll_KeepLowest() {
+        Assertions.assertThat(compile("4d6kl2").roll(sequence(6, 2, 5, 1)))
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Keeping more dice than rolled is rejected")
+    public final void testRoll_KeepMore() {
+        Assertions.assertThatThrownBy(() -> compile("2d6kh5"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Negative dice subtract their values")
+    public final void testRoll_Negative() {
+        Assertions.assertThat(compile("10-2d6").roll(sequence(3, 4)))
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("A roll made while rolling gets its own memory")
+    public final void testRoll_Nested() {
+        final CompiledRoll inner;
+        final CompiledRoll outer;
+
+        inner = compile("2d6kh1+1");
+        outer = compile("3d6kh2");
+
+        Assertions.assertThat(outer.roll(max -> inner.roll(innerMax -> innerMax)))
+            .isEqualTo(14);
+    }
+
+    @Test
+    @DisplayName("Operations are applied in order")
+    public final void testRoll_Operations() {
+        Assertions.assertThat(compile("(1d6+2)*3-8/2").roll(max -> 4))
+            .isEqualTo(14);
+    }
+
+    @Test
+    @DisplayName("Dice are rolled from left to right")
+    public final void testRoll_Order() {
+        Assertions.assertThat(compile("1d6-1d6*1d6").roll(sequence(6, 2, 3)))
+            .isEqualTo(0);
+    }
+
+    private final CompiledRoll compile(final String notation) {
+        return new MethodHandleCompiler().compile(parser.parsePostfix(notation));
+    }
+
+    private final IntNumberGenerator sequence(final int... values) {
+        final int[] index;
+
+        index = new int[1];
+
+        return max -> values[index[0]++];
+    }
+
+}
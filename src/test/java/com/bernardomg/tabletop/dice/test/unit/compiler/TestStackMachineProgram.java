@@ -0,0 +1,116 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.unit.compiler;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.compiler.DiceCompiler;
+import com.bernardomg.tabletop.dice.compiler.StackMachineProgram;
+import com.bernardomg.tabletop.dice.parser.RecursiveDescentDiceParser;
+import com.bernardomg.tabletop.dice.random.IntNumberGenerator;
+
+@DisplayName("Stack machine programs")
+public final class TestStackMachineProgram {
+
+    private final RecursiveDescentDiceParser parser = new RecursiveDescentDiceParser();
+
+    public TestStackMachineProgram() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Dividing by zero throws an exception")
+    public final void testRoll_DivisionByZero() {
+        final StackMachineProgram program;
+
+        program = compile("1d6/(2-2)");
+
+        Assertions.assertThatThrownBy(() -> program.roll(max -> 1))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Dropping the highest dice keeps the lowest ones")
+    public final void testRoll_DropHighest() {
+        Assertions.assertThat(compile("4d6dh1").roll(sequence(6, 2, 5, 1)))
+            .isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Keeping the highest dice adds them")
+    public final void testRoll_KeepHighest() {
+        Assertions.assertThat(compile("4d6kh3").roll(sequence(6, 2, 5, 1)))
+            .isEqualTo(13);
+    }
+
+    @Test
+    @DisplayName("Keeping the lowest dice adds them")
+    public final void testRoll_KeepLowest() {
+        Assertions.assertThat(compile("4d6kl2").roll(sequence(6, 2, 5, 1)))
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Keeping more dice than rolled is rejected")
+    public final void testRoll_KeepMore() {
+        Assertions.assertThatThrownBy(() -> compile("2d6kh5"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Negative dice subtract their values")
+    public final void testRoll_Negative() {
+        Assertions.assertThat(compile("10-2d6").roll(sequence(3, 4)))
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("A program rolled while rolling it gets its own memory")
+    public final void testRoll_Nested() {
+        final StackMachineProgram inner;
+        final StackMachineProgram outer;
+
+        inner = compile("2d6kh1+1");
+        outer = compile("3d6kh2");
+
+        Assertions.assertThat(outer.roll(max -> inner.roll(innerMax -> innerMax)))
+            .isEqualTo(14);
+    }
+
+    @Test
+    @DisplayName("Operations are applied in order")
+    public final void testRoll_Operations() {
+        Assertions.assertThat(compile("(1d6+2)*3-8/2").roll(max -> 4))
+            .isEqualTo(14);
+    }
+
+    private final StackMachineProgram compile(final String notation) {
+        return new DiceCompiler().compile(parser.parsePostfix(notation));
+    }
+
+    private final IntNumberGenerator sequence(final int... values) {
+        final int[] index;
+
+        index = new int[1];
+
+        return max -> values[index[0]++];
+    }
+
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.unit.compiler;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.compiler.DiceCompiler;
+import com.bernardomg.tabletop.dice.compiler.TieredDiceRoller;
+import com.bernardomg.tabletop.dice.interpreter.DiceRoller;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.parser.DefaultDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.random.AbstractNumberGenerator;
+import com.bernardomg.tabletop.dice.random.NumberGenerator;
+
+@DisplayName("Tiered dice roller")
+public final class TestTieredDiceRoller {
+
+    private final DiceParser parser = new DefaultDiceParser();
+
+    public TestTieredDiceRoller() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A threshold below one is rejected")
+    public final void testConstructor_InvalidThreshold() {
+        Assertions.assertThatThrownBy(() -> new TieredDiceRoller(getGenerator(), 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("An expression is compiled once it reaches the threshold")
+    public final void testTransform_Compiled() {
+        final TieredDiceRoller       roller;
+        final DiceNotationExpression expression;
+
+        roller = new TieredDiceRoller(getGenerator(), 3, new DiceCompiler(), Runnable::run);
+        expression = parser.parse("2d6+1");
+        for (Integer i = 0; i < 3; i++) {
+            roller.transform(expression);
+        }
+
+        Assertions.assertThat(roller.getCompiled())
+            .isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("An expression is compiled a single time")
+    public final void testTransform_CompiledOnce() {
+        final TieredDiceRoller       roller;
+        final DiceNotationExpression expression;
+        final AtomicInteger          compilations;
+        final DiceCompiler           compiler;
+
+        compilations = new AtomicInteger();
+        compiler = new DiceCompiler();
+        roller = new TieredDiceRoller(getGenerator(), 2, e -> {
+            compilations.incrementAndGet();
+            return compiler.transform(e);
+        }, Runnable::run);
+        expression = parser.parse("2d6+1");
+        for (Integer i = 0; i < 10; i++) {
+            roller.transform(expression);
+        }
+
+        Assertions.assertThat(compilations.get())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("The tracked expressions are bounded, even if compiled")
+    public final void testTransform_Bounded() {
+        final TieredDiceRoller roller;
+
+        roller = new TieredDiceRoller(getGenerator(), 1, new DiceCompiler(), Runnable::run);
+        for (Integer i = 0; i < 2000; i++) {
+            roller.transform(parser.parse("1d6+" + i));
+        }
+
+        Assertions.assertThat(roller.getTracked())
+            .isLessThanOrEqualTo(1024);
+        Assertions.assertThat(roller.getCompiled())
+            .isLessThanOrEqualTo(1024L);
+    }
+
+    @Test
+    @DisplayName("Equal expressions share their counter")
+    public final void testTransform_EqualExpressions() {
+        final TieredDiceRoller roller;
+
+        roller = new TieredDiceRoller(getGenerator(), 3, new DiceCompiler(), Runnable::run);
+        for (Integer i = 0; i < 3; i++) {
+            roller.transform(parser.parse("2d6+1"));
+        }
+
+        Assertions.assertThat(roller.getCompiled())
+            .isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("An expression which fails to compile keeps being interpreted")
+    public final void testTransform_FailedCompilation() {
+        final TieredDiceRoller       roller;
+        final DiceRoller             expected;
+        final DiceNotationExpression expression;
+
+        roller = new TieredDiceRoller(getGenerator(), 1, e -> {
+            throw new IllegalStateException();
+        }, Runnable::run);
+        expected = new DiceRoller(getGenerator());
+        expression = parser.parse("2d6+1");
+        for (Integer i = 0; i < 3; i++) {
+            Assertions.assertThat(roller.transform(expression))
+                .isEqualTo(expected.transform(expression)
+                    .getTotalRoll());
+        }
+
+        Assertions.assertThat(roller.getCompiled())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("A recently rolled expression is kept when forgetting expressions")
+    public final void testTransform_KeepsRecent() {
+        final TieredDiceRoller       roller;
+        final DiceNotationExpression expression;
+        final AtomicInteger          compilations;
+        final DiceCompiler           compiler;
+
+        compilations = new AtomicInteger();
+        compiler = new DiceCompiler();
+        expression = parser.parse("2d6+1");
+        roller = new TieredDiceRoller(getGenerator(), 1, e -> {
+            if (e.equals(expression)) {
+                compilations.incrementAndGet();
+            }
+            return compiler.transform(e);
+        }, Runnable::run);
+        for (Integer i = 0; i < 2000; i++) {
+            roller.transform(expression);
+            roller.transform(parser.parse("1d6+" + i));
+        }
+
+        Assertions.assertThat(compilations.get())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("An expression under the threshold is not compiled")
+    public final void testTransform_NotCompiled() {
+        final TieredDiceRoller       roller;
+        final DiceNotationExpression expression;
+
+        roller = new TieredDiceRoller(getGenerator(), 3, new DiceCompiler(), Runnable::run);
+        expression = parser.parse("2d6+1");
+        for (Integer i = 0; i < 2; i++) {
+            roller.transform(expression);
+        }
+
+        Assertions.assertThat(roller.getCompiled())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("The totals are the same before and after compiling")
+    public final void testTransform_SameTotals() {
+        final TieredDiceRoller       roller;
+        final DiceRoller             expected;
+        final DiceNotationExpression expression;
+
+        roller = new TieredDiceRoller(getGenerator(), 5, new DiceCompiler(), Runnable::run);
+        expected = new DiceRoller(getGenerator());
+        expression = parser.parse("4d6kh3+2d8*(1d4-1)/2-1d20");
+        for (Integer i = 0; i < 20; i++) {
+            Assertions.assertThat(roller.transform(expression))
+                .isEqualTo(expected.transform(expression)
+                    .getTotalRoll());
+        }
+    }
+
+    private final NumberGenerator getGenerator() {
+        final Random random;
+
+        // Fixed seed, so both rollers get the same values
+        random = new Random(20231021L);
+
+        return new AbstractNumberGenerator() {
+
+            @Override
+            public final Integer generate(final Integer max) {
+                return random.nextInt(max) + 1;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.unit.dice;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.history.DefaultRollResult;
+
+@DisplayName("DefaultDice.valueOf returns shared instances for the usual dice")
+public final class TestDefaultDiceValueOf {
+
+    public TestDefaultDiceValueOf() {
+        super();
+    }
+
+    @ParameterizedTest(name = "{0}d{1}, keep {2}")
+    @CsvSource({ "11, 6, 0", "1, 21, 0", "4, 6, 3" })
+    @DisplayName("Dice outside the table are not found")
+    public final void testFindPreallocated_Missing(final Integer quantity, final Integer sides, final Integer keep) {
+        Assertions.assertThat(DefaultDice.findPreallocated(quantity, sides, keep))
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("The usual dice are found in the table")
+    public final void testFindPreallocated_Shared() {
+        Assertions.assertThat(DefaultDice.findPreallocated(2, 6, 0))
+            .isSameAs(DefaultDice.valueOf(2, 6, 0));
+    }
+
+    @Test
+    @DisplayName("All the preallocated dice are returned")
+    public final void testGetPreallocated() {
+        Assertions.assertThat(DefaultDice.getPreallocated())
+            .hasSize(21 * 21)
+            .doesNotHaveDuplicates()
+            .allMatch(d -> DefaultDice.valueOf(d.getQuantity(), d.getSides(), d.getKeep()) == d);
+    }
+
+    @Test
+    @DisplayName("Constant roll results use the shared dice")
+    public final void testRollResult_Shared() {
+        Assertions.assertThat(new DefaultRollResult(5).getDice())
+            .isSameAs(DefaultDice.valueOf(1, 5, 0));
+    }
+
+    @ParameterizedTest(name = "{0}d{1}, keep {2}")
+    @CsvSource({ "11, 6, 0", "1, 21, 0", "1, 99, 0", "4, 6, 3", "0, 0, 0", "-11, 6, 0" })
+    @DisplayName("Other dice are equal to a new instance")
+    public final void testValueOf_NotShared(final Integer quantity, final Integer sides, final Integer keep) {
+        Assertions.assertThat(DefaultDice.valueOf(quantity, sides, keep))
+            .isEqualTo(new DefaultDice(quantity, sides, keep));
+    }
+
+    @ParameterizedTest(name = "{0}d{1}")
+    @CsvSource({ "1, 6", "2, 20", "10, 100", "0, 4", "-3, 8", "-10, 1", "1, 5" })
+    @DisplayName("The usual dice are shared")
+    public final void testValueOf_Shared(final Integer quantity, final Integer sides) {
+        final DefaultDice dice;
+
+        dice = DefaultDice.valueOf(quantity, sides, 0);
+
+        Assertions.assertThat(dice)
+            .isEqualTo(new DefaultDice(quantity, sides, 0));
+        Assertions.assertThat(DefaultDice.valueOf(quantity, sides, 0))
+            .isSameAs(dice);
+    }
+
+    @Test
+    @DisplayName("Dice outside the table are never interned")
+    public final void testValueOfUninterned_NotShared() {
+        final DefaultDice dice;
+
+        dice = DefaultDice.valueOfUninterned(1, 250, 0);
+
+        Assertions.assertThat(dice)
+            .isEqualTo(new DefaultDice(1, 250, 0));
+        Assertions.assertThat(DefaultDice.valueOfUninterned(1, 250, 0))
+            .isNotSameAs(dice);
+    }
+
+    @Test
+    @DisplayName("The usual dice are shared even when not interning")
+    public final void testValueOfUninterned_Shared() {
+        Assertions.assertThat(DefaultDice.valueOfUninterned(2, 6, 0))
+            .isSameAs(DefaultDice.valueOf(2, 6, 0));
+    }
+
+}
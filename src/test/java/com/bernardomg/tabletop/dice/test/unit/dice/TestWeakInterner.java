@@ -0,0 +1,71 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.unit.dice;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.WeakInterner;
+
+@DisplayName("WeakInterner canonicalizes equal values")
+public final class TestWeakInterner {
+
+    public TestWeakInterner() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Different values are kept apart")
+    public final void testIntern_Different() {
+        final WeakInterner<DefaultDice> interner;
+        final DefaultDice               first;
+        final DefaultDice               second;
+
+        interner = new WeakInterner<>();
+        first = new DefaultDice(4, 6, 3);
+        second = new DefaultDice(4, 6, 2);
+
+        Assertions.assertThat(interner.intern(first))
+            .isSameAs(first);
+        Assertions.assertThat(interner.intern(second))
+            .isSameAs(second);
+        Assertions.assertThat(interner.size())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Equal values are returned as the first instance interned")
+    public final void testIntern_Equal() {
+        final WeakInterner<DefaultDice> interner;
+        final DefaultDice               first;
+        final DefaultDice               second;
+
+        interner = new WeakInterner<>();
+        first = new DefaultDice(4, 6, 3);
+        second = new DefaultDice(4, 6, 3);
+
+        Assertions.assertThat(interner.intern(first))
+            .isSameAs(first);
+        Assertions.assertThat(interner.intern(second))
+            .isSameAs(first);
+        Assertions.assertThat(interner.size())
+            .isEqualTo(1);
+    }
+
+}
@@ -16,6 +16,7 @@
 
 package com.bernardomg.tabletop.dice.test.unit.interpreter.traverser;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.stream.StreamSupport;
 
@@ -27,7 +28,10 @@
 import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
 import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
 import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.operation.ProductOperation;
 import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SumOperation;
 
 @DisplayName("PreorderTraverser parses the expression tree as expected")
 public final class TestPreorderTraverser {
@@ -95,4 +99,34 @@ public final void testList() {
             .isEqualTo(3);
     }
 
+    @Test
+    @DisplayName("Parses the tree with n-ary operations correctly")
+    public final void testList_Nary() {
+        final SumOperation                     sum;
+        final ProductOperation                 product;
+        final DiceNotationExpression           one;
+        final DiceNotationExpression           two;
+        final DiceNotationExpression           three;
+        final DiceNotationExpression           four;
+        final Iterable<DiceNotationExpression> result;
+
+        one = new IntegerOperand(1);
+        two = new IntegerOperand(2);
+        three = new IntegerOperand(3);
+        four = new IntegerOperand(4);
+
+        // 2 * 3
+        product = new ProductOperation(Arrays.asList(two, three));
+
+        // 1 + 2 * 3 - 4
+        sum = new SumOperation(Arrays.asList(one, product, four),
+            Arrays.asList(ArithmeticOperator.ADDITION, ArithmeticOperator.SUBTRACTION));
+
+        // +- 1 * 2 3 4
+        result = new PreorderTraverser().transform(sum);
+
+        Assertions.assertThat(result)
+            .containsExactly(sum, one, product, two, three, four);
+    }
+
 }
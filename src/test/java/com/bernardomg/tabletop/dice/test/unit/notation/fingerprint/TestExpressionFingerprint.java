@@ -0,0 +1,118 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.unit.notation.fingerprint;
+
+import java.util.Arrays;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SumOperation;
+
+@DisplayName("Structural fingerprints for expressions")
+public final class TestExpressionFingerprint {
+
+    public TestExpressionFingerprint() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Constants and dice have different fingerprints")
+    public final void testFingerprint_ConstantAndDice() {
+        Assertions.assertThat(new IntegerOperand(1).getFingerprint())
+            .isNotEqualTo(new DefaultDiceOperand(new DefaultDice(1, 1, 0)).getFingerprint());
+    }
+
+    @Test
+    @DisplayName("Deep trees are fingerprinted")
+    public final void testFingerprint_Deep() {
+        DiceNotationExpression first;
+        DiceNotationExpression second;
+
+        first = new IntegerOperand(0);
+        second = new IntegerOperand(0);
+        for (Integer i = 0; i < 100000; i++) {
+            first = new AdditionOperation(first, new IntegerOperand(1));
+            second = new AdditionOperation(second, new IntegerOperand(1));
+        }
+
+        Assertions.assertThat(first.getFingerprint())
+            .isEqualTo(second.getFingerprint());
+    }
+
+    @Test
+    @DisplayName("Different keep values have different fingerprints")
+    public final void testFingerprint_Keep() {
+        Assertions.assertThat(new DefaultDiceOperand(new DefaultDice(4, 6, 3)).getFingerprint())
+            .isNotEqualTo(new DefaultDiceOperand(new DefaultDice(4, 6, 0)).getFingerprint());
+    }
+
+    @Test
+    @DisplayName("N-ary operations and binary ones have different fingerprints")
+    public final void testFingerprint_Nary() {
+        final DiceNotationExpression binary;
+        final DiceNotationExpression nary;
+
+        binary = new AdditionOperation(new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2)),
+            new IntegerOperand(3));
+        nary = new SumOperation(Arrays.asList(new IntegerOperand(1), new IntegerOperand(2), new IntegerOperand(3)));
+
+        Assertions.assertThat(nary.getFingerprint())
+            .isNotEqualTo(binary.getFingerprint());
+    }
+
+    @Test
+    @DisplayName("Different operators have different fingerprints")
+    public final void testFingerprint_Operator() {
+        Assertions.assertThat(new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2)).getFingerprint())
+            .isNotEqualTo(new SubtractionOperation(new IntegerOperand(1), new IntegerOperand(2)).getFingerprint());
+    }
+
+    @Test
+    @DisplayName("Swapped operands have different fingerprints")
+    public final void testFingerprint_Order() {
+        final DiceNotationExpression dice;
+        final DiceNotationExpression constant;
+
+        dice = new DefaultDiceOperand(new DefaultDice(1, 6, 0));
+        constant = new IntegerOperand(2);
+
+        Assertions.assertThat(new AdditionOperation(dice, constant).getFingerprint())
+            .isNotEqualTo(new AdditionOperation(constant, dice).getFingerprint());
+    }
+
+    @Test
+    @DisplayName("Equal trees have the same fingerprint")
+    public final void testFingerprint_Same() {
+        final DiceNotationExpression first;
+        final DiceNotationExpression second;
+
+        first = new AdditionOperation(new DefaultDiceOperand(new DefaultDice(1, 6, 0)), new IntegerOperand(2));
+        second = new AdditionOperation(new DefaultDiceOperand(new DefaultDice(1, 6, 0)), new IntegerOperand(2));
+
+        Assertions.assertThat(first.getFingerprint())
+            .isEqualTo(second.getFingerprint());
+    }
+
+}
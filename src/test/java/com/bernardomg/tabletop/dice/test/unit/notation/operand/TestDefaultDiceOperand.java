@@ -20,12 +20,14 @@
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ArgumentsSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.bernardomg.tabletop.dice.DefaultDice;
 import com.bernardomg.tabletop.dice.Dice;
 import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
 import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
@@ -42,6 +44,25 @@ public TestDefaultDiceOperand() {
         super();
     }
 
+    @ParameterizedTest(name = "{1} dice with {2} sides = {0}")
+    @ArgumentsSource(NotationQuantityAndSidesArgumentsProvider.class)
+    @DisplayName("The text expression is appended to an existing buffer")
+    public final void testAppendExpression(final String notation, final Integer quantity, final Integer sides) {
+        final DiceNotationExpression diceOperand; // Tested operand
+        final StringBuilder          builder;
+
+        when(dice.getQuantity()).thenReturn(quantity);
+        when(dice.getSides()).thenReturn(sides);
+
+        diceOperand = new DefaultDiceOperand(dice);
+
+        builder = new StringBuilder();
+        diceOperand.appendExpression(builder);
+
+        Assertions.assertThat(builder)
+            .hasToString(notation);
+    }
+
     @ParameterizedTest(name = "{1} dice with {2} sides = {0}")
     @ArgumentsSource(NotationQuantityAndSidesArgumentsProvider.class)
     @DisplayName("The text expression is generated correctly")
@@ -57,4 +78,39 @@ public final void testTextExpression(final String notation, final Integer quanti
             .isEqualTo(notation);
     }
 
+    @Test
+    @DisplayName("Operands for dice outside the table are equal to a new instance")
+    public final void testValueOf_NotShared() {
+        Assertions.assertThat(DefaultDiceOperand.valueOf(new DefaultDice(4, 6, 3)))
+            .isEqualTo(new DefaultDiceOperand(new DefaultDice(4, 6, 3)));
+    }
+
+    @Test
+    @DisplayName("Operands for other dice implementations keep the received dice")
+    public final void testValueOf_OtherDice() {
+        Assertions.assertThat(DefaultDiceOperand.valueOf(dice)
+            .getDice())
+            .isSameAs(dice);
+    }
+
+    @Test
+    @DisplayName("Operands for dice outside the table keep the received dice")
+    public final void testValueOf_NotShared_SameDice() {
+        final DefaultDice received;
+
+        received = new DefaultDice(4, 6, 3);
+
+        Assertions.assertThat(DefaultDiceOperand.valueOf(received)
+            .getDice())
+            .isSameAs(received);
+    }
+
+    @Test
+    @DisplayName("Operands for the usual dice are shared")
+    public final void testValueOf_Shared() {
+        Assertions.assertThat(DefaultDiceOperand.valueOf(new DefaultDice(2, 6, 0)))
+            .isEqualTo(new DefaultDiceOperand(new DefaultDice(2, 6, 0)))
+            .isSameAs(DefaultDiceOperand.valueOf(DefaultDice.valueOf(2, 6, 0)));
+    }
+
 }
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.unit.notation.operand;
+
+import java.util.Arrays;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.FoldedOperand;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.operation.MultiplicationOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SumOperation;
+
+@DisplayName("Tests for FoldedOperand")
+public final class TestFoldedOperand {
+
+    public TestFoldedOperand() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The constants are in order, and those subtracted change their sign")
+    public final void testConstants() {
+        final DiceNotationExpression operation;
+
+        // 2*3-4
+        operation = new SubtractionOperation(
+            new MultiplicationOperation(new IntegerOperand(2), new IntegerOperand(3)), new IntegerOperand(4));
+
+        Assertions.assertThat(new FoldedOperand(operation, 2).getConstants())
+            .containsExactly(2, 3, -4);
+    }
+
+    @Test
+    @DisplayName("The constants of a subtracted operation keep their sign")
+    public final void testConstants_SubtractedOperation() {
+        final DiceNotationExpression operation;
+
+        // 2-3*4
+        operation = new SubtractionOperation(new IntegerOperand(2),
+            new MultiplicationOperation(new IntegerOperand(3), new IntegerOperand(4)));
+
+        Assertions.assertThat(new FoldedOperand(operation, -10).getConstants())
+            .containsExactly(2, 3, 4);
+    }
+
+    @Test
+    @DisplayName("The constants of a sum are in order, and those subtracted change their sign")
+    public final void testConstants_Sum() {
+        final DiceNotationExpression operation;
+
+        // 1+2-3
+        operation = new SumOperation(Arrays.asList(new IntegerOperand(1), new IntegerOperand(2), new IntegerOperand(3)),
+            Arrays.asList(ArithmeticOperator.ADDITION, ArithmeticOperator.SUBTRACTION));
+
+        Assertions.assertThat(new FoldedOperand(operation, 0).getConstants())
+            .containsExactly(1, 2, -3);
+    }
+
+    @Test
+    @DisplayName("The fingerprint is the one of the original operation")
+    public final void testFingerprint() {
+        final DiceNotationExpression operation;
+
+        operation = new MultiplicationOperation(new IntegerOperand(2), new IntegerOperand(3));
+
+        Assertions.assertThat(new FoldedOperand(operation, 6).getFingerprint())
+            .isEqualTo(operation.getFingerprint());
+    }
+
+    @Test
+    @DisplayName("The history text shows the constants, with the operators surrounded by spaces")
+    public final void testHistoryText() {
+        final DiceNotationExpression operation;
+
+        // 2-3*4
+        operation = new SubtractionOperation(new IntegerOperand(2),
+            new MultiplicationOperation(new IntegerOperand(3), new IntegerOperand(4)));
+
+        Assertions.assertThat(new FoldedOperand(operation, -10).getHistoryText())
+            .isEqualTo("2 - 3 * 4");
+    }
+
+    @Test
+    @DisplayName("The history text of a sum shows the constants, with the operators surrounded by spaces")
+    public final void testHistoryText_Sum() {
+        final DiceNotationExpression operation;
+
+        // 1+2-3
+        operation = new SumOperation(Arrays.asList(new IntegerOperand(1), new IntegerOperand(2), new IntegerOperand(3)),
+            Arrays.asList(ArithmeticOperator.ADDITION, ArithmeticOperator.SUBTRACTION));
+
+        Assertions.assertThat(new FoldedOperand(operation, 0).getHistoryText())
+            .isEqualTo("1 + 2 - 3");
+    }
+
+    @Test
+    @DisplayName("The text expression is the one of the original operation")
+    public final void testTextExpression() {
+        final DiceNotationExpression operation;
+
+        operation = new MultiplicationOperation(new IntegerOperand(2), new IntegerOperand(3));
+
+        Assertions.assertThat(new FoldedOperand(operation, 6).getExpression())
+            .isEqualTo("2*3");
+    }
+
+    @Test
+    @DisplayName("The value is the folded one")
+    public final void testValue() {
+        final DiceNotationExpression operation;
+
+        operation = new MultiplicationOperation(new IntegerOperand(2), new IntegerOperand(3));
+
+        Assertions.assertThat(new FoldedOperand(operation, 6).getValue())
+            .isEqualTo(6);
+    }
+
+}
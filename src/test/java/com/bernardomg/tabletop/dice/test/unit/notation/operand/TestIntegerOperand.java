@@ -30,6 +30,24 @@ public TestIntegerOperand() {
         super();
     }
 
+    @Test
+    @DisplayName("Values outside the table are equal to a new instance")
+    public final void testValueOf_NotShared() {
+        Assertions.assertThat(IntegerOperand.valueOf(1000))
+            .isEqualTo(new IntegerOperand(1000));
+    }
+
+    @Test
+    @DisplayName("The usual values are shared")
+    public final void testValueOf_Shared() {
+        Assertions.assertThat(IntegerOperand.valueOf(-128))
+            .isEqualTo(new IntegerOperand(-128))
+            .isSameAs(IntegerOperand.valueOf(-128));
+        Assertions.assertThat(IntegerOperand.valueOf(127))
+            .isEqualTo(new IntegerOperand(127))
+            .isSameAs(IntegerOperand.valueOf(127));
+    }
+
     @Test
     @DisplayName("The text expression is generated correctly")
     public final void testTextExpression() {
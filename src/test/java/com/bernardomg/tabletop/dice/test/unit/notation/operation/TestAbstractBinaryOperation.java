@@ -0,0 +1,94 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.unit.notation.operation;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AbstractBinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+
+@DisplayName("Tests for AbstractBinaryOperation subclasses which build their own text")
+public final class TestAbstractBinaryOperation {
+
+    public TestAbstractBinaryOperation() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The fingerprint is not the same as that of a built-in operation")
+    public final void test_Fingerprint_NoOperator() {
+        final BinaryOperation operation;
+
+        operation = getModulo(new IntegerOperand(7), new IntegerOperand(3));
+
+        Assertions.assertThat(operation.getFingerprint())
+            .isNotEqualTo(new AdditionOperation(new IntegerOperand(7), new IntegerOperand(3)).getFingerprint());
+    }
+
+    @Test
+    @DisplayName("The primitive operation applies the boxed one")
+    public final void test_IntOperation_NoOperator() {
+        final BinaryOperation operation;
+
+        operation = getModulo(new IntegerOperand(7), new IntegerOperand(3));
+
+        Assertions.assertThat(operation.getIntOperation()
+            .applyAsInt(7, 3))
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("The text expression is the one built by the operation")
+    public final void test_TextExpression_NoOperator() {
+        final BinaryOperation operation;
+
+        operation = getModulo(new IntegerOperand(7), new IntegerOperand(3));
+
+        Assertions.assertThat(operation.getExpression())
+            .isEqualTo("7%3");
+    }
+
+    @Test
+    @DisplayName("The text expression is the one built by the operation when inside another operation")
+    public final void test_TextExpression_NoOperator_Nested() {
+        final BinaryOperation operation;
+
+        operation = new AdditionOperation(new IntegerOperand(1),
+            getModulo(new IntegerOperand(7), new IntegerOperand(3)));
+
+        Assertions.assertThat(operation.getExpression())
+            .isEqualTo("1+7%3");
+    }
+
+    private final BinaryOperation getModulo(final DiceNotationExpression left, final DiceNotationExpression right) {
+        return new AbstractBinaryOperation(left, right, (a, b) -> a % b) {
+
+            @Override
+            public final String getExpression() {
+                return String.format("%s%%%s", getLeft().getExpression(), getRight().getExpression());
+            }
+
+        };
+    }
+
+}
@@ -16,14 +16,21 @@
 
 package com.bernardomg.tabletop.dice.test.unit.notation.operation;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import com.bernardomg.tabletop.dice.DefaultDice;
 import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
 import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
 import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
 import com.bernardomg.tabletop.dice.notation.operation.BinaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SubtractionOperation;
 
 @DisplayName("Tests for AdditionOperation")
 public final class TestAdditionOperation {
@@ -32,6 +39,118 @@ public TestAdditionOperation() {
         super();
     }
 
+    @Test
+    @DisplayName("The text expression is appended to an existing buffer")
+    public final void test_AppendExpression() {
+        final BinaryOperation operation;
+        final StringBuilder   builder;
+
+        operation = new AdditionOperation(new IntegerOperand(1), new DefaultDiceOperand(new DefaultDice(2, 6, 0)));
+
+        builder = new StringBuilder("Roll: ");
+        operation.appendExpression(builder);
+
+        Assertions.assertThat(builder)
+            .hasToString("Roll: 1+2d6");
+    }
+
+    @Test
+    @DisplayName("Output errors are thrown as unchecked exceptions")
+    public final void test_AppendExpression_Error() {
+        final BinaryOperation  operation;
+        final Appendable       out;
+        final ThrowingCallable closure;
+
+        operation = new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2));
+        out = new Appendable() {
+
+            @Override
+            public final Appendable append(final char c) throws IOException {
+                throw new IOException();
+            }
+
+            @Override
+            public final Appendable append(final CharSequence csq) throws IOException {
+                throw new IOException();
+            }
+
+            @Override
+            public final Appendable append(final CharSequence csq, final int start, final int end)
+                    throws IOException {
+                throw new IOException();
+            }
+
+        };
+
+        closure = () -> operation.appendExpression(out);
+
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    @DisplayName("The primitive operation gives the same value as the boxed one")
+    public final void test_IntOperation() {
+        final BinaryOperation operation; // Tested operation
+
+        operation = new AdditionOperation(new IntegerOperand(7), new IntegerOperand(2));
+
+        Assertions.assertThat(operation.getIntOperation()
+            .applyAsInt(7, 2))
+            .isEqualTo(9)
+            .isEqualTo(operation.getOperation()
+                .apply(7, 2));
+    }
+
+    @Test
+    @DisplayName("Operations with the same operands but different operators are not equal")
+    public final void test_NotEqual_Operator() {
+        Assertions.assertThat(new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2)))
+            .isNotEqualTo(new SubtractionOperation(new IntegerOperand(1), new IntegerOperand(2)));
+    }
+
+    @Test
+    @DisplayName("The text expression is built once")
+    public final void test_TextExpression_Cached() {
+        final BinaryOperation operation;
+
+        operation = new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2));
+
+        Assertions.assertThat(operation.getExpression())
+            .isSameAs(operation.getExpression());
+    }
+
+    @Test
+    @DisplayName("The text expression is generated for deep trees")
+    public final void test_TextExpression_Deep() {
+        DiceNotationExpression operation;
+
+        operation = new IntegerOperand(0);
+        for (Integer i = 0; i < 100000; i++) {
+            operation = new AdditionOperation(operation, new IntegerOperand(1));
+        }
+
+        Assertions.assertThat(operation.getExpression())
+            .hasSize(1 + (100000 * 2))
+            .startsWith("0+1+1");
+    }
+
+    @Test
+    @DisplayName("The cached text expression does not change equality")
+    public final void test_TextExpression_Equals() {
+        final BinaryOperation operation;
+        final BinaryOperation other;
+
+        operation = new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2));
+        other = new AdditionOperation(new IntegerOperand(1), new IntegerOperand(2));
+
+        operation.getExpression();
+
+        Assertions.assertThat(operation)
+            .isEqualTo(other)
+            .hasSameHashCodeAs(other);
+    }
+
     @Test
     @DisplayName("The text expression is generated correctly for negatives")
     public final void test_TextExpression_Negatives() {
@@ -32,6 +32,20 @@ public TestDivisionOperation() {
         super();
     }
 
+    @Test
+    @DisplayName("The primitive operation gives the same value as the boxed one")
+    public final void test_IntOperation() {
+        final BinaryOperation operation; // Tested operation
+
+        operation = new DivisionOperation(new IntegerOperand(7), new IntegerOperand(2));
+
+        Assertions.assertThat(operation.getIntOperation()
+            .applyAsInt(7, 2))
+            .isEqualTo(3)
+            .isEqualTo(operation.getOperation()
+                .apply(7, 2));
+    }
+
     @Test
     @DisplayName("The text expression is generated correctly for negatives")
     public final void test_TextExpression_Negatives() {
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.unit.notation.operation;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.operation.NaryOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SumOperation;
+
+@DisplayName("Tests for SumOperation")
+public final class TestSumOperation {
+
+    public TestSumOperation() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The default operator is used when no operators are received")
+    public final void test_DefaultOperators() {
+        final NaryOperation operation;
+
+        operation = new SumOperation(Arrays.asList(new IntegerOperand(1), new IntegerOperand(2),
+            new IntegerOperand(3)));
+
+        Assertions.assertThat(operation.getOperators())
+            .containsExactly(ArithmeticOperator.ADDITION, ArithmeticOperator.ADDITION);
+    }
+
+    @Test
+    @DisplayName("An operator from another precedence is rejected")
+    public final void test_InvalidOperator() {
+        final ThrowingCallable closure;
+
+        closure = () -> new SumOperation(Arrays.asList(new IntegerOperand(1), new IntegerOperand(2)),
+            Arrays.asList(ArithmeticOperator.MULTIPLICATION));
+
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("A single operand is rejected")
+    public final void test_SingleOperand() {
+        final ThrowingCallable closure;
+
+        closure = () -> new SumOperation(Arrays.asList(new IntegerOperand(1)), Collections.emptyList());
+
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("The text expression is generated correctly")
+    public final void test_TextExpression() {
+        final NaryOperation operation;
+
+        operation = new SumOperation(
+            Arrays.asList(new IntegerOperand(1), new DefaultDiceOperand(new DefaultDice(2, 6, 0)), new IntegerOperand(-3)),
+            Arrays.asList(ArithmeticOperator.ADDITION, ArithmeticOperator.SUBTRACTION));
+
+        Assertions.assertThat(operation.getExpression())
+            .isEqualTo("1+2d6--3");
+    }
+
+    @Test
+    @DisplayName("A wrong number of operators is rejected")
+    public final void test_WrongOperatorCount() {
+        final ThrowingCallable closure;
+
+        closure = () -> new SumOperation(Arrays.asList(new IntegerOperand(1), new IntegerOperand(2)),
+            Arrays.asList(ArithmeticOperator.ADDITION, ArithmeticOperator.SUBTRACTION));
+
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.unit.notation.postfix;
+
+import java.util.Arrays;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.DefaultDice;
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.DefaultDiceOperand;
+import com.bernardomg.tabletop.dice.notation.operand.FoldedOperand;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.notation.operation.AdditionOperation;
+import com.bernardomg.tabletop.dice.notation.operation.ArithmeticOperator;
+import com.bernardomg.tabletop.dice.notation.operation.MultiplicationOperation;
+import com.bernardomg.tabletop.dice.notation.operation.SumOperation;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotation;
+import com.bernardomg.tabletop.dice.notation.postfix.PostfixNotationBuilder;
+
+@DisplayName("Postfix notation programs")
+public final class TestPostfixNotation {
+
+    public TestPostfixNotation() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The builder grows to fit long programs")
+    public final void testBuild_Long() {
+        final PostfixNotationBuilder builder;
+        final PostfixNotation        program;
+
+        builder = new PostfixNotationBuilder();
+        builder.appendConstant(0);
+        for (Integer i = 0; i < 1000; i++) {
+            builder.appendDice(2, 6, 0);
+            builder.appendOperation(ArithmeticOperator.ADDITION);
+        }
+        program = builder.build();
+
+        Assertions.assertThat(program.getLength())
+            .isEqualTo(2 + (1000 * 5));
+        Assertions.assertThat(program.getDepth())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("The depth is the highest number of values on the stack")
+    public final void testDepth() {
+        final PostfixNotation program;
+
+        program = PostfixNotation.of(new int[] { PostfixNotation.CONSTANT, 1, PostfixNotation.CONSTANT, 2,
+                PostfixNotation.CONSTANT, 3, PostfixNotation.MULTIPLICATION, PostfixNotation.ADDITION });
+
+        Assertions.assertThat(program.getDepth())
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Programs with the same instructions are equal")
+    public final void testEquals() {
+        Assertions.assertThat(PostfixNotation.of(new int[] { PostfixNotation.CONSTANT, 1 }))
+            .isEqualTo(PostfixNotation.of(new int[] { PostfixNotation.CONSTANT, 1 }))
+            .isNotEqualTo(PostfixNotation.of(new int[] { PostfixNotation.CONSTANT, 2 }));
+    }
+
+    @Test
+    @DisplayName("Programs with the same instructions have the same fingerprint")
+    public final void testFingerprint() {
+        Assertions.assertThat(PostfixNotation.of(new int[] { PostfixNotation.CONSTANT, 1 })
+            .getFingerprint())
+            .isEqualTo(PostfixNotation.of(new int[] { PostfixNotation.CONSTANT, 1 })
+                .getFingerprint())
+            .isNotEqualTo(PostfixNotation.of(new int[] { PostfixNotation.CONSTANT, 2 })
+                .getFingerprint());
+    }
+
+    @Test
+    @DisplayName("A binary operation is stored after its operands")
+    public final void testFromExpression_Binary() {
+        final DiceNotationExpression expression;
+
+        expression = new AdditionOperation(new DefaultDiceOperand(new DefaultDice(1, 6, 0)), new IntegerOperand(2));
+
+        Assertions.assertThat(PostfixNotation.fromExpression(expression)
+            .toArray())
+            .containsExactly(PostfixNotation.DICE, 1, 6, 0, PostfixNotation.CONSTANT, 2, PostfixNotation.ADDITION);
+    }
+
+    @Test
+    @DisplayName("An n-ary operation is stored with its size and operators")
+    public final void testFromExpression_Nary() {
+        final DiceNotationExpression expression;
+
+        expression = new SumOperation(Arrays.asList(new IntegerOperand(1), new IntegerOperand(2),
+            new IntegerOperand(3)), Arrays.asList(ArithmeticOperator.SUBTRACTION, ArithmeticOperator.ADDITION));
+
+        Assertions.assertThat(PostfixNotation.fromExpression(expression)
+            .toArray())
+            .containsExactly(PostfixNotation.CONSTANT, 1, PostfixNotation.CONSTANT, 2, PostfixNotation.CONSTANT, 3,
+                PostfixNotation.SUM, 3, PostfixNotation.SUBTRACTION, PostfixNotation.ADDITION);
+    }
+
+    @Test
+    @DisplayName("The received instructions are copied")
+    public final void testOf_Copied() {
+        final int[]           instructions;
+        final PostfixNotation program;
+
+        instructions = new int[] { PostfixNotation.CONSTANT, 1 };
+        program = PostfixNotation.of(instructions);
+        instructions[1] = 2;
+
+        Assertions.assertThat(program.getInstruction(1))
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("An empty program is rejected")
+    public final void testOf_Empty() {
+        Assertions.assertThatThrownBy(() -> PostfixNotation.of(new int[0]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("An invalid opcode is rejected")
+    public final void testOf_InvalidOpcode() {
+        Assertions.assertThatThrownBy(() -> PostfixNotation.of(new int[] { 99 }))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("An invalid n-ary operator is rejected")
+    public final void testOf_InvalidOperator() {
+        Assertions.assertThatThrownBy(() -> PostfixNotation.of(new int[] { PostfixNotation.CONSTANT, 1,
+                PostfixNotation.CONSTANT, 2, PostfixNotation.SUM, 2, PostfixNotation.MULTIPLICATION }))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("An instruction without all its arguments is rejected")
+    public final void testOf_MissingArguments() {
+        Assertions.assertThatThrownBy(() -> PostfixNotation.of(new int[] { PostfixNotation.DICE, 1, 6 }))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("An operation without enough values is rejected")
+    public final void testOf_MissingValues() {
+        Assertions.assertThatThrownBy(
+            () -> PostfixNotation.of(new int[] { PostfixNotation.CONSTANT, 1, PostfixNotation.ADDITION }))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("A program leaving several values is rejected")
+    public final void testOf_RemainingValues() {
+        Assertions.assertThatThrownBy(
+            () -> PostfixNotation.of(new int[] { PostfixNotation.CONSTANT, 1, PostfixNotation.CONSTANT, 2 }))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("A program is converted back to the same tree")
+    public final void testToExpression() {
+        final DiceNotationExpression expression;
+
+        expression = new AdditionOperation(new DefaultDiceOperand(new DefaultDice(4, 6, 3)),
+            new SumOperation(Arrays.asList(new IntegerOperand(1), new IntegerOperand(-2))));
+
+        Assertions.assertThat(PostfixNotation.fromExpression(expression)
+            .toExpression())
+            .isEqualTo(expression);
+    }
+
+    @Test
+    @DisplayName("A folded constant is converted back to just its value")
+    public final void testToExpression_Folded() {
+        final DiceNotationExpression expression;
+        final DiceNotationExpression expected;
+
+        // 1d20+3*4, with the constants folded
+        expression = new AdditionOperation(new DefaultDiceOperand(new DefaultDice(1, 20, 0)),
+            new FoldedOperand(new MultiplicationOperation(new IntegerOperand(3), new IntegerOperand(4)), 12));
+        expected = new AdditionOperation(new DefaultDiceOperand(new DefaultDice(1, 20, 0)), new IntegerOperand(12));
+
+        Assertions.assertThat(PostfixNotation.fromExpression(expression)
+            .toExpression())
+            .isEqualTo(expected);
+        Assertions.assertThat(PostfixNotation.fromExpression(expression)
+            .toExpression()
+            .getExpression())
+            .isEqualTo("1d20+12");
+    }
+
+}
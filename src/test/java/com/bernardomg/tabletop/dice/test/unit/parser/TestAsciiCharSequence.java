@@ -0,0 +1,109 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.unit.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.parser.AsciiCharSequence;
+
+@DisplayName("AsciiCharSequence reads bytes as characters")
+public final class TestAsciiCharSequence {
+
+    public TestAsciiCharSequence() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A buffer is read from its position to its limit, without moving the position")
+    public final void testBuffer() {
+        final ByteBuffer   buffer;
+        final CharSequence sequence;
+
+        buffer = ByteBuffer.allocateDirect(16);
+        buffer.put("xx1d6+2yy".getBytes(StandardCharsets.US_ASCII));
+        buffer.position(2);
+        buffer.limit(7);
+
+        sequence = new AsciiCharSequence(buffer);
+
+        Assertions.assertThat(sequence.toString())
+            .isEqualTo("1d6+2");
+        Assertions.assertThat(buffer.position())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Reading out of the slice causes an exception")
+    public final void testCharAt_OutOfBounds() {
+        final CharSequence     sequence;
+        final ThrowingCallable closure;
+
+        sequence = new AsciiCharSequence("xx1d6yy".getBytes(StandardCharsets.US_ASCII), 2, 3);
+
+        closure = () -> sequence.charAt(3);
+
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    @DisplayName("Bytes outside the ASCII range are read as single characters")
+    public final void testNonAscii() {
+        final CharSequence sequence;
+
+        sequence = new AsciiCharSequence(new byte[] { '1', (byte) 0xE9 }, 0, 2);
+
+        Assertions.assertThat(sequence.length())
+            .isEqualTo(2);
+        Assertions.assertThat(sequence.charAt(1))
+            .isEqualTo('é');
+    }
+
+    @Test
+    @DisplayName("A slice of a byte array is read")
+    public final void testSlice() {
+        final CharSequence sequence;
+
+        sequence = new AsciiCharSequence("xx1d6yy".getBytes(StandardCharsets.US_ASCII), 2, 3);
+
+        Assertions.assertThat(sequence.length())
+            .isEqualTo(3);
+        Assertions.assertThat(sequence.charAt(0))
+            .isEqualTo('1');
+        Assertions.assertThat(sequence.toString())
+            .isEqualTo("1d6");
+    }
+
+    @Test
+    @DisplayName("A subsequence is read from the same bytes")
+    public final void testSubSequence() {
+        final CharSequence sequence;
+
+        sequence = new AsciiCharSequence("xx1d6+2yy".getBytes(StandardCharsets.US_ASCII), 2, 5);
+
+        Assertions.assertThat(sequence.subSequence(1, 3)
+            .toString())
+            .isEqualTo("d6");
+    }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.unit.parser;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.bernardomg.tabletop.dice.notation.DiceNotationExpression;
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.parser.AsciiCharSequence;
+import com.bernardomg.tabletop.dice.parser.CachingDiceParser;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.ParseResult;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CachingDiceParser caches the parsed expressions")
+public final class TestCachingDiceParser {
+
+    @Mock
+    private DiceParser wrapped;
+
+    public TestCachingDiceParser() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The cache never grows over its maximum size")
+    public final void testParse_Bounded() {
+        final CachingDiceParser parser;
+
+        when(wrapped.parse("1")).thenReturn(new IntegerOperand(1));
+        when(wrapped.parse("2")).thenReturn(new IntegerOperand(2));
+        when(wrapped.parse("3")).thenReturn(new IntegerOperand(3));
+
+        parser = new CachingDiceParser(wrapped, 2);
+
+        parser.parse("1");
+        parser.parse("2");
+        parser.parse("3");
+
+        Assertions.assertThat(parser.getSize())
+            .isEqualTo(2);
+        Assertions.assertThat(parser.getEvictions())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Failed parsings are not cached")
+    public final void testParse_Error_NotCached() {
+        final CachingDiceParser parser;
+        final ThrowingCallable  closure;
+
+        when(wrapped.parse("abc")).thenThrow(new IllegalStateException());
+
+        parser = new CachingDiceParser(wrapped);
+
+        closure = () -> parser.parse("abc");
+
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(IllegalStateException.class);
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(IllegalStateException.class);
+
+        verify(wrapped, times(2)).parse("abc");
+        Assertions.assertThat(parser.getSize())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("An entry read recently is kept over one which was not read")
+    public final void testParse_KeepsReferenced() {
+        final CachingDiceParser parser;
+
+        when(wrapped.parse("1")).thenReturn(new IntegerOperand(1));
+        when(wrapped.parse("2")).thenReturn(new IntegerOperand(2));
+        when(wrapped.parse("3")).thenReturn(new IntegerOperand(3));
+
+        parser = new CachingDiceParser(wrapped, 2);
+
+        parser.parse("1");
+        parser.parse("2");
+        // Reads the oldest entry
+        parser.parse("1");
+        parser.parse("3");
+        parser.parse("1");
+
+        verify(wrapped, times(1)).parse("1");
+        Assertions.assertThat(parser.getHits())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Parsing the same text twice calls the wrapped parser once")
+    public final void testParse_Repeated() {
+        final CachingDiceParser      parser;
+        final DiceNotationExpression first;
+        final DiceNotationExpression second;
+
+        when(wrapped.parse("1")).thenReturn(new IntegerOperand(1));
+
+        parser = new CachingDiceParser(wrapped);
+
+        first = parser.parse("1");
+        second = parser.parse("1");
+
+        verify(wrapped, times(1)).parse("1");
+        Assertions.assertThat(second)
+            .isSameAs(first);
+        Assertions.assertThat(parser.getHits())
+            .isEqualTo(1);
+        Assertions.assertThat(parser.getMisses())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Sequences which are not strings are sent to the wrapped parser, without caching them")
+    public final void testParse_Sequence() {
+        final CachingDiceParser parser;
+        final CharSequence      sequence;
+
+        sequence = new AsciiCharSequence("1".getBytes(StandardCharsets.US_ASCII), 0, 1);
+        when(wrapped.parse(sequence)).thenReturn(new IntegerOperand(1));
+
+        parser = new CachingDiceParser(wrapped);
+
+        Assertions.assertThat(parser.parse(sequence))
+            .isEqualTo(new IntegerOperand(1));
+        Assertions.assertThat(parser.getSize())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Trying to parse shares the cache with parsing")
+    public final void testTryParse_SharesCache() {
+        final CachingDiceParser parser;
+        final ParseResult       result;
+
+        when(wrapped.parse("1")).thenReturn(new IntegerOperand(1));
+
+        parser = new CachingDiceParser(wrapped);
+
+        parser.parse("1");
+        result = parser.tryParse("1");
+
+        verify(wrapped, times(1)).parse("1");
+        Assertions.assertThat(result.getExpression())
+            .isEqualTo(new IntegerOperand(1));
+        Assertions.assertThat(parser.getHits())
+            .isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.unit.parser;
+
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.parser.AsciiCharSequence;
+import com.bernardomg.tabletop.dice.parser.DefaultParseResult;
+import com.bernardomg.tabletop.dice.parser.ParseErrorCode;
+import com.bernardomg.tabletop.dice.parser.ParseResult;
+
+@DisplayName("DefaultParseResult builds the error message")
+public final class TestDefaultParseResult {
+
+    public TestDefaultParseResult() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The message for an unexpected character contains the character")
+    public final void testGetMessage_Character() {
+        final ParseResult result;
+
+        result = new DefaultParseResult("1d6)", ParseErrorCode.UNEXPECTED_INPUT, 3, null);
+
+        Assertions.assertThat(result.getMessage())
+            .isEqualTo("Failed to parse at line 1 on char 4 due to unexpected input ')'");
+    }
+
+    @Test
+    @DisplayName("The message for an error after a line break contains the line")
+    public final void testGetMessage_Line() {
+        final ParseResult result;
+
+        result = new DefaultParseResult("1d6+\n2+", ParseErrorCode.UNEXPECTED_END, 7, null);
+
+        Assertions.assertThat(result.getMessage())
+            .isEqualTo("Failed to parse at line 2 on char 3 due to unexpected end of expression");
+    }
+
+    @Test
+    @DisplayName("The message for an error without position is the detail")
+    public final void testGetMessage_NoPosition() {
+        final ParseResult result;
+
+        result = new DefaultParseResult("abc", ParseErrorCode.INVALID_EXPRESSION, null, "Some error");
+
+        Assertions.assertThat(result.getMessage())
+            .isEqualTo("Some error");
+    }
+
+    @Test
+    @DisplayName("The message for an error without position or detail is the error description")
+    public final void testGetMessage_NoPositionNoDetail() {
+        final ParseResult result;
+
+        result = new DefaultParseResult("2147483648", ParseErrorCode.NUMBER_OUT_OF_RANGE, null, null);
+
+        Assertions.assertThat(result.getMessage())
+            .isEqualTo("number out of range");
+    }
+
+    @Test
+    @DisplayName("A valid result has no message")
+    public final void testGetMessage_Valid() {
+        final ParseResult result;
+
+        result = new DefaultParseResult("1", new IntegerOperand(1));
+
+        Assertions.assertThat(result.getMessage())
+            .isNull();
+        Assertions.assertThat(result.isValid())
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("The notation read in place is returned as a string")
+    public final void testGetNotation_Sequence() {
+        final ParseResult result;
+
+        result = new DefaultParseResult(new AsciiCharSequence("x1d6)".getBytes(StandardCharsets.US_ASCII), 1, 4),
+            ParseErrorCode.UNEXPECTED_INPUT, 3, null);
+
+        Assertions.assertThat(result.getNotation())
+            .isEqualTo("1d6)");
+        Assertions.assertThat(result.getMessage())
+            .isEqualTo("Failed to parse at line 1 on char 4 due to unexpected input ')'");
+    }
+
+}
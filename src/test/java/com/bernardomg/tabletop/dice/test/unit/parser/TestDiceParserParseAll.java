@@ -0,0 +1,212 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.unit.parser;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.bernardomg.tabletop.dice.notation.operand.IntegerOperand;
+import com.bernardomg.tabletop.dice.parser.DiceParser;
+import com.bernardomg.tabletop.dice.parser.ParseErrorCode;
+import com.bernardomg.tabletop.dice.parser.ParseResult;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DiceParser parses several expressions at once")
+public final class TestDiceParserParseAll {
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private DiceParser parser;
+
+    public TestDiceParserParseAll() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Repeated expressions are parsed once")
+    public final void testParseAll_Duplicated() {
+        final List<ParseResult> results;
+
+        when(parser.parse("1")).thenReturn(new IntegerOperand(1));
+
+        results = parser.parseAll(List.of("1", "1", "1"));
+
+        verify(parser, times(1)).parse("1");
+
+        Assertions.assertThat(results)
+            .extracting(ParseResult::getExpression)
+            .containsExactly(new IntegerOperand(1), new IntegerOperand(1), new IntegerOperand(1));
+    }
+
+    @Test
+    @DisplayName("A failed expression doesn't stop the parsing")
+    public final void testParseAll_Error() {
+        final List<ParseResult> results;
+
+        when(parser.parse("1")).thenReturn(new IntegerOperand(1));
+        when(parser.parse("abc")).thenThrow(new IllegalStateException("Invalid"));
+        when(parser.parse("2")).thenReturn(new IntegerOperand(2));
+
+        results = parser.parseAll(List.of("1", "abc", "2"));
+
+        Assertions.assertThat(results)
+            .extracting(ParseResult::isValid)
+            .containsExactly(true, false, true);
+        Assertions.assertThat(results.get(1)
+            .getMessage())
+            .isEqualTo("Invalid");
+        Assertions.assertThat(results.get(1)
+            .getExpression())
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("A null expression is rejected before parsing")
+    public final void testParseAll_Null() {
+        final ThrowingCallable closure;
+
+        closure = () -> parser.parseAll(Arrays.asList("1", null, "2"));
+
+        Assertions.assertThatThrownBy(closure)
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("Received a null pointer as the expression at position 1");
+        verify(parser, times(0)).parse(anyString());
+    }
+
+    @Test
+    @DisplayName("The results are returned in the same order as the expressions")
+    public final void testParseAll_Order() {
+        final List<ParseResult> results;
+
+        when(parser.parse("1")).thenReturn(new IntegerOperand(1));
+        when(parser.parse("2")).thenReturn(new IntegerOperand(2));
+        when(parser.parse("3")).thenReturn(new IntegerOperand(3));
+
+        results = parser.parseAll(List.of("3", "1", "2", "1"));
+
+        Assertions.assertThat(results)
+            .extracting(ParseResult::getNotation)
+            .containsExactly("3", "1", "2", "1");
+        Assertions.assertThat(results)
+            .extracting(ParseResult::getExpression)
+            .containsExactly(new IntegerOperand(3), new IntegerOperand(1), new IntegerOperand(2),
+                new IntegerOperand(1));
+    }
+
+    @Test
+    @DisplayName("The results are returned in the same order as the expressions when parsing in a pool")
+    public final void testParseAll_Pool_Order() {
+        final List<String>      notations;
+        final List<ParseResult> results;
+        final ForkJoinPool      pool;
+
+        when(parser.parse(anyString())).thenAnswer(i -> new IntegerOperand(Integer.valueOf(i.getArgument(0))));
+
+        notations = Stream.iterate(0, i -> i + 1)
+            .limit(500)
+            .map(i -> String.valueOf(i % 100))
+            .collect(Collectors.toList());
+
+        pool = new ForkJoinPool(4);
+        try {
+            results = parser.parseAll(notations, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        Assertions.assertThat(results)
+            .extracting(ParseResult::getNotation)
+            .isEqualTo(notations);
+        Assertions.assertThat(results)
+            .allMatch(r -> r.getExpression()
+                .equals(new IntegerOperand(Integer.valueOf(r.getNotation()))));
+    }
+
+    @Test
+    @DisplayName("A stack overflow doesn't stop the parsing")
+    public final void testParseAll_StackOverflow() {
+        final List<ParseResult> results;
+
+        when(parser.parse("1")).thenReturn(new IntegerOperand(1));
+        when(parser.parse("((1))")).thenThrow(new StackOverflowError());
+        when(parser.parse("2")).thenReturn(new IntegerOperand(2));
+
+        results = parser.parseAll(List.of("1", "((1))", "2"));
+
+        Assertions.assertThat(results)
+            .extracting(ParseResult::isValid)
+            .containsExactly(true, false, true);
+        Assertions.assertThat(results.get(1)
+            .getErrorCode())
+            .isEqualTo(ParseErrorCode.DEPTH_LIMIT_EXCEEDED);
+    }
+
+    @Test
+    @DisplayName("An exception thrown while trying to parse doesn't stop the parsing")
+    public final void testParseAll_ThrowingTryParse() {
+        final List<ParseResult> results;
+
+        when(parser.parse("1")).thenReturn(new IntegerOperand(1));
+        // Lenient, as the other expression is sent to the real method
+        lenient().doThrow(new IllegalStateException("Invalid"))
+            .when(parser)
+            .tryParse("abc");
+
+        results = parser.parseAll(List.of("1", "abc"));
+
+        Assertions.assertThat(results)
+            .extracting(ParseResult::isValid)
+            .containsExactly(true, false);
+        Assertions.assertThat(results.get(1)
+            .getMessage())
+            .isEqualTo("Invalid");
+    }
+
+    @Test
+    @DisplayName("Expressions can be received as a stream")
+    public final void testParseAll_Stream() {
+        final List<ParseResult> results;
+
+        when(parser.parse("1")).thenReturn(new IntegerOperand(1));
+        when(parser.parse("2")).thenReturn(new IntegerOperand(2));
+
+        results = parser.parseAll(Stream.of("1", "2"));
+
+        Assertions.assertThat(results)
+            .extracting(ParseResult::getExpression)
+            .containsExactly(new IntegerOperand(1), new IntegerOperand(2));
+    }
+
+}
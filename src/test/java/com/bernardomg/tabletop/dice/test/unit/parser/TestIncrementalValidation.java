@@ -0,0 +1,139 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.unit.parser;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.parser.IncrementalValidation;
+import com.bernardomg.tabletop.dice.parser.ParseErrorCode;
+import com.bernardomg.tabletop.dice.parser.ParseLimits;
+import com.bernardomg.tabletop.dice.parser.ValidationStatus;
+
+@DisplayName("Incremental validation")
+public final class TestIncrementalValidation {
+
+    public TestIncrementalValidation() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Characters after an error are ignored")
+    public final void testAppend_AfterError() {
+        final IncrementalValidation validation;
+
+        validation = new IncrementalValidation().append("1d6 +2");
+
+        Assertions.assertThat(validation.getStatus())
+            .isEqualTo(ValidationStatus.INVALID);
+        Assertions.assertThat(validation.getErrorCode())
+            .isEqualTo(ParseErrorCode.INVALID_CHARACTER);
+        Assertions.assertThat(validation.getErrorPosition())
+            .isEqualTo(3);
+        Assertions.assertThat(validation.getLength())
+            .isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("A keep operator after a number is rejected at the operator")
+    public final void testAppend_KeepAfterNumber() {
+        final IncrementalValidation prefix;
+        final IncrementalValidation validation;
+
+        prefix = new IncrementalValidation().append("1d");
+        validation = prefix.append('h');
+
+        Assertions.assertThat(prefix.getStatus())
+            .isEqualTo(ValidationStatus.VALID_PREFIX);
+        Assertions.assertThat(validation.getErrorCode())
+            .isEqualTo(ParseErrorCode.UNEXPECTED_INPUT);
+        Assertions.assertThat(validation.getErrorPosition())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A full operation leaving no room for more nodes is rejected")
+    public final void testAppend_NodeLimit() {
+        final IncrementalValidation validation;
+
+        validation = new IncrementalValidation(ParseLimits.builder()
+            .maxNodes(2)
+            .build()).append("1+");
+
+        Assertions.assertThat(validation.getStatus())
+            .isEqualTo(ValidationStatus.INVALID);
+        Assertions.assertThat(validation.getErrorCode())
+            .isEqualTo(ParseErrorCode.NODE_LIMIT_EXCEEDED);
+    }
+
+    @Test
+    @DisplayName("A number out of range is rejected as soon as it is too big")
+    public final void testAppend_OutOfRange() {
+        final IncrementalValidation validation;
+
+        validation = new IncrementalValidation().append("1+2147483648");
+
+        Assertions.assertThat(validation.getErrorCode())
+            .isEqualTo(ParseErrorCode.NUMBER_OUT_OF_RANGE);
+        Assertions.assertThat(validation.getErrorPosition())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Appending returns a new state, and the previous one is kept")
+    public final void testAppend_Snapshot() {
+        final IncrementalValidation previous;
+
+        previous = new IncrementalValidation().append("1d6");
+        previous.append('x');
+
+        Assertions.assertThat(previous.getStatus())
+            .isEqualTo(ValidationStatus.VALID);
+        Assertions.assertThat(previous.getLength())
+            .isEqualTo(3);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "1d6", "4d6kh3", "(1d6+2)*3", "-2147483648", "d20", "1\td6\n" })
+    @DisplayName("A valid notation is valid")
+    public final void testAppend_Valid(final String notation) {
+        Assertions.assertThat(new IncrementalValidation().append(notation)
+            .getStatus())
+            .isEqualTo(ValidationStatus.VALID);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "", "1d", "4d6k", "4d6kh", "(1d6", "1+", "-", "(", "4d6d" })
+    @DisplayName("The start of a notation is a valid prefix")
+    public final void testAppend_ValidPrefix(final String notation) {
+        final IncrementalValidation validation;
+
+        validation = new IncrementalValidation().append(notation);
+
+        Assertions.assertThat(validation.getStatus())
+            .isEqualTo(ValidationStatus.VALID_PREFIX);
+        Assertions.assertThat(validation.getErrorCode())
+            .isNull();
+        Assertions.assertThat(validation.getErrorPosition())
+            .isNull();
+    }
+
+}
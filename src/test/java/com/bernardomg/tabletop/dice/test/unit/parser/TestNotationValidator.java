@@ -0,0 +1,91 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.unit.parser;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.parser.NotationValidator;
+import com.bernardomg.tabletop.dice.parser.ParseErrorCode;
+import com.bernardomg.tabletop.dice.parser.ValidationResult;
+import com.bernardomg.tabletop.dice.test.argument.NotationArgumentsProvider;
+
+@DisplayName("NotationValidator validates expressions")
+public final class TestNotationValidator {
+
+    private final NotationValidator validator = new NotationValidator();
+
+    public TestNotationValidator() {
+        super();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "4d6kh3", "4d6dl1", "d6kh1", "-d6", "+2d6", "1D6", "2*-3", "1--5", "(1d6)", "((1+2))*3",
+            "(1d6+2)/(3-1d4)", "1\td6", "4d6\tkh\t3", "-\t5", "2147483647", "-2147483648" })
+    @DisplayName("An extended notation is valid")
+    public final void testValidate_Extended(final String notation) {
+        final ValidationResult result;
+
+        result = validator.validate(notation);
+
+        Assertions.assertThat(result.isValid())
+            .isTrue();
+        Assertions.assertThat(result.getErrorCode())
+            .isNull();
+        Assertions.assertThat(result.getErrorPosition())
+            .isNull();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @CsvSource({ "'', UNEXPECTED_END, 0", "1d6), UNEXPECTED_INPUT, 3", "1d6+, UNEXPECTED_END, 4",
+            "1 + 2, INVALID_CHARACTER, 1", "abc, INVALID_CHARACTER, 0", "--5, UNEXPECTED_INPUT, 1",
+            "6d6y, INVALID_CHARACTER, 3", "(1+2, UNEXPECTED_END, 4", "-(1), UNEXPECTED_INPUT, 1",
+            "1d6d6, UNEXPECTED_INPUT, 3", "1d6kh, UNEXPECTED_END, 5", "(), UNEXPECTED_INPUT, 1",
+            "1+2147483648, NUMBER_OUT_OF_RANGE, 2", "2147483648d6, NUMBER_OUT_OF_RANGE, 0",
+            "1d2147483648, NUMBER_OUT_OF_RANGE, 2", "4d6kh2147483648, NUMBER_OUT_OF_RANGE, 5" })
+    @DisplayName("An invalid notation returns the error code and position")
+    public final void testValidate_Invalid(final String notation, final ParseErrorCode code,
+            final Integer position) {
+        final ValidationResult result;
+
+        result = validator.validate(notation);
+
+        Assertions.assertThat(result.isValid())
+            .isFalse();
+        Assertions.assertThat(result.getErrorCode())
+            .isEqualTo(code);
+        Assertions.assertThat(result.getErrorPosition())
+            .isEqualTo(position);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ArgumentsSource(NotationArgumentsProvider.class)
+    @DisplayName("A notation is valid")
+    public final void testValidate_Notation(final String notation) {
+        final ValidationResult result;
+
+        result = validator.validate(notation);
+
+        Assertions.assertThat(result.isValid())
+            .isTrue();
+    }
+
+}
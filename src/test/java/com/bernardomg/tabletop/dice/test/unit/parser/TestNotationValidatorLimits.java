@@ -0,0 +1,77 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.bernardomg.tabletop.dice.test.unit.parser;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.parser.NotationValidator;
+import com.bernardomg.tabletop.dice.parser.ParseErrorCode;
+import com.bernardomg.tabletop.dice.parser.ParseLimits;
+import com.bernardomg.tabletop.dice.parser.ValidationResult;
+
+@DisplayName("NotationValidator applies the limits")
+public final class TestNotationValidatorLimits {
+
+    private final NotationValidator validator = new NotationValidator(ParseLimits.builder()
+        .maxLength(20)
+        .maxDepth(2)
+        .maxDice(10)
+        .maxSides(100)
+        .maxNodes(5)
+        .build());
+
+    public TestNotationValidatorLimits() {
+        super();
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @CsvSource({ "1d6+1d6+1d6+1d6+1d6+1, LENGTH_LIMIT_EXCEEDED, 20", "(((1))), DEPTH_LIMIT_EXCEEDED, 2",
+            "11d6, DICE_LIMIT_EXCEEDED, 0", "5d6+6d6, DICE_LIMIT_EXCEEDED, 4", "-11d6, DICE_LIMIT_EXCEEDED, 1",
+            "10d6+d6, DICE_LIMIT_EXCEEDED, 5", "1d101, SIDES_LIMIT_EXCEEDED, 2", "1+2+3-4, NODE_LIMIT_EXCEEDED, 5",
+            "(1+2)*(3-4), NODE_LIMIT_EXCEEDED, 8" })
+    @DisplayName("An expression over the limits returns the limit exceeded")
+    public final void testValidate_OverLimit(final String notation, final ParseErrorCode code,
+            final Integer position) {
+        final ValidationResult result;
+
+        result = validator.validate(notation);
+
+        Assertions.assertThat(result.isValid())
+            .isFalse();
+        Assertions.assertThat(result.getErrorCode())
+            .isEqualTo(code);
+        Assertions.assertThat(result.getErrorPosition())
+            .isEqualTo(position);
+    }
+
+    @ParameterizedTest(name = "Notation: {0}")
+    @ValueSource(strings = { "10d100", "((1d6))", "5d6+5d6", "1+2+3", "4d6kh3+2", "(1+2)*3" })
+    @DisplayName("An expression inside the limits is valid")
+    public final void testValidate_WithinLimit(final String notation) {
+        final ValidationResult result;
+
+        result = validator.validate(notation);
+
+        Assertions.assertThat(result.isValid())
+            .isTrue();
+    }
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2014-2023 the original author or authors
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.bernardomg.tabletop.dice.test.unit.template;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bernardomg.tabletop.dice.parser.ParseLimits;
+import com.bernardomg.tabletop.dice.template.DiceTemplate;
+
+@DisplayName("Dice templates")
+public final class TestDiceTemplate {
+
+    public TestDiceTemplate() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Binding more dice than the limit is rejected")
+    public final void testBind_DiceLimit() {
+        final DiceTemplate template;
+
+        template = new DiceTemplate("{n}d6+1d6", ParseLimits.builder()
+            .maxDice(100)
+            .build());
+
+        Assertions.assertThatThrownBy(() -> template.bind(Map.of("n", 100)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("limit");
+    }
+
+    @Test
+    @DisplayName("Values for unknown slots are ignored")
+    public final void testBind_Extra() {
+        final DiceTemplate template;
+
+        template = new DiceTemplate("1d6+{bonus}");
+
+        Assertions.assertThat(template.bindExpression(Map.of("bonus", 2, "level", 5))
+            .getExpression())
+            .isEqualTo("1d6+2");
+    }
+
+    @Test
+    @DisplayName("Binding a keep count over the dice rolled is rejected")
+    public final void testBind_KeepMore() {
+        final DiceTemplate template;
+
+        template = new DiceTemplate("{n}d6kh{k}");
+
+        Assertions.assertThatThrownBy(() -> template.bind(Map.of("n", 2, "k", 3)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("A missing value is rejected")
+    public final void testBind_Missing() {
+        final DiceTemplate template;
+
+        template = new DiceTemplate("{level}d8+{con}");
+
+        Assertions.assertThatThrownBy(() -> template.bind(Map.of("level", 2)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("con");
+    }
+
+    @Test
+    @DisplayName("Binding dice without sides is rejected")
+    public final void testBind_NoSides() {
+        final DiceTemplate template;
+
+        template = new DiceTemplate("1d{sides}");
+
+        Assertions.assertThatThrownBy(() -> template.bind(Map.of("sides", 0)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("A template without slots is bound without values")
+    public final void testBind_NoSlots() {
+        Assertions.assertThat(new DiceTemplate("2d6+1").bindExpression(Collections.emptyMap())
+            .getExpression())
+            .isEqualTo("2d6+1");
+    }
+
+    @Test
+    @DisplayName("A repeated slot is bound everywhere")
+    public final void testBind_Repeated() {
+        final DiceTemplate template;
+
+        template = new DiceTemplate("{level}d8+{level}");
+
+        Assertions.assertThat(template.bindExpression(Map.of("level", 3))
+            .getExpression())
+            .isEqualTo("3d8+3");
+    }
+
+    @Test
+    @DisplayName("Binding more sides than the limit is rejected")
+    public final void testBind_SidesLimit() {
+        final DiceTemplate template;
+
+        template = new DiceTemplate("1d{sides}", ParseLimits.builder()
+            .maxSides(100)
+            .build());
+
+        Assertions.assertThatThrownBy(() -> template.bind(Map.of("sides", 1000000000)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("limit");
+    }
+
+    @Test
+    @DisplayName("The slots are returned in order, without repetitions")
+    public final void testGetSlots() {
+        Assertions.assertThat(new DiceTemplate("{level}d{die}+{con}-{level}").getSlots())
+            .containsExactly("level", "die", "con");
+    }
+
+    @Test
+    @DisplayName("An invalid expression is rejected")
+    public final void testTemplate_InvalidExpression() {
+        Assertions.assertThatThrownBy(() -> new DiceTemplate("{a}d6+"))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @ParameterizedTest(name = "Template: {0}")
+    @ValueSource(strings = { "1d6+{}", "1d6+{1a}", "1d6+{a-b}", "1d6+{bonus", "1{a}d6", "{a}1d6", "{a}{b}d6" })
+    @DisplayName("A malformed slot is rejected")
+    public final void testTemplate_MalformedSlot(final String text) {
+        Assertions.assertThatThrownBy(() -> new DiceTemplate(text))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}